@@ -0,0 +1,39 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.bench;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.openjdk.jmh.Main;
+
+/**
+ * Entry point of benchmarks.jar: runs JMH with the given arguments, writing
+ * results as JSON to jmh-result.json unless a result format or file is given.
+ */
+public final class Benchmarks {
+
+    private Benchmarks() {
+        throw new AssertionError("Benchmarks is not instantiable");
+    }
+
+    /**
+     * @param args - JMH command line arguments, see -h
+     * @throws Exception if JMH fails
+     */
+    public static void main(String[] args) throws Exception {
+        List<String> jmhArgs = new ArrayList<>(Arrays.asList(args));
+        if (!jmhArgs.contains("-rf")) {
+            jmhArgs.add("-rf");
+            jmhArgs.add("json");
+            if (!jmhArgs.contains("-rff")) {
+                jmhArgs.add("-rff");
+                jmhArgs.add("jmh-result.json");
+            }
+        }
+        Main.main(jmhArgs.toArray(new String[0]));
+    }
+
+}
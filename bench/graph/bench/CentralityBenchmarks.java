@@ -0,0 +1,93 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.bench;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import graph.FrozenGraph;
+import graph.IntGraph;
+import graph.algo.Centrality;
+import graph.algo.VertexScores;
+
+/**
+ * Average time of the parallel centrality measures of {@link Centrality} on
+ * a generated graph of about 10^6 edges by default, on a ForkJoinPool of
+ * parallelism threads; comparing scores across parallelism gives the scaling
+ * with cores.
+ *
+ * <p>The graph is frozen once per trial, so the measures do not pay for a
+ * snapshot. pageRank runs a fixed number of iterations, so every invocation
+ * does the same work.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx2g" })
+@State(Scope.Benchmark)
+public class CentralityBenchmarks {
+
+    // iterations of every pageRank invocation; tolerance 0 never stops it earlier
+    private static final int ITERATIONS = 10;
+    // hubs asked for
+    private static final int HUBS = 100;
+
+    /** Threads of the pool the measures run on. */
+    @Param({ "1", "2", "4", "8" })
+    public int parallelism;
+
+    @Param({ "250000" })
+    public int vertices;
+
+    @Param({ "4" })
+    public int averageDegree;
+
+    /** Zipf exponent of the in- and out-degree distributions, 0 for uniform. */
+    @Param({ "0", "1.0" })
+    public double skew;
+
+    FrozenGraph<String> graph;
+    ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void build() {
+        Workload workload = Workload.generate(vertices, averageDegree, skew, GraphState.SEED);
+        graph = workload.fill(new IntGraph<String>(vertices)).freeze();
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        pool.shutdown();
+        pool = null;
+        graph = null;
+    }
+
+    @Benchmark
+    public VertexScores<String> pageRank() {
+        return Centrality.pageRank(graph, Centrality.DEFAULT_DAMPING, 0, ITERATIONS, pool);
+    }
+
+    @Benchmark
+    public List<String> hubs() {
+        return Centrality.hubs(graph, HUBS, pool);
+    }
+
+}
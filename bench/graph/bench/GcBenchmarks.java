@@ -0,0 +1,156 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.bench;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import graph.Graph;
+
+/**
+ * Garbage collection cost of keeping a large graph, comparing the heap-based
+ * implementations with OffHeapGraph, whose vertices and edges the collector
+ * never traces.
+ *
+ * <p>fullGc times one full collection with the graph live, which is the
+ * pause a collection of the old generation costs for that graph. churn
+ * inserts and deletes edges in the live graph; run it with {@code -prof gc}
+ * for the bytes allocated per operation, and its secondary scores gcCount and
+ * gcMillis give the collections and collection time of each iteration.
+ * Every fork gets the same fixed heap, so pauses compare across
+ * implementations.
+ */
+@Fork(value = 1, jvmArgsAppend = { "-Xms3g", "-Xmx3g" })
+public class GcBenchmarks {
+
+    // edges inserted and deleted again per invocation of churn
+    private static final int BATCH = 4096;
+
+    /**
+     * A large graph of one implementation, built once per trial.
+     */
+    @State(Scope.Benchmark)
+    public static class LargeGraph {
+
+        @Param({ "CONCRETE_VERTICES", "HASHED_VERTICES", "OFF_HEAP" })
+        public GraphImplementation implementation;
+
+        @Param({ "1000000" })
+        public int vertices;
+
+        @Param({ "4" })
+        public int averageDegree;
+
+        /** Zipf exponent of the in- and out-degree distributions, 0 for uniform. */
+        @Param({ "1.0" })
+        public double skew;
+
+        Graph<String> graph;
+        String[][] nonEdges;
+
+        @Setup(Level.Trial)
+        public void build() {
+            Workload workload = Workload.generate(vertices, averageDegree, skew, GraphState.SEED);
+            graph = workload.fill(implementation.create());
+            nonEdges = workload.drawNonEdges(BATCH);
+        }
+
+        @TearDown(Level.Trial)
+        public void dispose() {
+            GraphImplementation.dispose(graph);
+            graph = null;
+        }
+    }
+
+    /**
+     * Collections and collection time during one iteration, from the
+     * GarbageCollectorMXBeans of the benchmark JVM. JMH reads the counters
+     * before iteration teardown, so each invocation brings them up to date.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Collections {
+        public long gcCount;
+        public long gcMillis;
+
+        private long startCount;
+        private long startMillis;
+
+        @Setup(Level.Iteration)
+        public void start() {
+            gcCount = 0;
+            gcMillis = 0;
+            startCount = totalCount();
+            startMillis = totalMillis();
+        }
+
+        void update() {
+            gcCount = totalCount() - startCount;
+            gcMillis = totalMillis() - startMillis;
+        }
+
+        private static long totalCount() {
+            long count = 0;
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                count += Math.max(0, collector.getCollectionCount());
+            }
+            return count;
+        }
+
+        private static long totalMillis() {
+            long millis = 0;
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                millis += Math.max(0, collector.getCollectionTime());
+            }
+            return millis;
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 10)
+    public void fullGc(LargeGraph state) {
+        System.gc();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 2, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    @OperationsPerInvocation(2 * BATCH)
+    public void churn(LargeGraph state, Collections collections) {
+        Graph<String> graph = state.graph;
+        String[] sources = state.nonEdges[0];
+        String[] targets = state.nonEdges[1];
+        for (int i = 0; i < sources.length; i++) {
+            graph.set(sources[i], targets[i], 1 + (i & 63));
+        }
+        for (int i = 0; i < sources.length; i++) {
+            graph.set(sources[i], targets[i], 0);
+        }
+        // a few MXBean reads per BATCH edges, negligible next to the batch
+        collections.update();
+    }
+
+}
@@ -0,0 +1,268 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.bench;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import graph.Graph;
+
+/**
+ * Average time of each Graph operation, over every {@link GraphState}
+ * parameter combination.
+ *
+ * <p>Observers and edge updates are measured one call per invocation, on
+ * vertices and edges drawn from the workload. Operations that change which
+ * vertices or edges exist are measured in batches that are undone after each
+ * invocation, outside the measured time, so the graph stays the same
+ * throughout a trial; their scores are per operation, not per batch.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GraphBenchmarks {
+
+    // number of draws cycled through by the one-call benchmarks, a power of two
+    private static final int DRAWS = 4096;
+    // edges or new vertices per invocation of a batched benchmark
+    private static final int BATCH = 256;
+    // vertices per invocation of remove, smaller since restoring one restores all its edges
+    private static final int REMOVE_BATCH = 64;
+
+    /**
+     * Vertices and edges for the one-call benchmarks, cycled through in order.
+     */
+    @State(Scope.Thread)
+    public static class Draws {
+        String[] vertices;
+        String[][] edges;
+        int next;
+        int weight;
+
+        @Setup(Level.Trial)
+        public void draw(GraphState state) {
+            vertices = state.workload.drawVertices(DRAWS);
+            edges = state.workload.drawEdges(DRAWS);
+        }
+
+        int nextIndex(int length) {
+            next = (next + 1) & (DRAWS - 1);
+            return next % length;
+        }
+    }
+
+    /**
+     * Pairs that are not edges, inserted by setInsert and deleted again after it.
+     */
+    @State(Scope.Thread)
+    public static class Inserts {
+        String[][] edges;
+
+        @Setup(Level.Trial)
+        public void draw(GraphState state) {
+            edges = state.workload.drawNonEdges(BATCH);
+            if (edges[0].length < BATCH) {
+                throw new IllegalStateException("workload has too few non-edges for a batch");
+            }
+        }
+
+        @TearDown(Level.Invocation)
+        public void undo(GraphState state) {
+            for (int i = 0; i < BATCH; i++) {
+                state.graph.set(edges[0][i], edges[1][i], 0);
+            }
+        }
+    }
+
+    /**
+     * Edges deleted by setDelete and put back after it.
+     */
+    @State(Scope.Thread)
+    public static class Deletes {
+        String[][] edges;
+        int[] weights;
+
+        @Setup(Level.Trial)
+        public void draw(GraphState state) {
+            edges = state.workload.drawEdges(BATCH);
+            if (edges[0].length < BATCH) {
+                throw new IllegalStateException("workload has too few edges for a batch");
+            }
+            weights = new int[BATCH];
+            for (int i = 0; i < BATCH; i++) {
+                weights[i] = state.graph.targets(edges[0][i]).get(edges[1][i]);
+            }
+        }
+
+        @TearDown(Level.Invocation)
+        public void undo(GraphState state) {
+            for (int i = 0; i < BATCH; i++) {
+                state.graph.set(edges[0][i], edges[1][i], weights[i]);
+            }
+        }
+    }
+
+    /**
+     * New vertices added by add and removed again after it.
+     */
+    @State(Scope.Thread)
+    public static class Adds {
+        String[] vertices;
+
+        @Setup(Level.Trial)
+        public void draw() {
+            vertices = new String[BATCH];
+            for (int i = 0; i < BATCH; i++) {
+                vertices[i] = "new" + i;
+            }
+        }
+
+        @TearDown(Level.Invocation)
+        public void undo(GraphState state) {
+            for (String vertex : vertices) {
+                state.graph.remove(vertex);
+            }
+        }
+    }
+
+    /**
+     * Distinct vertices removed by remove, and their edges, restored after it.
+     */
+    @State(Scope.Thread)
+    public static class Removes {
+        String[] vertices;
+        Map<String, Map<String, Integer>> targets;
+        Map<String, Map<String, Integer>> sources;
+
+        @Setup(Level.Trial)
+        public void draw(GraphState state) {
+            if (state.workload.vertexCount() < REMOVE_BATCH) {
+                throw new IllegalStateException("workload has too few vertices for a batch");
+            }
+            Set<String> distinct = new LinkedHashSet<>();
+            while (distinct.size() < REMOVE_BATCH) {
+                for (String vertex : state.workload.drawVertices(REMOVE_BATCH)) {
+                    if (distinct.size() < REMOVE_BATCH) {
+                        distinct.add(vertex);
+                    }
+                }
+            }
+            vertices = distinct.toArray(new String[0]);
+            targets = new HashMap<>();
+            sources = new HashMap<>();
+            for (String vertex : vertices) {
+                targets.put(vertex, state.graph.targets(vertex));
+                sources.put(vertex, state.graph.sources(vertex));
+            }
+        }
+
+        @TearDown(Level.Invocation)
+        public void undo(GraphState state) {
+            Graph<String> graph = state.graph;
+            for (String vertex : vertices) {
+                graph.add(vertex);
+            }
+            for (String vertex : vertices) {
+                for (Map.Entry<String, Integer> target : targets.get(vertex).entrySet()) {
+                    graph.set(vertex, target.getKey(), target.getValue());
+                }
+                for (Map.Entry<String, Integer> source : sources.get(vertex).entrySet()) {
+                    graph.set(source.getKey(), vertex, source.getValue());
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public Map<String, Integer> targets(GraphState state, Draws draws) {
+        return state.graph.targets(draws.vertices[draws.nextIndex(DRAWS)]);
+    }
+
+    @Benchmark
+    public Map<String, Integer> sources(GraphState state, Draws draws) {
+        return state.graph.sources(draws.vertices[draws.nextIndex(DRAWS)]);
+    }
+
+    @Benchmark
+    public Set<String> vertices(GraphState state) {
+        return state.graph.vertices();
+    }
+
+    @Benchmark
+    public int setUpdate(GraphState state, Draws draws) {
+        int i = draws.nextIndex(draws.edges[0].length);
+        draws.weight = draws.weight % 100 + 1;
+        return state.graph.set(draws.edges[0][i], draws.edges[1][i], draws.weight);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int setInsert(GraphState state, Inserts inserts) {
+        Graph<String> graph = state.graph;
+        String[][] edges = inserts.edges;
+        int previous = 0;
+        for (int i = 0; i < BATCH; i++) {
+            previous += graph.set(edges[0][i], edges[1][i], 1);
+        }
+        return previous;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int setDelete(GraphState state, Deletes deletes) {
+        Graph<String> graph = state.graph;
+        String[][] edges = deletes.edges;
+        int previous = 0;
+        for (int i = 0; i < BATCH; i++) {
+            previous += graph.set(edges[0][i], edges[1][i], 0);
+        }
+        return previous;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int add(GraphState state, Adds adds) {
+        Graph<String> graph = state.graph;
+        int added = 0;
+        for (String vertex : adds.vertices) {
+            if (graph.add(vertex)) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REMOVE_BATCH)
+    public int remove(GraphState state, Removes removes) {
+        Graph<String> graph = state.graph;
+        int removed = 0;
+        for (String vertex : removes.vertices) {
+            if (graph.remove(vertex)) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+}
@@ -0,0 +1,78 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.bench;
+
+import graph.AdjacencyMode;
+import graph.ConcreteEdgesGraph;
+import graph.ConcreteVerticesGraph;
+import graph.ConcurrentGraph;
+import graph.Graph;
+import graph.InstrumentedGraph;
+import graph.IntGraph;
+import graph.OffHeapGraph;
+
+/**
+ * The mutable Graph implementations the benchmarks compare, named as they
+ * are given to the implementation parameter. INSTRUMENTED is HASHED_VERTICES
+ * wrapped in an InstrumentedGraph with its default latency sampling, so the
+ * difference between the two is the overhead of instrumenting a call.
+ */
+public enum GraphImplementation {
+
+    CONCRETE_EDGES {
+        @Override public Graph<String> create() {
+            return new ConcreteEdgesGraph<>();
+        }
+    },
+    CONCRETE_VERTICES {
+        @Override public Graph<String> create() {
+            return new ConcreteVerticesGraph<>();
+        }
+    },
+    HASHED_VERTICES {
+        @Override public Graph<String> create() {
+            return new ConcreteVerticesGraph<>(AdjacencyMode.HASHED);
+        }
+    },
+    INT {
+        @Override public Graph<String> create() {
+            return new IntGraph<>();
+        }
+    },
+    CONCURRENT {
+        @Override public Graph<String> create() {
+            return new ConcurrentGraph<>();
+        }
+    },
+    OFF_HEAP {
+        @Override public Graph<String> create() {
+            return new OffHeapGraph();
+        }
+    },
+    INSTRUMENTED {
+        @Override public Graph<String> create() {
+            return new InstrumentedGraph<>(new ConcreteVerticesGraph<>(AdjacencyMode.HASHED));
+        }
+    };
+
+    /**
+     * @return a new empty graph of this implementation
+     */
+    public abstract Graph<String> create();
+
+    /**
+     * Releases what a graph made by create() holds outside the heap, if anything
+     * @param graph - graph made by create()
+     */
+    public static void dispose(Graph<String> graph) {
+        if (graph instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) graph).close();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,55 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.bench;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import graph.Graph;
+
+/**
+ * A graph of one implementation filled with a generated workload, built once
+ * per trial and shared by the benchmarks in {@link GraphBenchmarks}. The
+ * benchmarks that mutate it restore it after every invocation, so every
+ * measurement sees the same graph.
+ */
+@State(Scope.Thread)
+public class GraphState {
+
+    /** Seed of the workload, fixed so that runs of different releases compare the same graphs. */
+    public static final long SEED = 6005;
+
+    @Param
+    public GraphImplementation implementation;
+
+    @Param({ "1000", "100000" })
+    public int vertices;
+
+    @Param({ "4", "16" })
+    public int averageDegree;
+
+    /** Zipf exponent of the in- and out-degree distributions, 0 for uniform. */
+    @Param({ "0", "1.0" })
+    public double skew;
+
+    Workload workload;
+    Graph<String> graph;
+
+    @Setup(Level.Trial)
+    public void build() {
+        workload = Workload.generate(vertices, averageDegree, skew, SEED);
+        graph = workload.fill(implementation.create());
+    }
+
+    @TearDown(Level.Trial)
+    public void dispose() {
+        GraphImplementation.dispose(graph);
+        graph = null;
+    }
+
+}
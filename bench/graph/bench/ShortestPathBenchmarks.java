@@ -0,0 +1,108 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import graph.IntGraph;
+import graph.algo.Cost;
+import graph.algo.Path;
+import graph.algo.ShortestPaths;
+
+/**
+ * Average time of one shortest-path query of {@link ShortestPaths}, on a
+ * generated graph of about 10^6 edges by default, between pairs of vertices
+ * drawn from the workload.
+ *
+ * <p>dijkstra runs a single-source search from the source until the target
+ * is settled, or until every vertex reachable from the source is, if the
+ * target is not; bidirectional searches from both ends until they meet;
+ * withinHops relaxes at most maxHops layers of edges.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx2g" })
+public class ShortestPathBenchmarks {
+
+    // number of pairs cycled through, a power of two
+    private static final int PAIRS = 1024;
+
+    /**
+     * A search engine over a frozen workload graph, and pairs of vertices to
+     * query it with, cycled through in order.
+     */
+    @State(Scope.Thread)
+    public static class Engine {
+
+        @Param({ "250000" })
+        public int vertices;
+
+        @Param({ "4" })
+        public int averageDegree;
+
+        /** Zipf exponent of the in- and out-degree distributions, 0 for uniform. */
+        @Param({ "0", "1.0" })
+        public double skew;
+
+        @Param
+        public Cost cost;
+
+        /** Largest number of edges in a path found by withinHops. */
+        @Param({ "3" })
+        public int maxHops;
+
+        ShortestPaths<String> paths;
+        String[] sources;
+        String[] targets;
+        int next;
+
+        @Setup(Level.Trial)
+        public void build() {
+            Workload workload = Workload.generate(vertices, averageDegree, skew, GraphState.SEED);
+            // the engine freezes the graph, so the mutable one is garbage once it is built
+            paths = new ShortestPaths<>(workload.fill(new IntGraph<String>(vertices)), cost);
+            sources = workload.drawVertices(PAIRS);
+            targets = workload.drawVertices(PAIRS);
+        }
+
+        int nextPair() {
+            next = (next + 1) & (PAIRS - 1);
+            return next;
+        }
+    }
+
+    @Benchmark
+    public double dijkstra(Engine engine) {
+        int i = engine.nextPair();
+        return engine.paths.distance(engine.sources[i], engine.targets[i]);
+    }
+
+    @Benchmark
+    public Path<String> bidirectional(Engine engine) {
+        int i = engine.nextPair();
+        return engine.paths.shortestPathBidirectional(engine.sources[i], engine.targets[i]);
+    }
+
+    @Benchmark
+    public Path<String> withinHops(Engine engine) {
+        int i = engine.nextPair();
+        return engine.paths.shortestPathWithinHops(engine.sources[i], engine.targets[i], engine.maxHops);
+    }
+
+}
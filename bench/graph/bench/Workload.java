@@ -0,0 +1,208 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.bench;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import graph.Graph;
+
+/**
+ * A reproducible random graph with a given number of vertices, average
+ * out-degree and degree skew, and random draws of vertices and edges to
+ * query or mutate it with.
+ *
+ * <p>Sources and targets of edges are drawn from Zipf distributions with
+ * exponent skew over two independent rankings of the vertices, so with skew
+ * 0 degrees are close to uniform and around 1 a few hub vertices have most of
+ * the edges. Vertices to query are drawn from the source distribution, so
+ * queries hit hubs as often as edges leave them.
+ */
+public final class Workload {
+
+    // rough cap on draws per edge when skew leaves few distinct pairs to find
+    private static final int MAX_DRAWS_PER_EDGE = 64;
+
+    private final String[] labels;
+    private final int[] edgeSources;
+    private final int[] edgeTargets;
+    private final int[] edgeWeights;
+    private final Set<Long> edges;
+    private final ZipfSampler zipf;
+    private final int[] targetRanking;
+    private final Random random;
+
+    // Abstraction function:
+    //   represents the graph on vertices labels[0..n-1] with an edge from
+    //   labels[edgeSources[i]] to labels[edgeTargets[i]] of weight edgeWeights[i],
+    //   and the stream of draws made with random
+    // Representation invariant:
+    //   edge arrays have equal lengths, pairs are distinct and listed in edges,
+    //   weights are positive, targetRanking is a permutation of [0, n)
+    // Safety from rep exposure:
+    //   arrays are private and only read through index methods
+
+    private Workload(String[] labels, int[] edgeSources, int[] edgeTargets, int[] edgeWeights, Set<Long> edges,
+            ZipfSampler zipf, int[] targetRanking, Random random) {
+        this.labels = labels;
+        this.edgeSources = edgeSources;
+        this.edgeTargets = edgeTargets;
+        this.edgeWeights = edgeWeights;
+        this.edges = edges;
+        this.zipf = zipf;
+        this.targetRanking = targetRanking;
+        this.random = random;
+    }
+
+    /**
+     * Generate a workload; the same arguments always give the same workload.
+     * @param vertices - number of vertices, positive
+     * @param averageDegree - average number of edges leaving a vertex, nonnegative;
+     *                        fewer edges are made if skew leaves too few distinct pairs
+     * @param skew - Zipf exponent of the degree distributions, nonnegative
+     * @param seed - seed of the random draws
+     * @return the workload
+     */
+    public static Workload generate(int vertices, int averageDegree, double skew, long seed) {
+        Random random = new Random(seed);
+        String[] labels = new String[vertices];
+        for (int v = 0; v < vertices; v++) {
+            labels[v] = "v" + v;
+        }
+        int[] targetRanking = new int[vertices];
+        for (int v = 0; v < vertices; v++) {
+            int other = random.nextInt(v + 1);
+            targetRanking[v] = targetRanking[other];
+            targetRanking[other] = v;
+        }
+        ZipfSampler zipf = new ZipfSampler(vertices, skew);
+        int wanted = (int) Math.min((long) vertices * averageDegree, (long) vertices * vertices);
+        int[] sources = new int[wanted];
+        int[] targets = new int[wanted];
+        int[] weights = new int[wanted];
+        Set<Long> edges = new HashSet<>();
+        int count = 0;
+        for (long draws = 0; count < wanted && draws < (long) wanted * MAX_DRAWS_PER_EDGE; draws++) {
+            int source = zipf.next(random);
+            int target = targetRanking[zipf.next(random)];
+            if (edges.add(key(source, target))) {
+                sources[count] = source;
+                targets[count] = target;
+                weights[count] = 1 + random.nextInt(100);
+                count++;
+            }
+        }
+        return new Workload(labels, trim(sources, count), trim(targets, count), trim(weights, count), edges,
+                zipf, targetRanking, random);
+    }
+
+    private static long key(int source, int target) {
+        return (long) source << Integer.SIZE | (target & 0xFFFFFFFFL);
+    }
+
+    private static int[] trim(int[] array, int length) {
+        int[] trimmed = new int[length];
+        System.arraycopy(array, 0, trimmed, 0, length);
+        return trimmed;
+    }
+
+    /**
+     * @return number of vertices
+     */
+    public int vertexCount() {
+        return labels.length;
+    }
+
+    /**
+     * @return number of edges
+     */
+    public int edgeCount() {
+        return edgeSources.length;
+    }
+
+    /**
+     * @param vertex - index in [0, vertexCount())
+     * @return label of that vertex
+     */
+    public String label(int vertex) {
+        return labels[vertex];
+    }
+
+    /**
+     * Adds every vertex and edge of this workload to a graph
+     * @param graph - graph to fill, should be empty
+     * @return graph
+     */
+    public Graph<String> fill(Graph<String> graph) {
+        for (String label : labels) {
+            graph.add(label);
+        }
+        for (int i = 0; i < edgeSources.length; i++) {
+            graph.set(labels[edgeSources[i]], labels[edgeTargets[i]], edgeWeights[i]);
+        }
+        return graph;
+    }
+
+    /**
+     * @param count - number of vertices to draw
+     * @return labels of count vertices drawn from the source distribution, with repetition
+     */
+    public String[] drawVertices(int count) {
+        String[] drawn = new String[count];
+        for (int i = 0; i < count; i++) {
+            drawn[i] = labels[zipf.next(random)];
+        }
+        return drawn;
+    }
+
+    /**
+     * @param count - number of edges to draw
+     * @return {sources, targets}, labels of count distinct edges of this workload,
+     *         drawn uniformly
+     */
+    public String[][] drawEdges(int count) {
+        count = Math.min(count, edgeSources.length);
+        String[][] drawn = new String[2][count];
+        Set<Integer> chosen = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            int edge;
+            do {
+                edge = random.nextInt(edgeSources.length);
+            } while (!chosen.add(edge));
+            drawn[0][i] = labels[edgeSources[edge]];
+            drawn[1][i] = labels[edgeTargets[edge]];
+        }
+        return drawn;
+    }
+
+    /**
+     * @param count - number of pairs to draw
+     * @return {sources, targets}, labels of at most count distinct pairs of vertices
+     *         that are not edges of this workload, drawn as edges are
+     */
+    public String[][] drawNonEdges(int count) {
+        String[][] drawn = new String[2][count];
+        Set<Long> chosen = new HashSet<>();
+        int found = 0;
+        for (long draws = 0; found < count && draws < (long) count * MAX_DRAWS_PER_EDGE; draws++) {
+            int source = zipf.next(random);
+            int target = targetRanking[zipf.next(random)];
+            long key = key(source, target);
+            if (!edges.contains(key) && chosen.add(key)) {
+                drawn[0][found] = labels[source];
+                drawn[1][found] = labels[target];
+                found++;
+            }
+        }
+        if (found < count) {
+            String[][] fewer = new String[2][found];
+            System.arraycopy(drawn[0], 0, fewer[0], 0, found);
+            System.arraycopy(drawn[1], 0, fewer[1], 0, found);
+            return fewer;
+        }
+        return drawn;
+    }
+
+}
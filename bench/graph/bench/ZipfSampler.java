@@ -0,0 +1,68 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.bench;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Draws ranks in [0, n) from a Zipf distribution with exponent skew, where
+ * rank k is drawn with probability proportional to 1 / (k + 1)^skew. A skew
+ * of 0 is uniform; around 1 a few ranks take most of the draws, as word
+ * frequencies in natural text do.
+ */
+public final class ZipfSampler {
+
+    private final double[] cumulative;
+
+    // Abstraction function:
+    //   represents the distribution where rank k has probability
+    //   cumulative[k] - cumulative[k-1] (cumulative[-1] taken as 0)
+    // Representation invariant:
+    //   cumulative is nondecreasing, cumulative[n-1] == 1
+    // Safety from rep exposure:
+    //   cumulative is private and never returned
+
+    /**
+     * Make a sampler.
+     * @param n - number of ranks, positive
+     * @param skew - Zipf exponent, nonnegative
+     * @throws IllegalArgumentException if n or skew is out of range
+     */
+    public ZipfSampler(int n, double skew) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n must be positive: " + n);
+        }
+        if (!(skew >= 0)) {
+            throw new IllegalArgumentException("skew must be nonnegative: " + skew);
+        }
+        cumulative = new double[n];
+        double total = 0;
+        for (int k = 0; k < n; k++) {
+            total += 1 / Math.pow(k + 1, skew);
+            cumulative[k] = total;
+        }
+        for (int k = 0; k < n; k++) {
+            cumulative[k] /= total;
+        }
+        cumulative[n - 1] = 1;
+    }
+
+    /**
+     * @return number of ranks
+     */
+    public int size() {
+        return cumulative.length;
+    }
+
+    /**
+     * @param random - source of randomness
+     * @return a rank in [0, size()) drawn from this distribution
+     */
+    public int next(Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return index >= 0 ? index : Math.min(-index - 1, cumulative.length - 1);
+    }
+
+}
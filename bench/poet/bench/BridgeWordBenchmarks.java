@@ -0,0 +1,119 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import graph.Graph;
+import poet.GraphPoet;
+
+/**
+ * Average time of GraphPoet.getBridgeWord() on pairs of words that have a
+ * bridge word, either between the most frequent words of the corpus, which
+ * have the most neighbors, or from a rare word.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BridgeWordBenchmarks {
+
+    // number of pairs cycled through, a power of two
+    private static final int PAIRS = 256;
+    // words of rank below this are hubs
+    private static final int HUBS = 16;
+    // rough cap on the words tried per pair
+    private static final int MAX_TRIES = 10000;
+
+    /**
+     * Which pairs of words to look bridges up for.
+     */
+    public enum PairKind {
+        /** Both words are among the most frequent of the corpus. */
+        HUB,
+        /** The first word is in the rarer half of the vocabulary. */
+        RARE
+    }
+
+    /**
+     * Pairs of words with a bridge word, cycled through in order.
+     */
+    @State(Scope.Thread)
+    public static class Pairs {
+
+        @Param
+        public PairKind pairs;
+
+        String[] firsts;
+        String[] seconds;
+        int next;
+
+        @Setup(Level.Trial)
+        public void draw(CorpusState corpus, PoetState poet) {
+            Random random = new Random(CorpusState.SEED);
+            List<String> firstList = new ArrayList<>();
+            List<String> secondList = new ArrayList<>();
+            for (int tries = 0; firstList.size() < PAIRS && tries < PAIRS * MAX_TRIES; tries++) {
+                String[] pair = pairs == PairKind.HUB
+                        ? hubPair(poet.poet, random)
+                        : rarePair(poet.poet, corpus.vocabulary, random);
+                if (pair != null) {
+                    firstList.add(pair[0]);
+                    secondList.add(pair[1]);
+                }
+            }
+            if (firstList.size() < PAIRS) {
+                throw new IllegalStateException("corpus has too few " + pairs + " pairs with a bridge");
+            }
+            firsts = firstList.toArray(new String[0]);
+            seconds = secondList.toArray(new String[0]);
+        }
+
+        private static String[] hubPair(GraphPoet poet, Random random) {
+            String first = CorpusGenerator.word(random.nextInt(HUBS));
+            String second = CorpusGenerator.word(random.nextInt(HUBS));
+            return poet.bridgeAvailable(first, second) ? new String[] { first, second } : null;
+        }
+
+        private static String[] rarePair(GraphPoet poet, int vocabulary, Random random) {
+            Graph<String> graph = poet.getGraph();
+            String first = CorpusGenerator.word(vocabulary / 2 + random.nextInt(vocabulary - vocabulary / 2));
+            String bridge = anyKey(graph.targets(first), random);
+            String second = bridge == null ? null : anyKey(graph.targets(bridge), random);
+            return second == null ? null : new String[] { first, second };
+        }
+
+        private static String anyKey(Map<String, Integer> map, Random random) {
+            if (map.isEmpty()) {
+                return null;
+            }
+            return new ArrayList<>(map.keySet()).get(random.nextInt(map.size()));
+        }
+    }
+
+    @Benchmark
+    public String getBridgeWord(PoetState poet, Pairs pairs) {
+        pairs.next = (pairs.next + 1) & (PAIRS - 1);
+        return poet.poet.getBridgeWord(pairs.firsts[pairs.next], pairs.seconds[pairs.next]);
+    }
+
+}
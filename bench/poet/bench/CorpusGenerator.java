@@ -0,0 +1,169 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet.bench;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Random;
+
+import graph.bench.ZipfSampler;
+
+/**
+ * Writes synthetic corpora for GraphPoet: words drawn from a Zipf
+ * distribution over a fixed vocabulary, in lines of a few words, with some
+ * words followed by punctuation and capitalized after a full stop, as in
+ * prose. The same arguments always give the same corpus.
+ *
+ * <p>Word of rank k is {@link #word(int) word(k)}, made of syllables so that
+ * frequent words are short, as they are in natural language.
+ */
+public final class CorpusGenerator {
+
+    private static final String[] SYLLABLES = {
+        "ka", "lo", "mi", "ne", "ru", "sa", "ti", "vo", "be", "da",
+        "fo", "gu", "ha", "je", "pi", "qu", "ro", "se", "tu", "ze"
+    };
+    private static final int WORDS_PER_LINE = 12;
+
+    private CorpusGenerator() {
+        throw new AssertionError("CorpusGenerator is not instantiable");
+    }
+
+    /**
+     * @param rank - rank of a word, nonnegative
+     * @return the vocabulary word of that rank, lower case ASCII letters; distinct
+     *         ranks give distinct words
+     */
+    public static String word(int rank) {
+        StringBuilder word = new StringBuilder();
+        int rest = rank;
+        do {
+            word.append(SYLLABLES[rest % SYLLABLES.length]);
+            rest /= SYLLABLES.length;
+        } while (rest > 0);
+        return word.toString();
+    }
+
+    /**
+     * Parses a size such as "1MB", "64MB" or "1GB"; units are powers of 1024
+     * @param size - a number of bytes, optionally followed by KB, MB or GB
+     * @return number of bytes
+     * @throws NumberFormatException if size is not in that form
+     */
+    public static long parseSize(String size) {
+        String upper = size.trim().toUpperCase(Locale.ROOT);
+        long unit = 1;
+        if (upper.endsWith("KB")) {
+            unit = 1L << 10;
+        } else if (upper.endsWith("MB")) {
+            unit = 1L << 20;
+        } else if (upper.endsWith("GB")) {
+            unit = 1L << 30;
+        }
+        String number = unit == 1 ? upper : upper.substring(0, upper.length() - 2).trim();
+        return Long.parseLong(number) * unit;
+    }
+
+    /**
+     * Writes a corpus
+     * @param out - writer to write the corpus to, not closed
+     * @param bytes - the corpus ends at the end of the first line that reaches this many bytes
+     * @param vocabulary - number of distinct words, positive
+     * @param skew - Zipf exponent of word frequencies, nonnegative
+     * @param seed - seed of the random draws
+     * @return number of words written
+     * @throws IOException if out fails
+     */
+    public static long write(Writer out, long bytes, int vocabulary, double skew, long seed) throws IOException {
+        Random random = new Random(seed);
+        ZipfSampler zipf = new ZipfSampler(vocabulary, skew);
+        long written = 0;
+        long words = 0;
+        boolean sentenceStart = true;
+        while (written < bytes) {
+            for (int i = 0; i < WORDS_PER_LINE; i++) {
+                String word = word(zipf.next(random));
+                if (sentenceStart) {
+                    word = Character.toUpperCase(word.charAt(0)) + word.substring(1);
+                }
+                int mark = random.nextInt(16);
+                sentenceStart = mark == 0;
+                if (mark == 0) {
+                    word += ".";
+                } else if (mark == 1) {
+                    word += ",";
+                }
+                if (i > 0) {
+                    out.write(' ');
+                    written++;
+                }
+                out.write(word);
+                written += word.length();
+                words++;
+            }
+            out.write('\n');
+            written++;
+        }
+        return words;
+    }
+
+    /**
+     * Gets a corpus file, writing it into the cache directory
+     * java.io.tmpdir/graph-poet-bench unless a previous call already did
+     * @param bytes - approximate size of the corpus, see write()
+     * @param vocabulary - number of distinct words, positive
+     * @param skew - Zipf exponent of word frequencies, nonnegative
+     * @param seed - seed of the random draws
+     * @return the corpus file
+     * @throws IOException if the file cannot be written
+     */
+    public static File cached(long bytes, int vocabulary, double skew, long seed) throws IOException {
+        File directory = new File(System.getProperty("java.io.tmpdir"), "graph-poet-bench");
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("cannot create " + directory);
+        }
+        File corpus = new File(directory, "corpus-" + bytes + "-" + vocabulary + "-" + skew + "-" + seed + ".txt");
+        if (!corpus.isFile()) {
+            File partial = File.createTempFile("corpus", ".part", directory);
+            try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                    new FileOutputStream(partial), StandardCharsets.US_ASCII), 1 << 16)) {
+                write(out, bytes, vocabulary, skew, seed);
+            } catch (IOException | RuntimeException e) {
+                partial.delete();
+                throw e;
+            }
+            Files.move(partial.toPath(), corpus.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        return corpus;
+    }
+
+    /**
+     * Writes a corpus to a file.
+     * @param args - file, size such as 1GB, and optionally vocabulary, skew and seed
+     * @throws IOException if the file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: CorpusGenerator file size [vocabulary [skew [seed]]]");
+            System.exit(2);
+        }
+        int vocabulary = args.length > 2 ? Integer.parseInt(args[2]) : CorpusState.DEFAULT_VOCABULARY;
+        double skew = args.length > 3 ? Double.parseDouble(args[3]) : CorpusState.DEFAULT_SKEW;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : CorpusState.SEED;
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(args[0]), StandardCharsets.US_ASCII), 1 << 16)) {
+            long words = write(out, parseSize(args[1]), vocabulary, skew, seed);
+            System.out.println(words + " words");
+        }
+    }
+
+}
@@ -0,0 +1,104 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet.bench;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import graph.Graph;
+import graph.bench.GraphImplementation;
+import poet.GraphPoet;
+
+/**
+ * A synthetic corpus written by {@link CorpusGenerator}, and the Graph
+ * implementation to build poets from it in. Corpus files are cached between
+ * runs, so only the first run with a given size pays for writing one.
+ */
+@State(Scope.Benchmark)
+public class CorpusState {
+
+    /** Seed of the corpus, fixed so that runs of different releases read the same text. */
+    public static final long SEED = 6005;
+    /** Vocabulary of the default corpus, as in the vocabulary parameter. */
+    public static final int DEFAULT_VOCABULARY = 50000;
+    /** Skew of the default corpus, as in the skew parameter. */
+    public static final double DEFAULT_SKEW = 1.0;
+
+    @Param
+    public GraphImplementation implementation;
+
+    /** Size of the corpus, such as 1MB or 1GB. */
+    @Param({ "1MB" })
+    public String corpusSize;
+
+    /** Number of distinct words in the corpus. */
+    @Param({ "50000" })
+    public int vocabulary;
+
+    /** Zipf exponent of word frequencies; about 1 in natural text. */
+    @Param({ "1.0" })
+    public double skew;
+
+    File corpus;
+    long words;
+
+    @Setup(Level.Trial)
+    public void prepare() throws IOException {
+        corpus = CorpusGenerator.cached(CorpusGenerator.parseSize(corpusSize), vocabulary, skew, SEED);
+        words = countWords(corpus);
+    }
+
+    /**
+     * @param file - text file
+     * @return number of words in file, as GraphPoet splits it
+     * @throws IOException if the file cannot be read
+     */
+    private static long countWords(File file) throws IOException {
+        long count = 0;
+        boolean inWord = false;
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file), 1 << 16)) {
+            for (int b = in.read(); b != -1; b = in.read()) {
+                boolean space = Character.isWhitespace(b);
+                if (!space && !inWord) {
+                    count++;
+                }
+                inWord = !space;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return a new poet of the corpus, in a new graph of the implementation
+     * @throws IOException if the corpus cannot be read
+     */
+    GraphPoet newPoet() throws IOException {
+        return newPoet(1);
+    }
+
+    /**
+     * @param parallelism - number of threads to read the corpus with
+     * @return a new poet of the corpus, in a new graph of the implementation
+     * @throws IOException if the corpus cannot be read
+     */
+    GraphPoet newPoet(int parallelism) throws IOException {
+        Graph<String> graph = implementation.create();
+        try {
+            return GraphPoet.builder().graph(graph).parallelism(parallelism).build(corpus);
+        } catch (IOException | RuntimeException e) {
+            GraphImplementation.dispose(graph);
+            throw e;
+        }
+    }
+
+}
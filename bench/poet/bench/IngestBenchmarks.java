@@ -0,0 +1,66 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet.bench;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import graph.bench.GraphImplementation;
+import poet.GraphPoet;
+
+/**
+ * Throughput of building a GraphPoet from a corpus file. The primary score is
+ * corpora per second; the secondary score ingest:words is words per second.
+ * With parallelism above 1 the corpus is read in chunks by that many threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IngestBenchmarks {
+
+    /** Number of threads that read the corpus. */
+    @Param({ "1" })
+    public int parallelism;
+
+    /**
+     * Words read in the current iteration, reported as a rate by JMH.
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Words {
+        public long words;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            words = 0;
+        }
+    }
+
+    @Benchmark
+    public void ingest(CorpusState corpus, Words words, Blackhole blackhole) throws IOException {
+        GraphPoet poet = corpus.newPoet(parallelism);
+        blackhole.consume(poet);
+        words.words += corpus.words;
+        GraphImplementation.dispose(poet.getGraph());
+    }
+
+}
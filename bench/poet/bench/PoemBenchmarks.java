@@ -0,0 +1,79 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import graph.bench.ZipfSampler;
+
+/**
+ * Latency and throughput of GraphPoet.poem() on inputs of words drawn with
+ * the corpus's own frequencies. SampleTime gives the latency distribution,
+ * including the percentiles SLOs are set on.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PoemBenchmarks {
+
+    // number of inputs cycled through, a power of two
+    private static final int INPUTS = 64;
+
+    /**
+     * Inputs to poem(), cycled through in order.
+     */
+    @State(Scope.Thread)
+    public static class Inputs {
+
+        /** Number of words in an input; a line of verse, or a page. */
+        @Param({ "8", "512" })
+        public int inputWords;
+
+        String[] inputs;
+        int next;
+
+        @Setup(Level.Trial)
+        public void draw(CorpusState corpus) {
+            Random random = new Random(CorpusState.SEED);
+            ZipfSampler zipf = new ZipfSampler(corpus.vocabulary, corpus.skew);
+            inputs = new String[INPUTS];
+            for (int i = 0; i < INPUTS; i++) {
+                StringBuilder input = new StringBuilder();
+                for (int w = 0; w < inputWords; w++) {
+                    String word = CorpusGenerator.word(zipf.next(random));
+                    if (w == 0) {
+                        word = Character.toUpperCase(word.charAt(0)) + word.substring(1);
+                    } else {
+                        input.append(' ');
+                    }
+                    input.append(word);
+                }
+                inputs[i] = input.append('.').toString();
+            }
+        }
+    }
+
+    @Benchmark
+    public String poem(PoetState poet, Inputs inputs) {
+        inputs.next = (inputs.next + 1) & (INPUTS - 1);
+        return poet.poet.poem(inputs.inputs[inputs.next]);
+    }
+
+}
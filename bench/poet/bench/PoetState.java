@@ -0,0 +1,51 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet.bench;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import graph.Graph;
+import graph.bench.GraphImplementation;
+import poet.GraphPoet;
+
+/**
+ * A GraphPoet of a {@link CorpusState} corpus, built once per trial.
+ */
+@State(Scope.Benchmark)
+public class PoetState {
+
+    /** Word pairs whose bridge word the poet caches, 0 for no cache. */
+    @Param({ "0" })
+    public int bridgeCacheSize;
+
+    GraphPoet poet;
+    // the poet's graph as created, since with a cache getGraph() returns a wrapper of it
+    private Graph<String> graph;
+
+    @Setup(Level.Trial)
+    public void build(CorpusState corpus) throws IOException {
+        graph = corpus.implementation.create();
+        try {
+            poet = GraphPoet.builder().graph(graph).bridgeCacheSize(bridgeCacheSize).build(corpus.corpus);
+        } catch (IOException | RuntimeException e) {
+            GraphImplementation.dispose(graph);
+            throw e;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void dispose() {
+        GraphImplementation.dispose(graph);
+        graph = null;
+        poet = null;
+    }
+
+}
@@ -0,0 +1,47 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * How a {@link ConcreteVerticesGraph} keeps the edges of each vertex.
+ */
+public enum AdjacencyMode {
+
+    /**
+     * Edges are kept in tree maps ordered by the string form of the neighbor's
+     * label, and targets() and sources() return maps sorted by label. Each
+     * edge lookup or update takes O(log d) comparisons of label strings, for a
+     * vertex with d neighbors.
+     */
+    SORTED {
+        @Override <K, V> Map<K, V> newMap() {
+            return new TreeMap<>();
+        }
+    },
+
+    /**
+     * Edges are kept in hash maps keyed by the neighbor vertex itself and
+     * hashed by its label, and targets() and sources() return unordered maps,
+     * in an order that only depends on the labels and on the operations that
+     * built the graph, so it is the same in every run. Each edge lookup or
+     * update takes O(1) expected time and never converts a label to a string;
+     * callers that need sorted neighbors sort the returned map themselves.
+     */
+    HASHED {
+        @Override <K, V> Map<K, V> newMap() {
+            return new HashMap<>();
+        }
+    };
+
+    /**
+     * @return a new empty map with the ordering of this mode; in SORTED mode
+     *         the keys must be Comparable
+     */
+    abstract <K, V> Map<K, V> newMap();
+
+}
@@ -3,11 +3,18 @@
  */
 package graph;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.function.ObjIntConsumer;
 import java.util.Set;
 
 /**
@@ -18,15 +25,22 @@ import java.util.Set;
 public class ConcreteEdgesGraph<L> implements Graph<L> {
     
     private final Set<L> vertices = new HashSet<>();
-    private final List<Edge<L>> edges = new ArrayList<>();
+    private final Set<Edge<L>> edges = new LinkedHashSet<>();
+    private final Map<L, Map<L, Edge<L>>> outgoing = new HashMap<>();
+    private final Map<L, Map<L, Edge<L>>> incoming = new HashMap<>();
+    private final Set<L> verticesView = Collections.unmodifiableSet(vertices);
     
     // Abstraction function:
     //   represents a graph, in which vertices might be connected via weighted edges
     // Representation invariant:
     //   Edges have positive weights, zero weights delete edge from graph
+    //   outgoing.get(s).get(t) and incoming.get(t).get(s) are the edge from s to t in edges,
+    //   for every edge in edges and nothing else; inner maps are never empty
     // Safety from rep exposure:
     //   All fields are private
     //   vertices are mutable sets, therefore vertices() makes defensive copies
+    //   outgoing and incoming are never returned, targets() and sources() copy from them
+    //   verticesView, targetsView() and sourcesView() are unmodifiable views
     
     // constructor
     public ConcreteEdgesGraph() {
@@ -37,11 +51,77 @@ public class ConcreteEdgesGraph<L> implements Graph<L> {
 	// checkRep
     private void checkRep() {
 		assert vertices!=null;
-		for (Edge<L> edge:edges) {
-			assert edge.getWeight()>0;
-		}
+		// the walk over every edge is inside the assert, so it costs nothing without -ea
+		assert allWeightsPositive();
 	}
     
+    /**
+     * @return true if every edge in edges has a positive weight
+     */
+    private boolean allWeightsPositive() {
+    	for (Edge<L> edge:edges) {
+    		if (edge.getWeight() <= 0) {
+    			return false;
+    		}
+    	}
+    	return true;
+    }
+    
+    // Additional methods:
+    
+    // putEdge()
+    /**
+     * Adds edge to edges and to both indexes
+     * @param edge - edge to be added
+     */
+    private void putEdge(Edge<L> edge) {
+    	edges.add(edge);
+    	index(outgoing, edge.getSource()).put(edge.getTarget(), edge);
+    	index(incoming, edge.getTarget()).put(edge.getSource(), edge);
+    }
+    
+    // removeEdge()
+    /**
+     * Removes edge from edges and from both indexes
+     * @param edge - edge to be removed, must be in edges
+     */
+    private void removeEdge(Edge<L> edge) {
+    	edges.remove(edge);
+    	unindex(outgoing, edge.getSource(), edge.getTarget());
+    	unindex(incoming, edge.getTarget(), edge.getSource());
+    }
+    
+    // index()
+    /**
+     * Gets the inner map of an index for a vertex, creating it if needed
+     * @param edgeIndex - outgoing or incoming
+     * @param vertex - key of the inner map
+     * @return inner map of edgeIndex for vertex
+     */
+    private static <L> Map<L, Edge<L>> index(Map<L, Map<L, Edge<L>>> edgeIndex, L vertex) {
+    	Map<L, Edge<L>> edgesOfVertex = edgeIndex.get(vertex);
+    	if (edgesOfVertex == null) {
+    		edgesOfVertex = new HashMap<>();
+    		edgeIndex.put(vertex, edgesOfVertex);
+    	}
+    	return edgesOfVertex;
+    }
+    
+    // unindex()
+    /**
+     * Removes an entry from an index, dropping the inner map once it is empty
+     * @param edgeIndex - outgoing or incoming
+     * @param vertex - key of the inner map
+     * @param other - key within the inner map
+     */
+    private static <L> void unindex(Map<L, Map<L, Edge<L>>> edgeIndex, L vertex, L other) {
+    	Map<L, Edge<L>> edgesOfVertex = edgeIndex.get(vertex);
+    	edgesOfVertex.remove(other);
+    	if (edgesOfVertex.isEmpty()) {
+    		edgeIndex.remove(vertex);
+    	}
+    }
+    
     @Override public boolean add(L vertex) {
     	boolean check = vertices.add(vertex);
     	checkRep();
@@ -50,97 +130,200 @@ public class ConcreteEdgesGraph<L> implements Graph<L> {
     
     @Override public int set(L source, L target, int weight) {
         int previousWeight = 0;
-        // check if edge is already in edges list
-        for (Edge<L> edge:edges) {
-        	L compareSource = edge.getSource();
-        	L compareTarget = edge.getTarget();
-        	// edge is already in edges list
-        	if (compareSource==source && compareTarget==target) {
-        		previousWeight = edge.getWeight();
-        		// if weight is 0, remove edge
-        		if (weight==0) {
-        			edges.remove(edge);
-        			checkRep();
-        			return previousWeight;
-        		}
-        		// if weight is greater than 0, edge has to be removed and added with updated weight value, since weight is final
-        		if (weight>0) {
-        			edges.remove(edge);
-        			edges.add(new Edge<L>(source, target, weight));
-        			checkRep();
-        			return previousWeight;
-        		}
+        // check if edge is already in edges, through the outgoing index
+        Map<L, Edge<L>> targetsOfSource = outgoing.get(source);
+        Edge<L> edge = targetsOfSource == null ? null : targetsOfSource.get(target);
+        // edge is already in edges
+        if (edge != null) {
+        	previousWeight = edge.getWeight();
+        	// if weight is 0, remove edge
+        	// if weight is greater than 0, edge has to be removed and added with updated weight value, since weight is final
+        	removeEdge(edge);
+        	if (weight>0) {
+        		putEdge(new Edge<L>(source, target, weight));
         	}
-        	
+        	checkRep();
+        	return previousWeight;
         }
-        //edge is not in edges list, check if vertices has source and target nodes and add them if needed
-    	if (!vertices.contains(source)) {
-    		vertices.add(source);
-    	}
-		if (!vertices.contains(target)) {
-			vertices.add(target);
-		}
+        //edge is not in edges, add source and target nodes if needed
+    	vertices.add(source);
+    	vertices.add(target);
 		// if weight > 0, add edge
 		if (weight>0) {
-			edges.add(new Edge<L>(source, target, weight));
+			putEdge(new Edge<L>(source, target, weight));
 		}
         // returns 0 for all cases in which a previous weight wasn't available
         checkRep();
         return previousWeight;
     }
     
+    @Override public int merge(L source, L target, int delta) {
+    	if (delta <= 0) {
+    		throw new IllegalArgumentException("delta must be positive: " + delta);
+    	}
+    	Map<L, Edge<L>> targetsOfSource = outgoing.get(source);
+    	Edge<L> edge = targetsOfSource == null ? null : targetsOfSource.get(target);
+    	int previousWeight = 0;
+    	if (edge != null) {
+    		previousWeight = edge.getWeight();
+    		// weight is final, so the edge is replaced as in set()
+    		removeEdge(edge);
+    	}
+    	else {
+    		vertices.add(source);
+    		vertices.add(target);
+    	}
+    	putEdge(new Edge<L>(source, target, previousWeight + delta));
+    	checkRep();
+    	return previousWeight;
+    }
+    
     @Override public boolean remove(L vertex) {
-        List<Edge<L>> toRemove = new ArrayList<>();
-    	boolean vertexRemoved = false;
-    	for (Edge<L> edge:edges) {
-        	if (edge.getSource().equals(vertex) || edge.getTarget().equals(vertex)) {
-        		toRemove.add(edge);
-        	}
-        }
-    	// ... = vertices.remove(
-    	vertexRemoved = edges.removeAll(toRemove);
-    	vertices.remove(vertex);
+    	if (!vertices.remove(vertex)) {
+    		return false;
+    	}
+    	// only edges from and to vertex are visited, through the indexes
+    	List<Edge<L>> toRemove = new ArrayList<>();
+    	if (outgoing.containsKey(vertex)) {
+    		toRemove.addAll(outgoing.get(vertex).values());
+    	}
+    	if (incoming.containsKey(vertex)) {
+    		toRemove.addAll(incoming.get(vertex).values());
+    	}
+    	for (Edge<L> edge:toRemove) {
+    		// a loop from vertex to itself is in both indexes
+    		if (edges.contains(edge)) {
+    			removeEdge(edge);
+    		}
+    	}
 		checkRep();
-		return vertexRemoved;
+		return true;
     }
     
     @Override public Set<L> vertices() {
         // defensive copy of Set
-    	//System.out.println(vertices);
     	return new HashSet<L>(vertices);
     }
     
     @Override public Map<L, Integer> sources(L target) {
-        Map<L, Integer> sourcesMap = new TreeMap<L, Integer>();
-        //System.out.println(edges);
-        for (Edge<L> edge:edges) {
-        	if (edge.getTarget().equals(target)) {
-        		sourcesMap.put(edge.getSource(), edge.getWeight());
-        	}
-        }
-        //System.out.println(sourcesMap);
-        return sourcesMap;
+        return weights(incoming.get(target), false);
     }
     
     @Override public Map<L, Integer> targets(L source) {
-    	Map<L, Integer> targetsMap = new TreeMap<L, Integer>();
-        for (Edge<L> edge:edges) {
-        	if (edge.getSource().equals(source)) {
-        		targetsMap.put(edge.getTarget(), edge.getWeight());
-        	}
-        }
-        return targetsMap;
+    	return weights(outgoing.get(source), true);
+    }
+    
+    @Override public Set<L> verticesView() {
+    	return verticesView;
+    }
+    
+    @Override public Map<L, Integer> sourcesView(L target) {
+    	return new WeightsView(incoming, target);
+    }
+    
+    @Override public Map<L, Integer> targetsView(L source) {
+    	return new WeightsView(outgoing, source);
+    }
+    
+    @Override public void forEachEdge(EdgeVisitor<L> visitor) {
+    	for (Edge<L> edge : edges) {
+    		visitor.visit(edge.getSource(), edge.getTarget(), edge.getWeight());
+    	}
+    }
+    
+    @Override public void forEachTarget(L source, ObjIntConsumer<L> action) {
+    	Map<L, Edge<L>> edgesFromSource = outgoing.get(source);
+    	if (edgesFromSource != null) {
+    		for (Edge<L> edge : edgesFromSource.values()) {
+    			action.accept(edge.getTarget(), edge.getWeight());
+    		}
+    	}
+    }
+    
+    // weights()
+    /**
+     * Copies the weights of an inner map of an index
+     * @param edgesOfVertex - inner map of outgoing or incoming, may be null
+     * @param byTarget - true to key the copy by edge target, false to key it by edge source
+     * @return new map from labels to edge weights
+     */
+    private Map<L, Integer> weights(Map<L, Edge<L>> edgesOfVertex, boolean byTarget) {
+    	Map<L, Integer> weightsMap = new TreeMap<L, Integer>();
+    	if (edgesOfVertex != null) {
+    		for (Edge<L> edge:edgesOfVertex.values()) {
+    			weightsMap.put(byTarget ? edge.getTarget() : edge.getSource(), edge.getWeight());
+    		}
+    	}
+    	return weightsMap;
     }
     
     // toString()
     @Override public String toString() {
-    	String stringRep = "";
+    	return GraphExporter.toString(this);
+    }
+    
+    /**
+     * An unmodifiable live view of the edges of one vertex in outgoing or
+     * incoming, from neighbor labels to edge weights.
+     * The inner map is looked up on every access, since it is dropped when it
+     * becomes empty and created again when an edge is added.
+     */
+    private final class WeightsView extends AbstractMap<L, Integer> {
     	
-    	for (Edge<L> edge:edges) {
-    		stringRep += edge.toString();
+    	private final Map<L, Map<L, Edge<L>>> edgeIndex;
+    	private final L vertex;
+    	
+    	// Abstraction function:
+    	//   represents {k -> e.getWeight() | edgeIndex.get(vertex) maps k to e}
+    	// Representation invariant:
+    	//   edgeIndex is outgoing or incoming
+    	// Safety from rep exposure:
+    	//   fields are private and final, edges are immutable and never returned, the view cannot be modified
+    	
+    	WeightsView(Map<L, Map<L, Edge<L>>> edgeIndex, L vertex) {
+    		this.edgeIndex = edgeIndex;
+    		this.vertex = vertex;
     	}
-    	return stringRep;
     	
+    	private Map<L, Edge<L>> edgesOfVertex() {
+    		Map<L, Edge<L>> edgesOfVertex = edgeIndex.get(vertex);
+    		return edgesOfVertex == null ? Collections.<L, Edge<L>>emptyMap() : edgesOfVertex;
+    	}
+    	
+    	@Override public int size() {
+    		return edgesOfVertex().size();
+    	}
+    	
+    	@Override public boolean containsKey(Object key) {
+    		return edgesOfVertex().containsKey(key);
+    	}
+    	
+    	@Override public Integer get(Object key) {
+    		Edge<L> edge = edgesOfVertex().get(key);
+    		return edge == null ? null : edge.getWeight();
+    	}
+    	
+    	@Override public Set<Map.Entry<L, Integer>> entrySet() {
+    		return new AbstractSet<Map.Entry<L, Integer>>() {
+    			@Override public int size() {
+    				return edgesOfVertex().size();
+    			}
+    			
+    			@Override public Iterator<Map.Entry<L, Integer>> iterator() {
+    				final Iterator<Map.Entry<L, Edge<L>>> edgeIterator = edgesOfVertex().entrySet().iterator();
+    				return new Iterator<Map.Entry<L, Integer>>() {
+    					@Override public boolean hasNext() {
+    						return edgeIterator.hasNext();
+    					}
+    					
+    					@Override public Map.Entry<L, Integer> next() {
+    						Map.Entry<L, Edge<L>> edge = edgeIterator.next();
+    						return new AbstractMap.SimpleImmutableEntry<L, Integer>(edge.getKey(), edge.getValue().getWeight());
+    					}
+    				};
+    			}
+    		};
+    	}
     }
     
 }
@@ -204,14 +387,10 @@ class Edge<L> {
     
     // toString()
 	@Override public String toString() {
-		String stringRep = "";
-		String edgeSource = getSource().toString();
-		String edgeTarget = getTarget().toString();
-		String edgeWeight = getWeight().toString();
-		
-		stringRep = stringRep + edgeSource + " -> " + edgeTarget + ": " + edgeWeight + "\n";
+		StringBuilder stringRep = new StringBuilder();
+		stringRep.append(getSource()).append(" -> ").append(getTarget()).append(": ").append(getWeight()).append("\n");
 		checkRep();
-		return stringRep;
+		return stringRep.toString();
 	}
     
 }
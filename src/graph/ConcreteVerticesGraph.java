@@ -3,32 +3,58 @@
  */
 package graph;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.TreeMap;
 import java.util.Set;
 import java.util.HashSet;
+import java.util.function.ObjIntConsumer;
 
 /**
  * An implementation of Graph.
  * 
+ * <p>The edges of each vertex are kept as the {@link AdjacencyMode} given at
+ * construction says: sorted by the string form of the neighbor's label, or
+ * hashed by neighbor for O(1) expected edge operations.
+ * 
  * <p>PS2 instructions: you MUST use the provided rep.
  */
 public class ConcreteVerticesGraph<L> implements Graph<L> {
     
-    private final List<Vertex<L>> vertices = new ArrayList<>();
+    private final AdjacencyMode mode;
+    private final Map<L, Vertex<L>> vertices = new LinkedHashMap<>();
+    private final Set<L> verticesView = Collections.unmodifiableSet(vertices.keySet());
     
     // Abstraction function:
     //   Represents the edge between one source vertex and one target vertex in a graph, which must have a positive weight
     // Representation invariant:
     //   weight must be a positive integer
     //	 must have source and target string values representing vertices
+    //   vertices maps the name of every vertex of the graph to that vertex, in the order
+    //   the vertices were added, and contains nothing else
+    //   every vertex in vertices was created with mode
     // Safety from rep exposure:
-    //   field is final, since vertices is a mutable list defensive copies will be done
+    //   field is final, since vertices is a mutable map defensive copies will be done
+    //   vertices and its values are never returned
+    //   verticesView, targetsView() and sourcesView() are unmodifiable views
     
     // constructor
+    /**
+     * Creates an empty graph in SORTED mode
+     */
     public ConcreteVerticesGraph() {
+    	this(AdjacencyMode.SORTED);
+    }
+    
+    /**
+     * Creates an empty graph
+     * @param mode - how the edges of each vertex are kept
+     */
+    public ConcreteVerticesGraph(AdjacencyMode mode) {
+    	this.mode = mode;
     	checkRep();
     }
     
@@ -46,13 +72,11 @@ public class ConcreteVerticesGraph<L> implements Graph<L> {
      * @return Vertex with name "name"
      */
     private Vertex<L> findVertexWithName(L name) {
-    	for (Vertex<L> vertex:vertices) {
-    		if(vertex.getName().equals(name)) {
-    			checkRep();
-    			return vertex;
-    		}
+    	Vertex<L> vertex = vertices.get(name);
+    	if (vertex == null) {
+    		throw new AssertionError("Vertex with name '" + name.toString() + "' not found");
     	}
-    	throw new AssertionError("Vertex with name '" + name.toString() + "' not found");
+    	return vertex;
     }
     
     //vertexFound()
@@ -62,182 +86,203 @@ public class ConcreteVerticesGraph<L> implements Graph<L> {
      * @return True if Vertex is found, False otherwise
      */
     private Boolean vertexFound(L name) {
-    	List<L> vertexList = new ArrayList<>();
-    	for (Vertex<L> vertex:vertices) {
-    		vertexList.add(vertex.getName());
+    	return vertices.containsKey(name);
+    }
+    
+    //findOrAddVertex()
+    /**
+     * Finds vertex with name "name" in vertices, adding a new vertex if there is none
+     * @param name - name of the vertex to be found or added
+     * @return Vertex with name "name"
+     */
+    private Vertex<L> findOrAddVertex(L name) {
+    	Vertex<L> vertex = vertices.get(name);
+    	if (vertex == null) {
+    		vertex = new Vertex<L>(name, mode);
+    		vertices.put(name, vertex);
     	}
-    	checkRep();
-    	return vertexList.contains(name);
+    	return vertex;
     }
     
     @Override public boolean add(L vertex) {
-        Boolean check=false;
-        Vertex<L> new_vertex = new Vertex<L>(vertex);
-        // in this implementation add methods modifies a list instead of a set (set cannot have duplicate objects),
-        // therefore list has to be inspected
-        
-        // if vertices list is empty directly add new vertex
-        if (vertices.isEmpty()) {
-        	check = vertices.add(new_vertex);
-        	checkRep();
-        	return check;
-        }
-        // if list is not empty, check if a vertex with the same name already exists before adding a new vertex
-        if (!this.vertexFound(vertex)) {
-        	check = vertices.add(new_vertex);
-        	checkRep();
-        	return check;
+        // vertices is checked first, so an existing vertex is never replaced
+        if (this.vertexFound(vertex)) {
+        	return false;
         }
-        return check;
+        this.findOrAddVertex(vertex);
+        checkRep();
+        return true;
     }
     
     @Override public int set(L source, L target, int weight) {
-    	int previousWeight = 0;
+    	// vertices are added to the graph if they do not exist, for zero weights too
+    	Vertex<L> sourceVertex = this.findOrAddVertex(source);
+    	Vertex<L> targetVertex = this.findOrAddVertex(target);
+    	int previousWeight;
         if (weight > 0) {
-        	// check if vertices already exist in list
-        	// case both source and target vertices exist already
-        	if(this.vertexFound(source) && this.vertexFound(target)) {
-        		try {
-        			previousWeight = this.findVertexWithName(source).getWeight(this.findVertexWithName(target));
-        			checkRep();
-        		}
-        		catch(NullPointerException e) {
-        			previousWeight = 0;
-        		}
-        		this.findVertexWithName(source).setEdgeTo(this.findVertexWithName(target), weight);
-        		checkRep();
-        		return previousWeight;
-        	}
-        	// case source is not in vertices
-        	else if (!this.vertexFound(source) && this.vertexFound(target)) {
-        		this.add(source);
-        		this.findVertexWithName(source).setEdgeTo(this.findVertexWithName(target), weight);
-        		checkRep();
-        		return previousWeight;
+        	try {
+        		previousWeight = sourceVertex.getWeight(targetVertex);
         	}
-        	// case target is not in vertices
-        	else if (this.vertexFound(source) && !this.vertexFound(target)) {
-        		this.add(target);
-        		this.findVertexWithName(source).setEdgeTo(this.findVertexWithName(target), weight);
-        		checkRep();
-        		return previousWeight;
-        	}
-        	// case both source and target are not in vertices
-        	else {
-        		this.add(source);
-        		this.add(target);
-        		this.findVertexWithName(source).setEdgeTo(this.findVertexWithName(target), weight);
-        		checkRep();
-        		return previousWeight;
+        	catch(NullPointerException e) {
+        		previousWeight = 0;
         	}
+        	sourceVertex.setEdgeTo(targetVertex, weight);
         }
         // case weight is zero and edge has to be deleted
         else {
-        	// case both source and target vertices exist already
-        	if(this.vertexFound(source) && this.vertexFound(target)) {
-        		try {
-        			previousWeight = this.findVertexWithName(source).remove(this.findVertexWithName(target));
-        			checkRep();
-        		}
-        		catch(NullPointerException e) {
-        			previousWeight = 0;
-        		}
-            	return previousWeight;
-        	}
-        	// case source is not in vertices
-        	else if (!this.vertexFound(source) && this.vertexFound(target)) {
-        		this.add(source);
-        		checkRep();
-        		return previousWeight;
-        	}
-        	// case target is not in vertices
-        	else if (this.vertexFound(source) && !this.vertexFound(target)) {
-        		this.add(target);
-        		checkRep();
-        		return previousWeight;
-        	}
-        	// case both source and target are not in vertices
-        	else {
-        		this.add(source);
-        		this.add(target);
-        		checkRep();
-        		return previousWeight;
-        	}
-        	
-        	
+        	previousWeight = sourceVertex.remove(targetVertex);
         }
-    	
+        checkRep();
+        return previousWeight;
+    }
+    
+    @Override public int merge(L source, L target, int delta) {
+    	if (delta <= 0) {
+    		throw new IllegalArgumentException("delta must be positive: " + delta);
+    	}
+    	int previousWeight = this.findOrAddVertex(source).addToEdge(this.findOrAddVertex(target), delta);
+    	checkRep();
+    	return previousWeight;
     }
     
     @Override public boolean remove(L vertex) {
-        boolean check = false;
-        // if vertex to be removed is in vertices list
-        try {
-        	if (vertices.contains(this.findVertexWithName(vertex))) {
-            	// check for possible directed edges in each source vertex and remove directed edge
-            	for (Vertex<L> ver:vertices) {
-            		if (ver.getDirectedEdges().contains(this.findVertexWithName(vertex))) {
-            			ver.remove(this.findVertexWithName(vertex));
-            		}
-            	}
-            	// finally remove vertex from vertices list
-            	check = vertices.remove(this.findVertexWithName(vertex));
-            }
-            checkRep();
-        }
-        catch (AssertionError e) {
-        	
+        Vertex<L> toRemove = vertices.remove(vertex);
+        // if vertex to be removed is not in vertices, graph is not modified
+        if (toRemove == null) {
+        	return false;
         }
-        
-        return check;
+        // remove directed edges from and to the vertex, found through its own edge maps
+        toRemove.removeAllEdges();
+        checkRep();
+        return true;
     }
     
     @Override public Set<L> vertices() {
-        Set<L> copy_vertices = new HashSet<>();
-        // copy every vertex from vertices<Vertex> to copy_vertices set
-        for (Vertex<L> vertex:vertices) {
-        	copy_vertices.add(vertex.getName());
-        }
+        // defensive copy of the key set of vertices
         checkRep();
-        return copy_vertices;
+        return new HashSet<>(vertices.keySet());
     }
     
     @Override public Map<L, Integer> sources(L target) {
-        TreeMap<L, Integer> sources = new TreeMap<>();
     	// look for vertex with name target
-    	if (this.vertexFound(target)) {
-        	// look within vertices for edges containing target as target vertex
-    		for (Vertex<L> vertex:vertices) {
-        		if (vertex.getDirectedEdgesMap().containsKey(target)) {
-        			sources.put(vertex.getName(), vertex.getDirectedEdgesMap().get(target));
-        		}
-        	}
-    		return sources;
+    	Vertex<L> targetVertex = vertices.get(target);
+    	if (targetVertex != null) {
+    		// edges into target are kept by the target vertex itself
+    		return targetVertex.getIncomingEdgesMap();
         }
     	// else return empty map
-    	else {
-    		return sources;
-    	}
+    	return mode.newMap();
     }
     
     @Override public Map<L, Integer> targets(L source) {
         // look for vertex with name source, return converted map with string keys
-    	if (this.vertexFound(source)) {
-    		return this.findVertexWithName(source).getDirectedEdgesMap();
+    	Vertex<L> sourceVertex = vertices.get(source);
+    	if (sourceVertex != null) {
+    		return sourceVertex.getDirectedEdgesMap();
     	}
     	//else return empty map
     	else {
-    		return new TreeMap<L, Integer>();
+    		return mode.newMap();
+    	}
+    }
+    
+    @Override public Set<L> verticesView() {
+    	return verticesView;
+    }
+    
+    @Override public Map<L, Integer> sourcesView(L target) {
+    	return new WeightsView(target, false);
+    }
+    
+    @Override public Map<L, Integer> targetsView(L source) {
+    	return new WeightsView(source, true);
+    }
+    
+    @Override public void forEachEdge(EdgeVisitor<L> visitor) {
+    	for (Vertex<L> vertex:vertices.values()) {
+    		vertex.visitEdges(visitor);
+    	}
+    }
+    
+    @Override public void forEachTarget(L source, ObjIntConsumer<L> action) {
+    	Vertex<L> sourceVertex = vertices.get(source);
+    	if (sourceVertex != null) {
+    		sourceVertex.forEachTarget(action);
     	}
     }
     
     // toString()
     @Override public String toString() {
-    	String stringRep = "";
-    	for (Vertex<L> vertex:vertices) {
-    		stringRep += vertex.toString();
+    	return GraphExporter.toString(this);
+    }
+    
+    /**
+     * An unmodifiable live view of the directed or incoming edges of one
+     * vertex, from neighbor names to edge weights.
+     * The vertex is looked up on every access, so the view follows the vertex
+     * being removed and added again.
+     */
+    private final class WeightsView extends AbstractMap<L, Integer> {
+    	
+    	private final L name;
+    	private final boolean directed;
+    	
+    	// Abstraction function:
+    	//   represents {v.getName() -> w | edges of vertices.get(name) map v to w}, using directed
+    	//   edges if directed and incoming edges otherwise
+    	// Representation invariant:
+    	//   true
+    	// Safety from rep exposure:
+    	//   fields are private and final, vertices are never returned, the view cannot be modified
+    	
+    	WeightsView(L name, boolean directed) {
+    		this.name = name;
+    		this.directed = directed;
+    	}
+    	
+    	private Map<Vertex<L>, Integer> edgesOfVertex() {
+    		Vertex<L> vertex = vertices.get(name);
+    		if (vertex == null) {
+    			return Collections.emptyMap();
+    		}
+    		return directed ? vertex.getDirectedEdgesView() : vertex.getIncomingEdgesView();
+    	}
+    	
+    	@Override public int size() {
+    		return edgesOfVertex().size();
+    	}
+    	
+    	@Override public boolean containsKey(Object key) {
+    		Vertex<L> other = vertices.get(key);
+    		return other != null && edgesOfVertex().containsKey(other);
+    	}
+    	
+    	@Override public Integer get(Object key) {
+    		Vertex<L> other = vertices.get(key);
+    		return other == null ? null : edgesOfVertex().get(other);
+    	}
+    	
+    	@Override public Set<Map.Entry<L, Integer>> entrySet() {
+    		return new AbstractSet<Map.Entry<L, Integer>>() {
+    			@Override public int size() {
+    				return edgesOfVertex().size();
+    			}
+    			
+    			@Override public Iterator<Map.Entry<L, Integer>> iterator() {
+    				final Iterator<Map.Entry<Vertex<L>, Integer>> edgeIterator = edgesOfVertex().entrySet().iterator();
+    				return new Iterator<Map.Entry<L, Integer>>() {
+    					@Override public boolean hasNext() {
+    						return edgeIterator.hasNext();
+    					}
+    					
+    					@Override public Map.Entry<L, Integer> next() {
+    						Map.Entry<Vertex<L>, Integer> edge = edgeIterator.next();
+    						return new AbstractMap.SimpleImmutableEntry<L, Integer>(edge.getKey().getName(), edge.getValue());
+    					}
+    				};
+    			}
+    		};
     	}
-    	return stringRep;
     }
     
 }
@@ -256,33 +301,67 @@ public class ConcreteVerticesGraph<L> implements Graph<L> {
 class Vertex<L> implements Comparable<Vertex<L>> {
     
 	private final L name;
-	private final Map<Vertex<L>, Integer> directedEdges = new TreeMap<>();
+	private final AdjacencyMode mode;
+	private final Map<Vertex<L>, Integer> directedEdges;
+	private final Map<Vertex<L>, Integer> incomingEdges;
+	private final Map<Vertex<L>, Integer> directedEdgesView;
+	private final Map<Vertex<L>, Integer> incomingEdgesView;
     
     // Abstraction function:
     //   Represents a vertex, which might or might not be connected to more vertices.
 	//	 If the vertex is connected to another Vertex the connection is documented in HashMap directedEdges.
+	//	 Connections from other vertices to this vertex are mirrored in incomingEdges.
+	//	 In SORTED mode both maps are ordered by compareTo; in HASHED mode they are keyed by
+	//	 vertex identity, which is label equality since a graph has one Vertex per label,
+	//	 and hashed by label, so their iteration order is the same in every run.
     // Representation invariant:
     //   Values in directedEdges must be a positive integers
+	//	 target.incomingEdges has (this, w) if and only if this.directedEdges has (target, w)
 	//	 
     // Safety from rep exposure:
-    //   fields are private and final, Map is defensive copied
+    //   fields are private and final, Map is defensive copied or returned as an unmodifiable view
     
     // constructor
 	/**
-	 * Creates new vertex
+	 * Creates new vertex in SORTED mode
 	 * @param name - name of the vertex
 	 */
 	public Vertex(L name) {
+		this(name, AdjacencyMode.SORTED);
+	}
+	
+	/**
+	 * Creates new vertex
+	 * @param name - name of the vertex
+	 * @param mode - how the edges of the vertex are kept
+	 */
+	public Vertex(L name, AdjacencyMode mode) {
 		this.name = name;
+		this.mode = mode;
+		this.directedEdges = mode.newMap();
+		this.incomingEdges = mode.newMap();
+		this.directedEdgesView = Collections.unmodifiableMap(directedEdges);
+		this.incomingEdgesView = Collections.unmodifiableMap(incomingEdges);
 		checkRep();
 	}
     
     // checkRep
 	private void checkRep() {
 		assert name != null;
+		// the walk over every edge is inside the assert, so it costs nothing without -ea
+		assert positiveWeights();
+	}
+	
+	/**
+	 * @return true if every weight in directedEdges is positive
+	 */
+	private boolean positiveWeights() {
 		for (Integer weight:directedEdges.values()) {
-			assert weight>0;
+			if (weight <= 0) {
+				return false;
+			}
 		}
+		return true;
 	}
     
     // methods
@@ -303,18 +382,77 @@ class Vertex<L> implements Comparable<Vertex<L>> {
 	}
 	
 	/**
-	 * Creates a copy of directedEdges with String keys instead of vertices
+	 * Checks for a directed edge from this vertex to target without copying directedEdges
+	 * @param target - target vertex
+	 * @return true if there is an edge from this vertex to target, false otherwise
+	 */
+	public boolean hasEdgeTo(Vertex<L> target) {
+		return directedEdges.containsKey(target);
+	}
+	
+	/**
+	 * Calls visitor with every directed edge from this vertex, without copying directedEdges
+	 * @param visitor - called with the name of this vertex, the target name and the weight of each edge
+	 */
+	public void visitEdges(EdgeVisitor<L> visitor) {
+		for (Map.Entry<Vertex<L>, Integer> edge:directedEdges.entrySet()) {
+			visitor.visit(name, edge.getKey().getName(), edge.getValue());
+		}
+	}
+	
+	/**
+	 * Calls action with every directed edge from this vertex, without copying directedEdges
+	 * @param action - called with the target name and the weight of each edge
+	 */
+	public void forEachTarget(ObjIntConsumer<L> action) {
+		for (Map.Entry<Vertex<L>, Integer> edge:directedEdges.entrySet()) {
+			action.accept(edge.getKey().getName(), edge.getValue());
+		}
+	}
+	
+	/**
+	 * Creates a copy of directedEdges with String keys instead of vertices,
+	 * sorted by name in SORTED mode
 	 * @return copy of directedEdges with String keys
 	 */
 	public Map<L, Integer> getDirectedEdgesMap() {
-		TreeMap<L, Integer> copyDirectedEdges = new TreeMap<>();
-		for (Vertex<L> vertex:this.directedEdges.keySet()) {
-			copyDirectedEdges.put(vertex.getName(), this.directedEdges.get(vertex));
+		Map<L, Integer> copyDirectedEdges = mode.newMap();
+		for (Map.Entry<Vertex<L>, Integer> edge:this.directedEdges.entrySet()) {
+			copyDirectedEdges.put(edge.getKey().getName(), edge.getValue());
 		}
 		checkRep();
 		return copyDirectedEdges;
 	}
 	
+	/**
+	 * Creates a copy of incomingEdges with String keys instead of vertices,
+	 * sorted by name in SORTED mode
+	 * @return copy of incomingEdges with String keys
+	 */
+	public Map<L, Integer> getIncomingEdgesMap() {
+		Map<L, Integer> copyIncomingEdges = mode.newMap();
+		for (Map.Entry<Vertex<L>, Integer> edge:this.incomingEdges.entrySet()) {
+			copyIncomingEdges.put(edge.getKey().getName(), edge.getValue());
+		}
+		return copyIncomingEdges;
+	}
+	
+	/**
+	 * Read-only view of directedEdges, reflecting later changes
+	 * @return unmodifiable view of directedEdges
+	 */
+	public Map<Vertex<L>, Integer> getDirectedEdgesView() {
+		return directedEdgesView;
+	}
+	
+	/**
+	 * Read-only view of incomingEdges, reflecting later changes
+	 * @return unmodifiable view of incomingEdges
+	 */
+	public Map<Vertex<L>, Integer> getIncomingEdgesView() {
+		return incomingEdgesView;
+	}
+	
 	/**
 	 * Safely access edge weight from source vertex to target vertex
 	 * @param targetVertex String - name of target vertex
@@ -331,7 +469,23 @@ class Vertex<L> implements Comparable<Vertex<L>> {
 	 */
 	public void setEdgeTo(Vertex<L> target, Integer weight) {
 		directedEdges.put(target, weight);
+		target.incomingEdges.put(this, weight);
+		checkRep();
+	}
+	
+	/**
+	 * Adds delta to the weight of the edge to target, creating the edge if there is none
+	 * @param target - target vertex
+	 * @param delta - positive amount to add
+	 * @return previous weight, or 0 if there was no edge to target
+	 */
+	public int addToEdge(Vertex<L> target, int delta) {
+		Integer previousWeight = directedEdges.get(target);
+		int weight = (previousWeight == null ? 0 : previousWeight) + delta;
+		directedEdges.put(target, weight);
+		target.incomingEdges.put(this, weight);
 		checkRep();
+		return previousWeight == null ? 0 : previousWeight;
 	}
 	
 	/**
@@ -343,6 +497,7 @@ class Vertex<L> implements Comparable<Vertex<L>> {
 		int previousWeight = 0;
 		try {
 			previousWeight = directedEdges.remove(target);
+			target.incomingEdges.remove(this);
 			checkRep();
 		}
 		catch (NullPointerException e) {
@@ -350,22 +505,41 @@ class Vertex<L> implements Comparable<Vertex<L>> {
 		}
 		return previousWeight;
 	}
+	
+	/**
+	 * removes every edge from and to this vertex
+	 */
+	public void removeAllEdges() {
+		for (Vertex<L> target:directedEdges.keySet()) {
+			target.incomingEdges.remove(this);
+		}
+		for (Vertex<L> source:incomingEdges.keySet()) {
+			source.directedEdges.remove(this);
+		}
+		directedEdges.clear();
+		incomingEdges.clear();
+		checkRep();
+	}
     
 	// toString
 	@Override public String toString() {
-		String stringRep = "";
-		String source = this.getName().toString();
-		for (Vertex<L> target:getDirectedEdges()) {
-			stringRep +=  source + " -> " + target.getName().toString() + ": " + getWeight(target) + "\n";
-		}
+		StringBuilder stringRep = new StringBuilder();
+		// in SORTED mode directedEdges is sorted by target name, so the order does not depend on hash codes
+		visitEdges((source, target, weight) -> stringRep.append(source).append(" -> ").append(target)
+				.append(": ").append(weight).append("\n"));
 		checkRep();
-		return stringRep;
+		return stringRep.toString();
+	}
+    
+	// equals is identity, which is label equality within one graph; hashing by label instead of
+	// identity keeps HASHED iteration order, and so toString() of the graph, the same in every run
+	@Override public int hashCode() {
+		return name.hashCode();
 	}
     
-	// compareTo needed to sort vertices by name in map
-	// multipilied by -1 to reverse order in TreeMap
+	// compareTo needed to sort vertices by name in map; only called in SORTED mode
 	@Override public int compareTo(Vertex<L> thatVertex) {
-		int compare = (this.getName().toString().compareTo(thatVertex.getName().toString()))*-1;
+		int compare = this.getName().toString().compareTo(thatVertex.getName().toString());
 		checkRep();
 		return compare;
 	}
@@ -0,0 +1,300 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * A thread-safe implementation of Graph, for filling one graph from many
+ * threads at once.
+ *
+ * <p>Vertices are kept in a concurrent index, and every vertex keeps its out-
+ * and in-edges in concurrent maps. set() locks only its source vertex, so
+ * writers on different source vertices run in parallel. Observers take no
+ * locks at all and never block writers; vertices(), targets() and sources()
+ * return weakly consistent copies. remove() is the only operation that
+ * excludes all writers while it runs, since it touches the edges of many
+ * vertices.
+ *
+ * @param <L> type of vertex labels in this graph, must be immutable
+ */
+public class ConcurrentGraph<L> implements Graph<L> {
+
+    private final ConcurrentMap<L, Node<L>> nodes = new ConcurrentHashMap<>();
+    private final Set<L> verticesView = Collections.unmodifiableSet(nodes.keySet());
+    private final ReadWriteLock removal = new ReentrantReadWriteLock();
+
+    // Abstraction function:
+    //   represents the graph with vertices nodes.keySet() and an edge from s to t with
+    //   weight w for every key t with value w in nodes.get(s).out
+    // Representation invariant:
+    //   nodes.get(v).label equals v
+    //   whenever no set() or remove() is running, nodes.get(s).out maps t to w
+    //   if and only if nodes.get(t).in maps s to w; weights are positive
+    // Safety from rep exposure:
+    //   all fields are private and final, nodes are never returned
+    //   vertices(), targets() and sources() return copies, the views are unmodifiable
+    // Thread safety argument:
+    //   nodes and the edge maps are ConcurrentHashMaps, so single reads and writes are atomic
+    //   an edge from s is only written while holding the monitor of node s, so the out
+    //   and in entries of one edge are updated together; set() and merge() are linearizable
+    //   add(), set() and merge() hold the read lock of removal and remove() holds its write lock,
+    //   so no edge is added to a vertex while it is being removed
+    //   observers take no lock and see each map in a weakly consistent state
+
+    /**
+     * A vertex and its adjacency.
+     * This class is internal to the rep of ConcurrentGraph.
+     */
+    private static final class Node<L> {
+        private final L label;
+        private final ConcurrentMap<L, Integer> out = new ConcurrentHashMap<>(4);
+        private final ConcurrentMap<L, Integer> in = new ConcurrentHashMap<>(4);
+
+        Node(L label) {
+            this.label = label;
+        }
+    }
+
+    // constructor
+    public ConcurrentGraph() {
+        checkRep();
+    }
+
+    // checkRep
+    /**
+     * Checks the whole rep; only call while no set(), merge() or remove() is running,
+     * such as while holding the write lock of removal
+     */
+    private void checkRep() {
+        // walking every edge is only paid for with assertions enabled
+        assert symmetricAdjacency();
+    }
+
+    /**
+     * @return true iff every node is indexed by its label, and every out-edge has a positive
+     *         weight and the same weight as the in-edge of its target, and vice versa
+     */
+    private boolean symmetricAdjacency() {
+        for (Map.Entry<L, Node<L>> entry : nodes.entrySet()) {
+            Node<L> node = entry.getValue();
+            if (!node.label.equals(entry.getKey())) {
+                return false;
+            }
+            for (Map.Entry<L, Integer> edge : node.out.entrySet()) {
+                Node<L> target = nodes.get(edge.getKey());
+                if (edge.getValue() <= 0 || target == null || !edge.getValue().equals(target.in.get(node.label))) {
+                    return false;
+                }
+            }
+            for (Map.Entry<L, Integer> edge : node.in.entrySet()) {
+                Node<L> source = nodes.get(edge.getKey());
+                if (source == null || !edge.getValue().equals(source.out.get(node.label))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks the rep of one edge; only call holding the monitor of sourceNode, under which the
+     * edge from source to target cannot change
+     * @return true, so that the check can be an assert statement and cost nothing without -ea
+     */
+    private static <L> boolean checkEdge(Node<L> sourceNode, Node<L> targetNode) {
+        Integer out = sourceNode.out.get(targetNode.label);
+        Integer in = targetNode.in.get(sourceNode.label);
+        assert out == null ? in == null : out > 0 && out.equals(in);
+        return true;
+    }
+
+    @Override public boolean add(L vertex) {
+        removal.readLock().lock();
+        try {
+            return nodes.putIfAbsent(vertex, new Node<L>(vertex)) == null;
+        } finally {
+            removal.readLock().unlock();
+        }
+    }
+
+    @Override public int set(L source, L target, int weight) {
+        removal.readLock().lock();
+        try {
+            Node<L> sourceNode = nodes.computeIfAbsent(source, Node::new);
+            Node<L> targetNode = nodes.computeIfAbsent(target, Node::new);
+            synchronized (sourceNode) {
+                Integer previousWeight;
+                if (weight > 0) {
+                    previousWeight = sourceNode.out.put(target, weight);
+                    targetNode.in.put(source, weight);
+                } else {
+                    previousWeight = sourceNode.out.remove(target);
+                    targetNode.in.remove(source);
+                }
+                assert checkEdge(sourceNode, targetNode);
+                return previousWeight == null ? 0 : previousWeight;
+            }
+        } finally {
+            removal.readLock().unlock();
+        }
+    }
+
+    @Override public int merge(L source, L target, int delta) {
+        if (delta <= 0) {
+            throw new IllegalArgumentException("delta must be positive: " + delta);
+        }
+        removal.readLock().lock();
+        try {
+            Node<L> sourceNode = nodes.computeIfAbsent(source, Node::new);
+            Node<L> targetNode = nodes.computeIfAbsent(target, Node::new);
+            // the read and the write happen under the same monitor as in set(), so increments are never lost
+            synchronized (sourceNode) {
+                Integer previousWeight = sourceNode.out.get(target);
+                int weight = (previousWeight == null ? 0 : previousWeight) + delta;
+                sourceNode.out.put(target, weight);
+                targetNode.in.put(source, weight);
+                assert checkEdge(sourceNode, targetNode);
+                return previousWeight == null ? 0 : previousWeight;
+            }
+        } finally {
+            removal.readLock().unlock();
+        }
+    }
+
+    @Override public boolean remove(L vertex) {
+        removal.writeLock().lock();
+        try {
+            Node<L> node = nodes.remove(vertex);
+            if (node == null) {
+                return false;
+            }
+            for (L target : node.out.keySet()) {
+                Node<L> targetNode = nodes.get(target);
+                // a loop from vertex to itself has no other node to update
+                if (targetNode != null) {
+                    targetNode.in.remove(vertex);
+                }
+            }
+            for (L source : node.in.keySet()) {
+                Node<L> sourceNode = nodes.get(source);
+                if (sourceNode != null) {
+                    sourceNode.out.remove(vertex);
+                }
+            }
+            // no writer runs while the write lock is held, so the whole rep is quiescent
+            checkRep();
+            return true;
+        } finally {
+            removal.writeLock().unlock();
+        }
+    }
+
+    @Override public Set<L> vertices() {
+        return new HashSet<>(nodes.keySet());
+    }
+
+    @Override public Map<L, Integer> sources(L target) {
+        Node<L> node = nodes.get(target);
+        return node == null ? new HashMap<L, Integer>() : new HashMap<>(node.in);
+    }
+
+    @Override public Map<L, Integer> targets(L source) {
+        Node<L> node = nodes.get(source);
+        return node == null ? new HashMap<L, Integer>() : new HashMap<>(node.out);
+    }
+
+    @Override public Set<L> verticesView() {
+        return verticesView;
+    }
+
+    @Override public Map<L, Integer> sourcesView(L target) {
+        return new WeightsView(target, false);
+    }
+
+    @Override public Map<L, Integer> targetsView(L source) {
+        return new WeightsView(source, true);
+    }
+
+    /**
+     * Calls visitor for every edge, with the same weakly consistent view of
+     * the graph as the observers; takes no locks.
+     */
+    @Override public void forEachEdge(EdgeVisitor<L> visitor) {
+        for (Node<L> node : nodes.values()) {
+            node.out.forEach((target, weight) -> visitor.visit(node.label, target, weight));
+        }
+    }
+
+    @Override public void forEachTarget(L source, ObjIntConsumer<L> action) {
+        Node<L> node = nodes.get(source);
+        if (node != null) {
+            node.out.forEach((target, weight) -> action.accept(target, weight));
+        }
+    }
+
+    // toString()
+    @Override public String toString() {
+        return GraphExporter.toString(this);
+    }
+
+    /**
+     * An unmodifiable live view of the out- or in-edges of one vertex.
+     * The vertex is looked up on every access, so the view follows the vertex
+     * being removed and added again.
+     */
+    private final class WeightsView extends AbstractMap<L, Integer> {
+
+        private final L label;
+        private final boolean out;
+
+        // Abstraction function:
+        //   represents nodes.get(label).out if out, nodes.get(label).in otherwise,
+        //   or the empty map if label is not a vertex
+        // Representation invariant:
+        //   true
+        // Safety from rep exposure:
+        //   fields are private and final, the maps are only exposed through unmodifiable wrappers
+
+        WeightsView(L label, boolean out) {
+            this.label = label;
+            this.out = out;
+        }
+
+        private Map<L, Integer> edgesOfVertex() {
+            Node<L> node = nodes.get(label);
+            if (node == null) {
+                return Collections.emptyMap();
+            }
+            return Collections.unmodifiableMap(out ? node.out : node.in);
+        }
+
+        @Override public int size() {
+            return edgesOfVertex().size();
+        }
+
+        @Override public boolean containsKey(Object key) {
+            return edgesOfVertex().containsKey(key);
+        }
+
+        @Override public Integer get(Object key) {
+            return edgesOfVertex().get(key);
+        }
+
+        @Override public Set<Map.Entry<L, Integer>> entrySet() {
+            return edgesOfVertex().entrySet();
+        }
+    }
+
+}
@@ -0,0 +1,25 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+/**
+ * An operation on one weighted edge of a graph, used to visit every edge of
+ * a graph with {@link Graph#forEachEdge(EdgeVisitor)} without copying the
+ * adjacency of each vertex.
+ *
+ * @param <L> type of vertex labels of the graph
+ */
+@FunctionalInterface
+public interface EdgeVisitor<L> {
+
+    /**
+     * Visits the edge from source to target.
+     *
+     * @param source label of the source vertex of the edge
+     * @param target label of the target vertex of the edge
+     * @param weight positive weight of the edge
+     */
+    public void visit(L source, L target, int weight);
+
+}
@@ -0,0 +1,466 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * An immutable snapshot of a Graph in compressed sparse row (CSR) form.
+ *
+ * <p>Vertices are numbered with dense int ids 0..vertexCount()-1. The edges
+ * from vertex v are stored contiguously, sorted by target id, in the range
+ * [outOffset(v), outOffset(v+1)) of a shared target array and weight array;
+ * edges to v are stored the same way in a reverse index. All mutators throw
+ * UnsupportedOperationException, and since the snapshot never changes after
+ * construction it can be shared between threads without locking.
+ *
+ * <p>The primitive operations on ids allocate nothing. vertices() returns the
+ * same unmodifiable set on every call, and targets() and sources() return a
+ * small unmodifiable view of one row instead of copying it.
+ *
+ * @param <L> type of vertex labels in this graph, must be immutable
+ */
+public final class FrozenGraph<L> implements Graph<L> {
+
+    private final Object[] labels;
+    private final Map<L, Integer> ids;
+    private final Set<L> vertices;
+    private final int[] outOffsets;
+    private final int[] outTargets;
+    private final int[] outWeights;
+    private final int[] inOffsets;
+    private final int[] inSources;
+    private final int[] inWeights;
+
+    // Abstraction function:
+    //   represents the graph with vertices labels[0..n) and an edge from labels[v] to
+    //   labels[outTargets[i]] with weight outWeights[i] for every i in [outOffsets[v], outOffsets[v+1])
+    // Representation invariant:
+    //   n = labels.length, ids.get(labels[v]) == v for every v and ids has no other keys
+    //   outOffsets and inOffsets have length n+1, start at 0 and are nondecreasing
+    //   within each row, targets (sources) are strictly increasing ids in [0, n)
+    //   weights are positive
+    //   the edge from u to v with weight w is in row u of the out arrays if and only if
+    //   the edge with source u and weight w is in row v of the in arrays
+    // Safety from rep exposure:
+    //   all fields are private and final, and arrays are never returned
+    //   vertices is an unmodifiable view, targets() and sources() return unmodifiable views
+    // Thread safety argument:
+    //   the rep is never mutated after the constructor returns, and all fields are final
+
+    // constructor
+    /**
+     * Creates a snapshot of graph
+     * @param graph - graph to be copied
+     */
+    private FrozenGraph(Graph<L> graph) {
+        Set<L> vertexSet = graph.vertices();
+        int n = vertexSet.size();
+        labels = new Object[n];
+        ids = new HashMap<>(n * 2);
+        int v = 0;
+        for (L label : vertexSet) {
+            labels[v] = label;
+            ids.put(label, v);
+            v++;
+        }
+        vertices = Collections.unmodifiableSet(ids.keySet());
+
+        // forward index: one row per vertex, sorted by target id
+        long[][] rows = new long[n][];
+        outOffsets = new int[n + 1];
+        int[] inDegrees = new int[n];
+        for (v = 0; v < n; v++) {
+            // pack (target id, weight) into longs so that sorting by target keeps the weights along
+            Map<L, Integer> targets = graph.targets(label(v));
+            long[] row = new long[targets.size()];
+            int length = 0;
+            for (Map.Entry<L, Integer> edge : targets.entrySet()) {
+                Integer target = ids.get(edge.getKey());
+                // a target added to a concurrently changed graph after the vertices were read
+                if (target == null) {
+                    continue;
+                }
+                row[length++] = ((long) target << 32) | edge.getValue();
+                inDegrees[target]++;
+            }
+            rows[v] = length == row.length ? row : Arrays.copyOf(row, length);
+            Arrays.sort(rows[v]);
+            outOffsets[v + 1] = outOffsets[v] + length;
+        }
+        int edgeCount = outOffsets[n];
+        outTargets = new int[edgeCount];
+        outWeights = new int[edgeCount];
+        for (v = 0; v < n; v++) {
+            for (int i = 0; i < rows[v].length; i++) {
+                outTargets[outOffsets[v] + i] = (int) (rows[v][i] >>> 32);
+                outWeights[outOffsets[v] + i] = (int) rows[v][i];
+            }
+            rows[v] = null;
+        }
+
+        // reverse index: visiting sources in increasing id keeps every row sorted
+        inOffsets = new int[n + 1];
+        for (v = 0; v < n; v++) {
+            inOffsets[v + 1] = inOffsets[v] + inDegrees[v];
+        }
+        inSources = new int[edgeCount];
+        inWeights = new int[edgeCount];
+        int[] next = Arrays.copyOf(inOffsets, n);
+        for (int source = 0; source < n; source++) {
+            for (int i = outOffsets[source]; i < outOffsets[source + 1]; i++) {
+                int slot = next[outTargets[i]]++;
+                inSources[slot] = source;
+                inWeights[slot] = outWeights[i];
+            }
+        }
+        checkRep();
+    }
+
+    // checkRep
+    private void checkRep() {
+        assert ids.size() == labels.length;
+        assert outOffsets.length == labels.length + 1;
+        assert inOffsets.length == labels.length + 1;
+        assert outOffsets[labels.length] == inOffsets[labels.length];
+    }
+
+    /**
+     * Creates an immutable snapshot of a graph. Later changes to graph are not
+     * reflected in the snapshot.
+     * A graph that other threads change while it is copied, such as a
+     * ConcurrentGraph, gives the vertices of the moment they are read and the
+     * edges between them as each vertex's targets are read later; edges to
+     * vertices added in between are left out.
+     *
+     * @param <L> type of vertex labels in the graph, must be immutable
+     * @param graph graph to be copied
+     * @return snapshot with the same vertices and edges as graph; graph itself
+     *         if it is already a FrozenGraph
+     */
+    public static <L> FrozenGraph<L> of(Graph<L> graph) {
+        if (graph instanceof FrozenGraph) {
+            return (FrozenGraph<L>) graph;
+        }
+        return new FrozenGraph<L>(graph);
+    }
+
+    // Primitive operations:
+
+    /**
+     * @return number of vertices in this graph; vertex ids are 0..vertexCount()-1
+     */
+    public int vertexCount() {
+        return labels.length;
+    }
+
+    /**
+     * @return number of edges in this graph
+     */
+    public int edgeCount() {
+        return outTargets.length;
+    }
+
+    /**
+     * @param label - label of a vertex
+     * @return id of the vertex with that label, or -1 if there is no such vertex
+     */
+    public int id(L label) {
+        Integer id = ids.get(label);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @param id - id of a vertex in this graph
+     * @return label of the vertex with that id
+     */
+    @SuppressWarnings("unchecked")
+    public L label(int id) {
+        return (L) labels[id];
+    }
+
+    /**
+     * @param source - id of a vertex in this graph
+     * @param target - id of a vertex in this graph
+     * @return weight of the edge from source to target, or zero if there is no such edge
+     */
+    public int weight(int source, int target) {
+        int i = Arrays.binarySearch(outTargets, outOffsets[source], outOffsets[source + 1], target);
+        return i < 0 ? 0 : outWeights[i];
+    }
+
+    /**
+     * @param source - id of a vertex in this graph
+     * @return number of edges from source
+     */
+    public int outDegree(int source) {
+        return outOffsets[source + 1] - outOffsets[source];
+    }
+
+    /**
+     * @param target - id of a vertex in this graph
+     * @return number of edges to target
+     */
+    public int inDegree(int target) {
+        return inOffsets[target + 1] - inOffsets[target];
+    }
+
+    /**
+     * Edges from vertex v have the edge indexes outOffset(v) to outOffset(v+1)-1,
+     * in increasing order of target id.
+     * @param v - id of a vertex in this graph, or vertexCount()
+     * @return edge index of the first edge from v
+     */
+    public int outOffset(int v) {
+        return outOffsets[v];
+    }
+
+    /**
+     * @param edge - edge index in [0, edgeCount())
+     * @return id of the target of that edge
+     */
+    public int outTarget(int edge) {
+        return outTargets[edge];
+    }
+
+    /**
+     * @param edge - edge index in [0, edgeCount())
+     * @return weight of that edge
+     */
+    public int outWeight(int edge) {
+        return outWeights[edge];
+    }
+
+    /**
+     * Edges to vertex v have the reverse edge indexes inOffset(v) to inOffset(v+1)-1,
+     * in increasing order of source id.
+     * @param v - id of a vertex in this graph, or vertexCount()
+     * @return reverse edge index of the first edge to v
+     */
+    public int inOffset(int v) {
+        return inOffsets[v];
+    }
+
+    /**
+     * @param edge - reverse edge index in [0, edgeCount())
+     * @return id of the source of that edge
+     */
+    public int inSource(int edge) {
+        return inSources[edge];
+    }
+
+    /**
+     * @param edge - reverse edge index in [0, edgeCount())
+     * @return weight of that edge
+     */
+    public int inWeight(int edge) {
+        return inWeights[edge];
+    }
+
+    /**
+     * Calls action with the id and weight of every target of source, in increasing order of id
+     * @param source - id of a vertex in this graph
+     * @param action - called with each target id and edge weight
+     */
+    public void forEachTarget(int source, IntIntConsumer action) {
+        for (int i = outOffsets[source]; i < outOffsets[source + 1]; i++) {
+            action.accept(outTargets[i], outWeights[i]);
+        }
+    }
+
+    /**
+     * Calls action with the id and weight of every source of target, in increasing order of id
+     * @param target - id of a vertex in this graph
+     * @param action - called with each source id and edge weight
+     */
+    public void forEachSource(int target, IntIntConsumer action) {
+        for (int i = inOffsets[target]; i < inOffsets[target + 1]; i++) {
+            action.accept(inSources[i], inWeights[i]);
+        }
+    }
+
+    // Graph operations:
+
+    /**
+     * Not supported, a FrozenGraph is immutable.
+     * @throws UnsupportedOperationException always
+     */
+    @Override public boolean add(L vertex) {
+        throw new UnsupportedOperationException("FrozenGraph is immutable");
+    }
+
+    /**
+     * Not supported, a FrozenGraph is immutable.
+     * @throws UnsupportedOperationException always
+     */
+    @Override public int set(L source, L target, int weight) {
+        throw new UnsupportedOperationException("FrozenGraph is immutable");
+    }
+
+    /**
+     * Not supported, a FrozenGraph is immutable.
+     * @throws UnsupportedOperationException always
+     */
+    @Override public boolean remove(L vertex) {
+        throw new UnsupportedOperationException("FrozenGraph is immutable");
+    }
+
+    /**
+     * Not supported, a FrozenGraph is immutable.
+     * @throws UnsupportedOperationException always
+     */
+    @Override public int merge(L source, L target, int delta) {
+        throw new UnsupportedOperationException("FrozenGraph is immutable");
+    }
+
+    @Override public FrozenGraph<L> freeze() {
+        return this;
+    }
+
+    @Override public Set<L> vertices() {
+        return vertices;
+    }
+
+    @Override public Map<L, Integer> sources(L target) {
+        int id = id(target);
+        if (id < 0) {
+            return Collections.emptyMap();
+        }
+        return new Row(inOffsets[id], inOffsets[id + 1], inSources, inWeights);
+    }
+
+    @Override public Map<L, Integer> targets(L source) {
+        int id = id(source);
+        if (id < 0) {
+            return Collections.emptyMap();
+        }
+        return new Row(outOffsets[id], outOffsets[id + 1], outTargets, outWeights);
+    }
+
+    @Override public Set<L> verticesView() {
+        return vertices;
+    }
+
+    @Override public Map<L, Integer> sourcesView(L target) {
+        return sources(target);
+    }
+
+    @Override public Map<L, Integer> targetsView(L source) {
+        return targets(source);
+    }
+
+    @Override public void forEachEdge(EdgeVisitor<L> visitor) {
+        for (int v = 0; v < labels.length; v++) {
+            L source = label(v);
+            for (int i = outOffsets[v]; i < outOffsets[v + 1]; i++) {
+                visitor.visit(source, label(outTargets[i]), outWeights[i]);
+            }
+        }
+    }
+
+    @Override public void forEachTarget(L source, ObjIntConsumer<L> action) {
+        int id = id(source);
+        if (id < 0) {
+            return;
+        }
+        for (int i = outOffsets[id]; i < outOffsets[id + 1]; i++) {
+            action.accept(label(outTargets[i]), outWeights[i]);
+        }
+    }
+
+    // toString()
+    @Override public String toString() {
+        return GraphExporter.toString(this);
+    }
+
+    /**
+     * An unmodifiable map view of one row of the forward or reverse index,
+     * from neighbor labels to edge weights.
+     */
+    private final class Row extends AbstractMap<L, Integer> {
+
+        private final int start;
+        private final int end;
+        private final int[] neighbors;
+        private final int[] weights;
+
+        // Abstraction function:
+        //   represents {label(neighbors[i]) -> weights[i] | start <= i < end}
+        // Representation invariant:
+        //   0 <= start <= end <= neighbors.length == weights.length, neighbors[start..end) increasing
+        // Safety from rep exposure:
+        //   all fields are private and final, arrays are never returned, the view cannot be modified
+
+        Row(int start, int end, int[] neighbors, int[] weights) {
+            this.start = start;
+            this.end = end;
+            this.neighbors = neighbors;
+            this.weights = weights;
+        }
+
+        @Override public int size() {
+            return end - start;
+        }
+
+        @Override public boolean containsKey(Object key) {
+            return find(key) >= 0;
+        }
+
+        @Override public Integer get(Object key) {
+            int i = find(key);
+            return i < 0 ? null : weights[i];
+        }
+
+        // find()
+        /**
+         * @return index of key in neighbors[start..end), or -1 if key is not in this row
+         */
+        private int find(Object key) {
+            Integer id = ids.get(key);
+            if (id == null) {
+                return -1;
+            }
+            int i = Arrays.binarySearch(neighbors, start, end, id);
+            return i < 0 ? -1 : i;
+        }
+
+        @Override public Set<Map.Entry<L, Integer>> entrySet() {
+            return new AbstractSet<Map.Entry<L, Integer>>() {
+                @Override public int size() {
+                    return end - start;
+                }
+
+                @Override public Iterator<Map.Entry<L, Integer>> iterator() {
+                    return new Iterator<Map.Entry<L, Integer>>() {
+                        private int next = start;
+
+                        @Override public boolean hasNext() {
+                            return next < end;
+                        }
+
+                        @Override public Map.Entry<L, Integer> next() {
+                            if (next >= end) {
+                                throw new NoSuchElementException();
+                            }
+                            Map.Entry<L, Integer> entry = new AbstractMap.SimpleImmutableEntry<L, Integer>(
+                                    label(neighbors[next]), weights[next]);
+                            next++;
+                            return entry;
+                        }
+                    };
+                }
+            };
+        }
+    }
+
+}
@@ -5,6 +5,7 @@ package graph;
 
 import java.util.Map;
 import java.util.Set;
+import java.util.function.ObjIntConsumer;
 
 /**
  * A mutable weighted directed graph with labeled vertices.
@@ -54,6 +55,32 @@ public interface Graph<L> {
      */
     public int set(L source, L target, int weight);
     
+    /**
+     * Add to the weight of a directed edge in this graph, adding the edge with
+     * weight delta if it does not exist; vertices with the given labels are
+     * added to the graph if they do not already exist.
+     * Implementations find the edge once, and thread-safe implementations
+     * perform the whole update atomically.
+     * 
+     * @param source label of the source vertex
+     * @param target label of the target vertex
+     * @param delta positive amount to add to the weight of the edge
+     * @return the previous weight of the edge, or zero if there was no such
+     *         edge
+     * @throws IllegalArgumentException if delta is not positive (and this
+     *         graph is not modified)
+     */
+    public default int merge(L source, L target, int delta) {
+        if (delta <= 0) {
+            throw new IllegalArgumentException("delta must be positive: " + delta);
+        }
+        int previousWeight = set(source, target, delta);
+        if (previousWeight > 0) {
+            set(source, target, previousWeight + delta);
+        }
+        return previousWeight;
+    }
+    
     /**
      * Remove a vertex from this graph; any edges to or from the vertex are
      * also removed.
@@ -95,4 +122,139 @@ public interface Graph<L> {
      */
     public Map<L, Integer> targets(L source);
     
+    /**
+     * Get a read-only view of the vertices in this graph.
+     * The view is backed by this graph, so it reflects later changes to the
+     * graph; iterating the view while the graph is being modified has
+     * unspecified results.
+     * Implementations override this with a view of their rep that copies
+     * nothing; the default view calls vertices() again on every access, so it
+     * is live but copies the vertices each time it is read.
+     * 
+     * @return an unmodifiable set of labels of vertices in this graph
+     */
+    public default Set<L> verticesView() {
+        return GraphViews.vertices(this);
+    }
+    
+    /**
+     * Get a read-only view of the source vertices with directed edges to a
+     * target vertex and the weights of those edges, as {@link #sources(Object)}
+     * does.
+     * The view is backed by this graph, so it reflects later changes to the
+     * graph; iterating the view while the graph is being modified has
+     * unspecified results.
+     * Implementations override this with a view of their rep that copies
+     * nothing; the default view calls sources(target) again on every access, so
+     * it is live but copies the sources each time it is read.
+     * 
+     * @param target a label
+     * @return an unmodifiable map with the same mappings as sources(target)
+     */
+    public default Map<L, Integer> sourcesView(L target) {
+        return GraphViews.sources(this, target);
+    }
+    
+    /**
+     * Get a read-only view of the target vertices with directed edges from a
+     * source vertex and the weights of those edges, as {@link #targets(Object)}
+     * does.
+     * The view is backed by this graph, so it reflects later changes to the
+     * graph; iterating the view while the graph is being modified has
+     * unspecified results.
+     * Implementations override this with a view of their rep that copies
+     * nothing; the default view calls targets(source) again on every access, so
+     * it is live but copies the targets each time it is read.
+     * 
+     * @param source a label
+     * @return an unmodifiable map with the same mappings as targets(source)
+     */
+    public default Map<L, Integer> targetsView(L source) {
+        return GraphViews.targets(this, source);
+    }
+    
+    /**
+     * Call visitor once for every edge in this graph, in no particular order.
+     * Implementations walk their own representation, so no copies of the
+     * adjacency of each vertex are made. visitor must not modify this graph.
+     * 
+     * @param visitor called with the source, target and weight of each edge
+     */
+    public default void forEachEdge(EdgeVisitor<L> visitor) {
+        for (L source : verticesView()) {
+            for (Map.Entry<L, Integer> edge : targetsView(source).entrySet()) {
+                visitor.visit(source, edge.getKey(), edge.getValue());
+            }
+        }
+    }
+    
+    /**
+     * Call action once for every edge from a source vertex, in no particular
+     * order, with the target and weight of the edge, without copying the
+     * targets of source. action must not modify this graph.
+     * 
+     * @param source a label
+     * @param action called with the target and weight of each edge from
+     *               source; not called at all if source is not in this graph
+     */
+    public default void forEachTarget(L source, ObjIntConsumer<L> action) {
+        for (Map.Entry<L, Integer> edge : targetsView(source).entrySet()) {
+            action.accept(edge.getKey(), edge.getValue());
+        }
+    }
+    
+    /**
+     * Find the middle vertex of a maximum-weight two-edge path between two
+     * vertices, where the weight of a path is the sum of the weights of its
+     * edges.
+     * Of several such vertices, the one whose label has the smallest
+     * toString() is found, so the result does not depend on the order in
+     * which an implementation iterates its edges.
+     * Implementations iterate the smaller of targets(source) and
+     * sources(target) and look each of its vertices up in the other, so with
+     * views that copy nothing a call takes time proportional to the smaller
+     * of the two.
+     *
+     * @param source a label
+     * @param target a label
+     * @return a label b such that this graph includes edges from source to b
+     *         and from b to target, and no such path through another vertex
+     *         has greater weight, nor equal weight and a smaller toString();
+     *         null if there is no such b
+     */
+    public default L bestIntermediate(L source, L target) {
+        Map<L, Integer> out = targetsView(source);
+        Map<L, Integer> in = sourcesView(target);
+        Map<L, Integer> smaller = out.size() <= in.size() ? out : in;
+        Map<L, Integer> larger = smaller == out ? in : out;
+        L best = null;
+        long bestWeight = 0;
+        for (Map.Entry<L, Integer> edge : smaller.entrySet()) {
+            Integer other = larger.get(edge.getKey());
+            if (other == null) {
+                continue;
+            }
+            long weight = edge.getValue() + (long) other;
+            // labels are only compared on ties, which are rare
+            if (weight > bestWeight
+                    || weight == bestWeight && edge.getKey().toString().compareTo(best.toString()) < 0) {
+                best = edge.getKey();
+                bestWeight = weight;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Create an immutable snapshot of this graph in compressed sparse row
+     * form, for graphs that are built once and then only queried.
+     * The snapshot rejects mutation, can be shared between threads without
+     * locking, and is not affected by later changes to this graph.
+     * 
+     * @return a read-only graph with the same vertices and edges as this graph
+     */
+    public default FrozenGraph<L> freeze() {
+        return FrozenGraph.of(this);
+    }
+    
 }
@@ -0,0 +1,157 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.Objects;
+
+/**
+ * An immutable change to a graph, published by {@link ListenableGraph}.
+ * Every event is one of {@link VertexAdded}, {@link VertexRemoved} and
+ * {@link EdgeWeightChanged}.
+ *
+ * @param <L> type of vertex labels in the graph
+ */
+public abstract class GraphEvent<L> {
+
+    // only the nested classes below extend GraphEvent
+    private GraphEvent() {
+    }
+
+    /**
+     * A vertex was added to the graph.
+     */
+    public static final class VertexAdded<L> extends GraphEvent<L> {
+        private final L vertex;
+
+        /**
+         * @param vertex - label of the added vertex
+         */
+        public VertexAdded(L vertex) {
+            this.vertex = vertex;
+        }
+
+        /**
+         * @return label of the added vertex
+         */
+        public L vertex() {
+            return vertex;
+        }
+
+        @Override public boolean equals(Object that) {
+            return that instanceof VertexAdded<?> && vertex.equals(((VertexAdded<?>) that).vertex);
+        }
+
+        @Override public int hashCode() {
+            return vertex.hashCode();
+        }
+
+        @Override public String toString() {
+            return "VertexAdded(" + vertex + ")";
+        }
+    }
+
+    /**
+     * A vertex was removed from the graph. The removal of its edges is
+     * published first, as EdgeWeightChanged events with new weight 0.
+     */
+    public static final class VertexRemoved<L> extends GraphEvent<L> {
+        private final L vertex;
+
+        /**
+         * @param vertex - label of the removed vertex
+         */
+        public VertexRemoved(L vertex) {
+            this.vertex = vertex;
+        }
+
+        /**
+         * @return label of the removed vertex
+         */
+        public L vertex() {
+            return vertex;
+        }
+
+        @Override public boolean equals(Object that) {
+            return that instanceof VertexRemoved<?> && vertex.equals(((VertexRemoved<?>) that).vertex);
+        }
+
+        @Override public int hashCode() {
+            return ~vertex.hashCode();
+        }
+
+        @Override public String toString() {
+            return "VertexRemoved(" + vertex + ")";
+        }
+    }
+
+    /**
+     * The weight of an edge changed. An old weight of 0 means the edge was
+     * added, and a new weight of 0 means it was removed.
+     */
+    public static final class EdgeWeightChanged<L> extends GraphEvent<L> {
+        private final L source;
+        private final L target;
+        private final int oldWeight;
+        private final int newWeight;
+
+        /**
+         * @param source - label of the source of the edge
+         * @param target - label of the target of the edge
+         * @param oldWeight - weight before the change, 0 if there was no edge
+         * @param newWeight - weight after the change, 0 if the edge was removed
+         */
+        public EdgeWeightChanged(L source, L target, int oldWeight, int newWeight) {
+            this.source = source;
+            this.target = target;
+            this.oldWeight = oldWeight;
+            this.newWeight = newWeight;
+        }
+
+        /**
+         * @return label of the source of the edge
+         */
+        public L source() {
+            return source;
+        }
+
+        /**
+         * @return label of the target of the edge
+         */
+        public L target() {
+            return target;
+        }
+
+        /**
+         * @return weight before the change, 0 if there was no edge
+         */
+        public int oldWeight() {
+            return oldWeight;
+        }
+
+        /**
+         * @return weight after the change, 0 if the edge was removed
+         */
+        public int newWeight() {
+            return newWeight;
+        }
+
+        @Override public boolean equals(Object that) {
+            if (!(that instanceof EdgeWeightChanged<?>)) {
+                return false;
+            }
+            EdgeWeightChanged<?> thatEvent = (EdgeWeightChanged<?>) that;
+            return source.equals(thatEvent.source) && target.equals(thatEvent.target)
+                    && oldWeight == thatEvent.oldWeight && newWeight == thatEvent.newWeight;
+        }
+
+        @Override public int hashCode() {
+            return Objects.hash(source, target, oldWeight, newWeight);
+        }
+
+        @Override public String toString() {
+            return "EdgeWeightChanged(" + source + " -> " + target + ": " + oldWeight + " -> " + newWeight + ")";
+        }
+    }
+
+}
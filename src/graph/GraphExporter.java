@@ -0,0 +1,246 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes graphs as text, in a single pass over the edges and straight to a
+ * Writer or OutputStream, so exports take time linear in the size of the
+ * output and constant extra memory.
+ *
+ * <p>Edges are visited with {@link Graph#forEachEdge(EdgeVisitor)}, in the
+ * order the graph visits them. Vertex labels are written with toString().
+ */
+public final class GraphExporter {
+
+    /**
+     * Text formats a graph can be exported to.
+     */
+    public enum Format {
+        /**
+         * One line "source -> target: weight" per edge, the format of the
+         * toString() of the graphs in this package. Vertices without edges
+         * are not written.
+         */
+        TEXT,
+        /**
+         * Edge list with one line "source TAB target TAB weight" per edge.
+         * Backslash, tab, carriage return and newline in labels are escaped
+         * as \\, \t, \r and \n. Vertices without edges are not written.
+         */
+        TSV,
+        /**
+         * Graphviz DOT digraph with every vertex as a quoted node and every
+         * edge with a weight attribute.
+         */
+        DOT,
+        /**
+         * JSON object {"vertices": [label, ...], "edges": [{"source":
+         * label, "target": label, "weight": n}, ...]} with labels as strings.
+         */
+        JSON
+    }
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private GraphExporter() {
+        throw new AssertionError("GraphExporter is not instantiable");
+    }
+
+    /**
+     * Writes graph to out in the given format, buffering the output.
+     * out is flushed but not closed.
+     * @param graph - graph to be written, not modified while it is written
+     * @param format - format of the output
+     * @param out - destination of the output
+     * @throws IOException if out throws IOException
+     */
+    public static <L> void export(Graph<L> graph, Format format, Writer out) throws IOException {
+        Writer buffered = out instanceof BufferedWriter || out instanceof StringWriter
+                ? out : new BufferedWriter(out, BUFFER_SIZE);
+        try {
+            switch (format) {
+            case TEXT:
+                graph.forEachEdge((source, target, weight) -> writeText(buffered, source, target, weight));
+                break;
+            case TSV:
+                graph.forEachEdge((source, target, weight) -> writeTsv(buffered, source, target, weight));
+                break;
+            case DOT:
+                writeDot(graph, buffered);
+                break;
+            case JSON:
+                writeJson(graph, buffered);
+                break;
+            default:
+                throw new AssertionError("unknown format " + format);
+            }
+        } catch (UncheckedIOException e) {
+            // visitors cannot throw IOException, so they wrap it
+            throw e.getCause();
+        }
+        buffered.flush();
+    }
+
+    /**
+     * Writes graph to out in the given format as UTF-8, buffering the output.
+     * out is flushed but not closed.
+     * @param graph - graph to be written, not modified while it is written
+     * @param format - format of the output
+     * @param out - destination of the output
+     * @throws IOException if out throws IOException
+     */
+    public static <L> void export(Graph<L> graph, Format format, OutputStream out) throws IOException {
+        export(graph, format, new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE));
+    }
+
+    /**
+     * @param graph - graph to be written
+     * @return graph in the TEXT format, as returned by toString() of the graphs in this package
+     */
+    public static <L> String toString(Graph<L> graph) {
+        StringWriter out = new StringWriter();
+        try {
+            export(graph, Format.TEXT, out);
+        } catch (IOException e) {
+            throw new AssertionError("StringWriter does not throw IOException", e);
+        }
+        return out.toString();
+    }
+
+    // TEXT
+
+    private static void writeText(Writer out, Object source, Object target, int weight) {
+        try {
+            out.write(source.toString());
+            out.write(" -> ");
+            out.write(target.toString());
+            out.write(": ");
+            out.write(Integer.toString(weight));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // TSV
+
+    private static void writeTsv(Writer out, Object source, Object target, int weight) {
+        try {
+            writeTsvField(out, source.toString());
+            out.write('\t');
+            writeTsvField(out, target.toString());
+            out.write('\t');
+            out.write(Integer.toString(weight));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeTsvField(Writer out, String field) throws IOException {
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            switch (c) {
+            case '\\': out.write("\\\\"); break;
+            case '\t': out.write("\\t"); break;
+            case '\r': out.write("\\r"); break;
+            case '\n': out.write("\\n"); break;
+            default: out.write(c);
+            }
+        }
+    }
+
+    // DOT
+
+    private static <L> void writeDot(Graph<L> graph, Writer out) throws IOException {
+        out.write("digraph {\n");
+        for (L vertex : graph.verticesView()) {
+            out.write("  ");
+            writeQuoted(out, vertex.toString());
+            out.write(";\n");
+        }
+        graph.forEachEdge((source, target, weight) -> {
+            try {
+                out.write("  ");
+                writeQuoted(out, source.toString());
+                out.write(" -> ");
+                writeQuoted(out, target.toString());
+                out.write(" [weight=");
+                out.write(Integer.toString(weight));
+                out.write("];\n");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        out.write("}\n");
+    }
+
+    // JSON
+
+    private static <L> void writeJson(Graph<L> graph, Writer out) throws IOException {
+        out.write("{\"vertices\": [");
+        boolean first = true;
+        for (L vertex : graph.verticesView()) {
+            if (!first) {
+                out.write(", ");
+            }
+            first = false;
+            writeQuoted(out, vertex.toString());
+        }
+        out.write("], \"edges\": [");
+        boolean[] firstEdge = {true};
+        graph.forEachEdge((source, target, weight) -> {
+            try {
+                out.write(firstEdge[0] ? "\n  " : ",\n  ");
+                firstEdge[0] = false;
+                out.write("{\"source\": ");
+                writeQuoted(out, source.toString());
+                out.write(", \"target\": ");
+                writeQuoted(out, target.toString());
+                out.write(", \"weight\": ");
+                out.write(Integer.toString(weight));
+                out.write('}');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        out.write(firstEdge[0] ? "]}\n" : "\n]}\n");
+    }
+
+    /**
+     * Writes s as a double-quoted string, escaped so that it is valid in both
+     * JSON and DOT: quotes and backslashes are escaped, and control
+     * characters are written as \n, \r, \t or \\uXXXX.
+     */
+    private static void writeQuoted(Writer out, String s) throws IOException {
+        out.write('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+            case '"': out.write("\\\""); break;
+            case '\\': out.write("\\\\"); break;
+            case '\n': out.write("\\n"); break;
+            case '\r': out.write("\\r"); break;
+            case '\t': out.write("\\t"); break;
+            default:
+                if (c < 0x20) {
+                    out.write(String.format("\\u%04x", (int) c));
+                } else {
+                    out.write(c);
+                }
+            }
+        }
+        out.write('"');
+    }
+
+}
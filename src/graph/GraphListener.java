@@ -0,0 +1,26 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.List;
+
+/**
+ * A receiver of the changes made to a {@link ListenableGraph}, used to keep
+ * derived structures up to date in time proportional to the number of changes.
+ *
+ * @param <L> type of vertex labels of the graph
+ */
+@FunctionalInterface
+public interface GraphListener<L> {
+
+    /**
+     * Receives the changes made by one mutation of the graph, or by all the
+     * mutations of one batch, in the order they were made. The graph already
+     * reflects every change in events when this is called.
+     *
+     * @param events unmodifiable non-empty list of changes
+     */
+    public void graphChanged(List<GraphEvent<L>> events);
+
+}
@@ -0,0 +1,337 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+
+/**
+ * Loads weighted edge lists into a Graph, parsing the file in parallel.
+ *
+ * <p>The input has one edge per line, "source TAB target TAB weight", with a
+ * positive decimal weight, encoded in UTF-8. Lines may end with LF or CRLF,
+ * and empty lines are skipped. Fields are taken literally; the escapes
+ * written by {@link GraphExporter.Format#TSV} are not decoded. Edges that
+ * appear more than once have their weights added, as by
+ * {@link Graph#merge(Object, Object, int)}.
+ *
+ * <p>The file is split at line boundaries into chunks, each chunk is
+ * memory-mapped and parsed by its own task on a ForkJoinPool, and parsed
+ * chunks are inserted into the graph in file order while later chunks are
+ * still being parsed. A ConcurrentGraph is filled directly by the parsing
+ * tasks instead, since it accepts writers from many threads.
+ */
+public final class GraphLoader {
+
+    private static final int MIN_CHUNK_BYTES = 1 << 20;
+    private static final int MAX_CHUNK_BYTES = 1 << 28;
+    private static final int CHUNKS_PER_THREAD = 4;
+    // estimated bytes per line, used to pre-size the arrays of each chunk
+    private static final int BYTES_PER_LINE = 24;
+
+    /**
+     * Statistics of one load.
+     */
+    public static final class Statistics {
+        private final long lines;
+        private final long bytes;
+        private final long nanos;
+
+        Statistics(long lines, long bytes, long nanos) {
+            this.lines = lines;
+            this.bytes = bytes;
+            this.nanos = nanos;
+        }
+
+        /**
+         * @return number of edge lines loaded
+         */
+        public long lines() {
+            return lines;
+        }
+
+        /**
+         * @return size of the file in bytes
+         */
+        public long bytes() {
+            return bytes;
+        }
+
+        /**
+         * @return wall-clock time of the load, in nanoseconds
+         */
+        public long nanos() {
+            return nanos;
+        }
+
+        /**
+         * @return edge lines loaded per second
+         */
+        public double linesPerSecond() {
+            return nanos == 0 ? 0 : lines * 1e9 / nanos;
+        }
+
+        /**
+         * @return megabytes (10^6 bytes) of input loaded per second
+         */
+        public double megabytesPerSecond() {
+            return nanos == 0 ? 0 : bytes * 1e3 / nanos;
+        }
+
+        @Override public String toString() {
+            return String.format("%d lines, %d bytes in %.3f s (%.0f lines/s, %.1f MB/s)",
+                    lines, bytes, nanos / 1e9, linesPerSecond(), megabytesPerSecond());
+        }
+    }
+
+    private GraphLoader() {
+        throw new AssertionError("GraphLoader is not instantiable");
+    }
+
+    /**
+     * Loads an edge list with String labels on the common ForkJoinPool
+     * @param file - edge list, as described above
+     * @param graph - graph the edges are added to
+     * @return statistics of the load
+     * @throws IOException if the file cannot be read or has a malformed line;
+     *                     graph may then contain some of the edges of the file
+     */
+    public static Statistics load(File file, Graph<String> graph) throws IOException {
+        return load(file, graph, Function.identity(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Loads an edge list
+     * @param file - edge list, as described above
+     * @param graph - graph the edges are added to
+     * @param labels - converts each source and target field to a vertex label; called from
+     *                 the threads of pool, so it must be thread-safe
+     * @param pool - pool the file is parsed on; its parallelism sets the number of chunks
+     * @return statistics of the load
+     * @throws IOException if the file cannot be read or has a malformed line;
+     *                     graph may then contain some of the edges of the file
+     */
+    public static <L> Statistics load(File file, Graph<L> graph, Function<String, L> labels, ForkJoinPool pool)
+            throws IOException {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long[] bounds = chunkBounds(channel, size, pool.getParallelism());
+            boolean direct = graph instanceof ConcurrentGraph;
+            List<ParseChunk<L>> tasks = new ArrayList<>();
+            for (int i = 0; i + 1 < bounds.length; i++) {
+                MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, bounds[i], bounds[i + 1] - bounds[i]);
+                ParseChunk<L> task = new ParseChunk<>(chunk, bounds[i], labels, direct ? graph : null);
+                tasks.add(task);
+                pool.execute(task);
+            }
+            long lines = 0;
+            try {
+                for (ParseChunk<L> task : tasks) {
+                    Edges<L> edges = task.join();
+                    lines += edges.lines;
+                    for (int i = 0; i < edges.size; i++) {
+                        graph.merge(edges.source(i), edges.target(i), edges.weights[i]);
+                    }
+                }
+            } catch (UncheckedIOException e) {
+                for (ParseChunk<L> task : tasks) {
+                    task.cancel(true);
+                }
+                throw e.getCause();
+            }
+            return new Statistics(lines, size, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Splits [0, size) into chunks that end just after a newline or at the end of the file
+     * @return increasing chunk boundaries, starting with 0 and ending with size
+     */
+    private static long[] chunkBounds(FileChannel channel, long size, int parallelism) throws IOException {
+        long target = Math.max(MIN_CHUNK_BYTES, Math.min(MAX_CHUNK_BYTES, size / (parallelism * CHUNKS_PER_THREAD) + 1));
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer window = ByteBuffer.allocate(4096);
+        long position = 0;
+        while (size - position > target) {
+            long end = position + target;
+            long newline = -1;
+            while (newline < 0 && end < size) {
+                window.clear();
+                int read = channel.read(window, end);
+                for (int i = 0; i < read && newline < 0; i++) {
+                    if (window.get(i) == '\n') {
+                        newline = end + i;
+                    }
+                }
+                end += Math.max(read, 0);
+                if (read <= 0) {
+                    break;
+                }
+            }
+            if (newline < 0 || newline + 1 >= size) {
+                break;
+            }
+            position = newline + 1;
+            bounds.add(position);
+        }
+        bounds.add(size);
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Edges parsed from one chunk, in file order.
+     */
+    private static final class Edges<L> {
+        private Object[] sources;
+        private Object[] targets;
+        private int[] weights;
+        private int size = 0;
+        private long lines = 0;
+
+        Edges(int expected) {
+            sources = new Object[expected];
+            targets = new Object[expected];
+            weights = new int[expected];
+        }
+
+        @SuppressWarnings("unchecked")
+        L source(int i) {
+            return (L) sources[i];
+        }
+
+        @SuppressWarnings("unchecked")
+        L target(int i) {
+            return (L) targets[i];
+        }
+
+        void add(L source, L target, int weight) {
+            if (size == weights.length) {
+                int capacity = Math.max(16, size * 2);
+                sources = Arrays.copyOf(sources, capacity);
+                targets = Arrays.copyOf(targets, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+            }
+            sources[size] = source;
+            targets[size] = target;
+            weights[size] = weight;
+            size++;
+        }
+    }
+
+    /**
+     * Parses one chunk of the file. If graph is not null the edges are merged
+     * into it directly and the result holds only the line count.
+     */
+    private static final class ParseChunk<L> extends RecursiveTask<Edges<L>> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient ByteBuffer chunk;
+        private final long offset;
+        private final transient Function<String, L> labels;
+        private final transient Graph<L> graph;
+        private byte[] scratch = new byte[64];
+
+        ParseChunk(ByteBuffer chunk, long offset, Function<String, L> labels, Graph<L> graph) {
+            this.chunk = chunk;
+            this.offset = offset;
+            this.labels = labels;
+            this.graph = graph;
+        }
+
+        @Override protected Edges<L> compute() {
+            int limit = chunk.limit();
+            Edges<L> edges = new Edges<>(graph == null ? limit / BYTES_PER_LINE + 1 : 0);
+            int lineStart = 0;
+            while (lineStart < limit) {
+                int lineEnd = lineStart;
+                while (lineEnd < limit && chunk.get(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+                int contentEnd = lineEnd;
+                if (contentEnd > lineStart && chunk.get(contentEnd - 1) == '\r') {
+                    contentEnd--;
+                }
+                if (contentEnd > lineStart) {
+                    parseLine(lineStart, contentEnd, edges);
+                    edges.lines++;
+                }
+                lineStart = lineEnd + 1;
+            }
+            return edges;
+        }
+
+        /**
+         * Parses the line in chunk[start..end), copying it into scratch first
+         * so that fields are scanned in a byte array
+         */
+        private void parseLine(int start, int end, Edges<L> edges) {
+            int length = end - start;
+            if (length > scratch.length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            // chunk is only used by this task, so its position can be moved
+            chunk.position(start);
+            chunk.get(scratch, 0, length);
+            int firstTab = indexOfTab(0, length);
+            int secondTab = firstTab < 0 ? -1 : indexOfTab(firstTab + 1, length);
+            if (secondTab < 0 || indexOfTab(secondTab + 1, length) >= 0) {
+                throw malformed(start, "expected 3 tab-separated fields");
+            }
+            if (secondTab + 1 == length) {
+                throw malformed(start, "missing weight");
+            }
+            int weight = 0;
+            for (int i = secondTab + 1; i < length; i++) {
+                int digit = scratch[i] - '0';
+                if (digit < 0 || digit > 9 || weight > (Integer.MAX_VALUE - digit) / 10) {
+                    throw malformed(start, "weight is not a positive int");
+                }
+                weight = weight * 10 + digit;
+            }
+            if (weight == 0) {
+                throw malformed(start, "weight is not a positive int");
+            }
+            L source = labels.apply(new String(scratch, 0, firstTab, StandardCharsets.UTF_8));
+            L target = labels.apply(new String(scratch, firstTab + 1, secondTab - firstTab - 1, StandardCharsets.UTF_8));
+            if (graph != null) {
+                graph.merge(source, target, weight);
+            } else {
+                edges.add(source, target, weight);
+            }
+        }
+
+        private int indexOfTab(int start, int end) {
+            for (int i = start; i < end; i++) {
+                if (scratch[i] == '\t') {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private UncheckedIOException malformed(int lineStart, String reason) {
+            return new UncheckedIOException(new IOException(
+                    "malformed edge at byte offset " + (offset + lineStart) + ": " + reason));
+        }
+    }
+
+}
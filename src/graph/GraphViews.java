@@ -0,0 +1,135 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The live views Graph gives by default, for implementations that do not
+ * override verticesView(), sourcesView() and targetsView().
+ *
+ * <p>Each view holds only the graph and the label it was asked for, and calls
+ * vertices(), sources() or targets() again on every access, so it reflects
+ * every change made to the graph after it was created. Those calls copy, so
+ * implementations should override the views with ones backed by their rep.
+ */
+final class GraphViews {
+
+    private GraphViews() {
+        throw new AssertionError("GraphViews is not instantiable");
+    }
+
+    /**
+     * @param graph - graph to view
+     * @return unmodifiable live view of graph.vertices()
+     */
+    static <L> Set<L> vertices(Graph<L> graph) {
+        return new VerticesView<>(graph);
+    }
+
+    /**
+     * @param graph - graph to view
+     * @param target - a label
+     * @return unmodifiable live view of graph.sources(target)
+     */
+    static <L> Map<L, Integer> sources(Graph<L> graph, L target) {
+        return new WeightsView<>(graph, target, false);
+    }
+
+    /**
+     * @param graph - graph to view
+     * @param source - a label
+     * @return unmodifiable live view of graph.targets(source)
+     */
+    static <L> Map<L, Integer> targets(Graph<L> graph, L source) {
+        return new WeightsView<>(graph, source, true);
+    }
+
+    /**
+     * A live view of the vertices of a graph.
+     */
+    private static final class VerticesView<L> extends AbstractSet<L> {
+        private final Graph<L> graph;
+
+        // Abstraction function:
+        //   represents graph.vertices(), as it is whenever it is read
+        // Representation invariant:
+        //   true
+        // Safety from rep exposure:
+        //   graph is private and final; iterators are those of unmodifiable copies
+
+        VerticesView(Graph<L> graph) {
+            this.graph = graph;
+        }
+
+        @Override public int size() {
+            return graph.vertices().size();
+        }
+
+        @Override public boolean contains(Object vertex) {
+            return graph.vertices().contains(vertex);
+        }
+
+        @Override public Iterator<L> iterator() {
+            return Collections.unmodifiableSet(graph.vertices()).iterator();
+        }
+    }
+
+    /**
+     * A live view of the sources or targets of one vertex of a graph.
+     */
+    private static final class WeightsView<L> extends AbstractMap<L, Integer> {
+        private final Graph<L> graph;
+        private final L vertex;
+        private final boolean outgoing;
+
+        // Abstraction function:
+        //   represents graph.targets(vertex) if outgoing, otherwise graph.sources(vertex),
+        //   as it is whenever it is read
+        // Representation invariant:
+        //   true
+        // Safety from rep exposure:
+        //   fields are private and final; iterators are those of unmodifiable copies
+
+        WeightsView(Graph<L> graph, L vertex, boolean outgoing) {
+            this.graph = graph;
+            this.vertex = vertex;
+            this.outgoing = outgoing;
+        }
+
+        private Map<L, Integer> edges() {
+            return outgoing ? graph.targets(vertex) : graph.sources(vertex);
+        }
+
+        @Override public int size() {
+            return edges().size();
+        }
+
+        @Override public boolean containsKey(Object key) {
+            return edges().containsKey(key);
+        }
+
+        @Override public Integer get(Object key) {
+            return edges().get(key);
+        }
+
+        @Override public Set<Map.Entry<L, Integer>> entrySet() {
+            return new AbstractSet<Map.Entry<L, Integer>>() {
+                @Override public int size() {
+                    return edges().size();
+                }
+
+                @Override public Iterator<Map.Entry<L, Integer>> iterator() {
+                    return Collections.unmodifiableMap(edges()).entrySet().iterator();
+                }
+            };
+        }
+    }
+
+}
@@ -0,0 +1,355 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import graph.MetricsSnapshot.OperationStats;
+
+/**
+ * A Graph decorator that records, for every operation, the number of calls,
+ * a histogram of their latencies and the sizes of the maps and sets they
+ * return. Metrics are read with {@link #snapshot()} or over JMX after
+ * {@link #registerMBean(String)}.
+ *
+ * <p>Call counts and result sizes are recorded for every call. Latency is
+ * recorded for a random sample of the calls, one in latencySampleInterval on
+ * average: reading the clock twice costs more than the rest of the recording
+ * together, so sampling is what keeps the overhead low enough to stay on in
+ * production. Recording takes no locks and allocates nothing, and only
+ * touches per-operation counters that are built for concurrent updates.
+ * Calls that throw an exception are not recorded. InstrumentedGraph is as
+ * thread-safe as the wrapped graph; recording itself is thread-safe.
+ *
+ * @param <L> type of vertex labels in this graph, must be immutable
+ */
+public class InstrumentedGraph<L> implements Graph<L> {
+
+    /**
+     * The operations of a graph that are measured.
+     */
+    public enum Operation {
+        ADD, SET, MERGE, REMOVE,
+        VERTICES, SOURCES, TARGETS,
+        VERTICES_VIEW, SOURCES_VIEW, TARGETS_VIEW,
+        FOR_EACH_EDGE, FOR_EACH_TARGET, BEST_INTERMEDIATE, FREEZE
+    }
+
+    /** Latency sample interval of {@link #InstrumentedGraph(Graph)}. */
+    public static final int DEFAULT_LATENCY_SAMPLE_INTERVAL = 8;
+
+    // start time of a call whose latency is not sampled
+    private static final long NOT_SAMPLED = Long.MIN_VALUE;
+
+    /**
+     * The metrics of one operation.
+     * This class is internal to the rep of InstrumentedGraph.
+     */
+    private static final class Metrics {
+        private final LongAdder calls = new LongAdder();
+        private final LatencyHistogram latencies = new LatencyHistogram();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder totalResultSize = new LongAdder();
+        private final LongAccumulator maxResultSize = new LongAccumulator(Math::max, 0);
+
+        void record(long start, int resultSize) {
+            if (start != NOT_SAMPLED) {
+                long nanos = System.nanoTime() - start;
+                latencies.record(nanos);
+                totalNanos.add(nanos);
+                maxNanos.accumulate(nanos);
+            }
+            calls.increment();
+            if (resultSize > 0) {
+                totalResultSize.add(resultSize);
+                maxResultSize.accumulate(resultSize);
+            }
+        }
+
+        OperationStats stats(Operation operation) {
+            return new OperationStats(operation, calls.sum(), latencies.counts(), totalNanos.sum(), maxNanos.get(),
+                    totalResultSize.sum(), maxResultSize.get());
+        }
+
+        void reset() {
+            calls.reset();
+            latencies.reset();
+            totalNanos.reset();
+            maxNanos.reset();
+            totalResultSize.reset();
+            maxResultSize.reset();
+        }
+    }
+
+    private final Graph<L> graph;
+    private final int sampleMask;
+    private final Metrics[] metrics = new Metrics[Operation.values().length];
+
+    // Abstraction function:
+    //   represents graph, with metrics[op.ordinal()] holding the metrics of operation op
+    // Representation invariant:
+    //   every element of metrics is non-null
+    //   sampleMask + 1 is a power of two, the latency sample interval
+    // Safety from rep exposure:
+    //   all fields are private and final, metrics are only returned as immutable snapshots
+    //   the wrapped graph was passed in by the client
+    // Thread safety argument:
+    //   metrics is never changed after construction, and each Metrics only holds
+    //   thread-safe counters; graph operations are as thread-safe as graph
+
+    // constructor
+    /**
+     * Wraps a graph, sampling the latency of one in DEFAULT_LATENCY_SAMPLE_INTERVAL calls
+     * @param graph - graph to measure
+     */
+    public InstrumentedGraph(Graph<L> graph) {
+        this(graph, DEFAULT_LATENCY_SAMPLE_INTERVAL);
+    }
+
+    /**
+     * Wraps a graph
+     * @param graph - graph to measure
+     * @param latencySampleInterval - the latency of one in this many calls is recorded, on average;
+     *                                1 records every call; must be a power of two
+     * @throws IllegalArgumentException if latencySampleInterval is not a positive power of two
+     */
+    public InstrumentedGraph(Graph<L> graph, int latencySampleInterval) {
+        if (latencySampleInterval <= 0 || Integer.bitCount(latencySampleInterval) != 1) {
+            throw new IllegalArgumentException("latencySampleInterval must be a power of two: "
+                    + latencySampleInterval);
+        }
+        this.graph = graph;
+        this.sampleMask = latencySampleInterval - 1;
+        for (int i = 0; i < metrics.length; i++) {
+            metrics[i] = new Metrics();
+        }
+        checkRep();
+    }
+
+    // checkRep
+    private void checkRep() {
+        assert Integer.bitCount(sampleMask + 1) == 1;
+        for (Metrics operationMetrics : metrics) {
+            assert operationMetrics != null;
+        }
+    }
+
+    /**
+     * @return start time of a call if its latency is sampled, NOT_SAMPLED otherwise
+     */
+    private long start() {
+        if (sampleMask != 0 && (ThreadLocalRandom.current().nextInt() & sampleMask) != 0) {
+            return NOT_SAMPLED;
+        }
+        return System.nanoTime();
+    }
+
+    private void record(Operation operation, long start, int resultSize) {
+        metrics[operation.ordinal()].record(start, resultSize);
+    }
+
+    // Metrics operations:
+
+    /**
+     * @return a copy of the metrics recorded so far; metrics recorded while the
+     *         copy is taken may be partly included
+     */
+    public MetricsSnapshot snapshot() {
+        Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, metrics[operation.ordinal()].stats(operation));
+        }
+        return new MetricsSnapshot(System.nanoTime(), stats);
+    }
+
+    /**
+     * Forgets every metric recorded so far; metrics recorded concurrently may or may not be kept
+     */
+    public void reset() {
+        for (Metrics operationMetrics : metrics) {
+            operationMetrics.reset();
+        }
+    }
+
+    /**
+     * Registers an {@link InstrumentedGraphMXBean} for this graph with the platform MBean server
+     * @param name - name of this graph, used as the name key of the object name
+     * @return object name the MXBean was registered under, "graph:type=InstrumentedGraph,name=..."
+     * @throws JMException if an MBean with that object name is already registered
+     */
+    public ObjectName registerMBean(String name) throws JMException {
+        ObjectName objectName = new ObjectName("graph:type=InstrumentedGraph,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(
+                new StandardMBean(new Management(), InstrumentedGraphMXBean.class, true), objectName);
+        return objectName;
+    }
+
+    /**
+     * The JMX view of the metrics of this graph.
+     */
+    private final class Management implements InstrumentedGraphMXBean {
+
+        private <T> Map<String, T> byOperation(Function<OperationStats, T> metric) {
+            Map<String, T> values = new LinkedHashMap<>();
+            for (OperationStats stats : snapshot().all().values()) {
+                values.put(stats.operation().name(), metric.apply(stats));
+            }
+            return values;
+        }
+
+        private Map<String, Long> longs(ToLongFunction<OperationStats> metric) {
+            return byOperation(stats -> metric.applyAsLong(stats));
+        }
+
+        private Map<String, Double> doubles(ToDoubleFunction<OperationStats> metric) {
+            return byOperation(stats -> metric.applyAsDouble(stats));
+        }
+
+        @Override public Map<String, Long> getCallCounts() {
+            return longs(OperationStats::count);
+        }
+
+        @Override public Map<String, Double> getMeanLatencyNanos() {
+            return doubles(OperationStats::meanNanos);
+        }
+
+        @Override public Map<String, Long> getP99LatencyNanos() {
+            return longs(stats -> stats.percentileNanos(99));
+        }
+
+        @Override public Map<String, Long> getMaxLatencyNanos() {
+            return longs(OperationStats::maxNanos);
+        }
+
+        @Override public Map<String, Double> getMeanResultSizes() {
+            return doubles(OperationStats::meanResultSize);
+        }
+
+        @Override public void reset() {
+            InstrumentedGraph.this.reset();
+        }
+    }
+
+    // Graph operations:
+
+    @Override public boolean add(L vertex) {
+        long start = start();
+        boolean added = graph.add(vertex);
+        record(Operation.ADD, start, 0);
+        return added;
+    }
+
+    @Override public int set(L source, L target, int weight) {
+        long start = start();
+        int previousWeight = graph.set(source, target, weight);
+        record(Operation.SET, start, 0);
+        return previousWeight;
+    }
+
+    @Override public int merge(L source, L target, int delta) {
+        long start = start();
+        int previousWeight = graph.merge(source, target, delta);
+        record(Operation.MERGE, start, 0);
+        return previousWeight;
+    }
+
+    @Override public boolean remove(L vertex) {
+        long start = start();
+        boolean removed = graph.remove(vertex);
+        record(Operation.REMOVE, start, 0);
+        return removed;
+    }
+
+    @Override public Set<L> vertices() {
+        long start = start();
+        Set<L> vertices = graph.vertices();
+        record(Operation.VERTICES, start, vertices.size());
+        return vertices;
+    }
+
+    @Override public Map<L, Integer> sources(L target) {
+        long start = start();
+        Map<L, Integer> sources = graph.sources(target);
+        record(Operation.SOURCES, start, sources.size());
+        return sources;
+    }
+
+    @Override public Map<L, Integer> targets(L source) {
+        long start = start();
+        Map<L, Integer> targets = graph.targets(source);
+        record(Operation.TARGETS, start, targets.size());
+        return targets;
+    }
+
+    // views are live, so their size when returned says little; only their latency is recorded
+
+    @Override public Set<L> verticesView() {
+        long start = start();
+        Set<L> view = graph.verticesView();
+        record(Operation.VERTICES_VIEW, start, 0);
+        return view;
+    }
+
+    @Override public Map<L, Integer> sourcesView(L target) {
+        long start = start();
+        Map<L, Integer> view = graph.sourcesView(target);
+        record(Operation.SOURCES_VIEW, start, 0);
+        return view;
+    }
+
+    @Override public Map<L, Integer> targetsView(L source) {
+        long start = start();
+        Map<L, Integer> view = graph.targetsView(source);
+        record(Operation.TARGETS_VIEW, start, 0);
+        return view;
+    }
+
+    @Override public void forEachEdge(EdgeVisitor<L> visitor) {
+        long start = start();
+        graph.forEachEdge(visitor);
+        record(Operation.FOR_EACH_EDGE, start, 0);
+    }
+
+    @Override public void forEachTarget(L source, ObjIntConsumer<L> action) {
+        long start = start();
+        graph.forEachTarget(source, action);
+        record(Operation.FOR_EACH_TARGET, start, 0);
+    }
+
+    @Override public L bestIntermediate(L source, L target) {
+        long start = start();
+        L middle = graph.bestIntermediate(source, target);
+        record(Operation.BEST_INTERMEDIATE, start, 0);
+        return middle;
+    }
+
+    @Override public FrozenGraph<L> freeze() {
+        long start = start();
+        FrozenGraph<L> frozen = graph.freeze();
+        record(Operation.FREEZE, start, 0);
+        return frozen;
+    }
+
+    // toString()
+    @Override public String toString() {
+        return GraphExporter.toString(this);
+    }
+
+}
@@ -0,0 +1,45 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.Map;
+
+/**
+ * JMX management interface of an {@link InstrumentedGraph}, registered by
+ * {@link InstrumentedGraph#registerMBean(String)}. Every map is keyed by
+ * operation name and has an entry for every operation.
+ */
+public interface InstrumentedGraphMXBean {
+
+    /**
+     * @return number of calls of each operation
+     */
+    public Map<String, Long> getCallCounts();
+
+    /**
+     * @return mean latency of each operation, in nanoseconds
+     */
+    public Map<String, Double> getMeanLatencyNanos();
+
+    /**
+     * @return 99th percentile latency of each operation, in nanoseconds
+     */
+    public Map<String, Long> getP99LatencyNanos();
+
+    /**
+     * @return largest latency of each operation, in nanoseconds
+     */
+    public Map<String, Long> getMaxLatencyNanos();
+
+    /**
+     * @return mean number of entries in the maps or sets returned by each operation
+     */
+    public Map<String, Double> getMeanResultSizes();
+
+    /**
+     * Forgets every metric recorded so far.
+     */
+    public void reset();
+
+}
@@ -0,0 +1,473 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * An implementation of Graph that interns every vertex label to a dense int
+ * id and keeps adjacency in primitive int-to-int maps.
+ *
+ * <p>Besides the Graph operations, IntGraph offers primitive operations on
+ * vertex ids, so that hot callers can look a label up once with
+ * {@link #id(Object)} and then query or update edges without boxing.
+ * Ids of removed vertices are reused by vertices added later.
+ *
+ * @param <L> type of vertex labels in this graph, must be immutable
+ */
+public class IntGraph<L> implements Graph<L> {
+
+    private static final int NO_VERTEX = -1;
+
+    private final Map<L, Integer> ids;
+    private final List<L> labels;
+    private final Set<L> verticesView;
+    private IntIntMap[] outgoing;
+    private IntIntMap[] incoming;
+    private int[] freeIds = new int[0];
+    private int freeCount = 0;
+
+    // Abstraction function:
+    //   represents the graph with vertices {labels.get(i) | labels.get(i) != null}
+    //   and an edge from labels.get(s) to labels.get(t) with weight w for every
+    //   key t with value w in outgoing[s]
+    // Representation invariant:
+    //   ids.get(labels.get(i)) == i for every i with labels.get(i) != null, and ids has no other keys
+    //   outgoing[i] and incoming[i] are non-null exactly when labels.get(i) != null
+    //   outgoing[s].get(t) == incoming[t].get(s) for every s, t
+    //   freeIds[0..freeCount) are exactly the ids i < labels.size() with labels.get(i) == null
+    // Safety from rep exposure:
+    //   all fields are private, vertices(), sources() and targets() return new collections
+    //   verticesView, targetsView() and sourcesView() are unmodifiable views
+    //   labels are immutable, so label(id) can return them
+
+    // constructor
+    /**
+     * Creates an empty graph
+     */
+    public IntGraph() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty graph that can hold expectedVertices vertices before growing
+     * @param expectedVertices - expected number of vertices, nonnegative
+     */
+    public IntGraph(int expectedVertices) {
+        ids = new HashMap<>(expectedVertices * 2);
+        labels = new ArrayList<>(expectedVertices);
+        verticesView = Collections.unmodifiableSet(ids.keySet());
+        outgoing = new IntIntMap[Math.max(expectedVertices, 1)];
+        incoming = new IntIntMap[Math.max(expectedVertices, 1)];
+        checkRep();
+    }
+
+    // checkRep
+    private void checkRep() {
+        assert ids.size() + freeCount == labels.size();
+        assert outgoing.length == incoming.length;
+        assert labels.size() <= outgoing.length;
+    }
+
+    // Primitive operations:
+
+    /**
+     * Looks up the id of a vertex
+     * @param label - label of the vertex
+     * @return id of the vertex with that label, or -1 if there is no such vertex
+     */
+    public int id(L label) {
+        Integer id = ids.get(label);
+        return id == null ? NO_VERTEX : id;
+    }
+
+    /**
+     * Looks up the id of a vertex, adding the vertex if there is none
+     * @param label - label of the vertex
+     * @return id of the vertex with that label
+     */
+    public int intern(L label) {
+        Integer id = ids.get(label);
+        if (id != null) {
+            return id;
+        }
+        int newId;
+        if (freeCount > 0) {
+            newId = freeIds[--freeCount];
+            labels.set(newId, label);
+        } else {
+            newId = labels.size();
+            labels.add(label);
+            if (newId == outgoing.length) {
+                outgoing = Arrays.copyOf(outgoing, newId * 2);
+                incoming = Arrays.copyOf(incoming, newId * 2);
+            }
+        }
+        outgoing[newId] = new IntIntMap();
+        incoming[newId] = new IntIntMap();
+        ids.put(label, newId);
+        checkRep();
+        return newId;
+    }
+
+    /**
+     * @param id - id of a vertex in this graph
+     * @return label of the vertex with that id
+     */
+    public L label(int id) {
+        return labels.get(id);
+    }
+
+    /**
+     * @return one more than the largest id any vertex of this graph has, so
+     *         that arrays of this length can be indexed by vertex id
+     */
+    public int idBound() {
+        return labels.size();
+    }
+
+    /**
+     * @param source - id of a vertex in this graph
+     * @param target - id of a vertex in this graph
+     * @return weight of the edge from source to target, or zero if there is no such edge
+     */
+    public int weight(int source, int target) {
+        return outgoing[source].get(target);
+    }
+
+    /**
+     * Add, change, or remove the edge between two vertices, as set(L, L, int) does
+     * @param source - id of a vertex in this graph
+     * @param target - id of a vertex in this graph
+     * @param weight - nonnegative weight of the edge
+     * @return the previous weight of the edge, or zero if there was no such edge
+     */
+    public int set(int source, int target, int weight) {
+        int previousWeight;
+        if (weight > 0) {
+            previousWeight = outgoing[source].put(target, weight);
+            incoming[target].put(source, weight);
+        } else {
+            previousWeight = outgoing[source].remove(target);
+            incoming[target].remove(source);
+        }
+        return previousWeight;
+    }
+
+    /**
+     * Add to the weight of the edge between two vertices, as merge(L, L, int) does
+     * @param source - id of a vertex in this graph
+     * @param target - id of a vertex in this graph
+     * @param delta - positive amount to add to the weight of the edge
+     * @return the previous weight of the edge, or zero if there was no such edge
+     * @throws IllegalArgumentException if delta is not positive
+     */
+    public int merge(int source, int target, int delta) {
+        if (delta <= 0) {
+            throw new IllegalArgumentException("delta must be positive: " + delta);
+        }
+        incoming[target].add(source, delta);
+        return outgoing[source].add(target, delta);
+    }
+
+    /**
+     * @param source - id of a vertex in this graph
+     * @return number of edges from source
+     */
+    public int outDegree(int source) {
+        return outgoing[source].size();
+    }
+
+    /**
+     * @param target - id of a vertex in this graph
+     * @return number of edges to target
+     */
+    public int inDegree(int target) {
+        return incoming[target].size();
+    }
+
+    /**
+     * Finds the middle vertex of a maximum-weight two-edge path, as bestIntermediate(L, L) does,
+     * breaking ties by the toString() of the labels, in time proportional to the smaller of outDegree(source) and inDegree(target)
+     * @param source - id of a vertex in this graph
+     * @param target - id of a vertex in this graph
+     * @return id of the middle vertex, or -1 if there is no two-edge path from source to target
+     */
+    public int bestIntermediate(int source, int target) {
+        IntIntMap out = outgoing[source];
+        IntIntMap in = incoming[target];
+        IntIntMap smaller = out.size() <= in.size() ? out : in;
+        IntIntMap larger = smaller == out ? in : out;
+        int best = NO_VERTEX;
+        long bestWeight = 0;
+        for (int slot = 0; slot < smaller.capacity(); slot++) {
+            int middle = smaller.keyAt(slot);
+            if (middle >= 0) {
+                // weights are positive, so zero means no edge
+                int other = larger.get(middle);
+                if (other <= 0) {
+                    continue;
+                }
+                long weight = smaller.valueAt(slot) + (long) other;
+                // labels are only compared on ties, which are rare
+                if (weight > bestWeight || weight == bestWeight
+                        && labels.get(middle).toString().compareTo(labels.get(best).toString()) < 0) {
+                    best = middle;
+                    bestWeight = weight;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Calls action with the id and weight of every target of source, in no particular order.
+     * action must not modify this graph.
+     * @param source - id of a vertex in this graph
+     * @param action - called with each target id and edge weight
+     */
+    public void forEachTarget(int source, IntIntConsumer action) {
+        outgoing[source].forEach(action);
+    }
+
+    /**
+     * Calls action with the id and weight of every source of target, in no particular order.
+     * action must not modify this graph.
+     * @param target - id of a vertex in this graph
+     * @param action - called with each source id and edge weight
+     */
+    public void forEachSource(int target, IntIntConsumer action) {
+        incoming[target].forEach(action);
+    }
+
+    // Graph operations:
+
+    @Override public boolean add(L vertex) {
+        if (ids.containsKey(vertex)) {
+            return false;
+        }
+        intern(vertex);
+        return true;
+    }
+
+    @Override public int set(L source, L target, int weight) {
+        // vertices are added to the graph if they do not exist, for zero weights too
+        return set(intern(source), intern(target), weight);
+    }
+
+    @Override public int merge(L source, L target, int delta) {
+        if (delta <= 0) {
+            // checked before interning, so no vertex is added
+            throw new IllegalArgumentException("delta must be positive: " + delta);
+        }
+        return merge(intern(source), intern(target), delta);
+    }
+
+    @Override public boolean remove(L vertex) {
+        Integer id = ids.remove(vertex);
+        if (id == null) {
+            return false;
+        }
+        final int removed = id;
+        outgoing[removed].forEach((target, weight) -> {
+            if (target != removed) {
+                incoming[target].remove(removed);
+            }
+        });
+        incoming[removed].forEach((source, weight) -> {
+            if (source != removed) {
+                outgoing[source].remove(removed);
+            }
+        });
+        outgoing[removed] = null;
+        incoming[removed] = null;
+        labels.set(removed, null);
+        if (freeCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, Math.max(freeCount * 2, 4));
+        }
+        freeIds[freeCount++] = removed;
+        checkRep();
+        return true;
+    }
+
+    @Override public Set<L> vertices() {
+        return new HashSet<>(ids.keySet());
+    }
+
+    @Override public Map<L, Integer> sources(L target) {
+        Map<L, Integer> sourcesMap = new HashMap<>();
+        int id = id(target);
+        if (id != NO_VERTEX) {
+            incoming[id].forEach((source, weight) -> sourcesMap.put(labels.get(source), weight));
+        }
+        return sourcesMap;
+    }
+
+    @Override public Map<L, Integer> targets(L source) {
+        Map<L, Integer> targetsMap = new HashMap<>();
+        int id = id(source);
+        if (id != NO_VERTEX) {
+            outgoing[id].forEach((target, weight) -> targetsMap.put(labels.get(target), weight));
+        }
+        return targetsMap;
+    }
+
+    @Override public Set<L> verticesView() {
+        return verticesView;
+    }
+
+    @Override public Map<L, Integer> sourcesView(L target) {
+        return new WeightsView(target, false);
+    }
+
+    @Override public Map<L, Integer> targetsView(L source) {
+        return new WeightsView(source, true);
+    }
+
+    @Override public void forEachEdge(EdgeVisitor<L> visitor) {
+        for (int source = 0; source < labels.size(); source++) {
+            IntIntMap edges = outgoing[source];
+            if (edges != null) {
+                L sourceLabel = labels.get(source);
+                for (int slot = 0; slot < edges.capacity(); slot++) {
+                    if (edges.keyAt(slot) >= 0) {
+                        visitor.visit(sourceLabel, labels.get(edges.keyAt(slot)), edges.valueAt(slot));
+                    }
+                }
+            }
+        }
+    }
+
+    @Override public void forEachTarget(L source, ObjIntConsumer<L> action) {
+        int id = id(source);
+        if (id == NO_VERTEX) {
+            return;
+        }
+        IntIntMap edges = outgoing[id];
+        for (int slot = 0; slot < edges.capacity(); slot++) {
+            if (edges.keyAt(slot) >= 0) {
+                action.accept(labels.get(edges.keyAt(slot)), edges.valueAt(slot));
+            }
+        }
+    }
+
+    @Override public L bestIntermediate(L source, L target) {
+        int sourceId = id(source);
+        int targetId = id(target);
+        if (sourceId == NO_VERTEX || targetId == NO_VERTEX) {
+            return null;
+        }
+        int middle = bestIntermediate(sourceId, targetId);
+        return middle == NO_VERTEX ? null : labels.get(middle);
+    }
+
+    // toString()
+    @Override public String toString() {
+        return GraphExporter.toString(this);
+    }
+
+    /**
+     * An unmodifiable live view of the out- or in-edges of one vertex, from
+     * neighbor labels to edge weights.
+     * The vertex id is looked up on every access, so the view follows the
+     * vertex being removed and added again.
+     */
+    private final class WeightsView extends AbstractMap<L, Integer> {
+
+        private final L label;
+        private final boolean out;
+
+        // Abstraction function:
+        //   represents {label(k) -> w | edges of id(label) map k to w}, using outgoing
+        //   if out and incoming otherwise
+        // Representation invariant:
+        //   true
+        // Safety from rep exposure:
+        //   fields are private and final, the view cannot be modified
+
+        WeightsView(L label, boolean out) {
+            this.label = label;
+            this.out = out;
+        }
+
+        /**
+         * @return the adjacency map of the vertex, or null if it is not in the graph
+         */
+        private IntIntMap edgesOfVertex() {
+            int id = id(label);
+            if (id == NO_VERTEX) {
+                return null;
+            }
+            return out ? outgoing[id] : incoming[id];
+        }
+
+        @Override public int size() {
+            IntIntMap edges = edgesOfVertex();
+            return edges == null ? 0 : edges.size();
+        }
+
+        @Override public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override public Integer get(Object key) {
+            IntIntMap edges = edgesOfVertex();
+            Integer other = ids.get(key);
+            if (edges == null || other == null) {
+                return null;
+            }
+            int weight = edges.get(other);
+            return weight == 0 ? null : weight;
+        }
+
+        @Override public Set<Map.Entry<L, Integer>> entrySet() {
+            return new AbstractSet<Map.Entry<L, Integer>>() {
+                @Override public int size() {
+                    return WeightsView.this.size();
+                }
+
+                @Override public Iterator<Map.Entry<L, Integer>> iterator() {
+                    final IntIntMap edges = edgesOfVertex();
+                    return new Iterator<Map.Entry<L, Integer>>() {
+                        private int slot = advance(0);
+
+                        private int advance(int from) {
+                            while (edges != null && from < edges.capacity() && edges.keyAt(from) < 0) {
+                                from++;
+                            }
+                            return from;
+                        }
+
+                        @Override public boolean hasNext() {
+                            return edges != null && slot < edges.capacity();
+                        }
+
+                        @Override public Map.Entry<L, Integer> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            Map.Entry<L, Integer> entry = new AbstractMap.SimpleImmutableEntry<L, Integer>(
+                                    labels.get(edges.keyAt(slot)), edges.valueAt(slot));
+                            slot = advance(slot + 1);
+                            return entry;
+                        }
+                    };
+                }
+            };
+        }
+    }
+
+}
@@ -0,0 +1,22 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+/**
+ * An operation that accepts two int arguments and returns no result, the
+ * primitive counterpart of {@link java.util.function.BiConsumer BiConsumer}.
+ * Used to visit adjacency without boxing vertex ids or weights.
+ */
+@FunctionalInterface
+public interface IntIntConsumer {
+    
+    /**
+     * Performs this operation on the given arguments.
+     * 
+     * @param key first argument, e.g. a vertex id
+     * @param value second argument, e.g. an edge weight
+     */
+    public void accept(int key, int value);
+    
+}
@@ -0,0 +1,229 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * A mutable map from nonnegative int keys to positive int values, using open
+ * addressing with linear probing so that no key or value is ever boxed.
+ * A value of zero means "no mapping", which matches edge weights in Graph.
+ * This class is internal to the rep of the int-indexed graph implementations.
+ */
+final class IntIntMap {
+
+    private static final int EMPTY = -1;
+    private static final int MIN_CAPACITY = 2;
+
+    private int[] slots;
+    private int size = 0;
+
+    // Abstraction function:
+    //   represents the map {slots[2i] -> slots[2i+1] | slots[2i] != EMPTY}
+    // Representation invariant:
+    //   number of slot pairs is a power of two, and more than size after any put
+    //   keys are nonnegative and distinct, values are positive
+    //   every key is reachable from its home slot without crossing an EMPTY slot
+    //   size is the number of slot pairs with a key
+    // Safety from rep exposure:
+    //   slots is private and never returned
+
+    // constructor
+    /**
+     * Creates an empty map
+     */
+    public IntIntMap() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * Creates an empty map that can hold expectedSize keys without growing
+     * @param expectedSize - expected number of keys, nonnegative
+     */
+    public IntIntMap(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 < expectedSize * 4) {
+            capacity <<= 1;
+        }
+        slots = new int[capacity * 2];
+        Arrays.fill(slots, EMPTY);
+    }
+
+    // checkRep
+    private void checkRep() {
+        assert Integer.bitCount(slots.length / 2) == 1;
+        assert size < slots.length / 2;
+    }
+
+    // methods
+    /**
+     * @return number of keys in this map
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param key - nonnegative key
+     * @return value of key, or zero if key is not in this map
+     */
+    public int get(int key) {
+        int mask = slots.length / 2 - 1;
+        for (int i = home(key, mask); ; i = (i + 1) & mask) {
+            int found = slots[2 * i];
+            if (found == key) {
+                return slots[2 * i + 1];
+            }
+            if (found == EMPTY) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Maps key to value
+     * @param key - nonnegative key
+     * @param value - positive value
+     * @return previous value of key, or zero if key was not in this map
+     */
+    public int put(int key, int value) {
+        int mask = slots.length / 2 - 1;
+        int i = home(key, mask);
+        while (slots[2 * i] != EMPTY) {
+            if (slots[2 * i] == key) {
+                int previousValue = slots[2 * i + 1];
+                slots[2 * i + 1] = value;
+                return previousValue;
+            }
+            i = (i + 1) & mask;
+        }
+        slots[2 * i] = key;
+        slots[2 * i + 1] = value;
+        size++;
+        // keep the load factor at most three quarters
+        if (size * 4 > (mask + 1) * 3) {
+            grow();
+        }
+        checkRep();
+        return 0;
+    }
+
+    /**
+     * Adds delta to the value of key, mapping key to delta if it is not in this map
+     * @param key - nonnegative key
+     * @param delta - positive amount
+     * @return previous value of key, or zero if key was not in this map
+     */
+    public int add(int key, int delta) {
+        int mask = slots.length / 2 - 1;
+        for (int i = home(key, mask); slots[2 * i] != EMPTY; i = (i + 1) & mask) {
+            if (slots[2 * i] == key) {
+                int previousValue = slots[2 * i + 1];
+                slots[2 * i + 1] = previousValue + delta;
+                return previousValue;
+            }
+        }
+        return put(key, delta);
+    }
+
+    /**
+     * Removes key from this map
+     * @param key - nonnegative key
+     * @return previous value of key, or zero if key was not in this map
+     */
+    public int remove(int key) {
+        int mask = slots.length / 2 - 1;
+        int i = home(key, mask);
+        while (slots[2 * i] != key) {
+            if (slots[2 * i] == EMPTY) {
+                return 0;
+            }
+            i = (i + 1) & mask;
+        }
+        int previousValue = slots[2 * i + 1];
+        // shift later keys of the same probe run back into the hole, so no tombstones are needed
+        int hole = i;
+        for (int j = (i + 1) & mask; slots[2 * j] != EMPTY; j = (j + 1) & mask) {
+            int homeOfJ = home(slots[2 * j], mask);
+            if (((j - homeOfJ) & mask) >= ((j - hole) & mask)) {
+                slots[2 * hole] = slots[2 * j];
+                slots[2 * hole + 1] = slots[2 * j + 1];
+                hole = j;
+            }
+        }
+        slots[2 * hole] = EMPTY;
+        size--;
+        checkRep();
+        return previousValue;
+    }
+
+    /**
+     * Calls action on every key and value of this map, in no particular order.
+     * action must not modify this map.
+     * @param action - called with each key and its value
+     */
+    public void forEach(IntIntConsumer action) {
+        for (int i = 0; i < slots.length; i += 2) {
+            if (slots[i] != EMPTY) {
+                action.accept(slots[i], slots[i + 1]);
+            }
+        }
+    }
+
+    /**
+     * Slots are numbered 0..capacity()-1; together with keyAt() and valueAt()
+     * this lets callers iterate the map without a callback
+     * @return number of slots in this map
+     */
+    public int capacity() {
+        return slots.length / 2;
+    }
+
+    /**
+     * @param slot - slot number in [0, capacity())
+     * @return key in slot, or -1 if slot is empty
+     */
+    public int keyAt(int slot) {
+        return slots[2 * slot];
+    }
+
+    /**
+     * @param slot - nonempty slot number in [0, capacity())
+     * @return value in slot
+     */
+    public int valueAt(int slot) {
+        return slots[2 * slot + 1];
+    }
+
+    // home()
+    /**
+     * @return first slot pair probed for key
+     */
+    private static int home(int key, int mask) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    // grow()
+    /**
+     * Doubles the number of slot pairs and re-inserts every key
+     */
+    private void grow() {
+        int[] oldSlots = slots;
+        slots = new int[oldSlots.length * 2];
+        Arrays.fill(slots, EMPTY);
+        int mask = slots.length / 2 - 1;
+        for (int i = 0; i < oldSlots.length; i += 2) {
+            if (oldSlots[i] != EMPTY) {
+                int j = home(oldSlots[i], mask);
+                while (slots[2 * j] != EMPTY) {
+                    j = (j + 1) & mask;
+                }
+                slots[2 * j] = oldSlots[i];
+                slots[2 * j + 1] = oldSlots[i + 1];
+            }
+        }
+    }
+
+}
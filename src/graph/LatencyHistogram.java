@@ -0,0 +1,102 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of nonnegative long values, such as latencies in
+ * nanoseconds, with log-linear buckets in the style of HdrHistogram: each
+ * power of two is split into SUB_BUCKETS equal buckets, so a value is known to
+ * within 1/SUB_BUCKETS of itself, and values below SUB_BUCKETS exactly.
+ *
+ * <p>Recording is one atomic increment on a fixed array, so any number of
+ * threads can record at once without locks or allocation. Reading the counts
+ * while values are being recorded sees each bucket atomically, but not all
+ * buckets at the same instant.
+ */
+final class LatencyHistogram {
+
+    static final int SUB_BUCKET_BITS = 4;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // one row of sub-buckets per power of two above SUB_BUCKETS, plus the exact row below it
+    static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    // Abstraction function:
+    //   represents the multiset of recorded values, where counts[i] values fell
+    //   in [lowerBound(i), upperBound(i)]
+    // Representation invariant:
+    //   counts[i] >= 0
+    // Safety from rep exposure:
+    //   counts is private and copied by counts()
+    // Thread safety argument:
+    //   counts is only accessed through atomic operations of AtomicLongArray
+
+    /**
+     * @param value - nonnegative value
+     * @return index of the bucket that holds value
+     */
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    /**
+     * @param bucket - bucket index in [0, BUCKETS)
+     * @return smallest value that falls in that bucket
+     */
+    static long lowerBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+    }
+
+    /**
+     * @param bucket - bucket index in [0, BUCKETS)
+     * @return largest value that falls in that bucket
+     */
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        return lowerBound(bucket) + (1L << shift) - 1;
+    }
+
+    /**
+     * Records one value; negative values are recorded as 0
+     * @param value - value to record
+     */
+    void record(long value) {
+        counts.getAndIncrement(bucket(Math.max(value, 0)));
+    }
+
+    /**
+     * @return a copy of the count of every bucket
+     */
+    long[] counts() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+        }
+        return copy;
+    }
+
+    /**
+     * Forgets every recorded value; values recorded concurrently may or may not be kept
+     */
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+    }
+
+}
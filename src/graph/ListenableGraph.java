@@ -0,0 +1,284 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * A Graph decorator that publishes every change to registered listeners as
+ * {@link GraphEvent}s, so that structures derived from the graph can be
+ * updated incrementally instead of rebuilt.
+ *
+ * <p>Each mutation publishes one VertexAdded event per vertex it added and
+ * one EdgeWeightChanged event per edge whose weight it changed; removing a
+ * vertex publishes the removal of each of its edges, then VertexRemoved.
+ * Mutations that change nothing publish nothing. Outside a batch, the events
+ * of each mutation are delivered as soon as it returns; between
+ * {@link #batch()} and the close of the returned Batch, events are collected
+ * and delivered together when the outermost batch closes.
+ *
+ * <p>The wrapped graph must only be changed through this decorator, or the
+ * listeners miss those changes. Listeners may be added and removed from any
+ * thread, also while events are being delivered; mutations and batches are
+ * not thread-safe. A listener that throws an exception stops the delivery of
+ * those events to later listeners, and the exception propagates to the caller
+ * of the mutation (or of Batch.close()), after the graph has been changed.
+ *
+ * @param <L> type of vertex labels in this graph, must be immutable
+ */
+public class ListenableGraph<L> implements Graph<L> {
+
+    private final Graph<L> graph;
+    private final List<GraphListener<L>> listeners = new CopyOnWriteArrayList<>();
+    private List<GraphEvent<L>> pending = new ArrayList<>();
+    private int batchDepth = 0;
+
+    // Abstraction function:
+    //   represents graph, together with the listeners to tell about its changes
+    //   and the events of the open batch (if any) not yet told
+    // Representation invariant:
+    //   batchDepth >= 0
+    //   pending is empty if batchDepth == 0 and no mutation is running
+    // Safety from rep exposure:
+    //   all fields are private; events lists given to listeners are unmodifiable
+    //   and are never changed afterwards, since pending is replaced on delivery
+    //   the wrapped graph was passed in by the client, who agrees not to change it directly
+    // Thread safety argument:
+    //   listeners is a CopyOnWriteArrayList, so it can be changed while it is iterated;
+    //   everything else is confined to the thread mutating the graph
+
+    /**
+     * A batch of mutations whose events are delivered together.
+     * Closing a batch more than once has no further effect.
+     */
+    public final class Batch implements AutoCloseable {
+        private boolean closed = false;
+
+        private Batch() {
+        }
+
+        /**
+         * Ends this batch. If it is the outermost open batch, delivers the
+         * events of all its mutations to the listeners in one list.
+         */
+        @Override public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            batchDepth--;
+            if (batchDepth == 0) {
+                deliver();
+            }
+        }
+    }
+
+    // constructor
+    /**
+     * Creates an empty graph
+     */
+    public ListenableGraph() {
+        this(Graph.<L>empty());
+    }
+
+    /**
+     * Wraps a graph; its existing vertices and edges are not published
+     * @param graph - graph to wrap; must not be changed afterwards except through this decorator
+     */
+    public ListenableGraph(Graph<L> graph) {
+        this.graph = graph;
+        checkRep();
+    }
+
+    // checkRep
+    private void checkRep() {
+        assert batchDepth >= 0;
+        assert batchDepth > 0 || pending.isEmpty();
+    }
+
+    // Listener operations:
+
+    /**
+     * Registers a listener for the changes made after this call
+     * @param listener - listener to add; a listener added twice receives events twice
+     */
+    public void addListener(GraphListener<L> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener
+     * @param listener - listener to remove
+     * @return true if listener was registered
+     */
+    public boolean removeListener(GraphListener<L> listener) {
+        return listeners.remove(listener);
+    }
+
+    /**
+     * Starts a batch. Use with try-with-resources:
+     * <pre>
+     * try (ListenableGraph&lt;String&gt;.Batch batch = graph.batch()) {
+     *     graph.merge("a", "b", 1);
+     *     graph.merge("b", "c", 1);
+     * }
+     * </pre>
+     * Batches may be nested; events are delivered when the outermost closes.
+     * @return the new batch, to be closed when its mutations are done
+     */
+    public Batch batch() {
+        batchDepth++;
+        return new Batch();
+    }
+
+    private void publish(GraphEvent<L> event) {
+        if (!listeners.isEmpty()) {
+            pending.add(event);
+        }
+    }
+
+    /**
+     * Delivers pending events, unless a batch is open
+     */
+    private void flush() {
+        if (batchDepth == 0) {
+            deliver();
+        }
+    }
+
+    private void deliver() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<GraphEvent<L>> events = Collections.unmodifiableList(pending);
+        pending = new ArrayList<>();
+        checkRep();
+        for (GraphListener<L> listener : listeners) {
+            listener.graphChanged(events);
+        }
+    }
+
+    // Graph operations:
+
+    @Override public boolean add(L vertex) {
+        boolean added = graph.add(vertex);
+        if (added) {
+            publish(new GraphEvent.VertexAdded<>(vertex));
+            flush();
+        }
+        return added;
+    }
+
+    @Override public int set(L source, L target, int weight) {
+        Set<L> vertices = graph.verticesView();
+        boolean hadSource = vertices.contains(source);
+        boolean hadTarget = vertices.contains(target);
+        int previousWeight = graph.set(source, target, weight);
+        publishAddedVertices(source, target, hadSource, hadTarget);
+        if (previousWeight != weight) {
+            publish(new GraphEvent.EdgeWeightChanged<>(source, target, previousWeight, weight));
+        }
+        flush();
+        return previousWeight;
+    }
+
+    @Override public int merge(L source, L target, int delta) {
+        Set<L> vertices = graph.verticesView();
+        boolean hadSource = vertices.contains(source);
+        boolean hadTarget = vertices.contains(target);
+        int previousWeight = graph.merge(source, target, delta);
+        publishAddedVertices(source, target, hadSource, hadTarget);
+        publish(new GraphEvent.EdgeWeightChanged<>(source, target, previousWeight, previousWeight + delta));
+        flush();
+        return previousWeight;
+    }
+
+    /**
+     * Publishes VertexAdded for the endpoints that a mutation added to the graph
+     */
+    private void publishAddedVertices(L source, L target, boolean hadSource, boolean hadTarget) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        Set<L> vertices = graph.verticesView();
+        if (!hadSource && vertices.contains(source)) {
+            publish(new GraphEvent.VertexAdded<>(source));
+        }
+        if (!hadTarget && !target.equals(source) && vertices.contains(target)) {
+            publish(new GraphEvent.VertexAdded<>(target));
+        }
+    }
+
+    @Override public boolean remove(L vertex) {
+        if (!listeners.isEmpty()) {
+            // the edges are read before they are gone; a loop is published once, as an out-edge
+            graph.forEachTarget(vertex, (target, weight) ->
+                    publish(new GraphEvent.EdgeWeightChanged<>(vertex, target, weight, 0)));
+            for (Map.Entry<L, Integer> edge : graph.sourcesView(vertex).entrySet()) {
+                if (!edge.getKey().equals(vertex)) {
+                    publish(new GraphEvent.EdgeWeightChanged<>(edge.getKey(), vertex, edge.getValue(), 0));
+                }
+            }
+        }
+        // a vertex not in the graph has no edges, so nothing was published for it
+        if (!graph.remove(vertex)) {
+            return false;
+        }
+        publish(new GraphEvent.VertexRemoved<>(vertex));
+        flush();
+        return true;
+    }
+
+    @Override public Set<L> vertices() {
+        return graph.vertices();
+    }
+
+    @Override public Map<L, Integer> sources(L target) {
+        return graph.sources(target);
+    }
+
+    @Override public Map<L, Integer> targets(L source) {
+        return graph.targets(source);
+    }
+
+    @Override public Set<L> verticesView() {
+        return graph.verticesView();
+    }
+
+    @Override public Map<L, Integer> sourcesView(L target) {
+        return graph.sourcesView(target);
+    }
+
+    @Override public Map<L, Integer> targetsView(L source) {
+        return graph.targetsView(source);
+    }
+
+    @Override public void forEachEdge(EdgeVisitor<L> visitor) {
+        graph.forEachEdge(visitor);
+    }
+
+    @Override public void forEachTarget(L source, ObjIntConsumer<L> action) {
+        graph.forEachTarget(source, action);
+    }
+
+    @Override public L bestIntermediate(L source, L target) {
+        return graph.bestIntermediate(source, target);
+    }
+
+    @Override public FrozenGraph<L> freeze() {
+        return graph.freeze();
+    }
+
+    // toString()
+    @Override public String toString() {
+        return GraphExporter.toString(this);
+    }
+
+}
@@ -0,0 +1,569 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * A read-only Graph with String labels backed by a memory-mapped graph file.
+ *
+ * <p>{@link #write(Graph, File)} saves any graph in a versioned binary
+ * format, and {@link #open(File)} maps such a file into memory without
+ * reading or deserializing it, so opening takes constant time however large
+ * the graph is. Pages are loaded by the operating system when they are first
+ * touched and are shared by every process that maps the same file.
+ *
+ * <p>The file holds, in big-endian order:
+ * <pre>
+ *   header        magic "PGRF", version, vertex count n, edge count m,
+ *                 label byte count, label hash table slot count, 2 reserved ints
+ *   labelOffsets  n+1 ints, label v is bytes [labelOffsets[v], labelOffsets[v+1])
+ *   outOffsets    n+1 ints, then outTargets and outWeights, m ints each
+ *   inOffsets     n+1 ints, then inSources and inWeights, m ints each
+ *   labelTable    open-addressing hash table from label to vertex id, -1 if empty
+ *   labels        UTF-8 bytes of all labels
+ * </pre>
+ * Rows of the out and in arrays are sorted by vertex id, as in FrozenGraph.
+ * Vertex labels are written with toString(), so the labels of a written
+ * graph must have distinct string forms. A file must be smaller than 2GB.
+ *
+ * <p>All mutators throw UnsupportedOperationException. The graph never
+ * changes, so it can be shared between threads without locking, provided the
+ * file is not modified while it is mapped.
+ */
+public final class MappedGraph implements Graph<String> {
+
+    private static final int MAGIC = 0x50475246;
+    private static final int VERSION = 1;
+    private static final int HEADER_INTS = 8;
+    private static final int EMPTY = -1;
+
+    private final int vertexCount;
+    private final int edgeCount;
+    private final IntBuffer labelOffsets;
+    private final IntBuffer outOffsets;
+    private final IntBuffer outTargets;
+    private final IntBuffer outWeights;
+    private final IntBuffer inOffsets;
+    private final IntBuffer inSources;
+    private final IntBuffer inWeights;
+    private final IntBuffer labelTable;
+    private final ByteBuffer labels;
+    private final Set<String> vertices = new VertexSet();
+
+    // Abstraction function:
+    //   represents the graph with vertices label(0..vertexCount) and an edge from label(v)
+    //   to label(outTargets[i]) with weight outWeights[i] for every i in [outOffsets[v], outOffsets[v+1])
+    // Representation invariant:
+    //   the buffers are read-only views of one mapped file written by write()
+    //   offset buffers have vertexCount+1 entries, start at 0 and are nondecreasing
+    //   within each row, neighbors are strictly increasing ids in [0, vertexCount)
+    //   labelTable has a power of two number of slots, holds every id once, and has EMPTY slots
+    // Safety from rep exposure:
+    //   all fields are private and final, buffers are read-only and never returned
+    //   labels are decoded into new Strings, targets() and sources() return unmodifiable views
+    // Thread safety argument:
+    //   the buffers are only read with absolute gets, which do not change buffer state
+
+    // constructor
+    private MappedGraph(ByteBuffer file) throws IOException {
+        IntBuffer header = file.asIntBuffer();
+        if (file.capacity() < HEADER_INTS * 4 || header.get(0) != MAGIC) {
+            throw new IOException("not a graph file");
+        }
+        if (header.get(1) != VERSION) {
+            throw new IOException("unsupported graph file version " + header.get(1));
+        }
+        vertexCount = header.get(2);
+        edgeCount = header.get(3);
+        int labelBytes = header.get(4);
+        int tableSlots = header.get(5);
+        int position = HEADER_INTS * 4;
+        labelOffsets = slice(file, position, vertexCount + 1);
+        position += (vertexCount + 1) * 4;
+        outOffsets = slice(file, position, vertexCount + 1);
+        position += (vertexCount + 1) * 4;
+        outTargets = slice(file, position, edgeCount);
+        position += edgeCount * 4;
+        outWeights = slice(file, position, edgeCount);
+        position += edgeCount * 4;
+        inOffsets = slice(file, position, vertexCount + 1);
+        position += (vertexCount + 1) * 4;
+        inSources = slice(file, position, edgeCount);
+        position += edgeCount * 4;
+        inWeights = slice(file, position, edgeCount);
+        position += edgeCount * 4;
+        labelTable = slice(file, position, tableSlots);
+        position += tableSlots * 4;
+        if (position + labelBytes != file.capacity()) {
+            throw new IOException("graph file is truncated or corrupt");
+        }
+        ByteBuffer labelSection = file.duplicate();
+        labelSection.position(position);
+        labels = labelSection.slice();
+        checkRep();
+    }
+
+    // checkRep
+    private void checkRep() {
+        assert labelOffsets.get(0) == 0 && outOffsets.get(0) == 0 && inOffsets.get(0) == 0;
+        assert outOffsets.get(vertexCount) == edgeCount && inOffsets.get(vertexCount) == edgeCount;
+        assert Integer.bitCount(labelTable.capacity()) == 1;
+    }
+
+    /**
+     * Writes graph to a file in the format read by open(), replacing the file if it exists
+     * @param graph - graph to be written; the toString() of its labels must be distinct
+     * @param file - file to be written
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if two labels have the same toString()
+     */
+    public static <L> void write(Graph<L> graph, File file) throws IOException {
+        FrozenGraph<L> frozen = graph.freeze();
+        int n = frozen.vertexCount();
+        int m = frozen.edgeCount();
+        byte[][] labelBytes = new byte[n][];
+        int totalLabelBytes = 0;
+        for (int v = 0; v < n; v++) {
+            labelBytes[v] = frozen.label(v).toString().getBytes(StandardCharsets.UTF_8);
+            totalLabelBytes += labelBytes[v].length;
+        }
+        int[] table = new int[tableSlotsFor(n)];
+        Arrays.fill(table, EMPTY);
+        int mask = table.length - 1;
+        for (int v = 0; v < n; v++) {
+            int slot = hash(labelBytes[v]) & mask;
+            while (table[slot] != EMPTY) {
+                if (Arrays.equals(labelBytes[table[slot]], labelBytes[v])) {
+                    throw new IllegalArgumentException("two vertices are written as label '" + frozen.label(v) + "'");
+                }
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = v;
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(n);
+            out.writeInt(m);
+            out.writeInt(totalLabelBytes);
+            out.writeInt(table.length);
+            out.writeInt(0);
+            out.writeInt(0);
+            int offset = 0;
+            for (int v = 0; v < n; v++) {
+                out.writeInt(offset);
+                offset += labelBytes[v].length;
+            }
+            out.writeInt(offset);
+            for (int v = 0; v <= n; v++) {
+                out.writeInt(frozen.outOffset(v));
+            }
+            for (int i = 0; i < m; i++) {
+                out.writeInt(frozen.outTarget(i));
+            }
+            for (int i = 0; i < m; i++) {
+                out.writeInt(frozen.outWeight(i));
+            }
+            for (int v = 0; v <= n; v++) {
+                out.writeInt(frozen.inOffset(v));
+            }
+            for (int i = 0; i < m; i++) {
+                out.writeInt(frozen.inSource(i));
+            }
+            for (int i = 0; i < m; i++) {
+                out.writeInt(frozen.inWeight(i));
+            }
+            for (int slot : table) {
+                out.writeInt(slot);
+            }
+            for (byte[] label : labelBytes) {
+                out.write(label);
+            }
+        }
+    }
+
+    /**
+     * Maps a file written by write() into memory
+     * @param file - graph file to be opened
+     * @return read-only graph backed by the file
+     * @throws IOException if the file cannot be read or is not a valid graph file
+     */
+    public static MappedGraph open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            return new MappedGraph(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    // Primitive operations:
+
+    /**
+     * @return number of vertices in this graph; ids are 0..vertexCount()-1
+     */
+    public int vertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * @return number of edges in this graph
+     */
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * @param label - label of a vertex
+     * @return id of the vertex with that label, or -1 if there is no such vertex
+     */
+    public int id(String label) {
+        byte[] bytes = label.getBytes(StandardCharsets.UTF_8);
+        int mask = labelTable.capacity() - 1;
+        for (int slot = hash(bytes) & mask; ; slot = (slot + 1) & mask) {
+            int id = labelTable.get(slot);
+            if (id == EMPTY) {
+                return -1;
+            }
+            if (labelEquals(id, bytes)) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * @param id - id of a vertex in this graph
+     * @return label of the vertex with that id
+     */
+    public String label(int id) {
+        int start = labelOffsets.get(id);
+        byte[] bytes = new byte[labelOffsets.get(id + 1) - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = labels.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param source - id of a vertex in this graph
+     * @param target - id of a vertex in this graph
+     * @return weight of the edge from source to target, or zero if there is no such edge
+     */
+    public int weight(int source, int target) {
+        int i = find(outTargets, outOffsets.get(source), outOffsets.get(source + 1), target);
+        return i < 0 ? 0 : outWeights.get(i);
+    }
+
+    /**
+     * Calls action with the id and weight of every target of source, in increasing id order
+     * @param source - id of a vertex in this graph
+     * @param action - called with each target id and edge weight
+     */
+    public void forEachTarget(int source, IntIntConsumer action) {
+        for (int i = outOffsets.get(source); i < outOffsets.get(source + 1); i++) {
+            action.accept(outTargets.get(i), outWeights.get(i));
+        }
+    }
+
+    /**
+     * Calls action with the id and weight of every source of target, in increasing id order
+     * @param target - id of a vertex in this graph
+     * @param action - called with each source id and edge weight
+     */
+    public void forEachSource(int target, IntIntConsumer action) {
+        for (int i = inOffsets.get(target); i < inOffsets.get(target + 1); i++) {
+            action.accept(inSources.get(i), inWeights.get(i));
+        }
+    }
+
+    // Graph operations:
+
+    /**
+     * Not supported, a MappedGraph is read-only.
+     * @throws UnsupportedOperationException always
+     */
+    @Override public boolean add(String vertex) {
+        throw new UnsupportedOperationException("MappedGraph is read-only");
+    }
+
+    /**
+     * Not supported, a MappedGraph is read-only.
+     * @throws UnsupportedOperationException always
+     */
+    @Override public int set(String source, String target, int weight) {
+        throw new UnsupportedOperationException("MappedGraph is read-only");
+    }
+
+    /**
+     * Not supported, a MappedGraph is read-only.
+     * @throws UnsupportedOperationException always
+     */
+    @Override public boolean remove(String vertex) {
+        throw new UnsupportedOperationException("MappedGraph is read-only");
+    }
+
+    /**
+     * Not supported, a MappedGraph is read-only.
+     * @throws UnsupportedOperationException always
+     */
+    @Override public int merge(String source, String target, int delta) {
+        throw new UnsupportedOperationException("MappedGraph is read-only");
+    }
+
+    @Override public Set<String> vertices() {
+        return vertices;
+    }
+
+    @Override public Map<String, Integer> sources(String target) {
+        int id = id(target);
+        if (id < 0) {
+            return Collections.emptyMap();
+        }
+        return new Row(inOffsets.get(id), inOffsets.get(id + 1), inSources, inWeights);
+    }
+
+    @Override public Map<String, Integer> targets(String source) {
+        int id = id(source);
+        if (id < 0) {
+            return Collections.emptyMap();
+        }
+        return new Row(outOffsets.get(id), outOffsets.get(id + 1), outTargets, outWeights);
+    }
+
+    @Override public Set<String> verticesView() {
+        return vertices;
+    }
+
+    @Override public Map<String, Integer> sourcesView(String target) {
+        return sources(target);
+    }
+
+    @Override public Map<String, Integer> targetsView(String source) {
+        return targets(source);
+    }
+
+    /**
+     * Calls visitor for every edge, in increasing order of source id and then target id.
+     * Labels are decoded from the file once per vertex, not once per edge.
+     */
+    @Override public void forEachEdge(EdgeVisitor<String> visitor) {
+        String[] names = new String[vertexCount];
+        for (int v = 0; v < vertexCount; v++) {
+            names[v] = label(v);
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            for (int i = outOffsets.get(v); i < outOffsets.get(v + 1); i++) {
+                visitor.visit(names[v], names[outTargets.get(i)], outWeights.get(i));
+            }
+        }
+    }
+
+    @Override public void forEachTarget(String source, ObjIntConsumer<String> action) {
+        int id = id(source);
+        if (id < 0) {
+            return;
+        }
+        for (int i = outOffsets.get(id); i < outOffsets.get(id + 1); i++) {
+            action.accept(label(outTargets.get(i)), outWeights.get(i));
+        }
+    }
+
+    // toString()
+    @Override public String toString() {
+        return GraphExporter.toString(this);
+    }
+
+    // helpers
+
+    private boolean labelEquals(int id, byte[] bytes) {
+        int start = labelOffsets.get(id);
+        if (labelOffsets.get(id + 1) - start != bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (labels.get(start + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return index of id in neighbors[start..end), which is sorted, or -1 if it is not there
+     */
+    private static int find(IntBuffer neighbors, int start, int end, int id) {
+        int low = start;
+        int high = end - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int neighbor = neighbors.get(mid);
+            if (neighbor < id) {
+                low = mid + 1;
+            } else if (neighbor > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private static IntBuffer slice(ByteBuffer file, int position, int ints) throws IOException {
+        if (ints < 0 || position + (long) ints * 4 > file.capacity()) {
+            throw new IOException("graph file is truncated or corrupt");
+        }
+        ByteBuffer section = file.duplicate();
+        section.position(position);
+        section.limit(position + ints * 4);
+        return section.slice().asIntBuffer();
+    }
+
+    // FNV-1a
+    private static int hash(byte[] bytes) {
+        int hash = 0x811C9DC5;
+        for (byte b : bytes) {
+            hash = (hash ^ (b & 0xFF)) * 0x01000193;
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * @return power of two number of table slots, at least twice the number of entries
+     */
+    private static int tableSlotsFor(int entries) {
+        int slots = 2;
+        while (slots < entries * 2) {
+            slots <<= 1;
+        }
+        return slots;
+    }
+
+    /**
+     * An unmodifiable set view of the vertex labels.
+     */
+    private final class VertexSet extends AbstractSet<String> {
+        @Override public int size() {
+            return vertexCount;
+        }
+
+        @Override public boolean contains(Object o) {
+            return o instanceof String && id((String) o) >= 0;
+        }
+
+        @Override public Iterator<String> iterator() {
+            return new Iterator<String>() {
+                private int next = 0;
+
+                @Override public boolean hasNext() {
+                    return next < vertexCount;
+                }
+
+                @Override public String next() {
+                    if (next >= vertexCount) {
+                        throw new NoSuchElementException();
+                    }
+                    return label(next++);
+                }
+            };
+        }
+    }
+
+    /**
+     * An unmodifiable map view of one row of the forward or reverse index,
+     * from neighbor labels to edge weights.
+     */
+    private final class Row extends AbstractMap<String, Integer> {
+
+        private final int start;
+        private final int end;
+        private final IntBuffer neighbors;
+        private final IntBuffer weights;
+
+        // Abstraction function:
+        //   represents {label(neighbors[i]) -> weights[i] | start <= i < end}
+        // Representation invariant:
+        //   0 <= start <= end <= neighbors.capacity() == weights.capacity(), neighbors[start..end) increasing
+        // Safety from rep exposure:
+        //   all fields are private and final, buffers are never returned, the view cannot be modified
+
+        Row(int start, int end, IntBuffer neighbors, IntBuffer weights) {
+            this.start = start;
+            this.end = end;
+            this.neighbors = neighbors;
+            this.weights = weights;
+        }
+
+        @Override public int size() {
+            return end - start;
+        }
+
+        @Override public boolean containsKey(Object key) {
+            return find(key) >= 0;
+        }
+
+        @Override public Integer get(Object key) {
+            int i = find(key);
+            return i < 0 ? null : weights.get(i);
+        }
+
+        // find()
+        /**
+         * @return index of key in neighbors[start..end), or -1 if key is not in this row
+         */
+        private int find(Object key) {
+            if (!(key instanceof String)) {
+                return -1;
+            }
+            int id = id((String) key);
+            return id < 0 ? -1 : MappedGraph.find(neighbors, start, end, id);
+        }
+
+        @Override public Set<Map.Entry<String, Integer>> entrySet() {
+            return new AbstractSet<Map.Entry<String, Integer>>() {
+                @Override public int size() {
+                    return end - start;
+                }
+
+                @Override public Iterator<Map.Entry<String, Integer>> iterator() {
+                    return new Iterator<Map.Entry<String, Integer>>() {
+                        private int next = start;
+
+                        @Override public boolean hasNext() {
+                            return next < end;
+                        }
+
+                        @Override public Map.Entry<String, Integer> next() {
+                            if (next >= end) {
+                                throw new NoSuchElementException();
+                            }
+                            Map.Entry<String, Integer> entry = new AbstractMap.SimpleImmutableEntry<String, Integer>(
+                                    label(neighbors.get(next)), weights.get(next));
+                            next++;
+                            return entry;
+                        }
+                    };
+                }
+            };
+        }
+    }
+
+}
@@ -0,0 +1,206 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+import graph.InstrumentedGraph.Operation;
+
+/**
+ * An immutable copy of the metrics an {@link InstrumentedGraph} recorded,
+ * taken by {@link InstrumentedGraph#snapshot()}.
+ */
+public final class MetricsSnapshot {
+
+    /**
+     * Metrics of one kind of operation.
+     */
+    public static final class OperationStats {
+        private final Operation operation;
+        private final long count;
+        private final long[] latencyCounts;
+        private final long sampledCount;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long totalResultSize;
+        private final long maxResultSize;
+
+        // Abstraction function:
+        //   represents count calls of operation, returning maps or sets of totalResultSize
+        //   entries in all, of which sampledCount calls had their latency measured, taking
+        //   totalNanos in all, with latencyCounts[i] of them in LatencyHistogram bucket i
+        // Representation invariant:
+        //   latencyCounts.length == LatencyHistogram.BUCKETS, sampledCount is the sum of latencyCounts
+        // Safety from rep exposure:
+        //   latencyCounts is a private copy and never returned
+
+        OperationStats(Operation operation, long count, long[] latencyCounts, long totalNanos, long maxNanos,
+                long totalResultSize, long maxResultSize) {
+            this.operation = operation;
+            this.count = count;
+            this.latencyCounts = latencyCounts;
+            long sum = 0;
+            for (long bucketCount : latencyCounts) {
+                sum += bucketCount;
+            }
+            this.sampledCount = sum;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.totalResultSize = totalResultSize;
+            this.maxResultSize = maxResultSize;
+        }
+
+        /**
+         * @return the operation these metrics are for
+         */
+        public Operation operation() {
+            return operation;
+        }
+
+        /**
+         * @return number of calls
+         */
+        public long count() {
+            return count;
+        }
+
+        /**
+         * @return number of calls whose latency was measured
+         */
+        public long sampledCount() {
+            return sampledCount;
+        }
+
+        /**
+         * @return total time spent in the sampled calls, in nanoseconds
+         */
+        public long totalNanos() {
+            return totalNanos;
+        }
+
+        /**
+         * @return mean time of a sampled call in nanoseconds, or 0 if no call was sampled
+         */
+        public double meanNanos() {
+            return sampledCount == 0 ? 0 : (double) totalNanos / sampledCount;
+        }
+
+        /**
+         * @return time of the slowest sampled call in nanoseconds, or 0 if no call was sampled
+         */
+        public long maxNanos() {
+            return maxNanos;
+        }
+
+        /**
+         * @param percentile - in [0, 100]
+         * @return an upper bound, within the histogram's precision, on the time in
+         *         nanoseconds that percentile percent of the sampled calls took at most;
+         *         0 if no call was sampled
+         * @throws IllegalArgumentException if percentile is out of range
+         */
+        public long percentileNanos(double percentile) {
+            if (!(percentile >= 0 && percentile <= 100)) {
+                throw new IllegalArgumentException("percentile must be in [0, 100]: " + percentile);
+            }
+            if (sampledCount == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * sampledCount));
+            long seen = 0;
+            for (int i = 0; i < latencyCounts.length; i++) {
+                seen += latencyCounts[i];
+                if (seen >= rank) {
+                    return Math.min(LatencyHistogram.upperBound(i), maxNanos);
+                }
+            }
+            return maxNanos;
+        }
+
+        /**
+         * @return total number of entries in the maps or sets returned by the calls;
+         *         0 for operations that return neither
+         */
+        public long totalResultSize() {
+            return totalResultSize;
+        }
+
+        /**
+         * @return mean number of entries in a returned map or set, or 0 if there were no calls
+         */
+        public double meanResultSize() {
+            return count == 0 ? 0 : (double) totalResultSize / count;
+        }
+
+        /**
+         * @return largest number of entries in a returned map or set
+         */
+        public long maxResultSize() {
+            return maxResultSize;
+        }
+
+        @Override public String toString() {
+            return String.format("%s: %d calls, mean %.0f ns, p50 %d ns, p99 %d ns, max %d ns, mean size %.1f",
+                    operation, count, meanNanos(), percentileNanos(50), percentileNanos(99), maxNanos,
+                    meanResultSize());
+        }
+    }
+
+    private final long nanoTime;
+    private final Map<Operation, OperationStats> stats;
+
+    // Abstraction function:
+    //   represents the metrics stats, taken at System.nanoTime() == nanoTime
+    // Representation invariant:
+    //   stats has an entry for every Operation, under its own operation
+    // Safety from rep exposure:
+    //   stats is an unmodifiable map of immutable values
+
+    MetricsSnapshot(long nanoTime, Map<Operation, OperationStats> stats) {
+        this.nanoTime = nanoTime;
+        this.stats = Collections.unmodifiableMap(new EnumMap<>(stats));
+        checkRep();
+    }
+
+    // checkRep
+    private void checkRep() {
+        assert stats.size() == Operation.values().length;
+    }
+
+    /**
+     * @return value of System.nanoTime() when this snapshot was taken
+     */
+    public long nanoTime() {
+        return nanoTime;
+    }
+
+    /**
+     * @param operation - an operation
+     * @return metrics of that operation
+     */
+    public OperationStats get(Operation operation) {
+        return stats.get(operation);
+    }
+
+    /**
+     * @return unmodifiable map from every operation to its metrics
+     */
+    public Map<Operation, OperationStats> all() {
+        return stats;
+    }
+
+    // toString()
+    @Override public String toString() {
+        StringBuilder stringRep = new StringBuilder();
+        for (OperationStats operationStats : stats.values()) {
+            if (operationStats.count() > 0) {
+                stringRep.append(operationStats).append("\n");
+            }
+        }
+        return stringRep.toString();
+    }
+
+}
@@ -0,0 +1,750 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * An implementation of Graph with String labels that keeps its labels and
+ * adjacency in native memory, outside the Java heap.
+ *
+ * <p>All data lives in direct ByteBuffers: an arena of UTF-8 label bytes, a
+ * table of vertex records, a pool of edge records linked into per-vertex out-
+ * and in-lists, and two open-addressing hash tables that find vertices by
+ * label and edges by (source, target). The heap holds only this handle and
+ * the buffer objects, so the garbage collector never traces the graph.
+ * Buffers double in size when they fill up.
+ *
+ * <p>{@link #close()} releases the buffers; the graph must not be used after
+ * it is closed. Direct buffers are freed by the JVM once they become
+ * unreachable, so close() makes the memory reclaimable rather than freeing it
+ * synchronously. Bytes of removed labels are not reclaimed until the graph is
+ * closed.
+ */
+public class OffHeapGraph implements Graph<String>, AutoCloseable {
+
+    private static final int NONE = -1;
+    private static final int DELETED = -2;
+
+    // vertex record: offset and length of the label in strings, heads of the out- and in-lists
+    private static final int V_LABEL_OFFSET = 0;
+    private static final int V_LABEL_LENGTH = 1;
+    private static final int V_OUT_HEAD = 2;
+    private static final int V_IN_HEAD = 3;
+    private static final int VERTEX_INTS = 4;
+
+    // edge record: endpoints, weight, and links of the doubly-linked out- and in-lists
+    private static final int E_SOURCE = 0;
+    private static final int E_TARGET = 1;
+    private static final int E_WEIGHT = 2;
+    private static final int E_NEXT_OUT = 3;
+    private static final int E_PREV_OUT = 4;
+    private static final int E_NEXT_IN = 5;
+    private static final int E_PREV_IN = 6;
+    private static final int EDGE_INTS = 7;
+
+    private ByteBuffer strings;
+    private int stringBytes = 0;
+    private ByteBuffer vertexRecords;
+    private int vertexSlots = 0;
+    private int vertexCount = 0;
+    private int freeVertex = NONE;
+    private ByteBuffer labelTable;
+    private int labelTableUsed = 0;
+    private ByteBuffer edgeRecords;
+    private int edgeSlots = 0;
+    private int freeEdge = NONE;
+    private ByteBuffer edgeTable;
+    private int edgeTableUsed = 0;
+    private boolean closed = false;
+
+    // Abstraction function:
+    //   represents the graph whose vertices are the labels of the live vertex records 0..vertexSlots-1,
+    //   decoded as UTF-8 from strings, and whose edges are the live edge records 0..edgeSlots-1
+    // Representation invariant:
+    //   a vertex record is live iff its label length is not NONE; dead records form the free
+    //   list starting at freeVertex, linked through V_OUT_HEAD
+    //   an edge record is live iff its weight is positive; dead records form the free list
+    //   starting at freeEdge, linked through E_NEXT_OUT
+    //   every live edge is in the out-list of its source and the in-list of its target, and
+    //   in no other list; list links are consistent in both directions
+    //   labelTable holds the id of every live vertex exactly once, edgeTable holds the index of
+    //   every live edge exactly once, other slots are NONE or DELETED, and at least half of the
+    //   slots of each table are NONE
+    //   labels of live vertices are distinct
+    // Safety from rep exposure:
+    //   all fields are private, buffers are never returned, and observers return new
+    //   collections of Strings decoded from the buffers
+
+    // constructor
+    /**
+     * Creates an empty graph with small initial buffers
+     */
+    public OffHeapGraph() {
+        this(16, 16);
+    }
+
+    /**
+     * Creates an empty graph with buffers sized for the expected graph
+     * @param expectedVertices - expected number of vertices, positive
+     * @param expectedEdges - expected number of edges, positive
+     */
+    public OffHeapGraph(int expectedVertices, int expectedEdges) {
+        strings = allocate(expectedVertices * 8);
+        vertexRecords = allocate(expectedVertices * VERTEX_INTS * 4);
+        labelTable = newTable(tableSlotsFor(expectedVertices));
+        edgeRecords = allocate(expectedEdges * EDGE_INTS * 4);
+        edgeTable = newTable(tableSlotsFor(expectedEdges));
+        checkRep();
+    }
+
+    // checkRep
+    private void checkRep() {
+        assert closed || vertexCount <= vertexSlots;
+        assert closed || labelTableUsed * 2 <= slots(labelTable);
+        assert closed || edgeTableUsed * 2 <= slots(edgeTable);
+    }
+
+    /**
+     * Releases the native memory of this graph. The graph must not be used
+     * afterwards; its operations throw IllegalStateException.
+     */
+    @Override public void close() {
+        closed = true;
+        strings = null;
+        vertexRecords = null;
+        labelTable = null;
+        edgeRecords = null;
+        edgeTable = null;
+    }
+
+    // Graph operations:
+
+    @Override public boolean add(String vertex) {
+        checkOpen();
+        byte[] label = vertex.getBytes(StandardCharsets.UTF_8);
+        if (findVertex(label) != NONE) {
+            return false;
+        }
+        addVertex(label);
+        checkRep();
+        return true;
+    }
+
+    @Override public int set(String source, String target, int weight) {
+        checkOpen();
+        int sourceId = findOrAddVertex(source.getBytes(StandardCharsets.UTF_8));
+        int targetId = findOrAddVertex(target.getBytes(StandardCharsets.UTF_8));
+        int edge = findEdge(sourceId, targetId);
+        int previousWeight = edge == NONE ? 0 : edgeInt(edge, E_WEIGHT);
+        if (weight > 0) {
+            if (edge == NONE) {
+                addEdge(sourceId, targetId, weight);
+            } else {
+                putEdgeInt(edge, E_WEIGHT, weight);
+            }
+        } else if (edge != NONE) {
+            removeEdge(edge);
+        }
+        checkRep();
+        return previousWeight;
+    }
+
+    @Override public int merge(String source, String target, int delta) {
+        checkOpen();
+        if (delta <= 0) {
+            throw new IllegalArgumentException("delta must be positive: " + delta);
+        }
+        int sourceId = findOrAddVertex(source.getBytes(StandardCharsets.UTF_8));
+        int targetId = findOrAddVertex(target.getBytes(StandardCharsets.UTF_8));
+        int edge = findEdge(sourceId, targetId);
+        if (edge == NONE) {
+            addEdge(sourceId, targetId, delta);
+            return 0;
+        }
+        int previousWeight = edgeInt(edge, E_WEIGHT);
+        putEdgeInt(edge, E_WEIGHT, previousWeight + delta);
+        return previousWeight;
+    }
+
+    @Override public boolean remove(String vertex) {
+        checkOpen();
+        int id = findVertex(vertex.getBytes(StandardCharsets.UTF_8));
+        if (id == NONE) {
+            return false;
+        }
+        while (vertexInt(id, V_OUT_HEAD) != NONE) {
+            removeEdge(vertexInt(id, V_OUT_HEAD));
+        }
+        while (vertexInt(id, V_IN_HEAD) != NONE) {
+            removeEdge(vertexInt(id, V_IN_HEAD));
+        }
+        labelTable.putInt(labelSlotOf(id) * 4, DELETED);
+        putVertexInt(id, V_LABEL_LENGTH, NONE);
+        putVertexInt(id, V_OUT_HEAD, freeVertex);
+        freeVertex = id;
+        vertexCount--;
+        checkRep();
+        return true;
+    }
+
+    @Override public Set<String> vertices() {
+        checkOpen();
+        Set<String> vertices = new HashSet<>();
+        for (int id = 0; id < vertexSlots; id++) {
+            if (vertexInt(id, V_LABEL_LENGTH) != NONE) {
+                vertices.add(label(id));
+            }
+        }
+        return vertices;
+    }
+
+    @Override public Map<String, Integer> sources(String target) {
+        checkOpen();
+        Map<String, Integer> sources = new HashMap<>();
+        int id = findVertex(target.getBytes(StandardCharsets.UTF_8));
+        if (id != NONE) {
+            for (int edge = vertexInt(id, V_IN_HEAD); edge != NONE; edge = edgeInt(edge, E_NEXT_IN)) {
+                sources.put(label(edgeInt(edge, E_SOURCE)), edgeInt(edge, E_WEIGHT));
+            }
+        }
+        return sources;
+    }
+
+    @Override public Map<String, Integer> targets(String source) {
+        checkOpen();
+        Map<String, Integer> targets = new HashMap<>();
+        int id = findVertex(source.getBytes(StandardCharsets.UTF_8));
+        if (id != NONE) {
+            for (int edge = vertexInt(id, V_OUT_HEAD); edge != NONE; edge = edgeInt(edge, E_NEXT_OUT)) {
+                targets.put(label(edgeInt(edge, E_TARGET)), edgeInt(edge, E_WEIGHT));
+            }
+        }
+        return targets;
+    }
+
+    @Override public Set<String> verticesView() {
+        return new AbstractSet<String>() {
+            @Override public int size() {
+                checkOpen();
+                return vertexCount;
+            }
+
+            @Override public boolean contains(Object o) {
+                checkOpen();
+                return o instanceof String && findVertex(((String) o).getBytes(StandardCharsets.UTF_8)) != NONE;
+            }
+
+            @Override public Iterator<String> iterator() {
+                checkOpen();
+                return new Iterator<String>() {
+                    private int id = advance(0);
+
+                    private int advance(int from) {
+                        while (from < vertexSlots && vertexInt(from, V_LABEL_LENGTH) == NONE) {
+                            from++;
+                        }
+                        return from;
+                    }
+
+                    @Override public boolean hasNext() {
+                        return id < vertexSlots;
+                    }
+
+                    @Override public String next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        String label = label(id);
+                        id = advance(id + 1);
+                        return label;
+                    }
+                };
+            }
+        };
+    }
+
+    @Override public Map<String, Integer> sourcesView(String target) {
+        return new WeightsView(target, false);
+    }
+
+    @Override public Map<String, Integer> targetsView(String source) {
+        return new WeightsView(source, true);
+    }
+
+    /**
+     * Calls visitor for every edge. Labels are decoded from native memory
+     * once per vertex, not once per edge.
+     */
+    @Override public void forEachEdge(EdgeVisitor<String> visitor) {
+        checkOpen();
+        String[] names = new String[vertexSlots];
+        for (int id = 0; id < vertexSlots; id++) {
+            if (vertexInt(id, V_LABEL_LENGTH) != NONE) {
+                names[id] = label(id);
+            }
+        }
+        for (int id = 0; id < vertexSlots; id++) {
+            if (names[id] != null) {
+                for (int edge = vertexInt(id, V_OUT_HEAD); edge != NONE; edge = edgeInt(edge, E_NEXT_OUT)) {
+                    visitor.visit(names[id], names[edgeInt(edge, E_TARGET)], edgeInt(edge, E_WEIGHT));
+                }
+            }
+        }
+    }
+
+    @Override public void forEachTarget(String source, ObjIntConsumer<String> action) {
+        checkOpen();
+        int id = findVertex(source.getBytes(StandardCharsets.UTF_8));
+        if (id != NONE) {
+            for (int edge = vertexInt(id, V_OUT_HEAD); edge != NONE; edge = edgeInt(edge, E_NEXT_OUT)) {
+                action.accept(label(edgeInt(edge, E_TARGET)), edgeInt(edge, E_WEIGHT));
+            }
+        }
+    }
+
+    // toString()
+    @Override public String toString() {
+        return GraphExporter.toString(this);
+    }
+
+    /**
+     * An unmodifiable live view of the out- or in-edges of one vertex, from
+     * neighbor labels to edge weights.
+     * The vertex is looked up on every access, so the view follows the
+     * vertex being removed and added again.
+     */
+    private final class WeightsView extends AbstractMap<String, Integer> {
+
+        private final byte[] label;
+        private final boolean out;
+
+        // Abstraction function:
+        //   represents the weights of the edges in the out-list of the vertex labeled label
+        //   if out, and of its in-list otherwise, keyed by the label at the other end
+        // Representation invariant:
+        //   true
+        // Safety from rep exposure:
+        //   fields are private and final, label is never returned, the view cannot be modified
+
+        WeightsView(String label, boolean out) {
+            this.label = label.getBytes(StandardCharsets.UTF_8);
+            this.out = out;
+        }
+
+        /**
+         * @return head of the edge list of the vertex, or NONE if it has no edges or is not in the graph
+         */
+        private int head() {
+            checkOpen();
+            int id = findVertex(label);
+            return id == NONE ? NONE : vertexInt(id, out ? V_OUT_HEAD : V_IN_HEAD);
+        }
+
+        @Override public Integer get(Object key) {
+            checkOpen();
+            if (!(key instanceof String)) {
+                return null;
+            }
+            int id = findVertex(label);
+            int other = findVertex(((String) key).getBytes(StandardCharsets.UTF_8));
+            if (id == NONE || other == NONE) {
+                return null;
+            }
+            int edge = out ? findEdge(id, other) : findEdge(other, id);
+            return edge == NONE ? null : edgeInt(edge, E_WEIGHT);
+        }
+
+        @Override public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override public Set<Map.Entry<String, Integer>> entrySet() {
+            return new AbstractSet<Map.Entry<String, Integer>>() {
+                @Override public int size() {
+                    int size = 0;
+                    for (int edge = head(); edge != NONE; edge = edgeInt(edge, out ? E_NEXT_OUT : E_NEXT_IN)) {
+                        size++;
+                    }
+                    return size;
+                }
+
+                @Override public Iterator<Map.Entry<String, Integer>> iterator() {
+                    return new Iterator<Map.Entry<String, Integer>>() {
+                        private int edge = head();
+
+                        @Override public boolean hasNext() {
+                            return edge != NONE;
+                        }
+
+                        @Override public Map.Entry<String, Integer> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            Map.Entry<String, Integer> entry = new AbstractMap.SimpleImmutableEntry<String, Integer>(
+                                    label(edgeInt(edge, out ? E_TARGET : E_SOURCE)), edgeInt(edge, E_WEIGHT));
+                            edge = edgeInt(edge, out ? E_NEXT_OUT : E_NEXT_IN);
+                            return entry;
+                        }
+                    };
+                }
+            };
+        }
+    }
+
+    // Vertices:
+
+    // findVertex()
+    /**
+     * @param label - UTF-8 bytes of a label
+     * @return id of the vertex with that label, or NONE
+     */
+    private int findVertex(byte[] label) {
+        int mask = slots(labelTable) - 1;
+        for (int slot = hashBytes(label) & mask; ; slot = (slot + 1) & mask) {
+            int id = labelTable.getInt(slot * 4);
+            if (id == NONE) {
+                return NONE;
+            }
+            if (id != DELETED && labelEquals(id, label)) {
+                return id;
+            }
+        }
+    }
+
+    // findOrAddVertex()
+    private int findOrAddVertex(byte[] label) {
+        int id = findVertex(label);
+        return id == NONE ? addVertex(label) : id;
+    }
+
+    // addVertex()
+    /**
+     * Adds a vertex, which must not be in the graph yet
+     * @param label - UTF-8 bytes of the label of the new vertex
+     * @return id of the new vertex
+     */
+    private int addVertex(byte[] label) {
+        // the table is rehashed before the new vertex is live, so rehashing does not insert it
+        if ((labelTableUsed + 1) * 2 > slots(labelTable)) {
+            labelTable = rehashLabels(tableSlotsFor(vertexCount + 1));
+        }
+        if (stringBytes + label.length > strings.capacity()) {
+            strings = grow(strings, stringBytes + label.length);
+        }
+        for (int i = 0; i < label.length; i++) {
+            strings.put(stringBytes + i, label[i]);
+        }
+        int id;
+        if (freeVertex != NONE) {
+            id = freeVertex;
+            freeVertex = vertexInt(id, V_OUT_HEAD);
+        } else {
+            id = vertexSlots++;
+            if (vertexSlots * VERTEX_INTS * 4 > vertexRecords.capacity()) {
+                vertexRecords = grow(vertexRecords, vertexSlots * VERTEX_INTS * 4);
+            }
+        }
+        putVertexInt(id, V_LABEL_OFFSET, stringBytes);
+        putVertexInt(id, V_LABEL_LENGTH, label.length);
+        putVertexInt(id, V_OUT_HEAD, NONE);
+        putVertexInt(id, V_IN_HEAD, NONE);
+        stringBytes += label.length;
+        vertexCount++;
+        insertLabel(labelTable, id, hashBytes(label));
+        labelTableUsed++;
+        return id;
+    }
+
+    // labelSlotOf()
+    /**
+     * @param id - id of a live vertex
+     * @return slot of labelTable holding id
+     */
+    private int labelSlotOf(int id) {
+        int mask = slots(labelTable) - 1;
+        int slot = hashLabel(id) & mask;
+        while (labelTable.getInt(slot * 4) != id) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // rehashLabels()
+    /**
+     * @return new label table with the given number of slots, holding every live vertex and no DELETED slots
+     */
+    private ByteBuffer rehashLabels(int slotCount) {
+        ByteBuffer table = newTable(slotCount);
+        labelTableUsed = 0;
+        for (int id = 0; id < vertexSlots; id++) {
+            if (vertexInt(id, V_LABEL_LENGTH) != NONE) {
+                insertLabel(table, id, hashLabel(id));
+                labelTableUsed++;
+            }
+        }
+        return table;
+    }
+
+    private static void insertLabel(ByteBuffer table, int id, int hash) {
+        int mask = slots(table) - 1;
+        int slot = hash & mask;
+        while (table.getInt(slot * 4) >= 0) {
+            slot = (slot + 1) & mask;
+        }
+        table.putInt(slot * 4, id);
+    }
+
+    private boolean labelEquals(int id, byte[] label) {
+        if (vertexInt(id, V_LABEL_LENGTH) != label.length) {
+            return false;
+        }
+        int offset = vertexInt(id, V_LABEL_OFFSET);
+        for (int i = 0; i < label.length; i++) {
+            if (strings.get(offset + i) != label[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String label(int id) {
+        byte[] bytes = new byte[vertexInt(id, V_LABEL_LENGTH)];
+        int offset = vertexInt(id, V_LABEL_OFFSET);
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = strings.get(offset + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return hash of the label of a live vertex, equal to hashBytes of its UTF-8 bytes
+     */
+    private int hashLabel(int id) {
+        int hash = 0x811C9DC5;
+        int offset = vertexInt(id, V_LABEL_OFFSET);
+        int length = vertexInt(id, V_LABEL_LENGTH);
+        for (int i = 0; i < length; i++) {
+            hash = (hash ^ (strings.get(offset + i) & 0xFF)) * 0x01000193;
+        }
+        return mix(hash);
+    }
+
+    // FNV-1a
+    private static int hashBytes(byte[] bytes) {
+        int hash = 0x811C9DC5;
+        for (byte b : bytes) {
+            hash = (hash ^ (b & 0xFF)) * 0x01000193;
+        }
+        return mix(hash);
+    }
+
+    // Edges:
+
+    // findEdge()
+    /**
+     * @return index of the edge record from source to target, or NONE
+     */
+    private int findEdge(int source, int target) {
+        int mask = slots(edgeTable) - 1;
+        for (int slot = hashEdge(source, target) & mask; ; slot = (slot + 1) & mask) {
+            int edge = edgeTable.getInt(slot * 4);
+            if (edge == NONE) {
+                return NONE;
+            }
+            if (edge != DELETED && edgeInt(edge, E_SOURCE) == source && edgeInt(edge, E_TARGET) == target) {
+                return edge;
+            }
+        }
+    }
+
+    // addEdge()
+    /**
+     * Adds an edge, which must not be in the graph yet, at the head of both lists
+     */
+    private void addEdge(int source, int target, int weight) {
+        if ((edgeTableUsed + 1) * 2 > slots(edgeTable)) {
+            edgeTable = rehashEdges(tableSlotsFor(edgeSlots + 1));
+        }
+        int edge;
+        if (freeEdge != NONE) {
+            edge = freeEdge;
+            freeEdge = edgeInt(edge, E_NEXT_OUT);
+        } else {
+            edge = edgeSlots++;
+            if (edgeSlots * EDGE_INTS * 4 > edgeRecords.capacity()) {
+                edgeRecords = grow(edgeRecords, edgeSlots * EDGE_INTS * 4);
+            }
+        }
+        int outHead = vertexInt(source, V_OUT_HEAD);
+        int inHead = vertexInt(target, V_IN_HEAD);
+        putEdgeInt(edge, E_SOURCE, source);
+        putEdgeInt(edge, E_TARGET, target);
+        putEdgeInt(edge, E_WEIGHT, weight);
+        putEdgeInt(edge, E_NEXT_OUT, outHead);
+        putEdgeInt(edge, E_PREV_OUT, NONE);
+        putEdgeInt(edge, E_NEXT_IN, inHead);
+        putEdgeInt(edge, E_PREV_IN, NONE);
+        if (outHead != NONE) {
+            putEdgeInt(outHead, E_PREV_OUT, edge);
+        }
+        if (inHead != NONE) {
+            putEdgeInt(inHead, E_PREV_IN, edge);
+        }
+        putVertexInt(source, V_OUT_HEAD, edge);
+        putVertexInt(target, V_IN_HEAD, edge);
+        insertEdge(edgeTable, edge, hashEdge(source, target));
+        edgeTableUsed++;
+    }
+
+    // removeEdge()
+    /**
+     * Unlinks a live edge from both lists and the edge table, and frees its record
+     */
+    private void removeEdge(int edge) {
+        int source = edgeInt(edge, E_SOURCE);
+        int target = edgeInt(edge, E_TARGET);
+        unlink(edge, source, E_NEXT_OUT, E_PREV_OUT, V_OUT_HEAD);
+        unlink(edge, target, E_NEXT_IN, E_PREV_IN, V_IN_HEAD);
+
+        int mask = slots(edgeTable) - 1;
+        int slot = hashEdge(source, target) & mask;
+        while (edgeTable.getInt(slot * 4) != edge) {
+            slot = (slot + 1) & mask;
+        }
+        edgeTable.putInt(slot * 4, DELETED);
+
+        putEdgeInt(edge, E_WEIGHT, 0);
+        putEdgeInt(edge, E_NEXT_OUT, freeEdge);
+        freeEdge = edge;
+    }
+
+    private void unlink(int edge, int vertex, int nextField, int prevField, int headField) {
+        int next = edgeInt(edge, nextField);
+        int prev = edgeInt(edge, prevField);
+        if (prev == NONE) {
+            putVertexInt(vertex, headField, next);
+        } else {
+            putEdgeInt(prev, nextField, next);
+        }
+        if (next != NONE) {
+            putEdgeInt(next, prevField, prev);
+        }
+    }
+
+    // rehashEdges()
+    /**
+     * @return new edge table with the given number of slots, holding every live edge and no DELETED slots
+     */
+    private ByteBuffer rehashEdges(int slotCount) {
+        ByteBuffer table = newTable(slotCount);
+        edgeTableUsed = 0;
+        for (int edge = 0; edge < edgeSlots; edge++) {
+            if (edgeInt(edge, E_WEIGHT) > 0) {
+                insertEdge(table, edge, hashEdge(edgeInt(edge, E_SOURCE), edgeInt(edge, E_TARGET)));
+                edgeTableUsed++;
+            }
+        }
+        return table;
+    }
+
+    private static void insertEdge(ByteBuffer table, int edge, int hash) {
+        int mask = slots(table) - 1;
+        int slot = hash & mask;
+        while (table.getInt(slot * 4) >= 0) {
+            slot = (slot + 1) & mask;
+        }
+        table.putInt(slot * 4, edge);
+    }
+
+    private static int hashEdge(int source, int target) {
+        return mix(source * 0x9E3779B9 + target);
+    }
+
+    // Buffers:
+
+    private int vertexInt(int id, int field) {
+        return vertexRecords.getInt((id * VERTEX_INTS + field) * 4);
+    }
+
+    private void putVertexInt(int id, int field, int value) {
+        vertexRecords.putInt((id * VERTEX_INTS + field) * 4, value);
+    }
+
+    private int edgeInt(int edge, int field) {
+        return edgeRecords.getInt((edge * EDGE_INTS + field) * 4);
+    }
+
+    private void putEdgeInt(int edge, int field, int value) {
+        edgeRecords.putInt((edge * EDGE_INTS + field) * 4, value);
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("OffHeapGraph is closed");
+        }
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int slots(ByteBuffer table) {
+        return table.capacity() / 4;
+    }
+
+    /**
+     * @return power of two number of table slots that keeps entries at most a quarter of the slots
+     */
+    private static int tableSlotsFor(int entries) {
+        int slotCount = 16;
+        while (slotCount < entries * 4) {
+            slotCount <<= 1;
+        }
+        return slotCount;
+    }
+
+    private static ByteBuffer newTable(int slotCount) {
+        ByteBuffer table = allocate(slotCount * 4);
+        for (int slot = 0; slot < slotCount; slot++) {
+            table.putInt(slot * 4, NONE);
+        }
+        return table;
+    }
+
+    private static ByteBuffer allocate(int bytes) {
+        return ByteBuffer.allocateDirect(Math.max(bytes, 64)).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * @return new buffer with at least minBytes bytes, starting with the contents of old
+     */
+    private static ByteBuffer grow(ByteBuffer old, int minBytes) {
+        int capacity = old.capacity();
+        while (capacity < minBytes) {
+            if (capacity > Integer.MAX_VALUE / 2) {
+                throw new OutOfMemoryError("OffHeapGraph buffer would exceed 2GB");
+            }
+            capacity *= 2;
+        }
+        ByteBuffer bigger = allocate(capacity);
+        ByteBuffer contents = old.duplicate();
+        contents.clear();
+        bigger.put(contents);
+        bigger.clear();
+        return bigger;
+    }
+
+}
@@ -0,0 +1,320 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * A Graph decorator that keeps the out- and in-edges of every vertex ordered
+ * by decreasing weight, so that the heaviest neighbors of a vertex are found
+ * without copying or sorting its whole neighborhood.
+ *
+ * <p>Every mutation is applied to the wrapped graph and then to the weight
+ * orders, in time O(log d) per changed edge for a vertex with d neighbors;
+ * {@link #topTargets(Object, int)} and {@link #topSources(Object, int)}
+ * answer in O(k + log d). Observers other than those two are answered by the
+ * wrapped graph. The wrapped graph must only be changed through this
+ * decorator afterwards, or the orders go stale.
+ *
+ * <p>Edges with equal weights are ordered by the time the edge was first
+ * added, oldest first. TopKGraph is not thread-safe, even if the wrapped graph is.
+ *
+ * @param <L> type of vertex labels in this graph, must be immutable
+ */
+public class TopKGraph<L> implements Graph<L> {
+
+    private final Graph<L> graph;
+    private final Map<L, WeightOrder<L>> outOrders = new HashMap<>();
+    private final Map<L, WeightOrder<L>> inOrders = new HashMap<>();
+    private long nextSequence = 0;
+
+    // Abstraction function:
+    //   represents graph; outOrders.get(s) and inOrders.get(t) index the edges
+    //   from s and to t by decreasing weight
+    // Representation invariant:
+    //   outOrders.get(s) has a neighbor t with weight w iff graph has an edge from s to t
+    //   with weight w, and likewise inOrders.get(t) for an edge from s to t
+    //   outOrders and inOrders have no empty orders
+    //   every Neighbor has sequence < nextSequence
+    // Safety from rep exposure:
+    //   all fields are private and final, orders and neighbors are never returned;
+    //   topTargets() and topSources() return new maps
+    //   the wrapped graph was passed in by the client, who agrees not to change it directly
+
+    /**
+     * A neighbor of a vertex in its weight order.
+     * This class is internal to the rep of TopKGraph.
+     */
+    private static final class Neighbor<L> {
+        private final L label;
+        private final long sequence;
+        private int weight;
+
+        Neighbor(L label, int weight, long sequence) {
+            this.label = label;
+            this.weight = weight;
+            this.sequence = sequence;
+        }
+    }
+
+    private static final Comparator<Neighbor<?>> HEAVIEST_FIRST = (a, b) -> {
+        int byWeight = Integer.compare(b.weight, a.weight);
+        return byWeight != 0 ? byWeight : Long.compare(a.sequence, b.sequence);
+    };
+
+    /**
+     * The out- or in-edges of one vertex, indexed by label and ordered by weight.
+     * This class is internal to the rep of TopKGraph.
+     */
+    private static final class WeightOrder<L> {
+        private final Map<L, Neighbor<L>> byLabel = new HashMap<>();
+        private final NavigableSet<Neighbor<L>> byWeight = new TreeSet<>(HEAVIEST_FIRST);
+
+        // Representation invariant:
+        //   byWeight contains exactly the values of byLabel, and each neighbor is under its own label
+
+        /**
+         * Sets the weight of the edge to neighbor, removing it if weight is zero
+         * @param sequence - sequence number to give the edge if it is new
+         */
+        void set(L neighbor, int weight, long sequence) {
+            Neighbor<L> entry = byLabel.get(neighbor);
+            if (entry != null) {
+                // take the entry out before changing its position in the order
+                byWeight.remove(entry);
+                if (weight == 0) {
+                    byLabel.remove(neighbor);
+                    return;
+                }
+                entry.weight = weight;
+            } else if (weight == 0) {
+                return;
+            } else {
+                entry = new Neighbor<>(neighbor, weight, sequence);
+                byLabel.put(neighbor, entry);
+            }
+            byWeight.add(entry);
+        }
+
+        void remove(L neighbor) {
+            Neighbor<L> entry = byLabel.remove(neighbor);
+            if (entry != null) {
+                byWeight.remove(entry);
+            }
+        }
+
+        boolean isEmpty() {
+            return byLabel.isEmpty();
+        }
+
+        Map<L, Integer> top(int k) {
+            Map<L, Integer> top = new LinkedHashMap<>();
+            Iterator<Neighbor<L>> heaviest = byWeight.iterator();
+            while (top.size() < k && heaviest.hasNext()) {
+                Neighbor<L> entry = heaviest.next();
+                top.put(entry.label, entry.weight);
+            }
+            return top;
+        }
+    }
+
+    // constructor
+    /**
+     * Creates an empty graph
+     */
+    public TopKGraph() {
+        this(Graph.<L>empty());
+    }
+
+    /**
+     * Wraps a graph, indexing the edges it already has
+     * @param graph - graph to wrap; must not be changed afterwards except through this decorator
+     */
+    public TopKGraph(Graph<L> graph) {
+        this.graph = graph;
+        graph.forEachEdge((source, target, weight) -> index(source, target, weight));
+    }
+
+    // checkRep
+    // only the orders of the vertices just changed are checked, which keeps each mutation O(log d)
+    private void checkRep(L vertex) {
+        checkOrder(outOrders.get(vertex));
+        checkOrder(inOrders.get(vertex));
+    }
+
+    private static <L> void checkOrder(WeightOrder<L> order) {
+        assert order == null || !order.isEmpty();
+        assert order == null || order.byLabel.size() == order.byWeight.size();
+    }
+
+    /**
+     * Updates both weight orders for the edge from source to target
+     * @param weight - new weight of the edge, or zero if it was removed
+     */
+    private void index(L source, L target, int weight) {
+        long sequence = nextSequence++;
+        update(outOrders, source, target, weight, sequence);
+        update(inOrders, target, source, weight, sequence);
+    }
+
+    private static <L> void update(Map<L, WeightOrder<L>> orders, L vertex, L neighbor, int weight, long sequence) {
+        WeightOrder<L> order = orders.get(vertex);
+        if (order == null) {
+            if (weight == 0) {
+                return;
+            }
+            order = new WeightOrder<>();
+            orders.put(vertex, order);
+        }
+        order.set(neighbor, weight, sequence);
+        if (order.isEmpty()) {
+            orders.remove(vertex);
+        }
+    }
+
+    // Top-k operations:
+
+    /**
+     * Get the targets of the heaviest edges from a source vertex
+     * @param source - a label
+     * @param k - largest number of targets wanted, nonnegative
+     * @return a new map of the min(k, number of targets) targets of source with the
+     *         largest edge weights, to those weights; it iterates in order of
+     *         decreasing weight
+     * @throws IllegalArgumentException if k is negative
+     */
+    public Map<L, Integer> topTargets(L source, int k) {
+        return top(outOrders, source, k);
+    }
+
+    /**
+     * Get the sources of the heaviest edges to a target vertex
+     * @param target - a label
+     * @param k - largest number of sources wanted, nonnegative
+     * @return a new map of the min(k, number of sources) sources of target with the
+     *         largest edge weights, to those weights; it iterates in order of
+     *         decreasing weight
+     * @throws IllegalArgumentException if k is negative
+     */
+    public Map<L, Integer> topSources(L target, int k) {
+        return top(inOrders, target, k);
+    }
+
+    private static <L> Map<L, Integer> top(Map<L, WeightOrder<L>> orders, L vertex, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must be nonnegative: " + k);
+        }
+        WeightOrder<L> order = orders.get(vertex);
+        return order == null ? new LinkedHashMap<L, Integer>() : order.top(k);
+    }
+
+    // Graph operations:
+
+    @Override public boolean add(L vertex) {
+        return graph.add(vertex);
+    }
+
+    @Override public int set(L source, L target, int weight) {
+        int previousWeight = graph.set(source, target, weight);
+        if (previousWeight != weight) {
+            index(source, target, weight);
+            checkRep(source);
+            checkRep(target);
+        }
+        return previousWeight;
+    }
+
+    @Override public int merge(L source, L target, int delta) {
+        int previousWeight = graph.merge(source, target, delta);
+        index(source, target, previousWeight + delta);
+        checkRep(source);
+        checkRep(target);
+        return previousWeight;
+    }
+
+    @Override public boolean remove(L vertex) {
+        if (!graph.remove(vertex)) {
+            return false;
+        }
+        WeightOrder<L> out = outOrders.remove(vertex);
+        WeightOrder<L> in = inOrders.remove(vertex);
+        if (out != null) {
+            for (L target : out.byLabel.keySet()) {
+                unindex(inOrders, target, vertex);
+            }
+        }
+        if (in != null) {
+            for (L source : in.byLabel.keySet()) {
+                unindex(outOrders, source, vertex);
+            }
+        }
+        checkRep(vertex);
+        return true;
+    }
+
+    private static <L> void unindex(Map<L, WeightOrder<L>> orders, L vertex, L neighbor) {
+        WeightOrder<L> order = orders.get(vertex);
+        // a loop on the removed vertex has no order left to update
+        if (order != null) {
+            order.remove(neighbor);
+            if (order.isEmpty()) {
+                orders.remove(vertex);
+            }
+        }
+    }
+
+    @Override public Set<L> vertices() {
+        return graph.vertices();
+    }
+
+    @Override public Map<L, Integer> sources(L target) {
+        return graph.sources(target);
+    }
+
+    @Override public Map<L, Integer> targets(L source) {
+        return graph.targets(source);
+    }
+
+    @Override public Set<L> verticesView() {
+        return graph.verticesView();
+    }
+
+    @Override public Map<L, Integer> sourcesView(L target) {
+        return graph.sourcesView(target);
+    }
+
+    @Override public Map<L, Integer> targetsView(L source) {
+        return graph.targetsView(source);
+    }
+
+    @Override public void forEachEdge(EdgeVisitor<L> visitor) {
+        graph.forEachEdge(visitor);
+    }
+
+    @Override public void forEachTarget(L source, ObjIntConsumer<L> action) {
+        graph.forEachTarget(source, action);
+    }
+
+    @Override public L bestIntermediate(L source, L target) {
+        return graph.bestIntermediate(source, target);
+    }
+
+    @Override public FrozenGraph<L> freeze() {
+        return graph.freeze();
+    }
+
+    // toString()
+    @Override public String toString() {
+        return GraphExporter.toString(this);
+    }
+
+}
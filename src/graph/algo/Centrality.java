@@ -0,0 +1,315 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.algo;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import graph.FrozenGraph;
+import graph.Graph;
+
+/**
+ * Vertex centrality measures computed in parallel on a ForkJoinPool.
+ *
+ * <p>Every measure freezes its input graph and works on the compressed
+ * adjacency arrays of the {@link FrozenGraph}, so each vertex's incoming and
+ * outgoing edges are read in one linear pass instead of by calling
+ * sources() or targets() per vertex. The vertices are split into ranges of
+ * about equal work (vertices plus the edges each pass walks: incoming,
+ * outgoing or none), and each range is handled by its own fork/join task;
+ * ranges write disjoint parts of the result arrays, so no locking is needed.
+ * The parallelism of the pool sets the number of ranges.
+ */
+public final class Centrality {
+
+    /** Damping factor used by {@link #pageRank(Graph)}. */
+    public static final double DEFAULT_DAMPING = 0.85;
+    /** Convergence threshold used by {@link #pageRank(Graph)}. */
+    public static final double DEFAULT_TOLERANCE = 1e-9;
+    /** Iteration limit used by {@link #pageRank(Graph)}. */
+    public static final int DEFAULT_MAX_ITERATIONS = 100;
+
+    // smallest amount of work, in vertices plus edges, worth forking a task for
+    private static final int MIN_TASK_WORK = 1 << 12;
+    private static final int TASKS_PER_THREAD = 8;
+
+    private Centrality() {
+        throw new AssertionError("Centrality is not instantiable");
+    }
+
+    /**
+     * Computes PageRank with the default damping, tolerance and iteration limit
+     * on the common ForkJoinPool
+     * @param graph - graph to rank
+     * @return PageRank of every vertex of a snapshot of graph, as described in
+     *         {@link #pageRank(Graph, double, double, int, ForkJoinPool)}
+     */
+    public static <L> VertexScores<L> pageRank(Graph<L> graph) {
+        return pageRank(graph, DEFAULT_DAMPING, DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes weighted PageRank by power iteration. A random surfer follows
+     * an edge from its vertex with probability damping, choosing each edge in
+     * proportion to its weight, and otherwise jumps to a uniformly random
+     * vertex; it always jumps from a vertex without outgoing edges. The rank
+     * of a vertex is the probability of finding the surfer there.
+     * @param graph - graph to rank
+     * @param damping - probability of following an edge, in [0, 1]
+     * @param tolerance - iteration stops once the ranks change by less than this in total
+     *                    (L1 norm) in one iteration; nonnegative
+     * @param maxIterations - iteration stops after this many iterations; positive
+     * @param pool - pool the iterations run on
+     * @return rank of every vertex of a snapshot of graph; the ranks sum to 1
+     *         (up to rounding) unless the graph is empty
+     * @throws IllegalArgumentException if damping, tolerance or maxIterations is out of range
+     */
+    public static <L> VertexScores<L> pageRank(Graph<L> graph, double damping, double tolerance,
+            int maxIterations, ForkJoinPool pool) {
+        if (!(damping >= 0 && damping <= 1)) {
+            throw new IllegalArgumentException("damping must be in [0, 1]: " + damping);
+        }
+        if (!(tolerance >= 0)) {
+            throw new IllegalArgumentException("tolerance must be nonnegative: " + tolerance);
+        }
+        if (maxIterations < 1) {
+            throw new IllegalArgumentException("maxIterations must be positive: " + maxIterations);
+        }
+        final FrozenGraph<L> frozen = graph.freeze();
+        final int n = frozen.vertexCount();
+        if (n == 0) {
+            return new VertexScores<>(frozen, new double[0]);
+        }
+        final double[] outWeight = degrees(frozen, pool, true);
+        final double[] contribution = new double[n];
+        final double[][] ranks = { new double[n], new double[n] };
+        Arrays.fill(ranks[0], 1.0 / n);
+        int current = 0;
+        for (int iteration = 0; iteration < maxIterations; iteration++) {
+            final double[] rank = ranks[current];
+            final double[] next = ranks[1 - current];
+            // push each rank onto the vertex's edges, per unit of weight,
+            // and collect the rank of vertices with nowhere to go
+            double dangling = sum(frozen, pool, Edges.NONE, (from, to) -> {
+                double mass = 0;
+                for (int v = from; v < to; v++) {
+                    if (outWeight[v] == 0) {
+                        contribution[v] = 0;
+                        mass += rank[v];
+                    } else {
+                        contribution[v] = rank[v] / outWeight[v];
+                    }
+                }
+                return mass;
+            });
+            final double teleport = (1 - damping) / n + damping * dangling / n;
+            // pull the contributions over the incoming edges of each vertex
+            double change = sum(frozen, pool, Edges.IN, (from, to) -> {
+                double diff = 0;
+                for (int v = from; v < to; v++) {
+                    double incoming = 0;
+                    for (int e = frozen.inOffset(v), end = frozen.inOffset(v + 1); e < end; e++) {
+                        incoming += contribution[frozen.inSource(e)] * frozen.inWeight(e);
+                    }
+                    next[v] = teleport + damping * incoming;
+                    diff += Math.abs(next[v] - rank[v]);
+                }
+                return diff;
+            });
+            current = 1 - current;
+            if (change < tolerance) {
+                break;
+            }
+        }
+        return new VertexScores<>(frozen, ranks[current]);
+    }
+
+    /**
+     * @param graph - graph to measure
+     * @param pool - pool the computation runs on
+     * @return for every vertex of a snapshot of graph, the sum of the weights of its incoming edges
+     */
+    public static <L> VertexScores<L> weightedInDegree(Graph<L> graph, ForkJoinPool pool) {
+        FrozenGraph<L> frozen = graph.freeze();
+        return new VertexScores<>(frozen, degrees(frozen, pool, false));
+    }
+
+    /**
+     * @param graph - graph to measure
+     * @param pool - pool the computation runs on
+     * @return for every vertex of a snapshot of graph, the sum of the weights of its outgoing edges
+     */
+    public static <L> VertexScores<L> weightedOutDegree(Graph<L> graph, ForkJoinPool pool) {
+        FrozenGraph<L> frozen = graph.freeze();
+        return new VertexScores<>(frozen, degrees(frozen, pool, true));
+    }
+
+    /**
+     * Finds hubs, the vertices with the most weight on their edges
+     * @param graph - graph to search
+     * @param k - number of hubs wanted, nonnegative
+     * @param pool - pool the computation runs on
+     * @return the min(k, number of vertices) vertices with the largest sum of the weights
+     *         of their incoming and outgoing edges (a loop counts twice), largest first;
+     *         vertices with equal sums are in an unspecified order
+     * @throws IllegalArgumentException if k is negative
+     */
+    public static <L> List<L> hubs(Graph<L> graph, int k, ForkJoinPool pool) {
+        final FrozenGraph<L> frozen = graph.freeze();
+        final double[] total = degrees(frozen, pool, true);
+        final double[] in = degrees(frozen, pool, false);
+        sum(frozen, pool, Edges.NONE, (from, to) -> {
+            for (int v = from; v < to; v++) {
+                total[v] += in[v];
+            }
+            return 0;
+        });
+        return new VertexScores<>(frozen, total).top(k);
+    }
+
+    /**
+     * @param out - true for outgoing edges, false for incoming edges
+     * @return sum of the edge weights of every vertex id of graph
+     */
+    private static double[] degrees(final FrozenGraph<?> graph, ForkJoinPool pool, final boolean out) {
+        final double[] degrees = new double[graph.vertexCount()];
+        sum(graph, pool, out ? Edges.OUT : Edges.IN, (from, to) -> {
+            for (int v = from; v < to; v++) {
+                long degree = 0;
+                if (out) {
+                    for (int e = graph.outOffset(v), end = graph.outOffset(v + 1); e < end; e++) {
+                        degree += graph.outWeight(e);
+                    }
+                } else {
+                    for (int e = graph.inOffset(v), end = graph.inOffset(v + 1); e < end; e++) {
+                        degree += graph.inWeight(e);
+                    }
+                }
+                degrees[v] = degree;
+            }
+            return 0;
+        });
+        return degrees;
+    }
+
+    /**
+     * The edges a RangeFunction walks for each vertex of its range, which
+     * together with the vertices themselves make up the work of the range.
+     */
+    private enum Edges {
+        NONE {
+            @Override long count(FrozenGraph<?> graph, int from, int to) {
+                return 0;
+            }
+        },
+        OUT {
+            @Override long count(FrozenGraph<?> graph, int from, int to) {
+                return graph.outOffset(to) - graph.outOffset(from);
+            }
+        },
+        IN {
+            @Override long count(FrozenGraph<?> graph, int from, int to) {
+                return graph.inOffset(to) - graph.inOffset(from);
+            }
+        };
+
+        /**
+         * @return number of these edges of the vertices with ids in [from, to)
+         */
+        abstract long count(FrozenGraph<?> graph, int from, int to);
+
+        /**
+         * @return vertices plus these edges of the vertices with ids in [from, to)
+         */
+        long work(FrozenGraph<?> graph, int from, int to) {
+            return (long) (to - from) + count(graph, from, to);
+        }
+    }
+
+    /**
+     * Work on a range of vertex ids.
+     */
+    @FunctionalInterface
+    private interface RangeFunction {
+        /**
+         * @param from - first vertex id of the range
+         * @param to - one more than the last vertex id of the range
+         * @return partial result for the range
+         */
+        double apply(int from, int to);
+    }
+
+    /**
+     * Applies function to ranges covering all vertex ids of graph in parallel
+     * @param edges - the edges function walks for each vertex, to balance the ranges by
+     * @return sum of the partial results
+     */
+    private static double sum(FrozenGraph<?> graph, ForkJoinPool pool, Edges edges, RangeFunction function) {
+        int n = graph.vertexCount();
+        if (n == 0) {
+            return 0;
+        }
+        long work = edges.work(graph, 0, n);
+        long taskWork = Math.max(MIN_TASK_WORK, work / ((long) pool.getParallelism() * TASKS_PER_THREAD) + 1);
+        return pool.invoke(new RangeTask(graph, edges, function, 0, n, taskWork));
+    }
+
+    /**
+     * Splits a range of vertex ids into two of about equal work until each
+     * part has at most taskWork vertices plus edges walked, or a single vertex.
+     */
+    private static final class RangeTask extends RecursiveTask<Double> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient FrozenGraph<?> graph;
+        private final Edges edges;
+        private final transient RangeFunction function;
+        private final int from;
+        private final int to;
+        private final long taskWork;
+
+        RangeTask(FrozenGraph<?> graph, Edges edges, RangeFunction function, int from, int to, long taskWork) {
+            this.graph = graph;
+            this.edges = edges;
+            this.function = function;
+            this.from = from;
+            this.to = to;
+            this.taskWork = taskWork;
+        }
+
+        @Override protected Double compute() {
+            long work = edges.work(graph, from, to);
+            if (to - from == 1 || work <= taskWork) {
+                return function.apply(from, to);
+            }
+            int middle = middle(work / 2);
+            RangeTask left = new RangeTask(graph, edges, function, from, middle, taskWork);
+            left.fork();
+            double right = new RangeTask(graph, edges, function, middle, to, taskWork).compute();
+            return left.join() + right;
+        }
+
+        /**
+         * @return the smallest id m in (from, to) such that [from, m) has at least half work,
+         *         or to - 1 if there is none, so that both halves are nonempty
+         */
+        private int middle(long half) {
+            // work grows with the end of the range, so it can be binary searched
+            int low = from + 1;
+            int high = to - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (edges.work(graph, from, mid) >= half) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low;
+        }
+    }
+
+}
@@ -0,0 +1,37 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.algo;
+
+/**
+ * How the weight of an edge is turned into the cost of following it.
+ */
+public enum Cost {
+
+    /**
+     * An edge costs its weight, so light edges are preferred.
+     */
+    WEIGHT {
+        @Override double of(int weight) {
+            return weight;
+        }
+    },
+
+    /**
+     * An edge costs 1/weight, so heavy edges are preferred. In an affinity
+     * graph, where weights count co-occurrences, this makes strongly related
+     * vertices close to each other.
+     */
+    INVERSE_WEIGHT {
+        @Override double of(int weight) {
+            return 1.0 / weight;
+        }
+    };
+
+    /**
+     * @param weight - positive edge weight
+     * @return positive cost of an edge with that weight
+     */
+    abstract double of(int weight);
+
+}
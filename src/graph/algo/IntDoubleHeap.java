@@ -0,0 +1,163 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.algo;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A binary min-heap of int ids in [0, capacity) keyed by doubles, with
+ * decrease-key. Ids and keys are stored in primitive arrays that are reused
+ * after clear(), so a heap allocates nothing once it has been created.
+ * Not thread-safe.
+ */
+final class IntDoubleHeap {
+
+    private static final int ABSENT = -1;
+
+    private final int[] heap;
+    private final double[] keys;
+    private final int[] positions;
+    private int size = 0;
+
+    // Abstraction function:
+    //   represents the set {heap[i] | 0 <= i < size}, where id v has priority keys[v]
+    // Representation invariant:
+    //   keys[heap[(i-1)/2]] <= keys[heap[i]] for 0 < i < size
+    //   positions[heap[i]] == i for 0 <= i < size, and positions[v] == ABSENT for every other v
+    // Safety from rep exposure:
+    //   all fields are private, arrays are never returned
+
+    /**
+     * Creates an empty heap for ids in [0, capacity)
+     * @param capacity - one more than the largest id, nonnegative
+     */
+    IntDoubleHeap(int capacity) {
+        heap = new int[capacity];
+        keys = new double[capacity];
+        positions = new int[capacity];
+        Arrays.fill(positions, ABSENT);
+    }
+
+    // checkRep
+    // the heap order is not checked, which would make every operation linear
+    private void checkRep() {
+        assert 0 <= size && size <= heap.length;
+        assert size == 0 || positions[heap[0]] == 0;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Removes every id, in time proportional to the number of ids in the heap
+     */
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = ABSENT;
+        }
+        size = 0;
+    }
+
+    boolean contains(int id) {
+        return positions[id] != ABSENT;
+    }
+
+    /**
+     * Adds id with priority key, or lowers the priority of id to key if it is
+     * already in the heap with a higher key
+     * @return true if the heap changed
+     */
+    boolean offer(int id, double key) {
+        int position = positions[id];
+        if (position == ABSENT) {
+            position = size++;
+            heap[position] = id;
+            positions[id] = position;
+        } else if (key >= keys[id]) {
+            return false;
+        }
+        keys[id] = key;
+        siftUp(position);
+        checkRep();
+        return true;
+    }
+
+    /**
+     * @return smallest key in the heap
+     * @throws NoSuchElementException if the heap is empty
+     */
+    double minKey() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return keys[heap[0]];
+    }
+
+    /**
+     * Removes the id with the smallest key
+     * @return the removed id
+     * @throws NoSuchElementException if the heap is empty
+     */
+    int poll() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        int min = heap[0];
+        positions[min] = ABSENT;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            siftDown(0);
+        }
+        checkRep();
+        return min;
+    }
+
+    private void siftUp(int position) {
+        int id = heap[position];
+        double key = keys[id];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            int parentId = heap[parent];
+            if (keys[parentId] <= key) {
+                break;
+            }
+            heap[position] = parentId;
+            positions[parentId] = position;
+            position = parent;
+        }
+        heap[position] = id;
+        positions[id] = position;
+    }
+
+    private void siftDown(int position) {
+        int id = heap[position];
+        double key = keys[id];
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            int right = child + 1;
+            if (right < size && keys[heap[right]] < keys[heap[child]]) {
+                child = right;
+            }
+            int childId = heap[child];
+            if (key <= keys[childId]) {
+                break;
+            }
+            heap[position] = childId;
+            positions[childId] = position;
+            position = child;
+        }
+        heap[position] = id;
+        positions[id] = position;
+    }
+
+}
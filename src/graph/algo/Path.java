@@ -0,0 +1,102 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.algo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable path through a graph: its vertices in order and its total cost.
+ *
+ * @param <L> type of vertex labels
+ */
+public final class Path<L> {
+
+    private final List<L> vertices;
+    private final double cost;
+
+    // Abstraction function:
+    //   represents the path vertices.get(0) -> vertices.get(1) -> ... with total cost cost
+    // Representation invariant:
+    //   vertices is not empty, cost >= 0
+    // Safety from rep exposure:
+    //   fields are private and final, vertices is an unmodifiable copy
+
+    /**
+     * @param vertices - vertices of the path in order, not empty
+     * @param cost - total cost of the path, nonnegative
+     */
+    Path(List<L> vertices, double cost) {
+        this.vertices = Collections.unmodifiableList(new ArrayList<>(vertices));
+        this.cost = cost;
+        checkRep();
+    }
+
+    // checkRep
+    private void checkRep() {
+        assert !vertices.isEmpty();
+        assert cost >= 0;
+    }
+
+    /**
+     * @return unmodifiable list of the vertices of this path, from source to target
+     */
+    public List<L> vertices() {
+        return vertices;
+    }
+
+    /**
+     * @return first vertex of this path
+     */
+    public L source() {
+        return vertices.get(0);
+    }
+
+    /**
+     * @return last vertex of this path
+     */
+    public L target() {
+        return vertices.get(vertices.size() - 1);
+    }
+
+    /**
+     * @return number of edges in this path
+     */
+    public int hops() {
+        return vertices.size() - 1;
+    }
+
+    /**
+     * @return sum of the costs of the edges of this path
+     */
+    public double cost() {
+        return cost;
+    }
+
+    @Override public boolean equals(Object that) {
+        if (!(that instanceof Path<?>)) {
+            return false;
+        }
+        Path<?> thatPath = (Path<?>) that;
+        return vertices.equals(thatPath.vertices) && Double.compare(cost, thatPath.cost) == 0;
+    }
+
+    @Override public int hashCode() {
+        return vertices.hashCode() * 31 + Double.hashCode(cost);
+    }
+
+    // toString()
+    @Override public String toString() {
+        StringBuilder stringRep = new StringBuilder();
+        for (L vertex : vertices) {
+            if (stringRep.length() > 0) {
+                stringRep.append(" -> ");
+            }
+            stringRep.append(vertex);
+        }
+        return stringRep.append(" (cost ").append(cost).append(")").toString();
+    }
+
+}
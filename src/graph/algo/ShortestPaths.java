@@ -0,0 +1,415 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.algo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import graph.FrozenGraph;
+import graph.Graph;
+
+/**
+ * Shortest-path queries over a snapshot of a graph.
+ *
+ * <p>Queries run on the compressed adjacency arrays of a {@link FrozenGraph}
+ * with an int-indexed heap. Distances, parents and heap entries live in
+ * scratch arrays that are allocated once per engine and reused: each query
+ * starts a new generation, and an entry is only valid if its stamp equals
+ * the current generation, so nothing has to be cleared between queries.
+ * Distance queries allocate nothing; path queries allocate only the returned
+ * Path.
+ *
+ * <p>An engine is not thread-safe. Threads that query the same graph should
+ * each create their own engine over the shared FrozenGraph.
+ *
+ * @param <L> type of vertex labels
+ */
+public final class ShortestPaths<L> {
+
+    private static final int NONE = -1;
+
+    private final FrozenGraph<L> graph;
+    private final Cost cost;
+    private final int n;
+
+    // forward search
+    private final double[] dist;
+    private final int[] parent;
+    private final int[] stamp;
+    private final IntDoubleHeap heap;
+
+    // backward search, allocated by the first bidirectional query
+    private double[] reverseDist;
+    private int[] reverseParent;
+    private int[] reverseStamp;
+    private IntDoubleHeap reverseHeap;
+
+    // bounded-hop search, allocated by the first bounded-hop query;
+    // layers grow to the largest hop limit asked for
+    private int[] frontier;
+    private int[] nextFrontier;
+    private double[] frontierDist;
+    private int[] queuedStamp;
+    private int[][] hopParent = new int[0][];
+    private int[][] hopStamp = new int[0][];
+
+    private int generation = 0;
+
+    // Abstraction function:
+    //   represents the shortest-path metric of graph where following an edge of
+    //   weight w costs cost.of(w)
+    // Representation invariant:
+    //   n == graph.vertexCount()
+    //   dist, parent, stamp and the backward and bounded-hop arrays, when allocated, have length n
+    //   every stamp is <= generation
+    //   heap and reverseHeap are empty between queries
+    //   hopParent.length == hopStamp.length
+    // Safety from rep exposure:
+    //   all fields are private; graph is immutable and may be shared;
+    //   scratch arrays are never returned
+    // Thread safety argument:
+    //   not thread-safe; queries mutate the scratch arrays
+
+    /**
+     * Creates an engine over a snapshot of graph
+     * @param graph - graph to search; it is frozen, so later changes to it are not seen
+     * @param cost - cost of following an edge
+     */
+    public ShortestPaths(Graph<L> graph, Cost cost) {
+        this.graph = graph.freeze();
+        this.cost = cost;
+        this.n = this.graph.vertexCount();
+        this.dist = new double[n];
+        this.parent = new int[n];
+        this.stamp = new int[n];
+        this.heap = new IntDoubleHeap(n);
+        checkRep();
+    }
+
+    // checkRep
+    private void checkRep() {
+        assert n == graph.vertexCount();
+        assert dist.length == n && parent.length == n && stamp.length == n;
+        assert heap.isEmpty();
+        assert reverseHeap == null || reverseHeap.isEmpty();
+        assert hopParent.length == hopStamp.length;
+    }
+
+    /**
+     * @return the snapshot this engine searches
+     */
+    public FrozenGraph<L> graph() {
+        return graph;
+    }
+
+    /**
+     * @return cost of following an edge in this engine
+     */
+    public Cost cost() {
+        return cost;
+    }
+
+    /**
+     * Starts a new query generation, so every stamp from earlier queries is stale
+     */
+    private void nextGeneration() {
+        generation++;
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            if (reverseStamp != null) {
+                Arrays.fill(reverseStamp, 0);
+            }
+            if (queuedStamp != null) {
+                Arrays.fill(queuedStamp, 0);
+            }
+            for (int[] layer : hopStamp) {
+                Arrays.fill(layer, 0);
+            }
+            generation = 1;
+        }
+    }
+
+    // Dijkstra
+
+    /**
+     * Computes the cost of a cheapest path from source to target with Dijkstra's algorithm
+     * @param source - label of the first vertex
+     * @param target - label of the last vertex
+     * @return cost of a cheapest path, 0 if source equals target, or
+     *         Double.POSITIVE_INFINITY if there is no path or either vertex is not in the graph
+     */
+    public double distance(L source, L target) {
+        return distanceById(graph.id(source), graph.id(target));
+    }
+
+    /**
+     * Computes the cost of a cheapest path from source to target with Dijkstra's algorithm
+     * @param source - id of the first vertex, or -1
+     * @param target - id of the last vertex, or -1
+     * @return cost of a cheapest path, 0 if source equals target, or
+     *         Double.POSITIVE_INFINITY if there is no path or either id is -1
+     */
+    public double distanceById(int source, int target) {
+        if (source < 0 || target < 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return dijkstra(source, target) ? dist[target] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Finds a cheapest path from source to target with Dijkstra's algorithm
+     * @param source - label of the first vertex
+     * @param target - label of the last vertex
+     * @return a cheapest path from source to target, or null if there is no path
+     *         or either vertex is not in the graph
+     */
+    public Path<L> shortestPath(L source, L target) {
+        int s = graph.id(source);
+        int t = graph.id(target);
+        if (s < 0 || t < 0 || !dijkstra(s, t)) {
+            return null;
+        }
+        List<L> vertices = new ArrayList<>();
+        for (int v = t; v != NONE; v = parent[v]) {
+            vertices.add(graph.label(v));
+        }
+        Collections.reverse(vertices);
+        return new Path<>(vertices, dist[t]);
+    }
+
+    /**
+     * Runs Dijkstra's algorithm from s until t is settled, leaving dist and parent
+     * stamped for every vertex on the path found
+     * @return true if t is reachable from s
+     */
+    private boolean dijkstra(int s, int t) {
+        nextGeneration();
+        final int g = generation;
+        dist[s] = 0;
+        parent[s] = NONE;
+        stamp[s] = g;
+        heap.offer(s, 0);
+        boolean found = false;
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            if (u == t) {
+                found = true;
+                break;
+            }
+            double du = dist[u];
+            for (int e = graph.outOffset(u), end = graph.outOffset(u + 1); e < end; e++) {
+                int v = graph.outTarget(e);
+                double alt = du + cost.of(graph.outWeight(e));
+                // costs are positive, so a settled v always has dist[v] <= du < alt
+                if (stamp[v] != g || alt < dist[v]) {
+                    dist[v] = alt;
+                    parent[v] = u;
+                    stamp[v] = g;
+                    heap.offer(v, alt);
+                }
+            }
+        }
+        heap.clear();
+        checkRep();
+        return found;
+    }
+
+    // Bidirectional search
+
+    /**
+     * Finds a cheapest path from source to target by running Dijkstra's algorithm
+     * forward from source over outgoing edges and backward from target over
+     * incoming edges until the two searches meet. On graphs where the two
+     * searches settle far fewer vertices than a single search, this is faster
+     * than {@link #shortestPath(Object, Object)}; the cost of the path found is the same.
+     * @param source - label of the first vertex
+     * @param target - label of the last vertex
+     * @return a cheapest path from source to target, or null if there is no path
+     *         or either vertex is not in the graph
+     */
+    public Path<L> shortestPathBidirectional(L source, L target) {
+        int s = graph.id(source);
+        int t = graph.id(target);
+        if (s < 0 || t < 0) {
+            return null;
+        }
+        if (reverseHeap == null) {
+            reverseDist = new double[n];
+            reverseParent = new int[n];
+            reverseStamp = new int[n];
+            reverseHeap = new IntDoubleHeap(n);
+        }
+        nextGeneration();
+        final int g = generation;
+        dist[s] = 0;
+        parent[s] = NONE;
+        stamp[s] = g;
+        heap.offer(s, 0);
+        reverseDist[t] = 0;
+        reverseParent[t] = NONE;
+        reverseStamp[t] = g;
+        reverseHeap.offer(t, 0);
+        double best = s == t ? 0 : Double.POSITIVE_INFINITY;
+        int meet = s == t ? s : NONE;
+        while (!heap.isEmpty() && !reverseHeap.isEmpty()
+                && heap.minKey() + reverseHeap.minKey() < best) {
+            if (heap.size() <= reverseHeap.size()) {
+                int u = heap.poll();
+                double du = dist[u];
+                for (int e = graph.outOffset(u), end = graph.outOffset(u + 1); e < end; e++) {
+                    int v = graph.outTarget(e);
+                    double alt = du + cost.of(graph.outWeight(e));
+                    if (stamp[v] != g || alt < dist[v]) {
+                        dist[v] = alt;
+                        parent[v] = u;
+                        stamp[v] = g;
+                        heap.offer(v, alt);
+                    }
+                    if (reverseStamp[v] == g && dist[v] + reverseDist[v] < best) {
+                        best = dist[v] + reverseDist[v];
+                        meet = v;
+                    }
+                }
+            } else {
+                int u = reverseHeap.poll();
+                double du = reverseDist[u];
+                for (int e = graph.inOffset(u), end = graph.inOffset(u + 1); e < end; e++) {
+                    int v = graph.inSource(e);
+                    double alt = du + cost.of(graph.inWeight(e));
+                    if (reverseStamp[v] != g || alt < reverseDist[v]) {
+                        reverseDist[v] = alt;
+                        reverseParent[v] = u;
+                        reverseStamp[v] = g;
+                        reverseHeap.offer(v, alt);
+                    }
+                    if (stamp[v] == g && dist[v] + reverseDist[v] < best) {
+                        best = dist[v] + reverseDist[v];
+                        meet = v;
+                    }
+                }
+            }
+        }
+        heap.clear();
+        reverseHeap.clear();
+        checkRep();
+        if (meet == NONE) {
+            return null;
+        }
+        List<L> vertices = new ArrayList<>();
+        for (int v = meet; v != NONE; v = parent[v]) {
+            vertices.add(graph.label(v));
+        }
+        Collections.reverse(vertices);
+        for (int v = reverseParent[meet]; v != NONE; v = reverseParent[v]) {
+            vertices.add(graph.label(v));
+        }
+        return new Path<>(vertices, best);
+    }
+
+    // Bounded-hop search
+
+    /**
+     * Finds a cheapest path from source to target among the paths with at most
+     * maxHops edges, by relaxing edges one layer of hops at a time from the
+     * vertices whose cost improved in the previous layer.
+     * @param source - label of the first vertex
+     * @param target - label of the last vertex
+     * @param maxHops - largest number of edges allowed in the path, nonnegative
+     * @return a cheapest path from source to target with at most maxHops edges,
+     *         or null if there is no such path or either vertex is not in the graph
+     * @throws IllegalArgumentException if maxHops is negative
+     */
+    public Path<L> shortestPathWithinHops(L source, L target, int maxHops) {
+        if (maxHops < 0) {
+            throw new IllegalArgumentException("maxHops must be nonnegative: " + maxHops);
+        }
+        int s = graph.id(source);
+        int t = graph.id(target);
+        if (s < 0 || t < 0) {
+            return null;
+        }
+        if (frontier == null) {
+            frontier = new int[n];
+            nextFrontier = new int[n];
+            frontierDist = new double[n];
+            queuedStamp = new int[n];
+        }
+        if (hopParent.length <= maxHops) {
+            int oldLayers = hopParent.length;
+            hopParent = Arrays.copyOf(hopParent, maxHops + 1);
+            hopStamp = Arrays.copyOf(hopStamp, maxHops + 1);
+            for (int h = oldLayers; h <= maxHops; h++) {
+                hopParent[h] = new int[n];
+                hopStamp[h] = new int[n];
+            }
+        }
+        nextGeneration();
+        final int g = generation;
+        // dist[v] is the cost of a cheapest path to v with at most h edges after layer h;
+        // hopParent[h][v] is stamped when that cost improved in layer h
+        dist[s] = 0;
+        stamp[s] = g;
+        frontier[0] = s;
+        frontierDist[0] = 0;
+        int frontierSize = 1;
+        for (int h = 1; h <= maxHops && frontierSize > 0; h++) {
+            int[] layerParent = hopParent[h];
+            int[] layerStamp = hopStamp[h];
+            int nextSize = 0;
+            for (int i = 0; i < frontierSize; i++) {
+                int u = frontier[i];
+                double du = frontierDist[i];
+                for (int e = graph.outOffset(u), end = graph.outOffset(u + 1); e < end; e++) {
+                    int v = graph.outTarget(e);
+                    double alt = du + cost.of(graph.outWeight(e));
+                    if (stamp[v] != g || alt < dist[v]) {
+                        dist[v] = alt;
+                        stamp[v] = g;
+                        layerParent[v] = u;
+                        layerStamp[v] = g;
+                        if (queuedStamp[v] != g) {
+                            queuedStamp[v] = g;
+                            nextFrontier[nextSize++] = v;
+                        }
+                    }
+                }
+            }
+            for (int i = 0; i < nextSize; i++) {
+                int v = nextFrontier[i];
+                frontierDist[i] = dist[v];
+                // unqueue v so that it can join the frontier of the next layer
+                queuedStamp[v] = g - 1;
+            }
+            int[] swap = frontier;
+            frontier = nextFrontier;
+            nextFrontier = swap;
+            frontierSize = nextSize;
+        }
+        checkRep();
+        if (stamp[t] != g) {
+            return null;
+        }
+        List<L> vertices = new ArrayList<>();
+        int v = t;
+        int h = maxHops;
+        while (true) {
+            vertices.add(graph.label(v));
+            // the last layer at most h in which the cost of v improved
+            while (h > 0 && hopStamp[h][v] != g) {
+                h--;
+            }
+            if (h == 0) {
+                break;
+            }
+            v = hopParent[h][v];
+            h--;
+        }
+        assert v == s;
+        Collections.reverse(vertices);
+        return new Path<>(vertices, dist[t]);
+    }
+
+}
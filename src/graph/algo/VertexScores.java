@@ -0,0 +1,122 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.algo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import graph.FrozenGraph;
+
+/**
+ * An immutable score for every vertex of a graph snapshot, such as a
+ * PageRank or a weighted degree.
+ *
+ * @param <L> type of vertex labels
+ */
+public final class VertexScores<L> {
+
+    private final FrozenGraph<L> graph;
+    private final double[] scores;
+
+    // Abstraction function:
+    //   represents the function mapping graph.label(v) to scores[v],
+    //   for every vertex id v of graph
+    // Representation invariant:
+    //   scores.length == graph.vertexCount()
+    // Safety from rep exposure:
+    //   fields are private and final; graph is immutable;
+    //   scores is only written by the creator before the constructor is called,
+    //   and is never returned
+
+    /**
+     * @param graph - snapshot the scores belong to
+     * @param scores - score of each vertex id; not copied, so the caller must not change it afterwards
+     */
+    VertexScores(FrozenGraph<L> graph, double[] scores) {
+        this.graph = graph;
+        this.scores = scores;
+        checkRep();
+    }
+
+    // checkRep
+    private void checkRep() {
+        assert scores.length == graph.vertexCount();
+    }
+
+    /**
+     * @return the snapshot these scores belong to
+     */
+    public FrozenGraph<L> graph() {
+        return graph;
+    }
+
+    /**
+     * @param vertex - label of a vertex
+     * @return score of that vertex, or 0 if it is not in the graph
+     */
+    public double score(L vertex) {
+        int id = graph.id(vertex);
+        return id < 0 ? 0 : scores[id];
+    }
+
+    /**
+     * @param id - id of a vertex in the graph
+     * @return score of that vertex
+     */
+    public double scoreById(int id) {
+        return scores[id];
+    }
+
+    /**
+     * @param k - number of vertices wanted, nonnegative
+     * @return the min(k, number of vertices) vertices with the highest scores,
+     *         highest first; vertices with equal scores are in an unspecified order
+     * @throws IllegalArgumentException if k is negative
+     */
+    public List<L> top(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must be nonnegative: " + k);
+        }
+        int n = scores.length;
+        if (k == 0 || n == 0) {
+            return Collections.emptyList();
+        }
+        // keep the k best seen so far in a min-heap, so the worst of them is evicted first
+        IntDoubleHeap best = new IntDoubleHeap(n);
+        for (int v = 0; v < n; v++) {
+            if (best.size() < k) {
+                best.offer(v, scores[v]);
+            } else if (scores[v] > best.minKey()) {
+                best.poll();
+                best.offer(v, scores[v]);
+            }
+        }
+        List<L> top = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            top.add(graph.label(best.poll()));
+        }
+        Collections.reverse(top);
+        return Collections.unmodifiableList(top);
+    }
+
+    /**
+     * @return a new map from the label of every vertex to its score
+     */
+    public Map<L, Double> asMap() {
+        Map<L, Double> map = new HashMap<>();
+        for (int v = 0; v < scores.length; v++) {
+            map.put(graph.label(v), scores[v]);
+        }
+        return map;
+    }
+
+    // toString()
+    @Override public String toString() {
+        return asMap().toString();
+    }
+
+}
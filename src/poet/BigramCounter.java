@@ -0,0 +1,165 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+import java.util.Arrays;
+
+/**
+ * A mutable count of bigrams of word ids, using open addressing with linear
+ * probing over parallel primitive arrays so that no key or count is boxed.
+ * A bigram (first, second) is stored under the key first * 2^32 + second.
+ * This class is internal to the rep of ChunkedIngestion.
+ */
+final class BigramCounter {
+
+    private static final long EMPTY = -1;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] counts;
+    private int size = 0;
+
+    // Abstraction function:
+    //   represents the multiset of bigrams {key(keys[i]) with multiplicity counts[i] | keys[i] != EMPTY}
+    // Representation invariant:
+    //   keys.length == counts.length is a power of two, more than size after any add
+    //   keys are nonnegative and distinct, counts of keys are positive
+    //   every key is reachable from its home slot without crossing an EMPTY slot
+    //   size is the number of slots with a key
+    // Safety from rep exposure:
+    //   keys and counts are private and never returned
+
+    // constructor
+    /**
+     * Creates an empty counter
+     */
+    BigramCounter() {
+        keys = new long[MIN_CAPACITY];
+        counts = new int[MIN_CAPACITY];
+        Arrays.fill(keys, EMPTY);
+        checkRep();
+    }
+
+    // checkRep
+    private void checkRep() {
+        assert Integer.bitCount(keys.length) == 1;
+        assert keys.length == counts.length;
+        assert size < keys.length;
+    }
+
+    /**
+     * @param first - id of the first word, nonnegative
+     * @param second - id of the second word, nonnegative
+     * @return key of the bigram (first, second)
+     */
+    static long key(int first, int second) {
+        return (long) first << Integer.SIZE | second;
+    }
+
+    /**
+     * @param key - key of a bigram
+     * @return id of the first word of the bigram
+     */
+    static int first(long key) {
+        return (int) (key >>> Integer.SIZE);
+    }
+
+    /**
+     * @param key - key of a bigram
+     * @return id of the second word of the bigram
+     */
+    static int second(long key) {
+        return (int) key;
+    }
+
+    /**
+     * @return number of distinct bigrams counted
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Adds delta to the count of a bigram
+     * @param key - key of the bigram, from key()
+     * @param delta - positive amount
+     */
+    void add(long key, int delta) {
+        int mask = keys.length - 1;
+        int i = home(key, mask);
+        while (keys[i] != EMPTY) {
+            if (keys[i] == key) {
+                counts[i] += delta;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        counts[i] = delta;
+        size++;
+        // keep the load factor at most three quarters
+        if (size * 4L > keys.length * 3L) {
+            grow();
+        }
+    }
+
+    /**
+     * Slots are numbered 0..capacity()-1; together with keyAt() and countAt()
+     * this lets callers iterate the counter without a callback
+     * @return number of slots in this counter
+     */
+    int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * @param slot - slot number in [0, capacity())
+     * @return key in slot, or -1 if slot is empty
+     */
+    long keyAt(int slot) {
+        return keys[slot];
+    }
+
+    /**
+     * @param slot - nonempty slot number in [0, capacity())
+     * @return count in slot
+     */
+    int countAt(int slot) {
+        return counts[slot];
+    }
+
+    // home()
+    /**
+     * @return first slot probed for key
+     */
+    private static int home(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    // grow()
+    /**
+     * Doubles the number of slots and re-inserts every key
+     */
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new long[oldKeys.length * 2];
+        counts = new int[oldCounts.length * 2];
+        Arrays.fill(keys, EMPTY);
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int j = home(oldKeys[i], mask);
+                while (keys[j] != EMPTY) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = oldKeys[i];
+                counts[j] = oldCounts[i];
+            }
+        }
+        checkRep();
+    }
+
+}
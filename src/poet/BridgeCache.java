@@ -0,0 +1,205 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BinaryOperator;
+
+/**
+ * A bounded, thread-safe cache of bridge words by pair of words, including
+ * the pairs that have no bridge word.
+ *
+ * <p>Pairs are spread over up to 16 segments by hash, each an access-ordered
+ * LinkedHashMap under its own lock that evicts its least recently used pair
+ * when full, so threads looking up different pairs rarely wait for each other
+ * and eviction is LRU within each segment. A cache of fewer than 128 pairs has
+ * a single segment, and so is exactly LRU.
+ *
+ * <p>invalidate() makes every cached pair stale at once: each pair is stamped
+ * with the generation it was looked up in, and a pair of an older generation
+ * is a miss. So a lookup that raced with a change of the graph can at worst
+ * cache a pair that is never returned.
+ * This class is internal to the rep of GraphPoet.
+ */
+final class BridgeCache {
+
+    private static final int MAX_SEGMENTS = 16;
+    // fewest pairs per segment, so that small caches are not split into many tiny LRU lists
+    private static final int MIN_SEGMENT_SIZE = 64;
+
+    /**
+     * A pair of words, as a key of the cache.
+     */
+    private static final class Pair {
+        private final String first;
+        private final String second;
+        private final int hash;
+
+        Pair(String first, String second) {
+            this.first = first;
+            this.second = second;
+            this.hash = first.hashCode() * 31 + second.hashCode();
+        }
+
+        @Override public boolean equals(Object that) {
+            if (!(that instanceof Pair)) {
+                return false;
+            }
+            Pair pair = (Pair) that;
+            return hash == pair.hash && first.equals(pair.first) && second.equals(pair.second);
+        }
+
+        @Override public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * The bridge word of a pair, or null for none, and the generation it was looked up in.
+     */
+    private static final class Bridge {
+        private final String word;
+        private final long generation;
+
+        Bridge(String word, long generation) {
+            this.word = word;
+            this.generation = generation;
+        }
+    }
+
+    /**
+     * The pairs of one hash range, least recently used first.
+     * Every access must hold the lock of the segment.
+     */
+    private final class Segment extends LinkedHashMap<Pair, Bridge> {
+        private static final long serialVersionUID = 1L;
+        private final int maximumSize;
+
+        Segment(int maximumSize) {
+            super(16, 0.75f, true);
+            this.maximumSize = maximumSize;
+        }
+
+        @Override protected boolean removeEldestEntry(Map.Entry<Pair, Bridge> eldest) {
+            if (size() > maximumSize) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private final BinaryOperator<String> lookup;
+    private final int maximumSize;
+    private final Segment[] segments;
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // Abstraction function:
+    //   represents the bridge words lookup gives for the pairs (p.first, p.second) of every
+    //   entry p -> b of a segment with b.generation == generation, namely b.word, and counts
+    //   of the lookups answered from the cache, not answered from it, and pairs evicted
+    // Representation invariant:
+    //   segments.length is a power of two, at most maximumSize
+    //   segment maximum sizes sum to maximumSize, and no segment holds more than its maximum
+    //   a pair is only in the segment its hash selects
+    //   no Bridge has a generation greater than generation
+    // Safety from rep exposure:
+    //   all fields are private, and no segment, pair or Bridge is returned
+    // Thread safety argument:
+    //   each segment is only accessed holding its lock
+    //   generation and the counters are atomic; lookup must be safe to call from any thread
+
+    // constructor
+    /**
+     * Creates an empty cache
+     * @param maximumSize - largest number of pairs to keep, positive
+     * @param lookup - gives the bridge word of a pair of words, or null if there is none
+     */
+    BridgeCache(int maximumSize, BinaryOperator<String> lookup) {
+        assert maximumSize > 0;
+        this.lookup = lookup;
+        this.maximumSize = maximumSize;
+        int count = Integer.highestOneBit(Math.max(1, Math.min(MAX_SEGMENTS, maximumSize / MIN_SEGMENT_SIZE)));
+        segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            // the first maximumSize % count segments hold one pair more
+            segments[i] = new Segment(maximumSize / count + (i < maximumSize % count ? 1 : 0));
+        }
+        checkRep();
+    }
+
+    // checkRep
+    private void checkRep() {
+        assert Integer.bitCount(segments.length) == 1;
+        assert segments.length <= maximumSize;
+    }
+
+    /**
+     * Looks up the bridge word of a pair of words, from the cache if it has a
+     * current answer, otherwise with lookup, caching the answer.
+     * @param first - first word
+     * @param second - second word
+     * @return bridge word of first and second, or null if there is none
+     */
+    String get(String first, String second) {
+        Pair pair = new Pair(first, second);
+        Segment segment = segmentOf(pair);
+        long current = generation.get();
+        Bridge bridge;
+        synchronized (segment) {
+            bridge = segment.get(pair);
+        }
+        if (bridge != null && bridge.generation == current) {
+            hits.increment();
+            return bridge.word;
+        }
+        misses.increment();
+        String word = lookup.apply(first, second);
+        synchronized (segment) {
+            segment.put(pair, new Bridge(word, current));
+        }
+        return word;
+    }
+
+    /**
+     * Forgets every pair cached so far, because the answers of lookup may have changed
+     */
+    void invalidate() {
+        generation.incrementAndGet();
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * @return the counts of this cache so far, and the number of pairs in it
+     */
+    BridgeCacheStats stats() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return new BridgeCacheStats(hits.sum(), misses.sum(), evictions.sum(), size, maximumSize);
+    }
+
+    // segmentOf()
+    /**
+     * @return segment of pair, chosen by the high bits of its spread hash
+     */
+    private Segment segmentOf(Pair pair) {
+        int h = pair.hashCode() * 0x9E3779B9;
+        return segments[(h >>> 16) & (segments.length - 1)];
+    }
+
+}
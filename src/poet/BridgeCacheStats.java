@@ -0,0 +1,92 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+/**
+ * An immutable copy of the counts of the bridge word cache of a GraphPoet,
+ * taken by {@link GraphPoet#bridgeCacheStats()}. A poet without a cache has
+ * all counts zero.
+ */
+public final class BridgeCacheStats {
+
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final int size;
+    private final int maximumSize;
+
+    // Abstraction function:
+    //   represents a cache of up to maximumSize pairs holding size pairs, that answered
+    //   hits lookups itself, passed misses lookups on to the graph and evicted evictions pairs
+    // Representation invariant:
+    //   all fields are nonnegative, size <= maximumSize
+    // Safety from rep exposure:
+    //   all fields are private, final and immutable
+
+    BridgeCacheStats(long hits, long misses, long evictions, int size, int maximumSize) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.size = size;
+        this.maximumSize = maximumSize;
+        checkRep();
+    }
+
+    // checkRep
+    private void checkRep() {
+        assert hits >= 0 && misses >= 0 && evictions >= 0;
+        assert 0 <= size && size <= maximumSize;
+    }
+
+    /**
+     * @return number of lookups answered from the cache
+     */
+    public long hits() {
+        return hits;
+    }
+
+    /**
+     * @return number of lookups the cache passed on to the graph, including
+     *         those of pairs forgotten because the graph changed
+     */
+    public long misses() {
+        return misses;
+    }
+
+    /**
+     * @return number of pairs evicted to keep the cache within its maximum size
+     */
+    public long evictions() {
+        return evictions;
+    }
+
+    /**
+     * @return fraction of lookups answered from the cache, or 0 if there were none
+     */
+    public double hitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * @return number of pairs in the cache
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return largest number of pairs the cache keeps, or 0 if there is no cache
+     */
+    public int maximumSize() {
+        return maximumSize;
+    }
+
+    // toString()
+    @Override public String toString() {
+        return "BridgeCacheStats[hits=" + hits + ", misses=" + misses + ", evictions=" + evictions
+                + ", size=" + size + "/" + maximumSize + "]";
+    }
+
+}
@@ -0,0 +1,240 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import graph.Graph;
+
+/**
+ * Builds the affinity graph of a corpus with several threads.
+ *
+ * <p>The corpus file is split into one chunk per thread, each starting at an
+ * ASCII whitespace byte, so no token spans two chunks. Each thread tokenizes
+ * its chunk with its own CorpusTokenizer and counts the bigrams of its words
+ * into a private BigramCounter, keyed by word ids of its own. The counts are
+ * then combined under common ids, the one bigram across each seam between
+ * chunks is added, and every distinct bigram is merged into the graph once,
+ * with its total count. The graph is the one GraphPoet(File, Graph) builds,
+ * since merging a bigram n times or once with weight n gives the same graph.
+ *
+ * <p>A corpus whose tokens are only separated by non-ASCII whitespace cannot
+ * be split, and is read by one thread.
+ */
+final class ChunkedIngestion {
+
+    private ChunkedIngestion() {
+        throw new AssertionError("ChunkedIngestion is not instantiable");
+    }
+
+    /**
+     * The bigrams of one chunk, under word ids of its own.
+     */
+    private static final class Partial implements Consumer<String> {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> words = new ArrayList<>();
+        private final BigramCounter bigrams = new BigramCounter();
+        private String first = null;
+        private String last = null;
+        private int previous = -1;
+
+        @Override public void accept(String word) {
+            Integer id = ids.get(word);
+            if (id == null) {
+                id = words.size();
+                ids.put(word, id);
+                words.add(word);
+            }
+            if (previous >= 0) {
+                bigrams.add(BigramCounter.key(previous, id), 1);
+            } else {
+                first = word;
+            }
+            previous = id;
+            last = word;
+        }
+    }
+
+    /**
+     * Adds the bigrams of a corpus to a graph, as GraphPoet(File, Graph) does
+     * @param corpus - UTF-8 or ASCII text file
+     * @param graph - graph to merge the bigrams into
+     * @param parallelism - number of threads to read with, positive
+     * @param minChunkBytes - no chunk but the last is smaller than this, positive
+     * @throws IOException if the corpus file cannot be found or read
+     */
+    static void ingest(File corpus, Graph<String> graph, int parallelism, long minChunkBytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(corpus.toPath(), StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(channel, parallelism, minChunkBytes);
+            List<Callable<Partial>> tasks = new ArrayList<>();
+            for (int i = 0; i + 1 < bounds.length; i++) {
+                final long start = bounds[i];
+                final long end = bounds[i + 1];
+                tasks.add(() -> {
+                    Partial partial = new Partial();
+                    CorpusTokenizer tokenizer = new CorpusTokenizer(partial);
+                    tokenizer.read(channel, start, end);
+                    tokenizer.finish();
+                    return partial;
+                });
+            }
+            mergeInto(run(tasks), graph);
+        }
+    }
+
+    /**
+     * @return chunk boundaries: 0, positions of ASCII whitespace bytes in increasing order,
+     *         then the size of the channel; at most parallelism chunks
+     */
+    private static long[] chunkBounds(FileChannel channel, int parallelism, long minChunkBytes) throws IOException {
+        long size = channel.size();
+        int chunks = (int) Math.max(1, Math.min(parallelism, size / minChunkBytes));
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 12);
+        long previous = 0;
+        for (int i = 1; i < chunks; i++) {
+            long bound = nextWhitespace(channel, Math.max(previous, size / chunks * i), buffer);
+            if (bound >= size) {
+                break;
+            }
+            if (bound > previous) {
+                bounds.add(bound);
+                previous = bound;
+            }
+        }
+        bounds.add(size);
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * @return position of the first ASCII whitespace byte at or after from,
+     *         or the size of the channel if there is none
+     */
+    private static long nextWhitespace(FileChannel channel, long from, ByteBuffer buffer) throws IOException {
+        long position = from;
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = buffer.get(i);
+                if (b >= 0 && Character.isWhitespace(b)) {
+                    return position + i;
+                }
+            }
+            position += read;
+        }
+    }
+
+    /**
+     * @return results of tasks, in order; tasks run on a pool of their own if there is more than one
+     */
+    private static List<Partial> run(List<Callable<Partial>> tasks) throws IOException {
+        List<Partial> partials = new ArrayList<>();
+        if (tasks.size() == 1) {
+            try {
+                partials.add(tasks.get(0).call());
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+            return partials;
+        }
+        ForkJoinPool pool = new ForkJoinPool(tasks.size());
+        try {
+            for (Future<Partial> future : pool.invokeAll(tasks)) {
+                partials.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("corpus ingestion interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new AssertionError(cause);
+        } finally {
+            pool.shutdown();
+        }
+        return partials;
+    }
+
+    /**
+     * Combines the bigrams of every partial, and of the seams between them, and merges them into graph
+     */
+    private static void mergeInto(List<Partial> partials, Graph<String> graph) {
+        // the ids and counts of the first partial become the common ones, so one chunk is never re-interned
+        Partial head = partials.get(0);
+        Map<String, Integer> ids = head.ids;
+        List<String> words = head.words;
+        BigramCounter bigrams = head.bigrams;
+        String last = head.first == null ? null : head.last;
+        for (Partial partial : partials.subList(1, partials.size())) {
+            int[] common = new int[partial.words.size()];
+            for (int id = 0; id < common.length; id++) {
+                common[id] = intern(partial.words.get(id), ids, words);
+            }
+            BigramCounter counts = partial.bigrams;
+            for (int slot = 0; slot < counts.capacity(); slot++) {
+                long key = counts.keyAt(slot);
+                if (key >= 0) {
+                    bigrams.add(BigramCounter.key(common[BigramCounter.first(key)], common[BigramCounter.second(key)]),
+                            counts.countAt(slot));
+                }
+            }
+            // chunks without words leave the seam to the next chunk that has some
+            if (partial.first != null) {
+                if (last != null) {
+                    bigrams.add(BigramCounter.key(intern(last, ids, words), intern(partial.first, ids, words)), 1);
+                }
+                last = partial.last;
+            }
+        }
+        for (int slot = 0; slot < bigrams.capacity(); slot++) {
+            long key = bigrams.keyAt(slot);
+            if (key >= 0) {
+                graph.merge(words.get(BigramCounter.first(key)), words.get(BigramCounter.second(key)),
+                        bigrams.countAt(slot));
+            }
+        }
+    }
+
+    private static int intern(String word, Map<String, Integer> ids, List<String> words) {
+        Integer id = ids.get(word);
+        if (id == null) {
+            id = words.size();
+            ids.put(word, id);
+            words.add(word);
+        }
+        return id;
+    }
+
+}
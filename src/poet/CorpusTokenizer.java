@@ -0,0 +1,253 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Splits a UTF-8 corpus into the words GraphPoet builds its graph from,
+ * streaming it through a fixed buffer so memory use does not grow with the
+ * size of the corpus.
+ *
+ * <p>A token is a maximal run of characters that are not whitespace in the
+ * sense of {@link Character#isWhitespace(int)}, as {@link java.util.Scanner}
+ * splits text. The word of a token keeps only its ASCII letters and digits,
+ * lower-cased; a token with none of them gives the empty word. These are the
+ * words that Scanner, {@code replaceAll("[^a-zA-Z0-9]", "")} and
+ * {@code toLowerCase()} gave, without a regex or intermediate strings.
+ *
+ * <p>Bytes are scanned directly: ASCII bytes are classified by a table, and
+ * the only multi-byte characters that matter are the whitespace ones, which
+ * are all three bytes long. Any other non-ASCII byte, including those of
+ * malformed sequences, belongs to the current token and is dropped from its
+ * word, just as a decoder's replacement character would be. Strings of
+ * recent frequent words are reused, so most words cost no allocation.
+ */
+final class CorpusTokenizer {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int CACHE_SIZE = 1 << 12;
+
+    // ASCII class of each byte value below 0x80
+    private static final byte OTHER = 0;
+    private static final byte SPACE = 1;
+    private static final byte DIGIT = 2;
+    private static final byte LOWER = 3;
+    private static final byte UPPER = 4;
+    private static final byte[] ASCII_CLASS = new byte[0x80];
+    static {
+        for (int c = 0; c < 0x80; c++) {
+            if (Character.isWhitespace(c)) {
+                ASCII_CLASS[c] = SPACE;
+            } else if (c >= '0' && c <= '9') {
+                ASCII_CLASS[c] = DIGIT;
+            } else if (c >= 'a' && c <= 'z') {
+                ASCII_CLASS[c] = LOWER;
+            } else if (c >= 'A' && c <= 'Z') {
+                ASCII_CLASS[c] = UPPER;
+            }
+        }
+    }
+
+    private final Consumer<String> words;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final String[] cache = new String[CACHE_SIZE];
+    private byte[] word = new byte[64];
+    private int wordLength = 0;
+    private boolean inToken = false;
+
+    // Abstraction function:
+    //   represents a tokenizer that has passed every completed word to words, and is
+    //   inside a token iff inToken, whose word so far is word[0..wordLength-1]
+    // Representation invariant:
+    //   wordLength <= word.length, wordLength == 0 if !inToken
+    //   word[0..wordLength-1] are ASCII lower-case letters and digits
+    //   every non-null cache[i] is a word that emit() hashes to slot i
+    // Safety from rep exposure:
+    //   all fields are private; words only receives immutable Strings
+
+    /**
+     * Make a tokenizer.
+     * @param words - receives every word, in corpus order
+     */
+    CorpusTokenizer(Consumer<String> words) {
+        this.words = words;
+        checkRep();
+    }
+
+    // checkRep
+    private void checkRep() {
+        assert wordLength <= word.length;
+        assert inToken || wordLength == 0;
+    }
+
+    /**
+     * Passes every word of a corpus file to a consumer
+     * @param corpus - UTF-8 or ASCII text file
+     * @param words - receives every word, in corpus order
+     * @throws IOException if the corpus file cannot be found or read
+     */
+    static void tokenize(File corpus, Consumer<String> words) throws IOException {
+        try (FileChannel channel = FileChannel.open(corpus.toPath(), StandardOpenOption.READ)) {
+            CorpusTokenizer tokenizer = new CorpusTokenizer(words);
+            tokenizer.read(channel, 0, channel.size());
+            tokenizer.finish();
+        }
+    }
+
+    /**
+     * Reads bytes [start, end) of a channel, passing every word they complete to
+     * the consumer. A token that is still open at end is continued by the next
+     * call, or completed by finish(). start and end must not fall inside a
+     * multi-byte character.
+     * @param channel - channel to read, at positions that do not depend on its own position
+     * @param start - position of the first byte to read
+     * @param end - position after the last byte to read
+     * @throws IOException if the channel cannot be read
+     */
+    void read(FileChannel channel, long start, long end) throws IOException {
+        ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+        long position = start;
+        int length = 0;
+        while (true) {
+            int wanted = (int) Math.min(buffer.length - length, end - position);
+            while (wanted > 0) {
+                byteBuffer.limit(length + wanted).position(length);
+                int read = channel.read(byteBuffer, position);
+                if (read < 0) {
+                    end = position;
+                    break;
+                }
+                position += read;
+                length += read;
+                wanted -= read;
+            }
+            boolean last = position >= end;
+            // a whitespace character that might straddle the end of the buffer waits for the next fill
+            int scanned = scan(last ? length : Math.max(0, length - 2), length);
+            if (last && scanned == length) {
+                return;
+            }
+            System.arraycopy(buffer, scanned, buffer, 0, length - scanned);
+            length -= scanned;
+        }
+    }
+
+    /**
+     * Completes the open token, if any, passing its word to the consumer
+     */
+    void finish() {
+        if (inToken) {
+            emit();
+        }
+    }
+
+    /**
+     * Scans buffer[0..limit-1], looking up to length for whitespace that starts before limit
+     * @return index of the first byte not scanned, at least limit
+     */
+    private int scan(int limit, int length) {
+        int i = 0;
+        while (i < limit) {
+            int b = buffer[i];
+            if (b >= 0) {
+                switch (ASCII_CLASS[b]) {
+                case SPACE:
+                    if (inToken) {
+                        emit();
+                    }
+                    break;
+                case DIGIT:
+                case LOWER:
+                    append(b);
+                    break;
+                case UPPER:
+                    append(b + ('a' - 'A'));
+                    break;
+                default:
+                    inToken = true;
+                }
+                i++;
+            } else if (i + 2 < length && isWhitespace(b & 0xFF, buffer[i + 1] & 0xFF, buffer[i + 2] & 0xFF)) {
+                if (inToken) {
+                    emit();
+                }
+                i += 3;
+            } else {
+                inToken = true;
+                i++;
+            }
+        }
+        return i;
+    }
+
+    /**
+     * @return true iff the bytes b0 b1 b2 are the UTF-8 encoding of a whitespace character;
+     *         every non-ASCII whitespace character takes three bytes
+     */
+    private static boolean isWhitespace(int b0, int b1, int b2) {
+        switch (b0) {
+        case 0xE1:
+            // U+1680
+            return b1 == 0x9A && b2 == 0x80;
+        case 0xE2:
+            // U+2000..U+2006, U+2008..U+200A, U+2028, U+2029, U+205F
+            return b1 == 0x80 && ((b2 >= 0x80 && b2 <= 0x8A && b2 != 0x87) || b2 == 0xA8 || b2 == 0xA9)
+                    || b1 == 0x81 && b2 == 0x9F;
+        case 0xE3:
+            // U+3000
+            return b1 == 0x80 && b2 == 0x80;
+        default:
+            return false;
+        }
+    }
+
+    private void append(int b) {
+        if (wordLength == word.length) {
+            byte[] larger = new byte[word.length * 2];
+            System.arraycopy(word, 0, larger, 0, wordLength);
+            word = larger;
+        }
+        word[wordLength++] = (byte) b;
+        inToken = true;
+    }
+
+    /**
+     * Passes the word of the current token to the consumer and leaves the token
+     */
+    private void emit() {
+        int hash = 0;
+        for (int i = 0; i < wordLength; i++) {
+            hash = 31 * hash + word[i];
+        }
+        int slot = (hash ^ hash >>> 12) & (CACHE_SIZE - 1);
+        String cached = cache[slot];
+        if (cached == null || !matches(cached)) {
+            cached = new String(word, 0, wordLength, StandardCharsets.US_ASCII);
+            cache[slot] = cached;
+        }
+        wordLength = 0;
+        inToken = false;
+        words.accept(cached);
+    }
+
+    private boolean matches(String cached) {
+        if (cached.length() != wordLength) {
+            return false;
+        }
+        for (int i = 0; i < wordLength; i++) {
+            if (cached.charAt(i) != word[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -5,15 +5,16 @@ package poet;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.util.Scanner;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.function.Consumer;
 
+import graph.AdjacencyMode;
+import graph.ConcreteVerticesGraph;
 import graph.Graph;
+import graph.ListenableGraph;
+import graph.MappedGraph;
 
 /**
  * A graph-based poetry generator.
@@ -38,7 +39,8 @@ import graph.Graph;
  * insert a bridge word between every adjacent pair of words in the input.
  * The bridge word between input words "w1" and "w2" will be some "b" such that
  * w1 -> b -> w2 is a two-edge-long path with maximum-weight weight among all
- * the two-edge-long paths from w1 to w2 in the affinity graph.
+ * the two-edge-long paths from w1 to w2 in the affinity graph; of several such
+ * words, the one that comes first by {@link String#compareTo(String)}.
  * If there are no such paths, no bridge word is inserted.
  * In the output poem, input words retain their original case, while bridge
  * words are lower case. The whitespace between every word in the poem is a
@@ -59,7 +61,8 @@ import graph.Graph;
  */
 public class GraphPoet {
     
-    private final Graph<String> graph = Graph.empty();
+    private final Graph<String> graph;
+    private final BridgeCache bridges;
     
     // Abstraction function:
     //   A graph-based poetry generator
@@ -67,29 +70,269 @@ public class GraphPoet {
     //   - Vertices in the graph are words. Words are defined as non-empty case-insensitive 
     //	   strings of non-space non-newline characters.
     //	 - Edge weights are in-order adjacency counts
+    //	 - bridges is null, or caches graph.bestIntermediate() and graph is a BridgeCachingGraph
+    //	   that invalidates bridges on every mutation, also inside a batch
     // Safety from rep exposure:
     //   Fields are final and private
     
     /**
      * Create a new poet with the graph from corpus (as described above).
      * 
-     * @param corpus text file from which to derive the poet's affinity graph
+     * @param corpus UTF-8 or ASCII text file from which to derive the poet's affinity graph
      * @throws IOException if the corpus file cannot be found or read
      */
     public GraphPoet(File corpus) throws IOException {
-    	ArrayList<String> wordList = new ArrayList<>();
-    	Scanner scanner = new Scanner(new BufferedReader(new FileReader(corpus)));
-        while (scanner.hasNext()) {
-        	wordList.add(scanner.next().replaceAll("[^a-zA-Z0-9]", "").trim().toLowerCase());
-        }
-        scanner.close();
-        setToGraph(wordList);
-        checkRep();
+    	// bridge words are found by hashed lookups, so the graph need not keep neighbors sorted
+    	this(corpus, new ConcreteVerticesGraph<>(AdjacencyMode.HASHED));
+    }
+    
+    /**
+     * Create a new poet with the graph from corpus (as described above),
+     * built in a graph of the caller's choice of implementation.
+     * 
+     * @param corpus UTF-8 or ASCII text file from which to derive the poet's affinity graph
+     * @param graph - empty graph to build the affinity graph in; the poet uses it as its
+     *                rep, so the caller must not use it afterwards
+     * @throws IOException if the corpus file cannot be found or read
+     * @throws IllegalArgumentException if graph is not empty
+     */
+    public GraphPoet(File corpus, Graph<String> graph) throws IOException {
+    	this(read(corpus, graph), 0);
+    }
+    
+    /**
+     * Builds the affinity graph of corpus in graph
+     * @return graph
+     * @throws IllegalArgumentException if graph is not empty
+     */
+    private static Graph<String> read(File corpus, Graph<String> graph) throws IOException {
+    	if (!graph.verticesView().isEmpty()) {
+    		throw new IllegalArgumentException("graph must be empty");
+    	}
+    	// words are merged into the graph as they are read, so only the previous one is kept
+    	CorpusTokenizer.tokenize(corpus, new Bigrams(graph));
+    	return graph;
+    }
+    
+    /**
+     * Builds GraphPoets from corpus files, optionally reading a corpus with
+     * several threads. Every option has a default, so
+     * {@code GraphPoet.builder().build(corpus)} is the same as
+     * {@code new GraphPoet(corpus)}.
+     */
+    public static final class Builder {
+    	
+    	/** Chunks of a corpus read in parallel are at least this large, except the last. */
+    	static final long DEFAULT_MIN_CHUNK_BYTES = 1 << 20;
+    	
+    	private Graph<String> graph = null;
+    	private int parallelism = 1;
+    	private long minChunkBytes = DEFAULT_MIN_CHUNK_BYTES;
+    	private int bridgeCacheSize = 0;
+    	
+    	private Builder() {
+    	}
+    	
+    	/**
+    	 * Sets the graph to build the next poet's affinity graph in. By default each
+    	 * poet gets a new graph of the implementation GraphPoet(File) uses.
+    	 * @param graph - empty graph; the poet uses it as its rep, so the caller must
+    	 *                not use it afterwards
+    	 * @return this builder
+    	 */
+    	public Builder graph(Graph<String> graph) {
+    		this.graph = graph;
+    		return this;
+    	}
+    	
+    	/**
+    	 * Sets the number of threads that read a corpus, 1 by default. With more
+    	 * than one, the corpus is split into chunks at whitespace that are read
+    	 * in parallel; the affinity graph is the same either way.
+    	 * @param parallelism - number of threads, positive
+    	 * @return this builder
+    	 * @throws IllegalArgumentException if parallelism is not positive
+    	 */
+    	public Builder parallelism(int parallelism) {
+    		if (parallelism <= 0) {
+    			throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+    		}
+    		this.parallelism = parallelism;
+    		return this;
+    	}
+    	
+    	/**
+    	 * Sets the smallest chunk worth a thread of its own, so that small corpora are not split
+    	 * @param minChunkBytes - size in bytes, positive
+    	 * @return this builder
+    	 */
+    	Builder minChunkBytes(long minChunkBytes) {
+    		assert minChunkBytes > 0;
+    		this.minChunkBytes = minChunkBytes;
+    		return this;
+    	}
+    	
+    	/**
+    	 * Sets the number of word pairs whose bridge word the next poet caches, 0 (no cache)
+    	 * by default. The cache also remembers pairs without a bridge word, evicts the least
+    	 * recently used pairs when full, and is cleared by every mutation of the poet's graph,
+    	 * also inside a batch whose events are not delivered yet; its counts are reported by
+    	 * bridgeCacheStats().
+    	 * With a cache, getGraph() returns a ListenableGraph wrapping the graph set by graph(),
+    	 * and the graph must only be changed through getGraph() or setToGraph().
+    	 * @param maximumSize - largest number of pairs to cache, nonnegative
+    	 * @return this builder
+    	 * @throws IllegalArgumentException if maximumSize is negative
+    	 */
+    	public Builder bridgeCacheSize(int maximumSize) {
+    		if (maximumSize < 0) {
+    			throw new IllegalArgumentException("bridge cache size must be nonnegative: " + maximumSize);
+    		}
+    		this.bridgeCacheSize = maximumSize;
+    		return this;
+    	}
+    	
+    	/**
+    	 * Create a new poet with the graph from corpus (as described for GraphPoet).
+    	 * @param corpus UTF-8 or ASCII text file from which to derive the poet's affinity graph
+    	 * @return the poet
+    	 * @throws IOException if the corpus file cannot be found or read
+    	 * @throws IllegalArgumentException if the graph set by graph() is not empty
+    	 */
+    	public GraphPoet build(File corpus) throws IOException {
+    		Graph<String> target = graph != null ? graph : new ConcreteVerticesGraph<>(AdjacencyMode.HASHED);
+    		if (parallelism == 1) {
+    			return new GraphPoet(read(corpus, target), bridgeCacheSize);
+    		}
+    		if (!target.verticesView().isEmpty()) {
+    			throw new IllegalArgumentException("graph must be empty");
+    		}
+    		ChunkedIngestion.ingest(corpus, target, parallelism, minChunkBytes);
+    		return new GraphPoet(target, bridgeCacheSize);
+    	}
+    }
+    
+    /**
+     * @return a new builder of poets, with default options
+     */
+    public static Builder builder() {
+    	return new Builder();
+    }
+    
+    /**
+     * Create a new poet with a graph that was already derived from a corpus
+     * @param graph - affinity graph of the poet
+     * @param bridgeCacheSize - number of word pairs to cache bridge words of, or 0 for no cache
+     */
+    private GraphPoet(Graph<String> graph, int bridgeCacheSize) {
+    	if (bridgeCacheSize > 0) {
+    		// the graph is wrapped after it is built, so building it invalidates nothing
+    		BridgeCachingGraph caching = new BridgeCachingGraph(graph, bridgeCacheSize);
+    		this.graph = caching;
+    		this.bridges = caching.bridges;
+    	} else {
+    		this.graph = graph;
+    		this.bridges = null;
+    	}
+    	checkRep();
+    }
+    
+    /**
+     * Create a new poet with the graph saved by save(), without reading the
+     * corpus again. The graph file is memory-mapped, so this takes constant
+     * time however large the graph is, and the poet's graph is read-only.
+     * 
+     * @param graphFile file written by save()
+     * @return poet with the saved affinity graph
+     * @throws IOException if the graph file cannot be read or is not a graph file
+     */
+    public static GraphPoet load(File graphFile) throws IOException {
+    	return new GraphPoet(MappedGraph.open(graphFile), 0);
+    }
+    
+    // save
+    /**
+     * Saves the affinity graph of this poet, to be loaded again with load()
+     * @param graphFile - file to be written, replaced if it exists
+     * @throws IOException if the file cannot be written
+     */
+    public void save(File graphFile) throws IOException {
+    	MappedGraph.write(graph, graphFile);
     }
     
     // checkRep
     private void checkRep() {
     	assert graph!=null;
+    	assert bridges==null || graph instanceof BridgeCachingGraph;
+    }
+    
+    /**
+     * A ListenableGraph that invalidates a bridge word cache on every mutation, as the
+     * mutation returns. Listeners only hear of a mutation in a batch when the batch closes,
+     * so a listener would leave the cache stale until then.
+     * This class is internal to the constructor of GraphPoet.
+     */
+    private static final class BridgeCachingGraph extends ListenableGraph<String> {
+    	private final BridgeCache bridges;
+    	
+    	BridgeCachingGraph(Graph<String> graph, int bridgeCacheSize) {
+    		super(graph);
+    		this.bridges = new BridgeCache(bridgeCacheSize, super::bestIntermediate);
+    	}
+    	
+    	// each mutation invalidates even if it throws, since a listener throws after the change
+    	
+    	@Override public boolean add(String vertex) {
+    		try {
+    			return super.add(vertex);
+    		} finally {
+    			bridges.invalidate();
+    		}
+    	}
+    	
+    	@Override public int set(String source, String target, int weight) {
+    		try {
+    			return super.set(source, target, weight);
+    		} finally {
+    			bridges.invalidate();
+    		}
+    	}
+    	
+    	@Override public int merge(String source, String target, int delta) {
+    		try {
+    			return super.merge(source, target, delta);
+    		} finally {
+    			bridges.invalidate();
+    		}
+    	}
+    	
+    	@Override public boolean remove(String vertex) {
+    		try {
+    			return super.remove(vertex);
+    		} finally {
+    			bridges.invalidate();
+    		}
+    	}
+    }
+    
+    /**
+     * Merges every pair of adjacent words it is given into a graph, as setToGraph() does
+     * for a whole list. This class is internal to the constructor of GraphPoet.
+     */
+    private static final class Bigrams implements Consumer<String> {
+    	private final Graph<String> graph;
+    	private String previous = null;
+    	
+    	Bigrams(Graph<String> graph) {
+    		this.graph = graph;
+    	}
+    	
+    	@Override public void accept(String word) {
+    		if (previous != null) {
+    			graph.merge(previous, word, 1);
+    		}
+    		previous = word;
+    	}
     }
     
     //Additional methods:
@@ -111,12 +354,8 @@ public class GraphPoet {
     	int n = 0;
     	// set pairs of word until list is empty
 		while (n < (text.size()-1)) {
-			int previousWeight = graph.set(text.get(n), text.get(n+1), 1);
-			// if a pair of words was already set in graph, get previous weight and set previous weight +1 for
-			// the same pair of words
-			if (previousWeight > 0) {
-				graph.set(text.get(n), text.get(n+1), previousWeight+1);
-			}
+			// merge adds 1 to the weight of the pair of words, or sets it to 1 if the pair is new
+			graph.merge(text.get(n), text.get(n+1), 1);
 			n+=1;
 		}
     }
@@ -129,13 +368,7 @@ public class GraphPoet {
      * @return true if a bridge word is available, false otherwise
      */
     public boolean bridgeAvailable(String word1, String word2) {
-    	// if there is matching word in targets(word1) and sources(word2), return true
-    	for (String word:getGraph().targets(word1).keySet()) {
-    		if (getGraph().sources(word2).keySet().contains(word)) {
-    			return true;
-    		}
-    	}
-    	return false;
+    	return bridge(word1, word2) != null;
     }
     
     // getBridgeWord
@@ -143,44 +376,30 @@ public class GraphPoet {
      * Gets bridge word to fit between word1 and word2
      * @param word1 - String to be checked for bridge word
      * @param word2 - String to be checked for bridge word
-     * @return
+     * @return the middle word of a maximum-weight two-edge path from word1 to word2,
+     *         or the empty string if there is no such path
      */
     public String getBridgeWord(String word1, String word2) {
-    	String bridgeWord = "";
-    	// same logic as bridgeAvailable
-    	ArrayList<String> possibleWords = new ArrayList<>();
-    	for (String word:getGraph().targets(word1).keySet()) {
-    		if (getGraph().sources(word2).keySet().contains(word)) {
-    			possibleWords.add(word);
-    		}
-    	}
-    	
-    	// if more than one bridge word is available, the one with the highest weight value has to be selected
-    	if (possibleWords.size()>1) {
-    		HashMap<String, Integer> possibleWordsMap = new HashMap<>();
-    		// put possible words in map with weight value
-    		for (String bridge:possibleWords) {
-    			possibleWordsMap.put(bridge, getGraph().targets(word1).get(bridge));
-    		}
-    		// define max weight value
-    		int maxValue = 0;
-    		for (int value:possibleWordsMap.values()) {
-    			if (value > maxValue) {
-    				maxValue = value;
-    			}
-    		}
-    		// return word with highest weight value
-    		for (String bridgeFinal:possibleWordsMap.keySet()) {
-    			if (possibleWordsMap.get(bridgeFinal).equals(maxValue)) {
-    				return bridgeFinal;
-    			}
-    		}
-    	}
-    	// case possibleWords size is 0
-    	else {
-    		return possibleWords.get(0);
-    	}
-    	return bridgeWord;
+    	String bridgeWord = bridge(word1, word2);
+    	return bridgeWord == null ? "" : bridgeWord;
+    }
+    
+    // bridge
+    /**
+     * @return the middle word of a maximum-weight two-edge path from word1 to word2,
+     *         or null if there is none; from the cache if this poet has one
+     */
+    private String bridge(String word1, String word2) {
+    	// the graph walks the smaller of targets(word1) and sources(word2), probing the other
+    	return bridges == null ? graph.bestIntermediate(word1, word2) : bridges.get(word1, word2);
+    }
+    
+    // bridgeCacheStats
+    /**
+     * @return the counts of the bridge word cache so far; all zero if this poet has no cache
+     */
+    public BridgeCacheStats bridgeCacheStats() {
+    	return bridges == null ? new BridgeCacheStats(0, 0, 0, 0, 0) : bridges.stats();
     }
     
     /**
@@ -196,8 +415,10 @@ public class GraphPoet {
     	// set pairs of word until list is empty
 		while (n < (wordList.size()-1)) {
 			poemList.add(wordList.get(n));
-			if (bridgeAvailable(wordList.get(n).toLowerCase(),wordList.get(n+1).toLowerCase())) {
-				poemList.add(getBridgeWord(wordList.get(n).toLowerCase(),wordList.get(n+1).toLowerCase()));
+			// one two-hop lookup both finds out whether there is a bridge and picks it
+			String bridgeWord = bridge(wordList.get(n).toLowerCase(), wordList.get(n+1).toLowerCase());
+			if (bridgeWord != null) {
+				poemList.add(bridgeWord);
 			}
 			n+=1;
 		}
@@ -62,6 +62,21 @@ public class ConcreteVerticesGraphTest extends GraphInstanceTest {
     	assertEquals("Expected string: \n v1 -> v2: 15\nv2 -> v3: 20\n", expected, graph.toString());
     }
     
+    // Testing strategy for the vertex index of ConcreteVerticesGraph
+    //   vertex removed and added again, by add() and by set()
+    
+    @Test
+    public void testRemoveThenAddAgain() {
+    	Graph<String> graph = emptyInstance();
+    	graph.set(vertex1, vertex2, 15);
+    	graph.remove(vertex2);
+    	assertTrue("Expected vertex2 to be added again", graph.add(vertex2));
+    	assertFalse("Expected vertex2 not to be added twice", graph.add(vertex2));
+    	assertEquals("Expected no edge from vertex1 to the new vertex2", 0, graph.set(vertex1, vertex2, 5));
+    	assertEquals("Expected two vertices", 2, graph.vertices().size());
+    	assertEquals("Expected string: \n v1 -> v2: 5\n", vertex1 + " -> " + vertex2 + ": 5\n", graph.toString());
+    }
+    
     /*
      * Testing Vertex...
      */
@@ -0,0 +1,164 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+/**
+ * Tests for ConcurrentGraph.
+ *
+ * This class runs the GraphInstanceTest tests against ConcurrentGraph, as
+ * well as tests for that particular implementation.
+ *
+ * Tests against the Graph spec should be in GraphInstanceTest.
+ */
+public class ConcurrentGraphTest extends GraphInstanceTest {
+
+    private static final int THREADS = 8;
+    private static final int EDGES_PER_THREAD = 5000;
+    private static final int SHARED_SOURCES = 16;
+
+    /*
+     * Provide a ConcurrentGraph for tests in GraphInstanceTest.
+     */
+    @Override public Graph<String> emptyInstance() {
+        return new ConcurrentGraph<String>();
+    }
+
+    /*
+     * Testing ConcurrentGraph...
+     */
+
+    // Testing strategy for ConcurrentGraph
+    //   THREADS threads running at once, all sharing a small set of source vertices
+    //   each thread: sets new edges, updates and deletes its own edges, checks previous weights
+    //   one thread removes vertices that no other thread uses
+    //   final weights, and targets() agreeing with sources(), checked after all threads finish
+    //   merge() from many threads on the same edges, expect no lost increments
+
+    /**
+     * Runs every task on its own thread, all released at the same time
+     * @return results of the tasks
+     */
+    private static <T> List<T> runConcurrently(List<Callable<T>> tasks) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(tasks.size());
+        try {
+            List<Future<T>> futures = pool.invokeAll(tasks);
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testStressMergeFromManyThreads() throws Exception {
+        final Graph<String> graph = emptyInstance();
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            tasks.add(() -> {
+                for (int i = 0; i < EDGES_PER_THREAD; i++) {
+                    graph.merge("s" + (i % SHARED_SOURCES), "t" + (i % 7), 1);
+                }
+                return 0;
+            });
+        }
+        runConcurrently(tasks);
+
+        int total = 0;
+        for (String vertex : graph.vertices()) {
+            for (int weight : graph.targets(vertex).values()) {
+                total += weight;
+            }
+        }
+        assertEquals("Expected every increment counted", THREADS * EDGES_PER_THREAD, total);
+        int expected = 0;
+        for (int i = 0; i < EDGES_PER_THREAD; i++) {
+            if (i % SHARED_SOURCES == 0 && i % 7 == 0) {
+                expected += THREADS;
+            }
+        }
+        assertEquals("Expected weight of s0 -> t0", (Integer) expected, graph.targets("s0").get("t0"));
+        assertEquals("Expected sources() to agree", (Integer) expected, graph.sources("t0").get("s0"));
+    }
+
+    @Test
+    public void testStressSetFromManyThreads() throws Exception {
+        final Graph<String> graph = emptyInstance();
+        for (int i = 0; i < 100; i++) {
+            graph.set("doomed" + i, "doomed" + (i + 1), 1);
+        }
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            final int thread = t;
+            tasks.add(() -> {
+                int wrongPreviousWeights = 0;
+                for (int i = 0; i < EDGES_PER_THREAD; i++) {
+                    String source = "s" + (i % SHARED_SOURCES);
+                    String target = "t" + thread + "_" + i;
+                    if (graph.set(source, target, i + 1) != 0) {
+                        wrongPreviousWeights++;
+                    }
+                    // every third edge is updated, every fifth edge is deleted again
+                    if (i % 3 == 0 && graph.set(source, target, i + 2) != i + 1) {
+                        wrongPreviousWeights++;
+                    }
+                    if (i % 5 == 0 && graph.set(source, target, 0) == 0) {
+                        wrongPreviousWeights++;
+                    }
+                }
+                return wrongPreviousWeights;
+            });
+        }
+        tasks.add(() -> {
+            int wrongResults = 0;
+            for (int i = 0; i < 100; i++) {
+                if (!graph.remove("doomed" + i)) {
+                    wrongResults++;
+                }
+            }
+            return wrongResults;
+        });
+
+        for (int wrong : runConcurrently(tasks)) {
+            assertEquals("Expected every set() and remove() to return the right value", 0, wrong);
+        }
+
+        for (int t = 0; t < THREADS; t++) {
+            for (int i = 0; i < EDGES_PER_THREAD; i++) {
+                String source = "s" + (i % SHARED_SOURCES);
+                String target = "t" + t + "_" + i;
+                int expected = i % 5 == 0 ? 0 : i % 3 == 0 ? i + 2 : i + 1;
+                Integer actual = graph.targets(source).get(target);
+                assertEquals("Expected final weight of " + source + " -> " + target,
+                        expected, actual == null ? 0 : (int) actual);
+            }
+        }
+        int edges = 0;
+        for (String vertex : graph.vertices()) {
+            for (Map.Entry<String, Integer> edge : graph.targets(vertex).entrySet()) {
+                assertEquals("Expected sources() to agree with targets()",
+                        edge.getValue(), graph.sources(edge.getKey()).get(vertex));
+                edges++;
+            }
+        }
+        assertEquals("Expected only the edges that were not deleted",
+                THREADS * (EDGES_PER_THREAD - EDGES_PER_THREAD / 5), edges);
+        assertEquals("Expected doomed vertices removed except the last one",
+                SHARED_SOURCES + THREADS * EDGES_PER_THREAD + 1, graph.vertices().size());
+    }
+}
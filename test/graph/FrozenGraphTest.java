@@ -0,0 +1,153 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests for FrozenGraph.
+ * 
+ * FrozenGraph is immutable, so it cannot run the GraphInstanceTest tests;
+ * instead its observers are compared against the graph it was frozen from.
+ */
+public class FrozenGraphTest {
+    
+    // Testing strategy for FrozenGraph
+    //   graph frozen: empty, vertices without edges, edges in both directions, loop
+    //   observers: vertices(), targets(), sources(), weight(), forEachTarget(), forEachSource()
+    //   mutators: add(), set(), remove() throw UnsupportedOperationException
+    //   original graph mutated after freeze()
+    //   original graph mutated while it is frozen: target added after vertices() was read
+    
+    private static final String vertex1 = "v1";
+    private static final String vertex2 = "v2";
+    private static final String vertex3 = "v3";
+    
+    private static Graph<String> exampleGraph() {
+        Graph<String> graph = new ConcreteVerticesGraph<>();
+        graph.add(vertex1);
+        graph.set(vertex1, vertex2, 10);
+        graph.set(vertex2, vertex1, 20);
+        graph.set(vertex3, vertex2, 30);
+        graph.set(vertex2, vertex2, 40);
+        graph.add("isolated");
+        return graph;
+    }
+    
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+    
+    @Test
+    public void testFreezeEmpty() {
+        FrozenGraph<String> frozen = new ConcreteEdgesGraph<String>().freeze();
+        assertEquals("Expected no vertices", Collections.emptySet(), frozen.vertices());
+        assertTrue("Expected no targets", frozen.targets(vertex1).isEmpty());
+    }
+    
+    @Test
+    public void testSameVerticesAndEdges() {
+        Graph<String> graph = exampleGraph();
+        FrozenGraph<String> frozen = graph.freeze();
+        assertEquals("Expected same vertices", graph.vertices(), frozen.vertices());
+        for (String vertex : graph.vertices()) {
+            assertEquals("Expected same targets of " + vertex, graph.targets(vertex), frozen.targets(vertex));
+            assertEquals("Expected same sources of " + vertex, graph.sources(vertex), frozen.sources(vertex));
+        }
+        assertEquals("Expected 4 edges", 4, frozen.edgeCount());
+    }
+    
+    @Test
+    public void testPrimitiveObservers() {
+        FrozenGraph<String> frozen = exampleGraph().freeze();
+        int id1 = frozen.id(vertex1);
+        int id2 = frozen.id(vertex2);
+        assertEquals("Expected weight 10", 10, frozen.weight(id1, id2));
+        assertEquals("Expected weight 40 on the loop", 40, frozen.weight(id2, id2));
+        assertEquals("Expected no edge", 0, frozen.weight(id1, id1));
+        Map<String, Integer> sources = new HashMap<>();
+        frozen.forEachSource(id2, (source, weight) -> sources.put(frozen.label(source), weight));
+        assertEquals("Expected forEachSource to agree with sources()", frozen.sources(vertex2), sources);
+        Map<String, Integer> targets = new HashMap<>();
+        frozen.forEachTarget(id2, (target, weight) -> targets.put(frozen.label(target), weight));
+        assertEquals("Expected forEachTarget to agree with targets()", frozen.targets(vertex2), targets);
+        assertEquals("Expected -1 for a vertex not in graph", -1, frozen.id("missing"));
+    }
+    
+    @Test
+    public void testSnapshotNotAffectedByOriginal() {
+        Graph<String> graph = exampleGraph();
+        FrozenGraph<String> frozen = graph.freeze();
+        graph.set(vertex1, vertex2, 0);
+        graph.remove(vertex3);
+        assertEquals("Expected edge still in snapshot", (Integer) 10, frozen.targets(vertex1).get(vertex2));
+        assertTrue("Expected vertex3 still in snapshot", frozen.vertices().contains(vertex3));
+        assertSame("Expected freezing a snapshot to return it", frozen, frozen.freeze());
+    }
+    
+    @Test
+    public void testTargetAddedDuringFreeze() {
+        // vertices() is read before targets(), as if another thread added "late" in between
+        Graph<String> graph = new ConcreteVerticesGraph<String>() {
+            @Override public Set<String> vertices() {
+                Set<String> vertices = super.vertices();
+                set(vertex1, "late", 5);
+                set("late", vertex2, 5);
+                return vertices;
+            }
+        };
+        graph.set(vertex1, vertex2, 10);
+        graph.set(vertex2, vertex1, 20);
+        FrozenGraph<String> frozen = graph.freeze();
+        assertFalse("Expected vertex added during freeze left out", frozen.vertices().contains("late"));
+        assertEquals("Expected edge to it left out", Collections.singletonMap(vertex2, 10), frozen.targets(vertex1));
+        assertEquals("Expected other edges kept", Collections.singletonMap(vertex2, 20), frozen.sources(vertex1));
+        assertEquals("Expected rows consistent", frozen.outDegree(frozen.id(vertex1)),
+                frozen.inDegree(frozen.id(vertex2)));
+    }
+    
+    @Test(expected=UnsupportedOperationException.class)
+    public void testAddRejected() {
+        exampleGraph().freeze().add("new");
+    }
+    
+    @Test(expected=UnsupportedOperationException.class)
+    public void testSetRejected() {
+        exampleGraph().freeze().set(vertex1, vertex2, 1);
+    }
+    
+    @Test(expected=UnsupportedOperationException.class)
+    public void testRemoveRejected() {
+        exampleGraph().freeze().remove(vertex1);
+    }
+    
+    @Test(expected=UnsupportedOperationException.class)
+    public void testTargetsViewRejectsPut() {
+        exampleGraph().freeze().targets(vertex1).put(vertex3, 1);
+    }
+
+    @Test
+    public void testForEachEdge() {
+        FrozenGraph<String> graph = exampleGraph().freeze();
+        int[] edgesAndWeights = new int[2];
+        graph.forEachEdge((source, target, weight) -> {
+            assertEquals("Expected edge in targets()", (Integer) weight, graph.targets(source).get(target));
+            edgesAndWeights[0]++;
+            edgesAndWeights[1] += weight;
+        });
+        assertEquals("Expected 4 edges", 4, edgesAndWeights[0]);
+        assertEquals("Expected total weight", 100, edgesAndWeights[1]);
+        Map<String, Integer> targets = new HashMap<>();
+        graph.forEachTarget(vertex2, (target, weight) -> targets.put(target, weight));
+        assertEquals("Expected visited targets to equal targets()", graph.targets(vertex2), targets);
+    }
+}
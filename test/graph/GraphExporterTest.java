@@ -0,0 +1,111 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import org.junit.Test;
+
+import graph.GraphExporter.Format;
+
+/**
+ * Tests for GraphExporter.
+ */
+public class GraphExporterTest {
+
+    // Testing strategy for GraphExporter
+    //   format: TEXT, TSV, DOT, JSON
+    //   graph: empty, isolated vertex, edges, labels that need escaping
+    //   destination: Writer, OutputStream (UTF-8), Writer that throws IOException
+
+    private static Graph<String> exampleGraph() {
+        // ConcreteEdgesGraph visits edges in the order they were added
+        Graph<String> graph = new ConcreteEdgesGraph<>();
+        graph.set("a", "b", 1);
+        graph.set("b", "a", 2);
+        return graph;
+    }
+
+    private static String export(Graph<String> graph, Format format) throws IOException {
+        StringWriter out = new StringWriter();
+        GraphExporter.export(graph, format, out);
+        return out.toString();
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testText() throws IOException {
+        assertEquals("Expected one line per edge", "a -> b: 1\nb -> a: 2\n", export(exampleGraph(), Format.TEXT));
+        assertEquals("Expected toString() to match", exampleGraph().toString(), GraphExporter.toString(exampleGraph()));
+    }
+
+    @Test
+    public void testTsvEscapesLabels() throws IOException {
+        Graph<String> graph = new ConcreteEdgesGraph<>();
+        graph.set("tab\there", "new\nline\\", 3);
+        assertEquals("Expected escaped fields", "tab\\there\tnew\\nline\\\\\t3\n", export(graph, Format.TSV));
+    }
+
+    @Test
+    public void testDot() throws IOException {
+        Graph<String> graph = new ConcreteEdgesGraph<>();
+        graph.set("say \"hi\"", "b", 4);
+        String dot = export(graph, Format.DOT);
+        assertTrue("Expected digraph", dot.startsWith("digraph {\n") && dot.endsWith("}\n"));
+        assertTrue("Expected quoted nodes", dot.contains("  \"say \\\"hi\\\"\";\n") && dot.contains("  \"b\";\n"));
+        assertTrue("Expected weighted edge", dot.contains("  \"say \\\"hi\\\"\" -> \"b\" [weight=4];\n"));
+    }
+
+    @Test
+    public void testJson() throws IOException {
+        Graph<String> graph = exampleGraph();
+        graph.add("c");
+        String json = export(graph, Format.JSON);
+        assertTrue("Expected vertices", json.startsWith("{\"vertices\": [") && json.contains("\"c\""));
+        assertTrue("Expected edges in order", json.endsWith("\"edges\": [\n"
+                + "  {\"source\": \"a\", \"target\": \"b\", \"weight\": 1},\n"
+                + "  {\"source\": \"b\", \"target\": \"a\", \"weight\": 2}\n]}\n"));
+    }
+
+    @Test
+    public void testJsonEmpty() throws IOException {
+        assertEquals("Expected empty arrays", "{\"vertices\": [], \"edges\": []}\n",
+                export(new ConcreteEdgesGraph<String>(), Format.JSON));
+    }
+
+    @Test
+    public void testOutputStreamIsUtf8() throws IOException {
+        Graph<String> graph = new ConcreteEdgesGraph<>();
+        graph.set("caf\u00e9", "b", 1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GraphExporter.export(graph, Format.TSV, out);
+        assertEquals("Expected UTF-8 output", "caf\u00e9\tb\t1\n", new String(out.toByteArray(), "UTF-8"));
+    }
+
+    @Test(expected=IOException.class)
+    public void testWriterFailurePropagates() throws IOException {
+        Writer failing = new Writer() {
+            @Override public void write(char[] buffer, int offset, int length) throws IOException {
+                throw new IOException("disk full");
+            }
+
+            @Override public void flush() throws IOException {
+                throw new IOException("disk full");
+            }
+
+            @Override public void close() {
+            }
+        };
+        GraphExporter.export(exampleGraph(), Format.TEXT, failing);
+    }
+}
@@ -6,6 +6,9 @@ package graph;
 import static org.junit.Assert.*;
 
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
 
 import org.junit.Test;
 
@@ -34,9 +37,15 @@ public abstract class GraphInstanceTest {
 	//		directed edge already existed + zero weight, expect removed edge
 	//		directed edge did not exist before + zero weight, expect no mutation
 	//		vertices haven't been added to graph (vertex produced by set method), expect 1, 2 vertices to be added
+	//		labels equal but not the same object as the labels of an existing edge, expect that edge updated
+	//
+	// merge(L source, L target, int delta):
+	//		edge exists, edge does not exist, vertices haven't been added to graph
+	//		delta = 1, delta > 1; delta = 0, delta < 0, expect IllegalArgumentException and no mutation
 	//
 	// remove(L vertex):
 	//		graph contains vertex, expect no edges from or to removed edge, expect boolean true
+	//		vertex has no edges, vertex has an edge to itself
 	//		graph does not contain vertex, expect false and no mutation
 	//
 	// vertices():
@@ -45,10 +54,26 @@ public abstract class GraphInstanceTest {
 	// sources(L target):
 	//		graph contains 0, 1, >1 source vertices
 	//		vertex = produced by add(), produced by set()
+	//		source vertex removed, edge to target removed by set()
 	//
 	// targets(L source):
 	//		graph contains 0, 1, >1 target vertices
 	//		vertex = produced by add(), produced by set()
+	//
+	// verticesView(), sourcesView(L target), targetsView(L source):
+	//		same contents as vertices(), sources(), targets()
+	//		graph mutated after the view was obtained, vertex removed and added again
+	//		view mutated, expect UnsupportedOperationException
+	//
+	// forEachEdge(EdgeVisitor<L> visitor), forEachTarget(L source, ObjIntConsumer<L> action):
+	//		graph contains 0, 1, >1 edges, loop
+	//		same edges as targets(), source not in graph
+	//
+	// bestIntermediate(L source, L target):
+	//		0, 1, >1 two-edge paths; source or target not in graph
+	//		max path weight decided by first edge, by second edge; loop through source
+	//		out-degree of source smaller, larger than in-degree of target
+	//		several paths of maximum weight, expect the smallest label, whichever was added first
 	
 	private static final String vertex1 = "v1";
 	private static final String vertex2 = "v2";
@@ -129,6 +154,15 @@ public abstract class GraphInstanceTest {
     	assertEquals("Expected graph.set(vertex2, vertex1, 0) to return 0, since there was no such edge", 0, returnValue);
     }
     
+    @Test
+    public void testSetEqualLabelsDifferentObjects() {
+    	Graph<String> graph = emptyInstance();
+    	graph.set(new String("some"), new String("say"), 1);
+    	int returnValue = graph.set(new String("some"), new String("say"), 2);
+    	assertEquals("Expected graph.set to return previous edge weight of 1", 1, returnValue);
+    	assertEquals("Expected one edge with weight 2", Collections.singletonMap("say", 2), graph.targets("some"));
+    }
+    
     @Test
     public void testSetDirectedEdgeOneVertexHasntBeenAdded() {
     	Graph<String> graph = emptyInstance();
@@ -146,6 +180,42 @@ public abstract class GraphInstanceTest {
     	assertEquals("Expected graph.set(vertex2, vertex1, 20) to return 0, since there was no such edge", 0, returnValue);
     }
     
+    @Test
+    public void testMergeNewEdge() {
+    	Graph<String> graph = emptyInstance();
+    	assertEquals("Expected merge to return 0, since there was no such edge", 0, graph.merge(vertex1, vertex2, 1));
+    	assertEquals("Expected new edge with weight 1", Collections.singletonMap(vertex1, 1), graph.sources(vertex2));
+    	assertEquals("Expected both vertices added", 2, graph.vertices().size());
+    }
+    
+    @Test
+    public void testMergeExistingEdge() {
+    	Graph<String> graph = emptyInstance();
+    	graph.set(vertex1, vertex2, 10);
+    	assertEquals("Expected merge to return previous weight 10", 10, graph.merge(vertex1, vertex2, 5));
+    	assertEquals("Expected previous weight 15", 15, graph.merge(vertex1, vertex2, 1));
+    	assertEquals("Expected weight 16", Collections.singletonMap(vertex2, 16), graph.targets(vertex1));
+    	assertEquals("Expected weight 16 in sources", Collections.singletonMap(vertex1, 16), graph.sources(vertex2));
+    }
+    
+    @Test
+    public void testMergeNonPositiveDelta() {
+    	Graph<String> graph = emptyInstance();
+    	graph.set(vertex1, vertex2, 10);
+    	for (int delta : new int[] { 0, -1 }) {
+    		for (String target : new String[] { vertex2, vertex3 }) {
+    			try {
+    				graph.merge(vertex1, target, delta);
+    				fail("Expected IllegalArgumentException for delta " + delta);
+    			} catch (IllegalArgumentException e) {
+    				// expected
+    			}
+    		}
+    	}
+    	assertEquals("Expected edge unchanged", Collections.singletonMap(vertex2, 10), graph.targets(vertex1));
+    	assertEquals("Expected no vertex added", 2, graph.vertices().size());
+    }
+    
     @Test
     public void testRemoveContainsVertex() {
     	Graph<String> graph = emptyInstance();
@@ -157,6 +227,24 @@ public abstract class GraphInstanceTest {
     	assertFalse("Expected vertex2 to be removed from vertices", graph.vertices().contains(vertex2));
     }
     
+    @Test
+    public void testRemoveVertexWithoutEdges() {
+    	Graph<String> graph = emptyInstance();
+    	graph.add(vertex1);
+    	assertTrue("Expected graph.remove(vertex1) to return true", graph.remove(vertex1));
+    	assertTrue("Expected vertices to be empty", graph.vertices().isEmpty());
+    }
+    
+    @Test
+    public void testRemoveVertexWithLoop() {
+    	Graph<String> graph = emptyInstance();
+    	graph.set(vertex1, vertex1, 5);
+    	graph.set(vertex1, vertex2, 10);
+    	assertTrue("Expected graph.remove(vertex1) to return true", graph.remove(vertex1));
+    	assertTrue("Expected sources map of vertex2 to be empty", graph.sources(vertex2).isEmpty());
+    	assertEquals("Expected only vertex2 in vertices", Collections.singleton(vertex2), graph.vertices());
+    }
+    
     @Test
     public void testRemoveDoesntContainVertex() {
     	Graph<String> graph = emptyInstance();
@@ -216,6 +304,21 @@ public abstract class GraphInstanceTest {
     	assertTrue("Expected sources map to contains value 150", graph.sources(vertex1).containsValue(150));
     }
     
+    @Test
+    public void testSourcesAfterSourceRemoved() {
+    	Graph<String> graph = emptyInstance();
+    	graph.set(vertex1, vertex3, 10);
+    	graph.set(vertex2, vertex3, 20);
+    	graph.set(vertex3, vertex1, 30);
+    	graph.remove(vertex1);
+    	graph.set(vertex2, vertex3, 0);
+    	assertTrue("Expected sources map of vertex3 to be empty", graph.sources(vertex3).isEmpty());
+    	assertTrue("Expected targets map of vertex3 to be empty", graph.targets(vertex3).isEmpty());
+    	graph.set(vertex2, vertex3, 5);
+    	assertEquals("Expected sources map of vertex3 to contain only vertex2", 
+    			Collections.singletonMap(vertex2, 5), graph.sources(vertex3));
+    }
+    
     @Test
     public void testTargetsContainsNoTargetVertices() {
     	Graph<String> graph = emptyInstance();
@@ -246,4 +349,142 @@ public abstract class GraphInstanceTest {
     	assertTrue("Expected sources map to contains value 350", graph.targets(vertex3).containsValue(350));
     }
     
+    @Test
+    public void testViewsAgreeWithCopies() {
+    	Graph<String> graph = emptyInstance();
+    	graph.set(vertex1, vertex2, 10);
+    	graph.set(vertex3, vertex2, 20);
+    	graph.set(vertex2, vertex2, 30);
+    	assertEquals("Expected verticesView to equal vertices", graph.vertices(), graph.verticesView());
+    	for (String vertex : graph.vertices()) {
+    		assertEquals("Expected targetsView to equal targets", graph.targets(vertex), graph.targetsView(vertex));
+    		assertEquals("Expected sourcesView to equal sources", graph.sources(vertex), graph.sourcesView(vertex));
+    	}
+    	assertTrue("Expected empty view for a vertex not in graph", graph.targetsView("missing").isEmpty());
+    }
+    
+    @Test
+    public void testViewsReflectLaterChanges() {
+    	Graph<String> graph = emptyInstance();
+    	Set<String> vertices = graph.verticesView();
+    	Map<String, Integer> targets = graph.targetsView(vertex1);
+    	Map<String, Integer> sources = graph.sourcesView(vertex2);
+    	graph.set(vertex1, vertex2, 10);
+    	assertTrue("Expected verticesView to contain vertex1", vertices.contains(vertex1));
+    	assertEquals("Expected targetsView to contain the new edge", Collections.singletonMap(vertex2, 10), targets);
+    	assertEquals("Expected sourcesView to contain the new edge", (Integer) 10, sources.get(vertex1));
+    	graph.remove(vertex1);
+    	graph.set(vertex1, vertex3, 5);
+    	assertEquals("Expected targetsView to follow vertex1 added again", Collections.singletonMap(vertex3, 5), targets);
+    	assertTrue("Expected sourcesView to be empty", sources.isEmpty());
+    }
+    
+    @Test(expected=UnsupportedOperationException.class)
+    public void testTargetsViewUnmodifiable() {
+    	Graph<String> graph = emptyInstance();
+    	graph.set(vertex1, vertex2, 10);
+    	graph.targetsView(vertex1).put(vertex3, 5);
+    }
+    
+    @Test(expected=UnsupportedOperationException.class)
+    public void testVerticesViewUnmodifiable() {
+    	Graph<String> graph = emptyInstance();
+    	graph.add(vertex1);
+    	graph.verticesView().remove(vertex1);
+    }
+    
+    @Test
+    public void testForEachEdgeAgreesWithTargets() {
+    	Graph<String> graph = emptyInstance();
+    	graph.set(vertex1, vertex2, 10);
+    	graph.set(vertex3, vertex2, 20);
+    	graph.set(vertex2, vertex2, 30);
+    	graph.add("isolated");
+    	Map<String, Map<String, Integer>> visited = new HashMap<>();
+    	graph.forEachEdge((source, target, weight) -> {
+    		visited.putIfAbsent(source, new HashMap<>());
+    		assertNull("Expected each edge visited once", visited.get(source).put(target, weight));
+    	});
+    	for (String vertex : graph.vertices()) {
+    		Map<String, Integer> targets = visited.containsKey(vertex) ? visited.get(vertex) : Collections.emptyMap();
+    		assertEquals("Expected visited edges to equal targets of " + vertex, graph.targets(vertex), targets);
+    	}
+    }
+    
+    @Test
+    public void testForEachEdgeEmpty() {
+    	Graph<String> graph = emptyInstance();
+    	graph.add(vertex1);
+    	graph.forEachEdge((source, target, weight) -> fail("Expected no edges"));
+    }
+    
+    @Test
+    public void testForEachTarget() {
+    	Graph<String> graph = emptyInstance();
+    	graph.set(vertex1, vertex2, 10);
+    	graph.set(vertex1, vertex1, 20);
+    	graph.set(vertex3, vertex1, 30);
+    	Map<String, Integer> visited = new HashMap<>();
+    	graph.forEachTarget(vertex1, (target, weight) -> visited.put(target, weight));
+    	assertEquals("Expected visited targets to equal targets()", graph.targets(vertex1), visited);
+    	graph.forEachTarget("missing", (target, weight) -> fail("Expected no targets of a vertex not in graph"));
+    }
+    
+    @Test
+    public void testBestIntermediate() {
+    	Graph<String> graph = emptyInstance();
+    	assertNull("Expected no path in empty graph", graph.bestIntermediate(vertex1, vertex2));
+    	graph.set(vertex1, vertex2, 1);
+    	assertNull("Expected no two-edge path", graph.bestIntermediate(vertex1, vertex2));
+    	graph.set(vertex2, vertex3, 1);
+    	assertEquals("Expected the only path", vertex2, graph.bestIntermediate(vertex1, vertex3));
+    	assertNull("Expected no path to a vertex not in graph", graph.bestIntermediate(vertex1, "missing"));
+    	assertNull("Expected no path from a vertex not in graph", graph.bestIntermediate("missing", vertex3));
+    	// v1 -> v4 -> v3 is heavier by its second edge, v1 -> v5 -> v3 by its first
+    	graph.set(vertex1, "v4", 1);
+    	graph.set("v4", vertex3, 5);
+    	assertEquals("Expected heavier second edge to win", "v4", graph.bestIntermediate(vertex1, vertex3));
+    	graph.set(vertex1, "v5", 7);
+    	graph.set("v5", vertex3, 1);
+    	assertEquals("Expected heavier path to win", "v5", graph.bestIntermediate(vertex1, vertex3));
+    	graph.set(vertex1, vertex1, 10);
+    	graph.set(vertex1, vertex3, 10);
+    	assertEquals("Expected loop through source", vertex1, graph.bestIntermediate(vertex1, vertex3));
+    	// make targets(v1) larger than sources(v3), then smaller
+    	for (int i = 0; i < 10; i++) {
+    		graph.set(vertex1, "t" + i, 1);
+    	}
+    	assertEquals("Expected same result from either side", vertex1, graph.bestIntermediate(vertex1, vertex3));
+    	for (int i = 0; i < 20; i++) {
+    		graph.set("s" + i, vertex3, 1);
+    	}
+    	assertEquals("Expected same result from either side", vertex1, graph.bestIntermediate(vertex1, vertex3));
+    	graph.remove(vertex1);
+    	assertNull("Expected no path from removed vertex", graph.bestIntermediate(vertex1, vertex3));
+    }
+    
+    @Test
+    public void testBestIntermediateTies() {
+    	Graph<String> graph = emptyInstance();
+    	// equal weight 4 through "m", "b" and "k", split differently between the two edges
+    	graph.set(vertex1, "m", 1);
+    	graph.set("m", vertex3, 3);
+    	graph.set(vertex1, "b", 2);
+    	graph.set("b", vertex3, 2);
+    	graph.set(vertex1, "k", 3);
+    	graph.set("k", vertex3, 1);
+    	assertEquals("Expected smallest label of equal-weight paths", "b", graph.bestIntermediate(vertex1, vertex3));
+    	// make targets(v1) larger than sources(v3), so the other side is iterated
+    	for (int i = 0; i < 10; i++) {
+    		graph.set(vertex1, "t" + i, 1);
+    	}
+    	assertEquals("Expected same result from either side", "b", graph.bestIntermediate(vertex1, vertex3));
+    	graph.set(vertex1, "a", 1);
+    	graph.set("a", vertex3, 3);
+    	assertEquals("Expected smaller label added later to win the tie", "a", graph.bestIntermediate(vertex1, vertex3));
+    	graph.set("z", vertex3, 1);
+    	graph.set(vertex1, "z", 4);
+    	assertEquals("Expected heavier path to win over smaller label", "z", graph.bestIntermediate(vertex1, vertex3));
+    }
+    
 }
@@ -0,0 +1,137 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for GraphLoader.
+ */
+public class GraphLoaderTest {
+
+    // Testing strategy for GraphLoader
+    //   file: empty, one line, LF and CRLF line endings, empty lines, no final newline,
+    //         repeated edges, larger than one chunk
+    //   graph: ConcreteVerticesGraph, ConcreteEdgesGraph, IntGraph, ConcurrentGraph
+    //   labels: String, converted to Integer
+    //   malformed lines: too few fields, too many fields, zero weight, weight not a number
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File write(String contents) throws IOException {
+        File file = folder.newFile();
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            out.write(contents);
+        }
+        return file;
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmptyFile() throws IOException {
+        Graph<String> graph = new ConcreteEdgesGraph<>();
+        GraphLoader.Statistics statistics = GraphLoader.load(write(""), graph);
+        assertEquals("Expected no lines", 0, statistics.lines());
+        assertTrue("Expected empty graph", graph.vertices().isEmpty());
+    }
+
+    @Test
+    public void testSmallFileIntoConcreteGraphs() throws IOException {
+        File file = write("a\tb\t3\r\n\nb\tc\t4\na\tb\t2");
+        List<Graph<String>> graphs = Arrays.asList(new ConcreteVerticesGraph<String>(), new ConcreteEdgesGraph<String>());
+        for (Graph<String> graph : graphs) {
+            assertEquals("Expected 3 lines", 3, GraphLoader.load(file, graph).lines());
+            assertEquals("Expected repeated edge added", (Integer) 5, graph.targets("a").get("b"));
+            assertEquals("Expected edge from CRLF line", (Integer) 4, graph.targets("b").get("c"));
+            assertEquals("Expected 3 vertices", 3, graph.vertices().size());
+        }
+    }
+
+    @Test
+    public void testLabelConversion() throws IOException {
+        Graph<Integer> graph = new IntGraph<>();
+        GraphLoader.load(write("1\t2\t7\n"), graph, Integer::valueOf, ForkJoinPool.commonPool());
+        assertEquals("Expected Integer labels", Collections.singletonMap(2, 7), graph.targets(1));
+    }
+
+    @Test
+    public void testManyChunks() throws IOException {
+        // about 3MB, so a pool of 4 threads splits it into several chunks
+        File file = folder.newFile();
+        Map<String, Map<String, Integer>> expected = new HashMap<>();
+        Random random = new Random(13);
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            for (int line = 0; line < 200000; line++) {
+                String source = "w" + random.nextInt(3000);
+                String target = "w" + random.nextInt(3000);
+                int weight = random.nextInt(9) + 1;
+                out.write(source + "\t" + target + "\t" + weight + "\n");
+                expected.computeIfAbsent(source, k -> new HashMap<>()).merge(target, weight, Integer::sum);
+            }
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<Graph<String>> graphs = Arrays.asList(new IntGraph<String>(), new ConcurrentGraph<String>());
+            for (Graph<String> graph : graphs) {
+                GraphLoader.Statistics statistics = GraphLoader.load(file, graph, s -> s, pool);
+                assertEquals("Expected every line", 200000, statistics.lines());
+                assertEquals("Expected file size", file.length(), statistics.bytes());
+                for (String source : expected.keySet()) {
+                    assertEquals("Expected targets of " + source, expected.get(source), graph.targets(source));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(expected=IOException.class)
+    public void testTooFewFields() throws IOException {
+        GraphLoader.load(write("a\tb\t1\na\tb\n"), new ConcreteEdgesGraph<String>());
+    }
+
+    @Test(expected=IOException.class)
+    public void testTooManyFields() throws IOException {
+        GraphLoader.load(write("a\tb\t1\t2\n"), new ConcreteEdgesGraph<String>());
+    }
+
+    @Test(expected=IOException.class)
+    public void testZeroWeight() throws IOException {
+        GraphLoader.load(write("a\tb\t0\n"), new ConcreteEdgesGraph<String>());
+    }
+
+    @Test
+    public void testWeightNotANumber() {
+        try {
+            GraphLoader.load(write("a\tb\t1\na\tb\tx1\n"), new ConcreteEdgesGraph<String>());
+            fail("Expected IOException");
+        } catch (IOException e) {
+            assertTrue("Expected byte offset of the line", e.getMessage().contains("offset 6"));
+        }
+    }
+}
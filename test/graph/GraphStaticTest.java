@@ -6,6 +6,9 @@ package graph;
 import static org.junit.Assert.*;
 
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
 
 import org.junit.Test;
 
@@ -21,6 +24,12 @@ public class GraphStaticTest {
     //   empty()
     //     no inputs, only output is empty graph
     //     observe with vertices()
+    //   default verticesView(), sourcesView(), targetsView(), of a graph that only
+    //   implements the required methods
+    //     graph changed after the view was obtained: edge added, changed, removed, vertex removed
+    //     view mutated directly, through its key set, through an iterator
+    //   default merge(), of a graph that only implements the required methods
+    //     delta = 0, delta < 0, expect IllegalArgumentException and the edge unchanged
     
     @Test(expected=AssertionError.class)
     public void testAssertionsEnabled() {
@@ -75,4 +84,82 @@ public class GraphStaticTest {
     	assertEquals("Expected graph to have two vertices", 1, graph.vertices().size());
     	assertTrue("Expected targets for vertex 3 to be empty", graph.targets('c').isEmpty());
     }
+    
+    /**
+     * A graph that implements only the required operations, so it has the default views.
+     */
+    private static final class MinimalGraph<L> implements Graph<L> {
+    	private final Graph<L> graph = new ConcreteEdgesGraph<>();
+    	
+    	@Override public boolean add(L vertex) { return graph.add(vertex); }
+    	@Override public int set(L source, L target, int weight) { return graph.set(source, target, weight); }
+    	@Override public boolean remove(L vertex) { return graph.remove(vertex); }
+    	@Override public Set<L> vertices() { return graph.vertices(); }
+    	@Override public Map<L, Integer> sources(L target) { return graph.sources(target); }
+    	@Override public Map<L, Integer> targets(L source) { return graph.targets(source); }
+    }
+    
+    @Test
+    public void testDefaultMergeNonPositiveDelta() {
+    	Graph<String> graph = new MinimalGraph<>();
+    	graph.set("a", "b", 3);
+    	for (int delta : new int[] { 0, -3 }) {
+    		try {
+    			graph.merge("a", "b", delta);
+    			fail("Expected IllegalArgumentException for delta " + delta);
+    		} catch (IllegalArgumentException e) {
+    			// expected
+    		}
+    	}
+    	assertEquals("Expected edge unchanged", Collections.singletonMap("b", 3), graph.targets("a"));
+    }
+    
+    @Test
+    public void testDefaultViewsAreLive() {
+    	Graph<String> graph = new MinimalGraph<>();
+    	Set<String> vertices = graph.verticesView();
+    	Map<String, Integer> targets = graph.targetsView("a");
+    	Map<String, Integer> sources = graph.sourcesView("b");
+    	assertTrue("Expected empty views of empty graph", vertices.isEmpty() && targets.isEmpty() && sources.isEmpty());
+    	graph.set("a", "b", 3);
+    	assertEquals("Expected vertices view to see added vertices", graph.vertices(), vertices);
+    	assertEquals("Expected targets view to see added edge", Collections.singletonMap("b", 3), targets);
+    	assertEquals("Expected sources view to see added edge", Collections.singletonMap("a", 3), sources);
+    	graph.set("a", "b", 5);
+    	assertEquals("Expected targets view to see changed weight", (Integer) 5, targets.get("b"));
+    	assertTrue("Expected sources view to see edge", sources.containsKey("a"));
+    	graph.remove("b");
+    	assertTrue("Expected targets view to see removed edge", targets.isEmpty());
+    	assertFalse("Expected vertices view to see removed vertex", vertices.contains("b"));
+    	assertEquals("Expected one vertex", 1, vertices.size());
+    }
+    
+    @Test
+    public void testDefaultViewsAreUnmodifiable() {
+    	Graph<String> graph = new MinimalGraph<>();
+    	graph.set("a", "b", 3);
+    	Map<String, Integer> targets = graph.targetsView("a");
+    	Iterator<Map.Entry<String, Integer>> edges = targets.entrySet().iterator();
+    	edges.next();
+    	Iterator<String> vertices = graph.verticesView().iterator();
+    	vertices.next();
+    	Runnable[] mutations = {
+    		() -> targets.put("c", 1),
+    		() -> targets.remove("b"),
+    		() -> targets.keySet().remove("b"),
+    		() -> edges.remove(),
+    		() -> graph.sourcesView("b").clear(),
+    		() -> graph.verticesView().add("c"),
+    		() -> vertices.remove(),
+    	};
+    	for (Runnable mutation : mutations) {
+    		try {
+    			mutation.run();
+    			fail("Expected UnsupportedOperationException");
+    		} catch (UnsupportedOperationException e) {
+    			// expected
+    		}
+    	}
+    	assertEquals("Expected graph unchanged", Collections.singletonMap("b", 3), graph.targets("a"));
+    }
 }
@@ -0,0 +1,108 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+/**
+ * Tests for ConcreteVerticesGraph in HASHED adjacency mode.
+ *
+ * This class runs the GraphInstanceTest tests against a ConcreteVerticesGraph
+ * created with AdjacencyMode.HASHED, as well as tests for that mode.
+ *
+ * Tests against the Graph spec should be in GraphInstanceTest.
+ */
+public class HashedVerticesGraphTest extends GraphInstanceTest {
+
+    /*
+     * Provide a HASHED ConcreteVerticesGraph for tests in GraphInstanceTest.
+     */
+    @Override public Graph<String> emptyInstance() {
+        return new ConcreteVerticesGraph<String>(AdjacencyMode.HASHED);
+    }
+
+    /*
+     * Testing AdjacencyMode.HASHED...
+     */
+
+    // Testing strategy for AdjacencyMode.HASHED
+    //   labels: not Comparable, toString() fails
+    //   operations: set(), merge(), targets(), sources(), remove(), views
+    //   sorted order produced by the caller from targets()
+    //   toString() of two graphs built by the same operations, expect equal
+
+    /**
+     * A label that is not Comparable and cannot be converted to a string,
+     * so any sorting or toString() on the edge path fails.
+     */
+    private static final class Opaque {
+        private final int id;
+
+        Opaque(int id) {
+            this.id = id;
+        }
+
+        @Override public boolean equals(Object that) {
+            return that instanceof Opaque && ((Opaque) that).id == id;
+        }
+
+        @Override public int hashCode() {
+            return id;
+        }
+
+        @Override public String toString() {
+            throw new AssertionError("toString() called on a label");
+        }
+    }
+
+    @Test
+    public void testLabelsNeverConvertedToStrings() {
+        Graph<Opaque> graph = new ConcreteVerticesGraph<>(AdjacencyMode.HASHED);
+        Opaque a = new Opaque(1);
+        Opaque b = new Opaque(2);
+        Opaque c = new Opaque(3);
+        assertEquals("Expected new edge", 0, graph.set(a, b, 4));
+        assertEquals("Expected new edge", 0, graph.merge(a, c, 2));
+        assertEquals("Expected merged edge", 2, graph.merge(a, c, 3));
+        assertEquals("Expected weight from equal label", (Integer) 4, graph.targets(new Opaque(1)).get(b));
+        assertEquals("Expected source", Collections.singletonMap(a, 5), graph.sources(c));
+        assertEquals("Expected view", (Integer) 5, graph.targetsView(a).get(c));
+        assertTrue("Expected vertex removed", graph.remove(b));
+        assertEquals("Expected one target left", Collections.singletonMap(c, 5), graph.targets(a));
+    }
+
+    @Test
+    public void testSortedByCaller() {
+        Graph<String> graph = emptyInstance();
+        graph.set("a", "c", 1);
+        graph.set("a", "b", 2);
+        graph.set("a", "d", 3);
+        Map<String, Integer> sorted = new TreeMap<>(graph.targets("a"));
+        assertEquals("Expected sorted targets", "{b=2, c=1, d=3}", sorted.toString());
+    }
+    @Test
+    public void testToStringReproducible() {
+        Graph<String> first = emptyInstance();
+        Graph<String> second = emptyInstance();
+        // enough neighbors that an order from identity hash codes would almost surely differ
+        for (Graph<String> graph : Arrays.asList(first, second)) {
+            for (int i = 0; i < 50; i++) {
+                graph.set("hub", "v" + i, i + 1);
+                graph.set("v" + (i * 7 % 50), "hub", i + 1);
+            }
+        }
+        assertEquals("Expected same string for graphs built the same way", first.toString(), second.toString());
+        assertEquals("Expected same targets order", new ArrayList<>(first.targetsView("hub").keySet()),
+                new ArrayList<>(second.targetsView("hub").keySet()));
+    }
+
+}
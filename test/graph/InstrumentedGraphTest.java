@@ -0,0 +1,171 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+
+import org.junit.Test;
+
+import graph.InstrumentedGraph.Operation;
+import graph.MetricsSnapshot.OperationStats;
+
+/**
+ * Tests for InstrumentedGraph, MetricsSnapshot and LatencyHistogram.
+ *
+ * This class runs the GraphInstanceTest tests against InstrumentedGraph, as
+ * well as tests for that particular implementation.
+ *
+ * Tests against the Graph spec should be in GraphInstanceTest.
+ */
+public class InstrumentedGraphTest extends GraphInstanceTest {
+
+    /*
+     * Provide an InstrumentedGraph for tests in GraphInstanceTest.
+     */
+    @Override public Graph<String> emptyInstance() {
+        return new InstrumentedGraph<String>(new ConcreteEdgesGraph<String>());
+    }
+
+    /*
+     * Testing InstrumentedGraph...
+     */
+
+    // Testing strategy for InstrumentedGraph
+    //   operations: no calls, some calls of mutators and observers, returned maps empty and not
+    //   latency sample interval: 1, default, not a power of two
+    //   reset(), registerMBean() and reading attributes over JMX, registering a name twice
+    // Testing strategy for LatencyHistogram and OperationStats.percentileNanos()
+    //   values: 0, below SUB_BUCKETS, powers of two, Long.MAX_VALUE, random
+    //   percentile: 0, 50, 100, out of range
+
+    @Test
+    public void testNoCalls() {
+        MetricsSnapshot snapshot = new InstrumentedGraph<>(new ConcreteEdgesGraph<String>()).snapshot();
+        for (Operation operation : Operation.values()) {
+            OperationStats stats = snapshot.get(operation);
+            assertEquals("Expected no calls", 0, stats.count());
+            assertEquals("Expected no latency", 0, stats.percentileNanos(99));
+            assertEquals("Expected no mean", 0, stats.meanNanos(), 0);
+        }
+        assertEquals("Expected empty string", "", snapshot.toString());
+    }
+
+    @Test
+    public void testCountsAndSizes() {
+        InstrumentedGraph<String> graph = new InstrumentedGraph<>(new ConcreteEdgesGraph<String>(), 1);
+        graph.set("a", "b", 1);
+        graph.set("a", "c", 1);
+        graph.merge("a", "c", 2);
+        graph.targets("a");
+        graph.targets("zzz");
+        graph.sources("c");
+        graph.vertices();
+        MetricsSnapshot snapshot = graph.snapshot();
+        assertEquals("Expected 2 sets", 2, snapshot.get(Operation.SET).count());
+        assertEquals("Expected 1 merge", 1, snapshot.get(Operation.MERGE).count());
+        OperationStats targets = snapshot.get(Operation.TARGETS);
+        assertEquals("Expected 2 targets calls", 2, targets.count());
+        assertEquals("Expected total targets size", 2, targets.totalResultSize());
+        assertEquals("Expected largest targets size", 2, targets.maxResultSize());
+        assertEquals("Expected mean targets size", 1, targets.meanResultSize(), 0);
+        assertEquals("Expected vertices size", 3, snapshot.get(Operation.VERTICES).maxResultSize());
+        assertEquals("Expected every call sampled", 2, targets.sampledCount());
+        assertTrue("Expected latency recorded", targets.totalNanos() > 0);
+        assertTrue("Expected max at least mean", targets.maxNanos() >= targets.meanNanos());
+        assertTrue("Expected operations in string", snapshot.toString().contains("TARGETS: 2 calls"));
+        graph.reset();
+        assertEquals("Expected counts reset", 0, graph.snapshot().get(Operation.SET).count());
+    }
+
+    @Test
+    public void testSampling() {
+        InstrumentedGraph<String> graph = new InstrumentedGraph<>(new ConcreteEdgesGraph<String>());
+        for (int i = 0; i < 10000; i++) {
+            graph.add("a");
+        }
+        OperationStats adds = graph.snapshot().get(Operation.ADD);
+        assertEquals("Expected every call counted", 10000, adds.count());
+        long expected = 10000 / InstrumentedGraph.DEFAULT_LATENCY_SAMPLE_INTERVAL;
+        assertTrue("Expected about one in interval sampled: " + adds.sampledCount(),
+                adds.sampledCount() > expected / 2 && adds.sampledCount() < expected * 2);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testSampleIntervalNotPowerOfTwo() {
+        new InstrumentedGraph<>(new ConcreteEdgesGraph<String>(), 6);
+    }
+
+    @Test
+    public void testHistogramBuckets() {
+        for (long value : new long[] { 0, 1, 15, 16, 17, 31, 32, 1000, 1 << 20, Long.MAX_VALUE }) {
+            int bucket = LatencyHistogram.bucket(value);
+            assertTrue("Expected bucket in range for " + value, bucket >= 0 && bucket < LatencyHistogram.BUCKETS);
+            assertTrue("Expected lower bound at most " + value, LatencyHistogram.lowerBound(bucket) <= value);
+            assertTrue("Expected upper bound at least " + value, LatencyHistogram.upperBound(bucket) >= value);
+        }
+        Random random = new Random(19);
+        for (int i = 0; i < 10000; i++) {
+            long value = (random.nextLong() >>> 1) >>> random.nextInt(63);
+            int bucket = LatencyHistogram.bucket(value);
+            long lower = LatencyHistogram.lowerBound(bucket);
+            long upper = LatencyHistogram.upperBound(bucket);
+            assertTrue("Expected " + value + " within its bucket", lower <= value && value <= upper);
+            assertTrue("Expected relative precision for " + value,
+                    upper - lower <= Math.max(0, lower / LatencyHistogram.SUB_BUCKETS));
+        }
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value);
+        }
+        OperationStats stats = new OperationStats(Operation.TARGETS, 1000, histogram.counts(), 500500, 1000, 0, 0);
+        assertEquals("Expected 1000 values", 1000, stats.count());
+        assertEquals("Expected smallest value", 1, stats.percentileNanos(0));
+        long median = stats.percentileNanos(50);
+        assertTrue("Expected median near 500: " + median, median >= 500 && median <= 500 + 500 / 16);
+        assertEquals("Expected max", 1000, stats.percentileNanos(100));
+        try {
+            stats.percentileNanos(101);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testJmx() throws JMException {
+        InstrumentedGraph<String> graph = new InstrumentedGraph<>(new ConcreteEdgesGraph<String>());
+        graph.add("a");
+        graph.add("b");
+        ObjectName name = graph.registerMBean("InstrumentedGraphTest.testJmx");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            TabularData counts = (TabularData) server.getAttribute(name, "CallCounts");
+            CompositeData adds = counts.get(new Object[] { "ADD" });
+            assertEquals("Expected 2 adds over JMX", 2L, adds.get("value"));
+            try {
+                graph.registerMBean("InstrumentedGraphTest.testJmx");
+                fail("Expected JMException");
+            } catch (JMException e) {
+                // expected, the name is taken
+            }
+            server.invoke(name, "reset", new Object[0], new String[0]);
+            assertEquals("Expected reset over JMX", 0, graph.snapshot().get(Operation.ADD).count());
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for IntGraph.
+ *
+ * This class runs the GraphInstanceTest tests against IntGraph, as
+ * well as tests for that particular implementation.
+ *
+ * Tests against the Graph spec should be in GraphInstanceTest.
+ */
+public class IntGraphTest extends GraphInstanceTest {
+
+	private static final String vertex1 = "v1";
+	private static final String vertex2 = "v2";
+	private static final String vertex3 = "v3";
+
+    /*
+     * Provide an IntGraph for tests in GraphInstanceTest.
+     */
+    @Override public Graph<String> emptyInstance() {
+        return new IntGraph<String>();
+    }
+
+    /*
+     * Testing IntGraph...
+     */
+
+    // Testing strategy for IntGraph primitive operations
+    //   id(): vertex in graph, not in graph
+    //   weight(), forEachTarget(), forEachSource(): 0, 1, n edges
+    //   set(int, int, int): new edge, updated edge, removed edge
+    //   ids of removed vertices are reused
+    //   bestIntermediate(int, int): no path, several paths
+
+    @Test
+    public void testIdAndLabel() {
+    	IntGraph<String> graph = new IntGraph<>();
+    	graph.add(vertex1);
+    	int id = graph.id(vertex1);
+    	assertEquals("Expected label of id to be vertex1", vertex1, graph.label(id));
+    	assertEquals("Expected -1 for a vertex not in graph", -1, graph.id(vertex2));
+    }
+
+    @Test
+    public void testPrimitiveSetAndWeight() {
+    	IntGraph<String> graph = new IntGraph<>();
+    	int id1 = graph.intern(vertex1);
+    	int id2 = graph.intern(vertex2);
+    	assertEquals("Expected no previous edge", 0, graph.set(id1, id2, 10));
+    	assertEquals("Expected previous weight 10", 10, graph.set(id1, id2, 20));
+    	assertEquals("Expected weight 20", 20, graph.weight(id1, id2));
+    	assertEquals("Expected no edge in the other direction", 0, graph.weight(id2, id1));
+    	assertEquals("Expected edge visible through sources()", (Integer) 20, graph.sources(vertex2).get(vertex1));
+    	assertEquals("Expected previous weight 20", 20, graph.set(id1, id2, 0));
+    	assertEquals("Expected edge removed", 0, graph.inDegree(id2));
+    }
+
+    @Test
+    public void testForEachTargetAndSource() {
+    	IntGraph<String> graph = new IntGraph<>();
+    	graph.set(vertex1, vertex2, 5);
+    	graph.set(vertex1, vertex3, 7);
+    	graph.set(vertex3, vertex2, 9);
+    	Map<String, Integer> targets = new HashMap<>();
+    	graph.forEachTarget(graph.id(vertex1), (target, weight) -> targets.put(graph.label(target), weight));
+    	assertEquals("Expected forEachTarget to agree with targets()", graph.targets(vertex1), targets);
+    	Map<String, Integer> sources = new HashMap<>();
+    	graph.forEachSource(graph.id(vertex2), (source, weight) -> sources.put(graph.label(source), weight));
+    	assertEquals("Expected forEachSource to agree with sources()", graph.sources(vertex2), sources);
+    	assertEquals("Expected out-degree 2", 2, graph.outDegree(graph.id(vertex1)));
+    }
+
+    @Test
+    public void testRemovedIdReused() {
+    	IntGraph<String> graph = new IntGraph<>();
+    	graph.set(vertex1, vertex2, 5);
+    	int id2 = graph.id(vertex2);
+    	graph.remove(vertex2);
+    	graph.add(vertex3);
+    	assertEquals("Expected vertex3 to reuse the id of vertex2", id2, graph.id(vertex3));
+    	assertEquals("Expected no edge to the reused id", 0, graph.weight(graph.id(vertex1), id2));
+    	assertEquals("Expected two ids in use", 2, graph.idBound());
+    }
+
+    /*
+     * Testing IntIntMap...
+     */
+
+    // Testing strategy for IntIntMap
+    //   random puts and removes compared against HashMap, across several resizes
+
+    @Test
+    public void testIntIntMapAgainstHashMap() {
+    	IntIntMap map = new IntIntMap();
+    	Map<Integer, Integer> expected = new HashMap<>();
+    	Random random = new Random(6005);
+    	for (int i = 0; i < 20000; i++) {
+    		int key = random.nextInt(500);
+    		if (random.nextInt(3) == 0) {
+    			Integer previous = expected.remove(key);
+    			assertEquals("Expected remove to return previous value", previous == null ? 0 : previous, map.remove(key));
+    		} else {
+    			int value = 1 + random.nextInt(100);
+    			Integer previous = expected.put(key, value);
+    			assertEquals("Expected put to return previous value", previous == null ? 0 : previous, map.put(key, value));
+    		}
+    	}
+    	assertEquals("Expected same size", expected.size(), map.size());
+    	for (int key = 0; key < 500; key++) {
+    		Integer value = expected.get(key);
+    		assertEquals("Expected same value for " + key, value == null ? 0 : value, map.get(key));
+    	}
+    }
+
+    @Test
+    public void testPrimitiveBestIntermediate() {
+    	IntGraph<String> graph = new IntGraph<>();
+    	int id1 = graph.intern(vertex1);
+    	int id2 = graph.intern(vertex2);
+    	int id3 = graph.intern(vertex3);
+    	assertEquals("Expected no path", -1, graph.bestIntermediate(id1, id3));
+    	graph.set(id1, id2, 2);
+    	graph.set(id2, id3, 2);
+    	graph.set(id1, id1, 1);
+    	graph.set(id1, id3, 2);
+    	assertEquals("Expected heavier path through vertex2", id2, graph.bestIntermediate(id1, id3));
+    }
+}
@@ -0,0 +1,212 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import graph.GraphEvent.EdgeWeightChanged;
+import graph.GraphEvent.VertexAdded;
+import graph.GraphEvent.VertexRemoved;
+
+/**
+ * Tests for ListenableGraph.
+ *
+ * This class runs the GraphInstanceTest tests against ListenableGraph, as
+ * well as tests for that particular implementation.
+ *
+ * Tests against the Graph spec should be in GraphInstanceTest.
+ */
+public class ListenableGraphTest extends GraphInstanceTest {
+
+    /*
+     * Provide a ListenableGraph for tests in GraphInstanceTest.
+     */
+    @Override public Graph<String> emptyInstance() {
+        return new ListenableGraph<String>();
+    }
+
+    /*
+     * Testing ListenableGraph...
+     */
+
+    // Testing strategy for ListenableGraph
+    //   add(): new vertex, existing vertex
+    //   set(): new edge with new vertices, loop, weight changed, same weight, zero weight
+    //   merge(): new edge, existing edge
+    //   remove(): vertex with in-, out- and loop edges, missing vertex
+    //   delivery: no batch, batch, nested batches, batch closed twice,
+    //             listener removed, no listeners
+    //   incremental index fed by events compared against recomputing it after random mutations
+
+    /**
+     * @return graph whose events are appended to deliveries, one list per delivery
+     */
+    private static ListenableGraph<String> recorded(List<List<GraphEvent<String>>> deliveries) {
+        ListenableGraph<String> graph = new ListenableGraph<>(new ConcreteEdgesGraph<String>());
+        graph.addListener(deliveries::add);
+        return graph;
+    }
+
+    @Test
+    public void testAddEvents() {
+        List<List<GraphEvent<String>>> deliveries = new ArrayList<>();
+        ListenableGraph<String> graph = recorded(deliveries);
+        graph.add("a");
+        graph.add("a");
+        assertEquals("Expected one delivery", Collections.singletonList(
+                Collections.<GraphEvent<String>>singletonList(new VertexAdded<>("a"))), deliveries);
+    }
+
+    @Test
+    public void testSetEvents() {
+        List<List<GraphEvent<String>>> deliveries = new ArrayList<>();
+        ListenableGraph<String> graph = recorded(deliveries);
+        graph.set("a", "b", 3);
+        graph.set("a", "b", 3);
+        graph.set("a", "b", 5);
+        graph.set("a", "b", 0);
+        graph.set("c", "c", 1);
+        List<List<GraphEvent<String>>> expected = Arrays.asList(
+                Arrays.<GraphEvent<String>>asList(new VertexAdded<>("a"), new VertexAdded<>("b"),
+                        new EdgeWeightChanged<>("a", "b", 0, 3)),
+                Arrays.<GraphEvent<String>>asList(new EdgeWeightChanged<>("a", "b", 3, 5)),
+                Arrays.<GraphEvent<String>>asList(new EdgeWeightChanged<>("a", "b", 5, 0)),
+                Arrays.<GraphEvent<String>>asList(new VertexAdded<>("c"), new EdgeWeightChanged<>("c", "c", 0, 1)));
+        assertEquals("Expected events of each set()", expected, deliveries);
+    }
+
+    @Test
+    public void testMergeEvents() {
+        List<List<GraphEvent<String>>> deliveries = new ArrayList<>();
+        ListenableGraph<String> graph = recorded(deliveries);
+        graph.add("a");
+        graph.merge("a", "b", 2);
+        graph.merge("a", "b", 4);
+        assertEquals("Expected three deliveries", 3, deliveries.size());
+        assertEquals("Expected new target and edge", Arrays.<GraphEvent<String>>asList(
+                new VertexAdded<>("b"), new EdgeWeightChanged<>("a", "b", 0, 2)), deliveries.get(1));
+        assertEquals("Expected weight change", Collections.<GraphEvent<String>>singletonList(
+                new EdgeWeightChanged<>("a", "b", 2, 6)), deliveries.get(2));
+    }
+
+    @Test
+    public void testRemoveEvents() {
+        List<List<GraphEvent<String>>> deliveries = new ArrayList<>();
+        ListenableGraph<String> graph = recorded(deliveries);
+        graph.set("a", "b", 1);
+        graph.set("b", "c", 2);
+        graph.set("b", "b", 3);
+        deliveries.clear();
+        assertFalse("Expected missing vertex", graph.remove("zzz"));
+        assertTrue("Expected vertex removed", graph.remove("b"));
+        assertEquals("Expected one delivery", 1, deliveries.size());
+        List<GraphEvent<String>> events = deliveries.get(0);
+        assertEquals("Expected three edges and the vertex", 4, events.size());
+        assertTrue("Expected out-edge removed", events.contains(new EdgeWeightChanged<>("b", "c", 2, 0)));
+        assertTrue("Expected in-edge removed", events.contains(new EdgeWeightChanged<>("a", "b", 1, 0)));
+        assertTrue("Expected loop removed", events.contains(new EdgeWeightChanged<>("b", "b", 3, 0)));
+        assertEquals("Expected vertex removed last", new VertexRemoved<>("b"), events.get(3));
+    }
+
+    @Test
+    public void testBatches() {
+        List<List<GraphEvent<String>>> deliveries = new ArrayList<>();
+        ListenableGraph<String> graph = recorded(deliveries);
+        ListenableGraph<String>.Batch outer = graph.batch();
+        try {
+            graph.add("a");
+            ListenableGraph<String>.Batch inner = graph.batch();
+            graph.merge("a", "b", 1);
+            inner.close();
+            // closing again must not close the outer batch
+            inner.close();
+            assertTrue("Expected nothing delivered inside the outer batch", deliveries.isEmpty());
+            graph.merge("a", "b", 1);
+        } finally {
+            outer.close();
+        }
+        assertEquals("Expected one delivery", 1, deliveries.size());
+        assertEquals("Expected every event in order", Arrays.<GraphEvent<String>>asList(
+                new VertexAdded<>("a"), new VertexAdded<>("b"),
+                new EdgeWeightChanged<>("a", "b", 0, 1), new EdgeWeightChanged<>("a", "b", 1, 2)),
+                deliveries.get(0));
+        graph.add("c");
+        assertEquals("Expected delivery after the batch", 2, deliveries.size());
+    }
+
+    @Test
+    public void testRemoveListener() {
+        List<List<GraphEvent<String>>> deliveries = new ArrayList<>();
+        ListenableGraph<String> graph = new ListenableGraph<>();
+        GraphListener<String> listener = deliveries::add;
+        graph.add("a");
+        graph.addListener(listener);
+        graph.add("b");
+        assertTrue("Expected listener removed", graph.removeListener(listener));
+        assertFalse("Expected listener already removed", graph.removeListener(listener));
+        graph.add("c");
+        assertEquals("Expected only the event while registered", Collections.singletonList(
+                Collections.<GraphEvent<String>>singletonList(new VertexAdded<>("b"))), deliveries);
+    }
+
+    @Test
+    public void testIncrementalIndex() {
+        // weighted out-degree of every vertex, kept up to date from events only
+        ListenableGraph<Integer> graph = new ListenableGraph<>(new IntGraph<Integer>());
+        Map<Integer, Integer> outDegree = new HashMap<>();
+        graph.addListener(events -> {
+            for (GraphEvent<Integer> event : events) {
+                if (event instanceof VertexAdded) {
+                    assertNull("Expected new vertex", outDegree.put(((VertexAdded<Integer>) event).vertex(), 0));
+                } else if (event instanceof VertexRemoved) {
+                    assertEquals("Expected edges removed first", (Integer) 0,
+                            outDegree.remove(((VertexRemoved<Integer>) event).vertex()));
+                } else {
+                    EdgeWeightChanged<Integer> change = (EdgeWeightChanged<Integer>) event;
+                    outDegree.merge(change.source(), change.newWeight() - change.oldWeight(), Integer::sum);
+                }
+            }
+        });
+        Random random = new Random(18);
+        for (int step = 0; step < 2000; step++) {
+            ListenableGraph<Integer>.Batch batch = graph.batch();
+            try {
+                for (int i = random.nextInt(4); i >= 0; i--) {
+                    int source = random.nextInt(25);
+                    int target = random.nextInt(25);
+                    int choice = random.nextInt(10);
+                    if (choice < 4) {
+                        graph.set(source, target, random.nextInt(5));
+                    } else if (choice < 8) {
+                        graph.merge(source, target, 1 + random.nextInt(3));
+                    } else if (choice < 9) {
+                        graph.add(source);
+                    } else {
+                        graph.remove(source);
+                    }
+                }
+            } finally {
+                batch.close();
+            }
+        }
+        assertEquals("Expected same vertices", graph.vertices(), outDegree.keySet());
+        for (int vertex : graph.vertices()) {
+            int degree = 0;
+            for (int weight : graph.targets(vertex).values()) {
+                degree += weight;
+            }
+            assertEquals("Expected out-degree of " + vertex, (Integer) degree, outDegree.get(vertex));
+        }
+    }
+}
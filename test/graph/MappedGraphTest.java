@@ -0,0 +1,169 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for MappedGraph.
+ *
+ * MappedGraph is read-only, so it cannot run the GraphInstanceTest tests;
+ * instead a graph is written, mapped again, and its observers are compared
+ * against the graph that was written.
+ */
+public class MappedGraphTest {
+
+    // Testing strategy for MappedGraph
+    //   graph written: empty, vertices without edges, edges in both directions, loop,
+    //                  non-ASCII labels, many random edges, non-String labels
+    //   observers: vertices(), targets(), sources(), id(), label(), weight(), forEachTarget()
+    //   mutators throw UnsupportedOperationException
+    //   file: not a graph file, truncated; labels with equal toString() rejected by write()
+
+    private static final String vertex1 = "v1";
+    private static final String vertex2 = "v2";
+    private static final String vertex3 = "caf\u00e9";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static Graph<String> exampleGraph() {
+        Graph<String> graph = new ConcreteEdgesGraph<>();
+        graph.set(vertex1, vertex2, 10);
+        graph.set(vertex2, vertex1, 20);
+        graph.set(vertex3, vertex2, 30);
+        graph.set(vertex2, vertex2, 40);
+        graph.add("isolated");
+        return graph;
+    }
+
+    private MappedGraph writeAndOpen(Graph<?> graph) throws IOException {
+        File file = folder.newFile();
+        MappedGraph.write(graph, file);
+        return MappedGraph.open(file);
+    }
+
+    private static void assertSameGraph(Graph<String> expected, Graph<String> actual) {
+        assertEquals("Expected same vertices", expected.vertices(), actual.vertices());
+        for (String vertex : expected.vertices()) {
+            assertEquals("Expected same targets of " + vertex, expected.targets(vertex), actual.targets(vertex));
+            assertEquals("Expected same sources of " + vertex, expected.sources(vertex), actual.sources(vertex));
+        }
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        MappedGraph mapped = writeAndOpen(new ConcreteEdgesGraph<String>());
+        assertEquals("Expected no vertices", Collections.emptySet(), mapped.vertices());
+        assertTrue("Expected no targets", mapped.targets(vertex1).isEmpty());
+    }
+
+    @Test
+    public void testSameVerticesAndEdges() throws IOException {
+        Graph<String> graph = exampleGraph();
+        MappedGraph mapped = writeAndOpen(graph);
+        assertSameGraph(graph, mapped);
+        assertEquals("Expected 4 edges", 4, mapped.edgeCount());
+        assertFalse("Expected vertex not in graph", mapped.vertices().contains("v"));
+        assertNull("Expected no edge", mapped.targets(vertex1).get(vertex3));
+    }
+
+    @Test
+    public void testPrimitiveObservers() throws IOException {
+        MappedGraph mapped = writeAndOpen(exampleGraph());
+        int id1 = mapped.id(vertex1);
+        int id2 = mapped.id(vertex2);
+        assertEquals("Expected label of id", vertex3, mapped.label(mapped.id(vertex3)));
+        assertEquals("Expected -1 for vertex not in graph", -1, mapped.id("missing"));
+        assertEquals("Expected weight 10", 10, mapped.weight(id1, id2));
+        assertEquals("Expected no edge", 0, mapped.weight(id1, id1));
+        int[] sum = new int[1];
+        mapped.forEachTarget(id2, (target, weight) -> sum[0] += weight);
+        assertEquals("Expected weights of targets of v2", 60, sum[0]);
+    }
+
+    @Test
+    public void testManyEdges() throws IOException {
+        Graph<String> graph = new IntGraph<>();
+        Random random = new Random(10);
+        for (int i = 0; i < 5000; i++) {
+            graph.set("v" + random.nextInt(500), "v" + random.nextInt(500), random.nextInt(100) + 1);
+        }
+        assertSameGraph(graph, writeAndOpen(graph));
+    }
+
+    @Test
+    public void testNonStringLabels() throws IOException {
+        Graph<Integer> graph = new ConcreteEdgesGraph<>();
+        graph.set(1, 2, 5);
+        MappedGraph mapped = writeAndOpen(graph);
+        assertEquals("Expected labels written as strings", Collections.singletonMap("2", 5), mapped.targets("1"));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testEqualStringFormsRejected() throws IOException {
+        Graph<Object> graph = new ConcreteEdgesGraph<>();
+        graph.add(1);
+        graph.add("1");
+        MappedGraph.write(graph, folder.newFile());
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testSetUnsupported() throws IOException {
+        writeAndOpen(exampleGraph()).set(vertex1, vertex3, 1);
+    }
+
+    @Test(expected=IOException.class)
+    public void testNotAGraphFile() throws IOException {
+        File file = folder.newFile();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write("v1 -> v2: 10\n".getBytes("UTF-8"));
+        }
+        MappedGraph.open(file);
+    }
+
+    @Test(expected=IOException.class)
+    public void testTruncatedFile() throws IOException {
+        File file = folder.newFile();
+        MappedGraph.write(exampleGraph(), file);
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.setLength(file.length() - 3);
+        }
+        MappedGraph.open(file);
+    }
+
+    @Test
+    public void testForEachEdge() throws IOException {
+        MappedGraph graph = writeAndOpen(exampleGraph());
+        int[] edgesAndWeights = new int[2];
+        graph.forEachEdge((source, target, weight) -> {
+            assertEquals("Expected edge in targets()", (Integer) weight, graph.targets(source).get(target));
+            edgesAndWeights[0]++;
+            edgesAndWeights[1] += weight;
+        });
+        assertEquals("Expected 4 edges", 4, edgesAndWeights[0]);
+        assertEquals("Expected total weight", 100, edgesAndWeights[1]);
+        Map<String, Integer> targets = new HashMap<>();
+        graph.forEachTarget(vertex2, (target, weight) -> targets.put(target, weight));
+        assertEquals("Expected visited targets to equal targets()", graph.targets(vertex2), targets);
+    }
+}
@@ -0,0 +1,121 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for OffHeapGraph.
+ *
+ * This class runs the GraphInstanceTest tests against OffHeapGraph, as
+ * well as tests for that particular implementation.
+ *
+ * Tests against the Graph spec should be in GraphInstanceTest.
+ */
+public class OffHeapGraphTest extends GraphInstanceTest {
+
+    /*
+     * Provide an OffHeapGraph for tests in GraphInstanceTest.
+     */
+    @Override public Graph<String> emptyInstance() {
+        return new OffHeapGraph();
+    }
+
+    /*
+     * Testing OffHeapGraph...
+     */
+
+    // Testing strategy for OffHeapGraph
+    //   labels: ASCII, multi-byte UTF-8, empty, labels sharing a hash table probe sequence
+    //   growth: many more vertices and edges than the initial buffers hold
+    //   random add/set/merge/remove compared against a HashMap model
+    //   close(), then any operation, expect IllegalStateException
+
+    @Test
+    public void testNonAsciiLabels() {
+    	OffHeapGraph graph = new OffHeapGraph();
+    	graph.set("caf\u00e9", "\u65e5\u672c", 3);
+    	graph.add("");
+    	assertEquals("Expected non-ASCII target", (Integer) 3, graph.targets("caf\u00e9").get("\u65e5\u672c"));
+    	assertTrue("Expected empty label", graph.vertices().contains(""));
+    	assertFalse("Expected different label not found", graph.vertices().contains("cafe"));
+    }
+
+    @Test
+    public void testGrowsPastInitialCapacity() {
+    	OffHeapGraph graph = new OffHeapGraph(1, 1);
+    	int n = 5000;
+    	for (int i = 0; i < n; i++) {
+    		graph.set("v" + i, "v" + ((i * 7) % n), i + 1);
+    	}
+    	assertEquals("Expected n vertices", n, graph.vertices().size());
+    	for (int i = 0; i < n; i++) {
+    		assertEquals("Expected weight of edge " + i,
+    				(Integer) (i + 1), graph.targets("v" + i).get("v" + ((i * 7) % n)));
+    	}
+    }
+
+    @Test
+    public void testRandomOperationsAgainstModel() {
+    	OffHeapGraph graph = new OffHeapGraph(4, 4);
+    	Map<String, Map<String, Integer>> model = new HashMap<>();
+    	Random random = new Random(9);
+    	for (int step = 0; step < 20000; step++) {
+    		String source = "v" + random.nextInt(60);
+    		String target = "v" + random.nextInt(60);
+    		int operation = random.nextInt(10);
+    		if (operation == 0) {
+    			boolean inModel = model.remove(source) != null;
+    			for (Map<String, Integer> targets : model.values()) {
+    				targets.remove(source);
+    			}
+    			assertEquals("Expected remove() result", inModel, graph.remove(source));
+    		} else {
+    			model.putIfAbsent(source, new HashMap<>());
+    			model.putIfAbsent(target, new HashMap<>());
+    			Integer previous = model.get(source).get(target);
+    			int weight = random.nextInt(4);
+    			int result;
+    			if (operation < 4) {
+    				result = graph.merge(source, target, weight + 1);
+    				model.get(source).put(target, (previous == null ? 0 : previous) + weight + 1);
+    			} else {
+    				result = graph.set(source, target, weight);
+    				if (weight == 0) {
+    					model.get(source).remove(target);
+    				} else {
+    					model.get(source).put(target, weight);
+    				}
+    			}
+    			assertEquals("Expected previous weight", previous == null ? 0 : (int) previous, result);
+    		}
+    	}
+    	assertEquals("Expected same vertices", model.keySet(), graph.vertices());
+    	for (String vertex : model.keySet()) {
+    		assertEquals("Expected same targets of " + vertex, model.get(vertex), graph.targets(vertex));
+    		Map<String, Integer> sources = new HashMap<>();
+    		for (String source : model.keySet()) {
+    			Integer weight = model.get(source).get(vertex);
+    			if (weight != null) {
+    				sources.put(source, weight);
+    			}
+    		}
+    		assertEquals("Expected same sources of " + vertex, sources, graph.sources(vertex));
+    	}
+    }
+
+    @Test(expected=IllegalStateException.class)
+    public void testClosed() {
+    	OffHeapGraph graph = new OffHeapGraph();
+    	graph.add("v1");
+    	graph.close();
+    	graph.vertices();
+    }
+}
@@ -0,0 +1,145 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for TopKGraph.
+ *
+ * This class runs the GraphInstanceTest tests against TopKGraph, as
+ * well as tests for that particular implementation.
+ *
+ * Tests against the Graph spec should be in GraphInstanceTest.
+ */
+public class TopKGraphTest extends GraphInstanceTest {
+
+    /*
+     * Provide a TopKGraph for tests in GraphInstanceTest.
+     */
+    @Override public Graph<String> emptyInstance() {
+        return new TopKGraph<String>();
+    }
+
+    /*
+     * Testing TopKGraph...
+     */
+
+    // Testing strategy for TopKGraph
+    //   topTargets(), topSources(): vertex missing, vertex without edges, k 0, k less than and
+    //                               more than the number of neighbors, k negative
+    //   weights: distinct, equal (ordered by age)
+    //   mutations: set() new edge, raise and lower weight, set() to 0, merge(), remove() vertex
+    //              with a loop, wrapping a graph that already has edges
+    //   random mutations compared against sorting targets() and sources()
+
+    @Test
+    public void testTopOfMissingVertex() {
+        TopKGraph<String> graph = new TopKGraph<>();
+        graph.add("a");
+        assertEquals("Expected no targets", Collections.emptyMap(), graph.topTargets("a", 3));
+        assertEquals("Expected no sources", Collections.emptyMap(), graph.topSources("zzz", 3));
+    }
+
+    @Test
+    public void testTopOrder() {
+        TopKGraph<String> graph = new TopKGraph<>();
+        graph.set("a", "b", 2);
+        graph.set("a", "c", 5);
+        graph.set("a", "d", 2);
+        graph.set("a", "e", 1);
+        assertEquals("Expected heaviest first, ties oldest first",
+                Arrays.asList("c", "b", "d"), new ArrayList<>(graph.topTargets("a", 3).keySet()));
+        assertEquals("Expected weight of heaviest", (Integer) 5, graph.topTargets("a", 1).get("c"));
+        assertEquals("Expected every target", 4, graph.topTargets("a", 10).size());
+        assertTrue("Expected no targets for k 0", graph.topTargets("a", 0).isEmpty());
+        assertEquals("Expected source", Collections.singletonMap("a", 5), graph.topSources("c", 2));
+    }
+
+    @Test
+    public void testUpdates() {
+        TopKGraph<String> graph = new TopKGraph<>();
+        graph.set("a", "b", 2);
+        graph.set("a", "c", 5);
+        graph.set("a", "b", 7);
+        assertEquals("Expected raised weight first", Arrays.asList("b", "c"),
+                new ArrayList<>(graph.topTargets("a", 2).keySet()));
+        graph.merge("a", "c", 3);
+        assertEquals("Expected merged weight first", (Integer) 8, graph.topTargets("a", 1).get("c"));
+        graph.set("a", "c", 0);
+        assertEquals("Expected removed edge gone", Collections.singletonMap("b", 7), graph.topTargets("a", 2));
+        assertTrue("Expected no sources of c", graph.topSources("c", 2).isEmpty());
+    }
+
+    @Test
+    public void testRemoveVertex() {
+        TopKGraph<String> graph = new TopKGraph<>();
+        graph.set("a", "b", 1);
+        graph.set("b", "b", 2);
+        graph.set("b", "c", 3);
+        assertTrue("Expected vertex removed", graph.remove("b"));
+        assertTrue("Expected no targets of a", graph.topTargets("a", 2).isEmpty());
+        assertTrue("Expected no sources of c", graph.topSources("c", 2).isEmpty());
+        assertTrue("Expected no targets of b", graph.topTargets("b", 2).isEmpty());
+        assertFalse("Expected missing vertex", graph.remove("b"));
+    }
+
+    @Test
+    public void testWrapExistingGraph() {
+        Graph<String> inner = new ConcreteEdgesGraph<>();
+        inner.set("a", "b", 1);
+        inner.set("a", "c", 9);
+        TopKGraph<String> graph = new TopKGraph<>(inner);
+        assertEquals("Expected existing edges indexed", Collections.singletonMap("c", 9), graph.topTargets("a", 1));
+        graph.set("a", "d", 4);
+        assertEquals("Expected edge set on wrapped graph", (Integer) 4, inner.targets("a").get("d"));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNegativeK() {
+        new TopKGraph<String>().topSources("a", -1);
+    }
+
+    @Test
+    public void testRandomMutations() {
+        Random random = new Random(16);
+        TopKGraph<Integer> graph = new TopKGraph<>(new IntGraph<Integer>());
+        for (int step = 0; step < 5000; step++) {
+            int source = random.nextInt(30);
+            int target = random.nextInt(30);
+            int choice = random.nextInt(10);
+            if (choice < 5) {
+                graph.set(source, target, random.nextInt(8));
+            } else if (choice < 9) {
+                graph.merge(source, target, 1 + random.nextInt(3));
+            } else {
+                graph.remove(source);
+            }
+        }
+        for (int vertex = 0; vertex < 30; vertex++) {
+            int k = 1 + random.nextInt(6);
+            checkTop(graph.targets(vertex), graph.topTargets(vertex, k), k);
+            checkTop(graph.sources(vertex), graph.topSources(vertex, k), k);
+        }
+    }
+
+    private static void checkTop(Map<Integer, Integer> neighbors, Map<Integer, Integer> top, int k) {
+        List<Integer> weights = new ArrayList<>(neighbors.values());
+        Collections.sort(weights, Collections.reverseOrder());
+        List<Integer> expected = weights.subList(0, Math.min(k, weights.size()));
+        assertEquals("Expected heaviest weights", expected, new ArrayList<>(top.values()));
+        for (Map.Entry<Integer, Integer> entry : top.entrySet()) {
+            assertEquals("Expected weight of neighbor", neighbors.get(entry.getKey()), entry.getValue());
+        }
+    }
+}
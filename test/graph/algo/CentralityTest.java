@@ -0,0 +1,218 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.algo;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import graph.ConcreteEdgesGraph;
+import graph.Graph;
+import graph.IntGraph;
+
+/**
+ * Tests for Centrality and VertexScores.
+ */
+public class CentralityTest {
+
+    // Testing strategy for Centrality
+    //   graph: empty, cycle, vertex without outgoing edges, loop, random graph with more than one task,
+    //          skewed in-degrees, skewed out-degrees (ranges balanced by the edges each pass walks)
+    //   pool parallelism: 1, 4
+    //   pageRank parameters: defaults, damping 0 and 1, maxIterations 1, out of range
+    //   weightedInDegree, weightedOutDegree, hubs: k 0, less than and more than the number of vertices
+    // Testing strategy for VertexScores
+    //   score(): vertex in the graph, vertex not in the graph
+    //   top(): k negative, k 0, k positive; asMap()
+
+    private static final double EPSILON = 1e-9;
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmptyGraph() {
+        Graph<String> graph = new ConcreteEdgesGraph<>();
+        assertEquals("Expected no ranks", Collections.emptyMap(), Centrality.pageRank(graph).asMap());
+        assertEquals("Expected no hubs", Collections.emptyList(), Centrality.hubs(graph, 3, ForkJoinPool.commonPool()));
+    }
+
+    @Test
+    public void testCycle() {
+        Graph<String> graph = new ConcreteEdgesGraph<>();
+        graph.set("a", "b", 1);
+        graph.set("b", "c", 2);
+        graph.set("c", "a", 3);
+        VertexScores<String> ranks = Centrality.pageRank(graph);
+        for (String vertex : graph.vertices()) {
+            assertEquals("Expected uniform rank", 1.0 / 3, ranks.score(vertex), EPSILON);
+        }
+        assertEquals("Expected 0 for missing vertex", 0, ranks.score("zzz"), 0);
+    }
+
+    @Test
+    public void testDanglingVertexAndDamping() {
+        // a -> b, b has no outgoing edges and jumps anywhere
+        Graph<String> graph = new ConcreteEdgesGraph<>();
+        graph.set("a", "b", 5);
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        VertexScores<String> uniform = Centrality.pageRank(graph, 0, 0, 10, pool);
+        assertEquals("Expected uniform rank without damping", 0.5, uniform.score("a"), EPSILON);
+        VertexScores<String> ranks = Centrality.pageRank(graph, 1, 1e-12, 1000, pool);
+        // pure walk: a -> b, then b -> a or b with equal probability
+        assertEquals("Expected stationary rank of a", 1.0 / 3, ranks.score("a"), 1e-6);
+        assertEquals("Expected stationary rank of b", 2.0 / 3, ranks.score("b"), 1e-6);
+        VertexScores<String> once = Centrality.pageRank(graph, 1, 0, 1, pool);
+        assertEquals("Expected one step from uniform", 0.25, once.score("a"), EPSILON);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testDampingOutOfRange() {
+        Centrality.pageRank(new ConcreteEdgesGraph<String>(), 1.5, 0, 10, ForkJoinPool.commonPool());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNoIterations() {
+        Centrality.pageRank(new ConcreteEdgesGraph<String>(), 0.85, 0, 0, ForkJoinPool.commonPool());
+    }
+
+    @Test
+    public void testDegreesAndHubs() {
+        Graph<String> graph = new ConcreteEdgesGraph<>();
+        graph.set("a", "b", 1);
+        graph.set("a", "c", 2);
+        graph.set("c", "c", 4);
+        graph.set("b", "a", 3);
+        graph.add("isolated");
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        VertexScores<String> in = Centrality.weightedInDegree(graph, pool);
+        VertexScores<String> out = Centrality.weightedOutDegree(graph, pool);
+        assertEquals("Expected in-degree of c", 6, in.score("c"), 0);
+        assertEquals("Expected out-degree of a", 3, out.score("a"), 0);
+        assertEquals("Expected 0 for isolated", 0, out.score("isolated"), 0);
+        // totals: a 6, b 4, c 10, isolated 0
+        assertEquals("Expected hubs by total weight", Arrays.asList("c", "a"), Centrality.hubs(graph, 2, pool));
+        assertEquals("Expected every vertex", 4, Centrality.hubs(graph, 10, pool).size());
+        assertEquals("Expected no hubs", Collections.emptyList(), Centrality.hubs(graph, 0, pool));
+        assertEquals("Expected top by in-degree", Arrays.asList("c", "a", "b"), in.top(3));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNegativeTop() {
+        Centrality.pageRank(new ConcreteEdgesGraph<String>()).top(-1);
+    }
+
+    @Test
+    public void testRandomGraphAgainstSequential() {
+        Random random = new Random(15);
+        Graph<Integer> graph = new IntGraph<>();
+        int n = 20000;
+        for (int v = 0; v < n; v++) {
+            graph.add(v);
+        }
+        for (int i = 0; i < 5 * n; i++) {
+            // skewed targets, so some vertices have many more incoming edges than others
+            int target = (int) (n * Math.pow(random.nextDouble(), 3));
+            graph.set(random.nextInt(n), target, 1 + random.nextInt(9));
+        }
+        double[] expected = sequentialPageRank(graph, n, 0.85, 50);
+        for (int parallelism : new int[] { 1, 4 }) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                VertexScores<Integer> ranks = Centrality.pageRank(graph, 0.85, 0, 50, pool);
+                double total = 0;
+                for (int v = 0; v < n; v++) {
+                    assertEquals("Expected sequential rank of " + v, expected[v], ranks.score(v), 1e-12);
+                    total += ranks.score(v);
+                }
+                assertEquals("Expected ranks to sum to 1", 1, total, 1e-9);
+                Map<Integer, Double> in = Centrality.weightedInDegree(graph, pool).asMap();
+                for (int v = 0; v < n; v++) {
+                    int degree = 0;
+                    for (int weight : graph.sources(v).values()) {
+                        degree += weight;
+                    }
+                    assertEquals("Expected in-degree of " + v, degree, in.get(v), 0);
+                }
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Test
+    public void testSkewedOutDegreesAgainstSequential() {
+        Random random = new Random(16);
+        Graph<Integer> graph = new IntGraph<>();
+        int n = 20000;
+        for (int v = 0; v < n; v++) {
+            graph.add(v);
+        }
+        for (int i = 0; i < 5 * n; i++) {
+            // skewed sources, so a few low ids have most outgoing edges
+            int source = (int) (n * Math.pow(random.nextDouble(), 3));
+            graph.set(source, random.nextInt(n), 1 + random.nextInt(9));
+        }
+        double[] expected = sequentialPageRank(graph, n, 0.85, 20);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            VertexScores<Integer> ranks = Centrality.pageRank(graph, 0.85, 0, 20, pool);
+            Map<Integer, Double> out = Centrality.weightedOutDegree(graph, pool).asMap();
+            long[] total = new long[n];
+            long maxTotal = 0;
+            for (int v = 0; v < n; v++) {
+                assertEquals("Expected sequential rank of " + v, expected[v], ranks.score(v), 1e-12);
+                int degree = 0;
+                for (int weight : graph.targets(v).values()) {
+                    degree += weight;
+                }
+                assertEquals("Expected out-degree of " + v, degree, out.get(v), 0);
+                total[v] += degree;
+                for (int weight : graph.sources(v).values()) {
+                    total[v] += weight;
+                }
+                maxTotal = Math.max(maxTotal, total[v]);
+            }
+            int hub = Centrality.hubs(graph, 1, pool).get(0);
+            assertEquals("Expected the hub to have the largest total weight", maxTotal, total[hub]);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static double[] sequentialPageRank(Graph<Integer> graph, int n, double damping, int iterations) {
+        double[] rank = new double[n];
+        Arrays.fill(rank, 1.0 / n);
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            double[] next = new double[n];
+            double dangling = 0;
+            for (int u = 0; u < n; u++) {
+                Map<Integer, Integer> targets = graph.targets(u);
+                long outWeight = 0;
+                for (int weight : targets.values()) {
+                    outWeight += weight;
+                }
+                if (outWeight == 0) {
+                    dangling += rank[u];
+                }
+                for (Map.Entry<Integer, Integer> edge : targets.entrySet()) {
+                    next[edge.getKey()] += damping * rank[u] * edge.getValue() / outWeight;
+                }
+            }
+            for (int v = 0; v < n; v++) {
+                next[v] += (1 - damping) / n + damping * dangling / n;
+            }
+            rank = next;
+        }
+        return rank;
+    }
+}
@@ -0,0 +1,196 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.algo;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import graph.ConcreteEdgesGraph;
+import graph.Graph;
+import graph.IntGraph;
+
+/**
+ * Tests for ShortestPaths and Path.
+ */
+public class ShortestPathsTest {
+
+    // Testing strategy for ShortestPaths
+    //   query: distance(), shortestPath(), shortestPathBidirectional(), shortestPathWithinHops()
+    //   cost: WEIGHT, INVERSE_WEIGHT
+    //   source and target: same vertex, target reachable, target unreachable, vertex not in graph
+    //   path: one edge, several edges, cheaper path with more edges than another
+    //   maxHops: 0, less than the hops of the cheapest path, at least the hops of the cheapest path
+    //   engine: one query, many queries on the same engine, compared against
+    //           Bellman-Ford on random graphs
+    //   graph mutated after the engine was created
+
+    private static final double EPSILON = 1e-9;
+
+    // a -1-> b -1-> c -1-> d, and a -5-> d
+    private static Graph<String> exampleGraph() {
+        Graph<String> graph = new ConcreteEdgesGraph<>();
+        graph.set("a", "b", 1);
+        graph.set("b", "c", 1);
+        graph.set("c", "d", 1);
+        graph.set("a", "d", 5);
+        graph.add("isolated");
+        return graph;
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testSameVertex() {
+        ShortestPaths<String> engine = new ShortestPaths<>(exampleGraph(), Cost.WEIGHT);
+        assertEquals("Expected zero distance", 0, engine.distance("a", "a"), EPSILON);
+        assertEquals("Expected one-vertex path", Arrays.asList("a"), engine.shortestPath("a", "a").vertices());
+        assertEquals("Expected one-vertex path", Arrays.asList("a"), engine.shortestPathBidirectional("a", "a").vertices());
+        assertEquals("Expected one-vertex path", Arrays.asList("a"), engine.shortestPathWithinHops("a", "a", 0).vertices());
+    }
+
+    @Test
+    public void testWeightCost() {
+        ShortestPaths<String> engine = new ShortestPaths<>(exampleGraph(), Cost.WEIGHT);
+        List<String> expected = Arrays.asList("a", "b", "c", "d");
+        assertEquals("Expected cost of light path", 3, engine.distance("a", "d"), EPSILON);
+        Path<String> path = engine.shortestPath("a", "d");
+        assertEquals("Expected light path", expected, path.vertices());
+        assertEquals("Expected 3 hops", 3, path.hops());
+        assertEquals("Expected source", "a", path.source());
+        assertEquals("Expected target", "d", path.target());
+        assertEquals("Expected same path", path, engine.shortestPathBidirectional("a", "d"));
+        assertEquals("Expected same path", path, engine.shortestPathWithinHops("a", "d", 3));
+    }
+
+    @Test
+    public void testInverseWeightCost() {
+        ShortestPaths<String> engine = new ShortestPaths<>(exampleGraph(), Cost.INVERSE_WEIGHT);
+        List<String> expected = Arrays.asList("a", "d");
+        assertEquals("Expected cost of heavy edge", 0.2, engine.distance("a", "d"), EPSILON);
+        assertEquals("Expected heavy edge", expected, engine.shortestPath("a", "d").vertices());
+        assertEquals("Expected heavy edge", expected, engine.shortestPathBidirectional("a", "d").vertices());
+    }
+
+    @Test
+    public void testUnreachable() {
+        ShortestPaths<String> engine = new ShortestPaths<>(exampleGraph(), Cost.WEIGHT);
+        assertEquals("Expected infinite distance", Double.POSITIVE_INFINITY, engine.distance("d", "a"), 0);
+        assertNull("Expected no path", engine.shortestPath("a", "isolated"));
+        assertNull("Expected no path", engine.shortestPathBidirectional("d", "a"));
+        assertNull("Expected no path", engine.shortestPathWithinHops("b", "a", 5));
+    }
+
+    @Test
+    public void testMissingVertex() {
+        ShortestPaths<String> engine = new ShortestPaths<>(exampleGraph(), Cost.WEIGHT);
+        assertEquals("Expected infinite distance", Double.POSITIVE_INFINITY, engine.distance("a", "zzz"), 0);
+        assertNull("Expected no path", engine.shortestPath("zzz", "a"));
+        assertNull("Expected no path", engine.shortestPathBidirectional("a", "zzz"));
+        assertNull("Expected no path", engine.shortestPathWithinHops("zzz", "zzz", 1));
+    }
+
+    @Test
+    public void testWithinHops() {
+        ShortestPaths<String> engine = new ShortestPaths<>(exampleGraph(), Cost.WEIGHT);
+        assertNull("Expected no path with 0 hops", engine.shortestPathWithinHops("a", "d", 0));
+        Path<String> path = engine.shortestPathWithinHops("a", "d", 2);
+        assertEquals("Expected direct edge", Arrays.asList("a", "d"), path.vertices());
+        assertEquals("Expected cost of direct edge", 5, path.cost(), EPSILON);
+        assertEquals("Expected light path", 3, engine.shortestPathWithinHops("a", "d", 10).cost(), EPSILON);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNegativeHops() {
+        new ShortestPaths<>(exampleGraph(), Cost.WEIGHT).shortestPathWithinHops("a", "d", -1);
+    }
+
+    @Test
+    public void testSnapshot() {
+        Graph<String> graph = exampleGraph();
+        ShortestPaths<String> engine = new ShortestPaths<>(graph, Cost.WEIGHT);
+        graph.set("a", "d", 1);
+        assertEquals("Expected distance in the snapshot", 3, engine.distance("a", "d"), EPSILON);
+    }
+
+    @Test
+    public void testRandomGraphsAgainstBellmanFord() {
+        Random random = new Random(14);
+        for (int round = 0; round < 20; round++) {
+            int n = 1 + random.nextInt(40);
+            Graph<Integer> graph = new IntGraph<>();
+            for (int v = 0; v < n; v++) {
+                graph.add(v);
+            }
+            int m = random.nextInt(4 * n);
+            for (int i = 0; i < m; i++) {
+                graph.set(random.nextInt(n), random.nextInt(n), 1 + random.nextInt(20));
+            }
+            for (Cost cost : Cost.values()) {
+                ShortestPaths<Integer> engine = new ShortestPaths<>(graph, cost);
+                for (int query = 0; query < 20; query++) {
+                    int s = random.nextInt(n);
+                    int t = random.nextInt(n);
+                    int maxHops = random.nextInt(6);
+                    double expected = bellmanFord(graph, cost, s, t, n);
+                    double expectedWithinHops = bellmanFord(graph, cost, s, t, maxHops);
+                    assertEquals("Expected Dijkstra distance", expected, engine.distance(s, t), EPSILON);
+                    checkPath(graph, cost, s, t, expected, engine.shortestPath(s, t));
+                    checkPath(graph, cost, s, t, expected, engine.shortestPathBidirectional(s, t));
+                    Path<Integer> withinHops = engine.shortestPathWithinHops(s, t, maxHops);
+                    checkPath(graph, cost, s, t, expectedWithinHops, withinHops);
+                    assertTrue("Expected at most maxHops", withinHops == null || withinHops.hops() <= maxHops);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return cost of a cheapest path from s to t with at most maxHops edges,
+     *         or infinity if there is none
+     */
+    private static double bellmanFord(Graph<Integer> graph, Cost cost, int s, int t, int maxHops) {
+        double[] dist = new double[graph.vertices().size()];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        dist[s] = 0;
+        for (int h = 0; h < maxHops; h++) {
+            double[] next = dist.clone();
+            for (int u = 0; u < dist.length; u++) {
+                if (dist[u] < Double.POSITIVE_INFINITY) {
+                    for (java.util.Map.Entry<Integer, Integer> edge : graph.targets(u).entrySet()) {
+                        next[edge.getKey()] = Math.min(next[edge.getKey()], dist[u] + cost.of(edge.getValue()));
+                    }
+                }
+            }
+            dist = next;
+        }
+        return dist[t];
+    }
+
+    private static void checkPath(Graph<Integer> graph, Cost cost, int s, int t, double expected, Path<Integer> path) {
+        if (expected == Double.POSITIVE_INFINITY) {
+            assertNull("Expected no path from " + s + " to " + t, path);
+            return;
+        }
+        assertNotNull("Expected path from " + s + " to " + t, path);
+        assertEquals("Expected source", (Integer) s, path.source());
+        assertEquals("Expected target", (Integer) t, path.target());
+        assertEquals("Expected cheapest cost", expected, path.cost(), EPSILON);
+        double sum = 0;
+        List<Integer> vertices = path.vertices();
+        for (int i = 0; i + 1 < vertices.size(); i++) {
+            Integer weight = graph.targets(vertices.get(i)).get(vertices.get(i + 1));
+            assertNotNull("Expected edge on path", weight);
+            sum += cost.of(weight);
+        }
+        assertEquals("Expected cost to match edges", sum, path.cost(), EPSILON);
+    }
+}
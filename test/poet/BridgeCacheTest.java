@@ -0,0 +1,202 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import graph.GraphEvent;
+import graph.ListenableGraph;
+
+/**
+ * Tests for the bridge word cache of GraphPoet, and BridgeCache.
+ */
+public class BridgeCacheTest {
+
+    // Testing strategy
+    //   lookups: first of a pair (miss), repeated (hit), pair with and without a bridge word
+    //   size: 1, smaller than the pairs looked up, larger; not a power of two
+    //   graph changed: through setToGraph(), through getGraph(), inside a batch of getGraph(), never
+    //   poet: without a cache, with a cache; invalid size
+    //   threads: one, several looking up the same pairs
+    //   results compared with a poet without a cache
+
+    private static final File CORPUS = new File("test/poet/test.txt");
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    private static GraphPoet cachedPoet(int size) throws IOException {
+        return GraphPoet.builder().bridgeCacheSize(size).build(CORPUS);
+    }
+
+    @Test
+    public void testNoCache() throws IOException {
+        GraphPoet poet = new GraphPoet(CORPUS);
+        assertEquals("Expected a bridge word", "in", poet.getBridgeWord("end", "fire"));
+        BridgeCacheStats stats = poet.bridgeCacheStats();
+        assertEquals("Expected no hits without a cache", 0, stats.hits());
+        assertEquals("Expected no misses without a cache", 0, stats.misses());
+        assertEquals("Expected no cache", 0, stats.maximumSize());
+        assertEquals("Expected hit rate 0 without lookups", 0.0, stats.hitRate(), 0);
+    }
+
+    @Test
+    public void testHitsAndNegativeResults() throws IOException {
+        GraphPoet poet = cachedPoet(100);
+        assertEquals("Expected a bridge word", "in", poet.getBridgeWord("end", "fire"));
+        assertTrue("Expected a bridge word", poet.bridgeAvailable("end", "fire"));
+        assertFalse("Expected no bridge word", poet.bridgeAvailable("fire", "end"));
+        assertEquals("Expected no bridge word", "", poet.getBridgeWord("fire", "end"));
+        BridgeCacheStats stats = poet.bridgeCacheStats();
+        assertEquals("Expected a miss per pair", 2, stats.misses());
+        assertEquals("Expected repeated pairs, also without a bridge, to hit", 2, stats.hits());
+        assertEquals("Expected both pairs cached", 2, stats.size());
+        assertEquals("Expected half the lookups to hit", 0.5, stats.hitRate(), 0);
+    }
+
+    @Test
+    public void testSameAsUncached() throws IOException {
+        GraphPoet uncached = new GraphPoet(CORPUS);
+        String input = "Test the system. End fire, seek new life in the end of the test.";
+        for (int size : new int[] { 1, 3, 1000 }) {
+            GraphPoet poet = cachedPoet(size);
+            for (int i = 0; i < 3; i++) {
+                assertEquals("Expected same poem as without a cache", uncached.poem(input), poet.poem(input));
+            }
+        }
+    }
+
+    @Test
+    public void testEviction() throws IOException {
+        GraphPoet poet = cachedPoet(3);
+        String[] words = { "a", "b", "c", "d", "e", "f", "g" };
+        for (String first : words) {
+            for (String second : words) {
+                poet.bridgeAvailable(first, second);
+            }
+        }
+        BridgeCacheStats stats = poet.bridgeCacheStats();
+        assertTrue("Expected at most 3 pairs cached: " + stats, stats.size() <= 3);
+        assertEquals("Expected every pair but those cached to be evicted",
+                words.length * words.length - stats.size(), stats.evictions());
+        assertEquals("Expected every lookup to miss", words.length * words.length, stats.misses());
+    }
+
+    @Test
+    public void testInvalidatedBySetToGraph() throws IOException {
+        GraphPoet poet = cachedPoet(100);
+        assertFalse("Expected no bridge word yet", poet.bridgeAvailable("fire", "end"));
+        poet.setToGraph(new ArrayList<>(Arrays.asList("fire", "in", "the", "end")));
+        assertFalse("Expected still no two-edge path", poet.bridgeAvailable("fire", "end"));
+        poet.setToGraph(new ArrayList<>(Arrays.asList("fire", "the", "end")));
+        assertEquals("Expected the new bridge word", "the", poet.getBridgeWord("fire", "end"));
+    }
+
+    @Test
+    public void testInvalidatedThroughGetGraph() throws IOException {
+        GraphPoet poet = cachedPoet(100);
+        assertEquals("Expected a bridge word", "in", poet.getBridgeWord("end", "fire"));
+        poet.getGraph().set("end", "of", 100);
+        poet.getGraph().set("of", "fire", 1);
+        assertEquals("Expected the heavier new bridge word", "of", poet.getBridgeWord("end", "fire"));
+        poet.getGraph().remove("of");
+        assertEquals("Expected the old bridge word again", "in", poet.getBridgeWord("end", "fire"));
+        assertEquals("Expected every lookup after a change to miss", 3, poet.bridgeCacheStats().misses());
+    }
+
+    @Test
+    public void testInvalidatedInsideBatch() throws IOException {
+        GraphPoet poet = cachedPoet(100);
+        ListenableGraph<String> graph = (ListenableGraph<String>) poet.getGraph();
+        List<List<GraphEvent<String>>> delivered = new ArrayList<>();
+        graph.addListener(delivered::add);
+        assertEquals("Expected a bridge word", "in", poet.getBridgeWord("end", "fire"));
+        ListenableGraph<String>.Batch batch = graph.batch();
+        try {
+            graph.set("end", "of", 100);
+            graph.set("of", "fire", 1);
+            assertTrue("Expected events held back by the batch", delivered.isEmpty());
+            assertEquals("Expected the new bridge word before the batch closes",
+                    "of", poet.getBridgeWord("end", "fire"));
+            graph.remove("of");
+            assertEquals("Expected the old bridge word again before the batch closes",
+                    "in", poet.getBridgeWord("end", "fire"));
+        } finally {
+            batch.close();
+        }
+        assertEquals("Expected the events delivered once", 1, delivered.size());
+        assertEquals("Expected the bridge word after the batch", "in", poet.getBridgeWord("end", "fire"));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNegativeSize() {
+        GraphPoet.builder().bridgeCacheSize(-1);
+    }
+
+    @Test
+    public void testConcurrentLookups() throws Exception {
+        GraphPoet poet = cachedPoet(5);
+        GraphPoet uncached = new GraphPoet(CORPUS);
+        List<String> words = new ArrayList<>(uncached.getGraph().vertices());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                tasks.add(() -> {
+                    for (int round = 0; round < 20; round++) {
+                        for (String first : words) {
+                            for (String second : words) {
+                                assertEquals("Expected same bridge word as without a cache",
+                                        uncached.getBridgeWord(first, second), poet.getBridgeWord(first, second));
+                            }
+                        }
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        BridgeCacheStats stats = poet.bridgeCacheStats();
+        assertEquals("Expected every lookup counted", 4L * 20 * words.size() * words.size(),
+                stats.hits() + stats.misses());
+        assertTrue("Expected at most 5 pairs cached", stats.size() <= 5);
+    }
+
+    @Test
+    public void testBridgeCacheDirectly() {
+        int[] lookups = { 0 };
+        BridgeCache cache = new BridgeCache(6, (first, second) -> {
+            lookups[0]++;
+            return first.equals(second) ? null : first + second;
+        });
+        assertEquals("Expected looked up bridge", "ab", cache.get("a", "b"));
+        assertNull("Expected looked up missing bridge", cache.get("a", "a"));
+        assertEquals("Expected cached bridge", "ab", cache.get("a", "b"));
+        assertNull("Expected cached missing bridge", cache.get("a", "a"));
+        assertEquals("Expected one lookup per pair", 2, lookups[0]);
+        cache.invalidate();
+        assertEquals("Expected bridge looked up again", "ab", cache.get("a", "b"));
+        assertEquals("Expected lookup after invalidate", 3, lookups[0]);
+        assertEquals("Expected 6 pairs at most", 6, cache.stats().maximumSize());
+    }
+
+}
@@ -0,0 +1,141 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+
+import org.junit.Test;
+
+import graph.Graph;
+import graph.IntGraph;
+
+/**
+ * Tests for ChunkedIngestion, BigramCounter and GraphPoet.Builder.
+ */
+public class ChunkedIngestionTest {
+
+    // Testing strategy
+    //   corpus: empty, one word, test corpora, random with many distinct bigrams
+    //   chunks: one, several, more requested than whitespace allows, chunks of only whitespace,
+    //           seams inside runs of whitespace, words separated by non-ASCII whitespace
+    //   parallelism: 1, 2, many; invalid
+    //   graph: default, given, given and not empty
+    //   compared with the graph GraphPoet(File) builds
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    private static File corpus(String text) throws IOException {
+        File file = File.createTempFile("corpus", ".txt");
+        file.deleteOnExit();
+        Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static void assertSameGraph(Graph<String> expected, Graph<String> actual) {
+        assertEquals("Expected same vertices", expected.vertices(), actual.vertices());
+        for (String word : expected.vertices()) {
+            assertEquals("Expected same targets of '" + word + "'", expected.targets(word), actual.targets(word));
+        }
+    }
+
+    private static void assertSameAsSequential(File corpus) throws IOException {
+        Graph<String> expected = new GraphPoet(corpus).getGraph();
+        for (int parallelism : new int[] { 1, 2, 3, 8, 64 }) {
+            for (long minChunkBytes : new long[] { 1, 7, GraphPoet.Builder.DEFAULT_MIN_CHUNK_BYTES }) {
+                GraphPoet poet = GraphPoet.builder().parallelism(parallelism).minChunkBytes(minChunkBytes).build(corpus);
+                assertSameGraph(expected, poet.getGraph());
+            }
+        }
+    }
+
+    @Test
+    public void testEmptyAndOneWord() throws IOException {
+        assertSameAsSequential(corpus(""));
+        assertSameAsSequential(corpus("   \n\n  "));
+        assertSameAsSequential(corpus("lonely"));
+        assertSameAsSequential(corpus("  lonely\n"));
+    }
+
+    @Test
+    public void testTestCorpora() throws IOException {
+        assertSameAsSequential(new File("test/poet/test.txt"));
+        assertSameAsSequential(new File("test/poet/test2.txt"));
+    }
+
+    @Test
+    public void testSeams() throws IOException {
+        // long runs of whitespace give chunks without words; U+3000 separates words but is never a seam
+        assertSameAsSequential(corpus("a                    b\n\n\n\n\n\n\n\n\n\n\n\nc d\u3000e\u3000f  -- ,, a b a"));
+    }
+
+    @Test
+    public void testRandomCorpus() throws IOException {
+        Random random = new Random(23);
+        StringBuilder text = new StringBuilder();
+        String[] separators = { " ", " ", " ", "\n", "\t", "  ", " ", ", " };
+        for (int i = 0; i < 20000; i++) {
+            // skewed word choice, so some bigrams repeat across chunks and others are rare
+            int word = (int) Math.pow(random.nextInt(3000), 2) / 3000;
+            text.append(i % 97 == 0 ? "W" : "w").append(word).append(separators[random.nextInt(separators.length)]);
+        }
+        File file = corpus(text.toString());
+        Graph<String> expected = new GraphPoet(file).getGraph();
+        for (int parallelism : new int[] { 2, 5, 16 }) {
+            GraphPoet poet = GraphPoet.builder().parallelism(parallelism).minChunkBytes(1).build(file);
+            assertSameGraph(expected, poet.getGraph());
+        }
+    }
+
+    @Test
+    public void testGivenGraph() throws IOException {
+        File file = new File("test/poet/test2.txt");
+        Graph<String> graph = new IntGraph<>();
+        GraphPoet poet = GraphPoet.builder().graph(graph).parallelism(4).minChunkBytes(1).build(file);
+        assertSame("Expected the given graph to be used", graph, poet.getGraph());
+        assertSameGraph(new GraphPoet(file).getGraph(), graph);
+        assertEquals("Expected same poem", "Seek to explore strange new life and exciting synergies",
+                poet.poem("Seek to explore new and exciting synergies!"));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testGivenGraphNotEmpty() throws IOException {
+        Graph<String> graph = new IntGraph<>();
+        graph.add("word");
+        GraphPoet.builder().graph(graph).parallelism(4).build(new File("test/poet/test.txt"));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testParallelismNotPositive() {
+        GraphPoet.builder().parallelism(0);
+    }
+
+    @Test
+    public void testBigramCounter() {
+        BigramCounter counter = new BigramCounter();
+        for (int i = 0; i < 1000; i++) {
+            counter.add(BigramCounter.key(i, i * 7), 1);
+            counter.add(BigramCounter.key(i, i * 7), 2);
+        }
+        assertEquals("Expected 1000 bigrams", 1000, counter.size());
+        int found = 0;
+        for (int slot = 0; slot < counter.capacity(); slot++) {
+            long key = counter.keyAt(slot);
+            if (key >= 0) {
+                assertEquals("Expected second word of key", BigramCounter.first(key) * 7, BigramCounter.second(key));
+                assertEquals("Expected summed count", 3, counter.countAt(slot));
+                found++;
+            }
+        }
+        assertEquals("Expected every bigram in a slot", 1000, found);
+    }
+}
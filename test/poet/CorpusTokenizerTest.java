@@ -0,0 +1,149 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+
+import org.junit.Test;
+
+/**
+ * Tests for CorpusTokenizer.
+ */
+public class CorpusTokenizerTest {
+
+    // Testing strategy
+    //   corpus: empty, only whitespace, one word, many words
+    //   tokens: letters of both cases, digits, punctuation only, non-ASCII letters, malformed UTF-8
+    //   separators: ASCII whitespace incl. control separators, runs of whitespace,
+    //               non-ASCII whitespace, non-breaking space (not a separator)
+    //   position: whitespace straddling the end of the read buffer, reads in several ranges
+    //   compared with the Scanner and regex tokenization GraphPoet used before
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    /**
+     * @return the words of a UTF-8 file as Scanner and replaceAll() split it
+     */
+    private static List<String> expectedWords(File file) throws IOException {
+        List<String> words = new ArrayList<>();
+        try (Scanner scanner = new Scanner(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            while (scanner.hasNext()) {
+                words.add(scanner.next().replaceAll("[^a-zA-Z0-9]", "").trim().toLowerCase());
+            }
+        }
+        return words;
+    }
+
+    private static List<String> words(File file) throws IOException {
+        List<String> words = new ArrayList<>();
+        CorpusTokenizer.tokenize(file, words::add);
+        return words;
+    }
+
+    private static File corpus(byte[] bytes) throws IOException {
+        File file = File.createTempFile("corpus", ".txt");
+        file.deleteOnExit();
+        Files.write(file.toPath(), bytes);
+        return file;
+    }
+
+    private static File corpus(String text) throws IOException {
+        return corpus(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void assertSameWords(File file) throws IOException {
+        assertEquals("Expected same words as Scanner", expectedWords(file), words(file));
+    }
+
+    @Test
+    public void testEmptyAndWhitespace() throws IOException {
+        assertEquals("Expected no words", new ArrayList<String>(), words(corpus("")));
+        assertEquals("Expected no words", new ArrayList<String>(), words(corpus(" \t\r\n\u3000 ")));
+    }
+
+    @Test
+    public void testWords() throws IOException {
+        File file = corpus("Hello, HELLO, hello, goodbye!\r\n  it's 2016 -- caf\u00e9 na\u00efve\u00a0x\n");
+        List<String> expected = new ArrayList<>();
+        for (String word : new String[] { "hello", "hello", "hello", "goodbye", "its", "2016", "", "caf", "navex" }) {
+            expected.add(word);
+        }
+        assertEquals("Expected words", expected, words(file));
+        assertSameWords(file);
+    }
+
+    @Test
+    public void testUnicodeWhitespace() throws IOException {
+        assertSameWords(corpus("a\u1680b\u2000c\u2006d\u2007e\u2008f\u200ag\u2028h\u2029i\u205fj\u3000k\u202fl\u0085m"
+                + "\u001cn\u001fo\013p\fq"));
+    }
+
+    @Test
+    public void testWhitespaceAcrossBuffer() throws IOException {
+        for (int offset = 65530; offset < 65540; offset++) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            for (int i = 0; i < offset; i++) {
+                bytes.write('a');
+            }
+            bytes.write(0xE3);
+            bytes.write(0x80);
+            bytes.write(0x80);
+            bytes.write('B');
+            File file = corpus(bytes.toByteArray());
+            List<String> words = words(file);
+            assertEquals("Expected two words at offset " + offset, 2, words.size());
+            assertEquals("Expected second word", "b", words.get(1));
+        }
+    }
+
+    @Test
+    public void testRandomBytes() throws IOException {
+        // ASCII of every class, whitespace encodings and their pieces, other multi-byte characters
+        int[] alphabet = { 'a', 'Z', '7', ',', '-', ' ', '\n', '\t', 0x1e, 0xE2, 0x80, 0x81, 0xA8, 0x9F, 0x87,
+                0xE3, 0xE1, 0x9A, 0xC3, 0xA9, 0xF0, 0x9F, 0xFF };
+        Random random = new Random(22);
+        for (int round = 0; round < 20; round++) {
+            int length = round == 0 ? 300000 : random.nextInt(2000);
+            byte[] bytes = new byte[length];
+            for (int i = 0; i < length; i++) {
+                bytes[i] = (byte) alphabet[random.nextInt(alphabet.length)];
+            }
+            assertSameWords(corpus(bytes));
+        }
+    }
+
+    @Test
+    public void testReadInRanges() throws IOException {
+        File file = corpus("The quick\tbrown fox, jumps over the lazy dog.");
+        List<String> expected = expectedWords(file);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long split = 0; split <= size; split++) {
+                List<String> words = new ArrayList<>();
+                CorpusTokenizer tokenizer = new CorpusTokenizer(words::add);
+                tokenizer.read(channel, 0, split);
+                tokenizer.read(channel, split, size);
+                tokenizer.finish();
+                assertEquals("Expected same words split at " + split, expected, words);
+            }
+        }
+    }
+}
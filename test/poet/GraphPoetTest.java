@@ -8,6 +8,12 @@ import static org.junit.Assert.*;
 import org.junit.Test;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import graph.ConcreteEdgesGraph;
+import graph.Graph;
+import graph.IntGraph;
 
 /**
  * Tests for GraphPoet.
@@ -17,6 +23,9 @@ public class GraphPoetTest {
     // Testing strategy
     //   number of edges(): 0, 1 , n
 	//   methods: setToGraph(), brigdeAvailable(), getBridgeWord(), toString(), poem()
+	//   save() then load(): same graph, same poem
+	//   graph given to the constructor: other implementation, not empty
+	//   several bridge words of maximum weight, expect the first by compareTo, with every graph
     
     @Test(expected=AssertionError.class)
     public void testAssertionsEnabled() {
@@ -72,6 +81,7 @@ public class GraphPoetTest {
     	String testWord2 = "fire";
     	String expectedBridgeWord = "in";
     	assertEquals("Expected 'in' as bridge word", expectedBridgeWord, testGraphPoet.getBridgeWord(testWord1, testWord2));
+    	assertEquals("Expected empty string without a bridge word", "", testGraphPoet.getBridgeWord(testWord2, testWord1));
     }
     
     // Test toString
@@ -99,4 +109,62 @@ public class GraphPoetTest {
     	System.out.println(testGraphPoet.poem(text));
     	assertEquals("Expected poem: Seek to explore strange new life and exciting synergies", expected, testGraphPoet.poem(text));
     }
+    
+    @Test
+    public void testGraphPoetBridgeWordTies() throws IOException {
+    	File corpus = File.createTempFile("ties", ".txt");
+    	corpus.deleteOnExit();
+    	// mellow, blue and quiet all bridge calm to sea with weight 2
+    	Files.write(corpus.toPath(), "calm mellow sea calm blue sea calm quiet sea".getBytes(StandardCharsets.UTF_8));
+    	GraphPoet[] poets = {
+    			new GraphPoet(corpus),
+    			new GraphPoet(corpus, new ConcreteEdgesGraph<>()),
+    			new GraphPoet(corpus, new IntGraph<>()),
+    			GraphPoet.builder().bridgeCacheSize(10).build(corpus),
+    	};
+    	for (GraphPoet poet:poets) {
+    		assertEquals("Expected first bridge word by compareTo", "blue", poet.getBridgeWord("calm", "sea"));
+    		assertEquals("Expected poem with first bridge word", "Calm blue sea", poet.poem("Calm sea"));
+    	}
+    }
+    
+    // Test save and load
+    @Test
+    public void testGraphPoetSaveAndLoad() throws IOException {
+    	File corpus = new File("test/poet/test.txt");
+    	GraphPoet testGraphPoet = new GraphPoet(corpus);
+    	File graphFile = File.createTempFile("poet", ".graph");
+    	graphFile.deleteOnExit();
+    	testGraphPoet.save(graphFile);
+    	GraphPoet loaded = GraphPoet.load(graphFile);
+    	assertEquals("Expected same vertices", testGraphPoet.getGraph().vertices(), loaded.getGraph().vertices());
+    	for (String word:testGraphPoet.getGraph().vertices()) {
+    		assertEquals("Expected same targets", testGraphPoet.getGraph().targets(word), loaded.getGraph().targets(word));
+    	}
+    	String text = "End fire";
+    	assertEquals("Expected same poem", testGraphPoet.poem(text), loaded.poem(text));
+    }
+    
+    // Test creator with a given graph
+    @Test
+    public void testGraphPoetCreatorWithGraph() throws IOException {
+    	File corpus = new File("test/poet/test2.txt");
+    	GraphPoet defaultPoet = new GraphPoet(corpus);
+    	Graph<String> graph = new IntGraph<>();
+    	GraphPoet intPoet = new GraphPoet(corpus, graph);
+    	assertSame("Expected the given graph to be used", graph, intPoet.getGraph());
+    	assertEquals("Expected same vertices", defaultPoet.getGraph().vertices(), graph.vertices());
+    	for (String word:graph.vertices()) {
+    		assertEquals("Expected same targets", defaultPoet.getGraph().targets(word), graph.targets(word));
+    	}
+    	String text = "Seek to explore new and exciting synergies!";
+    	assertEquals("Expected same poem", defaultPoet.poem(text), intPoet.poem(text));
+    }
+    
+    @Test(expected=IllegalArgumentException.class)
+    public void testGraphPoetCreatorWithNonEmptyGraph() throws IOException {
+    	Graph<String> graph = new ConcreteEdgesGraph<>();
+    	graph.add("word");
+    	new GraphPoet(new File("test/poet/test.txt"), graph);
+    }
 }